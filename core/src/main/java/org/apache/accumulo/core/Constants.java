@@ -112,6 +112,13 @@ public class Constants {
   // fetching the next batch.
   public static final long SCANNER_DEFAULT_READAHEAD_THRESHOLD = 3L;
 
+  // Execution hint used by streaming scanners to tell the tablet server how many batches it may
+  // read ahead and return in a single response.
+  public static final String SCANNER_STREAMING_WINDOW_HINT = "accumulo.scan.streaming.window";
+
+  // Execution hint used by scanners to ask the tablet server to size batches adaptively.
+  public static final String SCANNER_ADAPTIVE_BATCH_SIZE_HINT = "accumulo.scan.batch.adaptive";
+
   public static final int MAX_DATA_TO_PRINT = 64;
   public static final String CORE_PACKAGE_NAME = "org.apache.accumulo.core";
   public static final String MAPFILE_EXTENSION = "map";
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+/**
+ * A Bloom filter whose hash probes for a key all fall in one 512 bit block, the size of a cache
+ * line. A key is hashed once to pick its block and once more to derive the bit positions in that
+ * block, so a membership test touches a single cache line where {@link BloomFilter} touches one per
+ * hash function. For the same number of bits the false positive rate is a little higher.
+ *
+ * <p>
+ * Like {@link DynamicBloomFilter}, a new row of blocks is started each time the number of keys
+ * added to the current row reaches a threshold, so the filter keeps its false positive rate when
+ * more keys are added than it was sized for. A membership test checks one block in each row.
+ */
+public class BlockedBloomFilter extends Filter {
+
+  static final int BLOCK_BITS = 512;
+  private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+
+  private int nr;
+  private int currentNbRecord;
+  private int numBlocks;
+  private long[][] rows;
+  private Hash hashFunction;
+
+  /**
+   * Zero-args constructor for the serialization.
+   */
+  public BlockedBloomFilter() {}
+
+  /**
+   * @param vectorSize
+   *          the number of bits in each row, rounded up to a multiple of the block size
+   * @param nbHash
+   *          the number of bits set for each key
+   * @param hashType
+   *          type of the hashing function (see {@link org.apache.hadoop.util.hash.Hash}).
+   * @param nr
+   *          the number of keys to add to a row before starting another
+   */
+  public BlockedBloomFilter(int vectorSize, int nbHash, int hashType, int nr) {
+    super(roundUp(vectorSize), nbHash, hashType);
+    this.nr = nr;
+    init();
+    rows = new long[][] {new long[numBlocks * BLOCK_LONGS]};
+  }
+
+  private static int roundUp(int vectorSize) {
+    return Math.max(1, (vectorSize + BLOCK_BITS - 1) / BLOCK_BITS) * BLOCK_BITS;
+  }
+
+  private void init() {
+    numBlocks = vectorSize / BLOCK_BITS;
+    hashFunction = Hash.getInstance(hashType);
+  }
+
+  /**
+   * @return the index of the first long of the key's block, in the low bits, and a second hash used
+   *         for the bit positions, in the high bits
+   */
+  private long hash(Key key) {
+    byte[] bytes = key.getBytes();
+    int h1 = hashFunction.hash(bytes, 0);
+    int h2 = hashFunction.hash(bytes, h1);
+    int block = (int) ((h1 & 0xffffffffL) % numBlocks);
+    return ((long) h2 << 32) | (block * BLOCK_LONGS);
+  }
+
+  private boolean set(long[] row, long hash) {
+    int base = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    // odd so that successive probes differ
+    int step = (h2 >>> 16) | 1;
+    boolean changed = false;
+    for (int i = 0; i < nbHash; i++) {
+      int bit = (h2 + i * step) & (BLOCK_BITS - 1);
+      long mask = 1L << bit;
+      int index = base + (bit >>> 6);
+      if ((row[index] & mask) == 0) {
+        row[index] |= mask;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  private boolean test(long[] row, long hash) {
+    int base = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    int step = (h2 >>> 16) | 1;
+    for (int i = 0; i < nbHash; i++) {
+      int bit = (h2 + i * step) & (BLOCK_BITS - 1);
+      if ((row[base + (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean add(Key key) {
+    if (key == null) {
+      throw new NullPointerException("Key can not be null");
+    }
+
+    if (currentNbRecord >= nr) {
+      rows = Arrays.copyOf(rows, rows.length + 1);
+      rows[rows.length - 1] = new long[numBlocks * BLOCK_LONGS];
+      currentNbRecord = 0;
+    }
+
+    boolean added = set(rows[rows.length - 1], hash(key));
+    if (added) {
+      currentNbRecord++;
+    }
+    return added;
+  }
+
+  @Override
+  public boolean membershipTest(Key key) {
+    if (key == null) {
+      return true;
+    }
+
+    long hash = hash(key);
+    for (long[] row : rows) {
+      if (test(row, hash)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private BlockedBloomFilter checkCompatible(Filter filter, String op) {
+    if (!(filter instanceof BlockedBloomFilter) || filter.vectorSize != vectorSize
+        || filter.nbHash != nbHash || filter.hashType != hashType
+        || ((BlockedBloomFilter) filter).rows.length != rows.length) {
+      throw new IllegalArgumentException("filters cannot be " + op);
+    }
+    return (BlockedBloomFilter) filter;
+  }
+
+  @Override
+  public void and(Filter filter) {
+    BlockedBloomFilter other = checkCompatible(filter, "and-ed");
+    for (int r = 0; r < rows.length; r++) {
+      for (int i = 0; i < rows[r].length; i++) {
+        rows[r][i] &= other.rows[r][i];
+      }
+    }
+  }
+
+  @Override
+  public void or(Filter filter) {
+    BlockedBloomFilter other = checkCompatible(filter, "or-ed");
+    for (int r = 0; r < rows.length; r++) {
+      for (int i = 0; i < rows[r].length; i++) {
+        rows[r][i] |= other.rows[r][i];
+      }
+    }
+  }
+
+  @Override
+  public void xor(Filter filter) {
+    BlockedBloomFilter other = checkCompatible(filter, "xor-ed");
+    for (int r = 0; r < rows.length; r++) {
+      for (int i = 0; i < rows[r].length; i++) {
+        rows[r][i] ^= other.rows[r][i];
+      }
+    }
+  }
+
+  @Override
+  public void not() {
+    for (long[] row : rows) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] = ~row[i];
+      }
+    }
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    super.write(out);
+    out.writeInt(nr);
+    out.writeInt(currentNbRecord);
+    out.writeInt(rows.length);
+    for (long[] row : rows) {
+      for (long bits : row) {
+        out.writeLong(bits);
+      }
+    }
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    super.readFields(in);
+    if (vectorSize % BLOCK_BITS != 0) {
+      throw new IOException("Vector size " + vectorSize + " is not a multiple of " + BLOCK_BITS);
+    }
+    init();
+    nr = in.readInt();
+    currentNbRecord = in.readInt();
+    rows = new long[in.readInt()][];
+    for (int r = 0; r < rows.length; r++) {
+      rows[r] = new long[numBlocks * BLOCK_LONGS];
+      for (int i = 0; i < rows[r].length; i++) {
+        rows[r][i] = in.readLong();
+      }
+    }
+  }
+}
@@ -217,6 +217,8 @@ public class ClientSideIteratorScanner extends ScannerOptions implements Scanner
     this.timeOut = scanner.getTimeout(TimeUnit.MILLISECONDS);
     this.batchTimeOut = scanner.getTimeout(TimeUnit.MILLISECONDS);
     this.readaheadThreshold = scanner.getReadaheadThreshold();
+    this.streamingWindow = scanner.getStreamingWindow();
+    this.adaptiveBatchSize = scanner.isAdaptiveBatchSize();
     SamplerConfiguration samplerConfig = scanner.getSamplerConfiguration();
     if (samplerConfig != null)
       setSamplerConfiguration(samplerConfig);
@@ -235,6 +237,8 @@ public class ClientSideIteratorScanner extends ScannerOptions implements Scanner
     smi.scanner.setTimeout(timeOut, TimeUnit.MILLISECONDS);
     smi.scanner.setBatchTimeout(batchTimeOut, TimeUnit.MILLISECONDS);
     smi.scanner.setReadaheadThreshold(readaheadThreshold);
+    smi.scanner.setStreamingWindow(streamingWindow);
+    smi.scanner.setAdaptiveBatchSize(adaptiveBatchSize);
     if (isolated)
       smi.scanner.enableIsolation();
     else
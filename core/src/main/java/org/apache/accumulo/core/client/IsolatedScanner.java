@@ -232,6 +232,8 @@ public class IsolatedScanner extends ScannerOptions implements Scanner {
     this.batchTimeOut = scanner.getBatchTimeout(TimeUnit.MILLISECONDS);
     this.batchSize = scanner.getBatchSize();
     this.readaheadThreshold = scanner.getReadaheadThreshold();
+    this.streamingWindow = scanner.getStreamingWindow();
+    this.adaptiveBatchSize = scanner.isAdaptiveBatchSize();
     this.bufferFactory = bufferFactory;
   }
 
@@ -358,6 +358,63 @@ public interface ScannerBase extends Iterable<Entry<Key,Value>>, AutoCloseable {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Sets the number of batches a scan may have in flight between the tablet server and this client.
+   * When greater than zero the scan streams: a background thread keeps requesting data until this
+   * many batches are buffered in the client, and the tablet server keeps reading ahead while each
+   * request is on the network, returning up to this many batches in a single response. This keeps
+   * long sequential scans from being limited by network round trip time. The client stops
+   * requesting data when the buffer is full, so memory use is bounded by the window times the batch
+   * size. Zero, the default, disables streaming.
+   *
+   * <p>
+   * Only a {@link Scanner} streams, other scanners ignore this setting.
+   *
+   * @param batches
+   *          the number of batches that may be in flight, or zero to disable streaming
+   * @throws IllegalArgumentException
+   *           if batches is negative
+   * @since 2.1.0
+   */
+  default void setStreamingWindow(int batches) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Returns the number of batches a scan may have in flight, zero when streaming is disabled.
+   *
+   * @return the streaming window configured for this scanner
+   * @since 2.1.0
+   */
+  default int getStreamingWindow() {
+    return 0;
+  }
+
+  /**
+   * Enables or disables adaptive batch sizes. When enabled, the tablet server sizes each batch from
+   * how quickly it read and the client consumed the previous batches, instead of using a fixed
+   * batch size. Scans of small values get larger batches, so that they are not limited by the
+   * number of requests, and scans with a slow consumer get smaller batches, so that the tablet
+   * server does not buffer more than is needed. The batch size set on the scanner is used for the
+   * first batch. Disabled by default.
+   *
+   * <p>
+   * Only a {@link Scanner} sizes batches adaptively, other scanners ignore this setting.
+   *
+   * @since 2.1.0
+   */
+  default void setAdaptiveBatchSize(boolean enabled) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * @return true if this scanner asks for adaptive batch sizes
+   * @since 2.1.0
+   */
+  default boolean isAdaptiveBatchSize() {
+    return false;
+  }
+
   /**
    * Iterates through Scanner results.
    *
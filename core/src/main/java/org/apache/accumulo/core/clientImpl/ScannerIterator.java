@@ -18,17 +18,24 @@
  */
 package org.apache.accumulo.core.clientImpl;
 
+import java.lang.ref.Cleaner.Cleanable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.TableDeletedException;
 import org.apache.accumulo.core.client.TableOfflineException;
@@ -39,6 +46,7 @@ import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.util.cleaner.CleanerUtil;
 import org.apache.accumulo.core.util.threads.ThreadPools;
 import org.slf4j.LoggerFactory;
 
@@ -68,7 +76,12 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
       ThreadPools.createThreadPool(0, Integer.MAX_VALUE, 3L, TimeUnit.SECONDS,
           "Accumulo scanner read ahead thread", new SynchronousQueue<>(), true);
 
-  private boolean closed = false;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  // reads batches ahead in the background when the scanner streams, otherwise null
+  private final BatchStreamer streamer;
+  // stops the streamer, set once the first batch is requested
+  private volatile Cleanable streamerStopper;
 
   ScannerIterator(ClientContext context, TableId tableId, Authorizations authorizations,
       Range range, int size, long timeOut, ScannerOptions options, boolean isolated,
@@ -84,15 +97,34 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
       range = range.bound(this.options.fetchedColumns.first(), this.options.fetchedColumns.last());
     }
 
+    Map<String,String> executionHints = this.options.executionHints;
+    int streamingWindow = this.options.streamingWindow;
+    if (streamingWindow > 0 || this.options.adaptiveBatchSize) {
+      executionHints = new HashMap<>(executionHints);
+      if (streamingWindow > 0) {
+        executionHints.put(Constants.SCANNER_STREAMING_WINDOW_HINT,
+            Integer.toString(streamingWindow));
+      }
+      if (this.options.adaptiveBatchSize) {
+        executionHints.put(Constants.SCANNER_ADAPTIVE_BATCH_SIZE_HINT, "true");
+      }
+    }
+
     scanState =
         new ScanState(context, tableId, authorizations, new Range(range), options.fetchedColumns,
             size, options.serverSideIteratorList, options.serverSideIteratorOptions, isolated,
             readaheadThreshold, options.getSamplerConfiguration(), options.batchTimeOut,
-            options.classLoaderContext, options.executionHints);
-
-    // If we want to start readahead immediately, don't wait for hasNext to be called
-    if (readaheadThreshold == 0L) {
-      initiateReadAhead();
+            options.classLoaderContext, executionHints);
+
+    if (streamingWindow > 0) {
+      // streaming starts when the first batch is requested
+      streamer = new BatchStreamer(scanState, timeOut, closed, streamingWindow);
+    } else {
+      streamer = null;
+      // If we want to start readahead immediately, don't wait for hasNext to be called
+      if (readaheadThreshold == 0L) {
+        initiateReadAhead();
+      }
     }
     iter = null;
   }
@@ -109,6 +141,7 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     iter = getNextBatch().iterator();
     if (!iter.hasNext()) {
       finished = true;
+      stopStreaming();
       reporter.finished(this);
       return false;
     }
@@ -124,12 +157,13 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   }
 
   void close() {
+    stopStreaming();
     // run actual close operation in the background so this does not block.
     readaheadPool.execute(() -> {
       synchronized (scanState) {
         // this is synchronized so its mutually exclusive with readBatch()
         try {
-          closed = true;
+          closed.set(true);
           ThriftScanner.close(scanState);
         } catch (Exception e) {
           LoggerFactory.getLogger(ScannerIterator.class)
@@ -145,28 +179,145 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   }
 
   private List<KeyValue> readBatch() throws Exception {
+    List<KeyValue> batch = fetchBatch(scanState, timeOut, closed);
+    if (!batch.isEmpty()) {
+      reporter.readBatch(this);
+    }
+    return batch;
+  }
+
+  private static List<KeyValue> fetchBatch(ScanState scanState, long timeOut, AtomicBoolean closed)
+      throws Exception {
 
     List<KeyValue> batch;
 
     do {
       synchronized (scanState) {
         // this is synchronized so its mutually exclusive with closing
-        Preconditions.checkState(!closed, "Scanner was closed");
+        Preconditions.checkState(!closed.get(), "Scanner was closed");
         batch = ThriftScanner.scan(scanState.context, scanState, timeOut);
       }
     } while (batch != null && batch.isEmpty());
 
-    if (batch != null) {
-      reporter.readBatch(this);
+    return batch == null ? Collections.emptyList() : batch;
+  }
+
+  /**
+   * Reads the batches of a streaming scan in the background. This does not reference the
+   * {@link ScannerIterator}, so an iterator that is dropped before it was exhausted or closed can
+   * still become unreachable, at which point a cleaner stops the streamer.
+   */
+  private static class BatchStreamer implements Runnable {
+
+    private final ScanState scanState;
+    private final long timeOut;
+    private final AtomicBoolean closed;
+    // batches that were read but not consumed yet, an empty batch marks the end of the scan
+    private final BlockingQueue<List<KeyValue>> batches;
+    private volatile Exception exception;
+    private volatile boolean stopped = false;
+
+    BatchStreamer(ScanState scanState, long timeOut, AtomicBoolean closed, int window) {
+      this.scanState = scanState;
+      this.timeOut = timeOut;
+      this.closed = closed;
+      this.batches = new ArrayBlockingQueue<>(window);
     }
 
-    return batch == null ? Collections.emptyList() : batch;
+    /**
+     * Reads batches until the scan is finished or streaming is stopped, blocking when the client
+     * has a full window of batches that were not consumed yet.
+     */
+    @Override
+    public void run() {
+      List<KeyValue> batch;
+      try {
+        do {
+          batch = fetchBatch(scanState, timeOut, closed);
+          put(batch);
+        } while (!batch.isEmpty() && !isStopped());
+      } catch (Exception e) {
+        if (!isStopped()) {
+          exception = e;
+          try {
+            put(Collections.emptyList());
+          } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      }
+    }
+
+    private boolean isStopped() {
+      return stopped || closed.get();
+    }
+
+    private void put(List<KeyValue> batch) throws InterruptedException {
+      while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        if (isStopped()) {
+          return;
+        }
+      }
+    }
+
+    void stop() {
+      stopped = true;
+    }
+
+    List<KeyValue> take() throws InterruptedException {
+      List<KeyValue> batch;
+      while ((batch = batches.poll(100, TimeUnit.MILLISECONDS)) == null) {
+        // no more batches are added once the scanner is closed
+        Preconditions.checkState(!closed.get(), "Scanner was closed");
+      }
+      if (batch.isEmpty() && exception != null) {
+        // leave the end marker so that later calls fail the same way
+        batches.offer(batch);
+        throw new StreamingException(exception);
+      }
+      return batch;
+    }
+  }
+
+  private static class StreamingException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    StreamingException(Exception cause) {
+      super(cause);
+    }
+  }
+
+  private void stopStreaming() {
+    Cleanable stopper = streamerStopper;
+    if (stopper != null) {
+      stopper.clean();
+    }
   }
 
   private List<KeyValue> getNextBatch() {
 
     List<KeyValue> nextBatch;
 
+    if (streamer != null) {
+      if (streamerStopper == null) {
+        streamerStopper = CleanerUtil.scanStreamStopper(this, streamer::stop);
+        readaheadPool.execute(streamer);
+      }
+      try {
+        nextBatch = streamer.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (StreamingException e) {
+        wrapExecutionException(new ExecutionException(e.getCause()));
+        throw new RuntimeException(e.getCause());
+      }
+      if (!nextBatch.isEmpty()) {
+        reporter.readBatch(this);
+      }
+      return nextBatch;
+    }
+
     try {
       if (readAheadOperation == null) {
         // no read ahead run, fetch the next batch right now
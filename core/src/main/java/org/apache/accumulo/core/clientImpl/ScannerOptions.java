@@ -64,6 +64,10 @@ public class ScannerOptions implements ScannerBase {
 
   protected Map<String,String> executionHints = Collections.emptyMap();
 
+  protected int streamingWindow = 0;
+
+  protected boolean adaptiveBatchSize = false;
+
   protected ScannerOptions() {}
 
   public ScannerOptions(ScannerOptions so) {
@@ -181,6 +185,9 @@ public class ScannerOptions implements ScannerBase {
 
         // its an immutable map, so can avoid copy here
         dst.executionHints = src.executionHints;
+
+        dst.streamingWindow = src.streamingWindow;
+        dst.adaptiveBatchSize = src.adaptiveBatchSize;
       }
     }
   }
@@ -272,4 +279,27 @@ public class ScannerOptions implements ScannerBase {
     this.executionHints = Map.copyOf(Objects.requireNonNull(hints));
   }
 
+  @Override
+  public synchronized void setStreamingWindow(int batches) {
+    if (batches < 0) {
+      throw new IllegalArgumentException("Streaming window must not be negative : " + batches);
+    }
+    this.streamingWindow = batches;
+  }
+
+  @Override
+  public synchronized int getStreamingWindow() {
+    return streamingWindow;
+  }
+
+  @Override
+  public synchronized void setAdaptiveBatchSize(boolean enabled) {
+    this.adaptiveBatchSize = enabled;
+  }
+
+  @Override
+  public synchronized boolean isAdaptiveBatchSize() {
+    return adaptiveBatchSize;
+  }
+
 }
@@ -400,13 +400,30 @@ public enum Property {
   TSERV_CACHE_MANAGER_IMPL("tserver.cache.manager.class",
       "org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager", PropertyType.STRING,
       "Specifies the class name of the block cache factory implementation."
-          + " Alternative implementation is"
-          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager",
+          + " Alternative implementations are"
+          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager,"
+          + " org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager,"
+          + " which keeps cached blocks in direct memory, and"
+          + " org.apache.accumulo.core.file.blockfile.cache.tiered.TieredBlockCacheManager,"
+          + " which keeps blocks evicted from memory in a file on local disk, except the blocks of"
+          + " encrypted files. The off heap cache"
+          + " keeps heap copies of the most read blocks and copies other blocks onto the heap"
+          + " each time they are read from the cache. The heap it uses for those copies and for"
+          + " block indexes is set with tserver.cache.config.offheap.default.heap.size. Setting"
+          + " table.cache.block.compressed limits each copy to the compressed size of the block.",
       "2.0.0"),
   TSERV_DATACACHE_SIZE("tserver.cache.data.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for RFile data blocks.", "1.3.5"),
   TSERV_INDEXCACHE_SIZE("tserver.cache.index.size", "25%", PropertyType.MEMORY,
       "Specifies the size of the cache for RFile index blocks.", "1.3.5"),
+  TSERV_CACHE_WARMUP_THREADS("tserver.cache.warmup.threads", "2", PropertyType.COUNT,
+      "The number of threads the tablet server uses to load the index blocks of newly assigned"
+          + " tablets into the index cache, for tables that set table.cache.index.warmup.",
+      "2.1.0"),
+  TSERV_CACHE_WARMUP_QUEUE_MAX("tserver.cache.warmup.queue.max", "1000", PropertyType.COUNT,
+      "The maximum number of files waiting to have their index blocks loaded into the index cache."
+          + " Files of tablets assigned when the queue is full are not warmed up.",
+      "2.1.0"),
   TSERV_SUMMARYCACHE_SIZE("tserver.cache.summary.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for summary data on each tablet server.", "2.0.0"),
   TSERV_PORTSEARCH("tserver.port.search", "false", PropertyType.BOOLEAN,
@@ -490,6 +507,25 @@ public enum Property {
       "1.7.1"),
   TSERV_SCAN_MAX_OPENFILES("tserver.scan.files.open.max", "100", PropertyType.COUNT,
       "Maximum total RFiles that all tablets in a tablet server can open for scans. ", "1.4.0"),
+  TSERV_SCAN_STREAMING_WINDOW_MAX("tserver.scan.streaming.window.max", "2", PropertyType.COUNT,
+      "The maximum number of batches a streaming scan may read ahead and return in a single"
+          + " response. Scanners request a window with ScannerBase.setStreamingWindow(), larger"
+          + " requests are reduced to this value. Set to 0 to turn off streaming.",
+      "2.1.0"),
+  TSERV_SCAN_VISIBILITY_CACHE_SIZE("tserver.scan.visibility.cache.size", "10000",
+      PropertyType.COUNT,
+      "The number of compiled column visibility expressions the tablet server keeps. Compiled"
+          + " expressions are shared by all scans, each scan still caches the result of"
+          + " evaluating an expression with its authorizations.",
+      "2.1.0"),
+  TSERV_SCAN_PREFETCH_THREADS("tserver.scan.prefetch.threads", "8", PropertyType.COUNT,
+      "The number of threads the tablet server uses to load data blocks into the data cache ahead"
+          + " of sequential scans, for tables that set table.scan.prefetch.blocks.",
+      "2.1.0"),
+  TSERV_SCAN_PREFETCH_QUEUE_MAX("tserver.scan.prefetch.queue.max", "256", PropertyType.COUNT,
+      "The maximum number of data block prefetches waiting for a thread. Prefetches requested"
+          + " when the queue is full are dropped and the scan reads those blocks itself.",
+      "2.1.0"),
   TSERV_MAX_IDLE("tserver.files.open.idle", "1m", PropertyType.TIMEDURATION,
       "Tablet servers leave previously used RFiles open for future queries."
           + " This setting determines how much time an unused RFile should be kept open"
@@ -499,6 +535,20 @@ public enum Property {
       "An in-memory data store for accumulo implemented in c++ that increases"
           + " the amount of data accumulo can hold in memory and avoids Java GC" + " pauses.",
       "1.3.5"),
+  TSERV_OFFHEAP_MAP_ENABLED("tserver.memory.maps.offheap.enabled", "false", PropertyType.BOOLEAN,
+      "An in-memory data store implemented in java that keeps keys and values in direct"
+          + " byte buffers outside of the java heap. This avoids Java GC pauses without"
+          + " requiring the native library. It is used when native maps are disabled or fail"
+          + " to load. The JVM option -XX:MaxDirectMemorySize must allow for"
+          + " tserver.memory.maps.max.",
+      "2.1.0"),
+  TSERV_MEMORY_MAP_CONCURRENT_WRITES("tserver.memory.maps.concurrent.writes.enabled", "false",
+      PropertyType.BOOLEAN,
+      "When true, batches of mutations for the same tablet are inserted into its in-memory"
+          + " map in parallel instead of one batch at a time. Changes are still made visible"
+          + " to scans in the order they were received. This benefits ingest into a single"
+          + " hot tablet the most when the map is not native.",
+      "2.1.0"),
   TSERV_MAXMEM("tserver.memory.maps.max", "33%", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a"
           + " tablet server. There are two other properties that can effectively limit"
@@ -506,6 +556,13 @@ public enum Property {
           + " tserver.wal.max.size. Ensure that table.compaction.minor.logs.threshold"
           + " * tserver.wal.max.size >= this property.",
       "1.3.5"),
+  TSERV_MEM_MANAGER("tserver.memory.manager",
+      "org.apache.accumulo.tserver.memory.LargestFirstMemoryManager", PropertyType.CLASSNAME,
+      "The class that decides which tablets to minor compact to free memory. Set this to"
+          + " org.apache.accumulo.tserver.memory.PredictiveMemoryManager to start flushes"
+          + " early, based on each tablet's ingest rate and how long recent minor compactions"
+          + " took, so that memory does not fill to the point where writes are held.",
+      "2.1.0"),
   TSERV_SESSION_MAXIDLE("tserver.session.idle.max", "1m", PropertyType.TIMEDURATION,
       "When a tablet server's SimpleTimer thread triggers to check idle"
           + " sessions, this configurable option will be used to evaluate scan sessions"
@@ -614,6 +671,18 @@ public enum Property {
       "1.8.0"),
   TSERV_MINC_MAXCONCURRENT("tserver.compaction.minor.concurrent.max", "4", PropertyType.COUNT,
       "The maximum number of concurrent minor compactions for a tablet server", "1.3.5"),
+  TSERV_MINC_LG_THREADS("tserver.compaction.minor.locality.group.threads", "0", PropertyType.COUNT,
+      "The number of threads shared by minor compactions on a tablet server to write the"
+          + " locality groups of a table concurrently. Each locality group encodes and compresses"
+          + " its blocks on its own thread and the blocks are assembled into one file. When 0,"
+          + " each minor compaction writes its locality groups one after another.",
+      "2.1.0"),
+  TSERV_MAJC_LG_THREADS("tserver.compaction.major.locality.group.threads", "0", PropertyType.COUNT,
+      "The number of threads shared by major compactions on a tablet server to compact the"
+          + " locality groups of a table concurrently. Each locality group reads, merges and writes"
+          + " its blocks on its own thread and the blocks are assembled into one file. When 0,"
+          + " each major compaction compacts its locality groups one after another.",
+      "2.1.0"),
   @Deprecated(since = "2.1.0", forRemoval = true)
   TSERV_MAJC_TRACE_PERCENT("tserver.compaction.major.trace.percent", "0.1", PropertyType.FRACTION,
       "The percent of major compactions to trace", "1.7.0"),
@@ -699,6 +768,13 @@ public enum Property {
   @ReplacedBy(property = Property.TSERV_WAL_SORT_BUFFER_SIZE)
   TSERV_SORT_BUFFER_SIZE("tserver.sort.buffer.size", "10%", PropertyType.MEMORY,
       "The amount of memory to use when sorting logs during recovery.", "1.5.0"),
+  TSERV_WAL_SORT_PART_THREADS("tserver.wal.sort.part.threads", "1", PropertyType.COUNT,
+      "The number of threads used to sort and write the parts of a single write-ahead log during"
+          + " recovery. The log is read sequentially and split into segments, which are sorted"
+          + " and written concurrently. The sort buffer is divided between the segments, so"
+          + " memory use does not grow with this setting but the number of sorted parts does."
+          + " The default of 1 sorts each log in a single thread.",
+      "2.1.0"),
   TSERV_WAL_SORT_FILE_PREFIX("tserver.wal.sort.file.", null, PropertyType.PREFIX,
       "The rfile properties to use when sorting logs during recovery. Most of the properties"
           + " that begin with 'table.file' can be used here. For example, to set the compression"
@@ -712,6 +788,25 @@ public enum Property {
       "Use the SYNC_BLOCK create flag to sync WAL writes to disk. Prevents"
           + " problems recovering from sudden system resets.",
       "1.5.0"),
+  TSERV_WAL_GROUP_COMMIT_MAX_WAIT("tserver.wal.group.commit.max.wait", "0ms",
+      PropertyType.TIMEDURATION,
+      "When greater than zero and the previous write-ahead log sync covered writes from more"
+          + " than one client, the sync thread waits up to this long for more writes to arrive"
+          + " before syncing, so that more writes are made durable by each sync. It stops"
+          + " waiting as soon as tserver.wal.group.commit.batch.size writes are queued. Zero"
+          + " syncs immediately.",
+      "2.1.0"),
+  TSERV_WAL_GROUP_COMMIT_BATCH_SIZE("tserver.wal.group.commit.batch.size", "32", PropertyType.COUNT,
+      "The number of queued writes at which a write-ahead log sync is issued without waiting"
+          + " any longer when tserver.wal.group.commit.max.wait is set.",
+      "2.1.0"),
+  TSERV_WAL_STREAMS("tserver.wal.streams", "1", PropertyType.COUNT,
+      "The number of write-ahead logs a tablet server writes to concurrently. Each tablet is"
+          + " assigned to one of the logs by hashing its extent, and each log has its own sync"
+          + " thread. More than one stream can increase ingest on servers where a single HDFS"
+          + " pipeline is the bottleneck, at the cost of more open files and more logs to sort"
+          + " during recovery.",
+      "2.1.0"),
   TSERV_ASSIGNMENT_DURATION_WARNING("tserver.assignment.duration.warning", "10m",
       PropertyType.TIMEDURATION,
       "The amount of time an assignment can run before the server will print a"
@@ -936,6 +1031,25 @@ public enum Property {
       "2.1.0"),
   TABLE_COMPACTION_CONFIGURER_OPTS("table.compaction.configurer.opts.", null, PropertyType.PREFIX,
       "Options for the table compaction configuror", "2.1.0"),
+  TABLE_COMPACTION_LOSER_TREE_MERGE("table.compaction.merge.loser.tree", "false",
+      PropertyType.BOOLEAN,
+      "If true, compactions merge their input files with a loser tree instead of a priority"
+          + " queue. This does fewer key comparisons when the next entry comes from a different"
+          + " file and helps most for compactions of many files.",
+      "2.1.0"),
+  TABLE_COMPACTION_BLOCK_COPY("table.compaction.major.block.copy", "false", PropertyType.BOOLEAN,
+      "If true, a major compaction of files whose rows do not overlap copies their compressed data"
+          + " blocks into its output file instead of merging their entries, when it either keeps"
+          + " deletes or the table's delete behavior is fail. Full compactions drop deletes, so"
+          + " with the default delete behavior only partial compactions copy blocks. Neither the"
+          + " compaction nor the table may configure major compaction iterators, including the"
+          + " versioning iterator tables are created with, because the input files may hold"
+          + " entries they would drop. Only files written with the table's current block size are"
+          + " copied, so a change to table.file.compress.blocksize is applied by later compactions."
+          + " Only the index, bloom filter and summaries of the output file are rebuilt. Blocks are"
+          + " only copied between files that have no locality groups, use the table's compression"
+          + " type and are not encrypted.",
+      "2.1.0"),
   @Deprecated(since = "2.1.0", forRemoval = true)
   @ReplacedBy(property = TABLE_COMPACTION_SELECTOR)
   TABLE_COMPACTION_STRATEGY("table.majc.compaction.strategy",
@@ -960,6 +1074,30 @@ public enum Property {
       "The maximum amount of memory that will be used to cache results of a client query/scan. "
           + "Once this limit is reached, the buffered data is sent to the client.",
       "1.3.5"),
+  TABLE_SCAN_ADAPTIVE_MAXMEM("table.scan.adaptive.max.memory", "4M", PropertyType.BYTES,
+      "The maximum amount of memory that will be used to cache results of a scan that asked"
+          + " for adaptive batch sizes. These scans size each batch from how quickly previous"
+          + " batches were read and consumed, replacing the scanner's batch size and"
+          + " table.scan.max.memory.",
+      "2.1.0"),
+  TABLE_SCAN_ADAPTIVE_TARGET_TIME("table.scan.adaptive.target.time", "100ms",
+      PropertyType.TIMEDURATION,
+      "Scans that asked for adaptive batch sizes size their batches to hold about this much"
+          + " time worth of data, at the slower of the rates the tablet server reads it and the"
+          + " client consumes it.",
+      "2.1.0"),
+  TABLE_SCAN_LOSER_TREE_MERGE("table.scan.merge.loser.tree", "false", PropertyType.BOOLEAN,
+      "If true, scans merge the table's files and in memory data with a loser tree instead of a"
+          + " priority queue. This does fewer key comparisons when the next entry comes from a"
+          + " different source and helps most for tablets with many files.",
+      "2.1.0"),
+  TABLE_SCAN_PREFETCH_BLOCKS("table.scan.prefetch.blocks", "0", PropertyType.COUNT,
+      "The number of data blocks a scan loads into the data cache ahead of where it is reading,"
+          + " once it has read past the end of a block into the next one. Blocks are loaded on"
+          + " the tablet server's prefetch threads, so a sequential scan does not wait on the file"
+          + " system at each block boundary. Has no effect when the scan does not use the data"
+          + " cache. Set to 0 to not prefetch. Scan dispatchers may override this for a scan.",
+      "2.1.0"),
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING,
       "Change the type of file a table writes", "1.3.5"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.core.spi.balancer.SimpleLoadBalancer",
@@ -1022,6 +1160,12 @@ public enum Property {
       "1.3.5"),
   TABLE_BLOOM_HASHTYPE("table.bloom.hash.type", "murmur", PropertyType.STRING,
       "The bloom filter hash type", "1.3.5"),
+  TABLE_BLOOM_FORMAT("table.bloom.format", "standard", PropertyType.BLOOM_FORMAT,
+      "The format of bloom filters written to new files. `standard` spreads the hash probes"
+          + " for a key over the whole filter. `blocked` keeps all of them in one 64 byte block,"
+          + " so a lookup touches one cache line, at the cost of a slightly higher false positive"
+          + " rate for the same size. Files of either format can be read.",
+      "2.1.0"),
   TABLE_BULK_MAX_TABLETS("table.bulk.max.tablets", "0", PropertyType.COUNT,
       "The maximum number of tablets allowed for one bulk import file. Value of 0 is Unlimited. "
           + "This property is only enforced in the new bulk import API",
@@ -1064,8 +1208,19 @@ public enum Property {
       "1.3.5"),
   TABLE_INDEXCACHE_ENABLED("table.cache.index.enable", "true", PropertyType.BOOLEAN,
       "Determines whether index block cache is enabled for a table.", "1.3.5"),
+  TABLE_INDEXCACHE_WARMUP("table.cache.index.warmup", "false", PropertyType.BOOLEAN,
+      "Determines whether a tablet server loads the index blocks of a tablet's files into the"
+          + " index cache in the background when the tablet is assigned to it, so that the first"
+          + " scans after a migration or restart do not read them from the file system. Only"
+          + " applies when the index cache is enabled for the table.",
+      "2.1.0"),
   TABLE_BLOCKCACHE_ENABLED("table.cache.block.enable", "false", PropertyType.BOOLEAN,
       "Determines whether data block cache is enabled for a table.", "1.3.5"),
+  TABLE_BLOCKCACHE_COMPRESSED("table.cache.block.compressed", "false", PropertyType.BOOLEAN,
+      "Determines whether data blocks of a table are kept compressed in the data block cache and"
+          + " decompressed each time they are read. The cache then holds more blocks for the same"
+          + " memory, at the cost of decompressing on every cache hit.",
+      "2.1.0"),
   TABLE_ITERATOR_PREFIX("table.iterator.", null, PropertyType.PREFIX,
       "Properties in this category specify iterators that are applied at"
           + " various stages (scopes) of interaction with a table. These properties"
@@ -1303,6 +1458,12 @@ public enum Property {
   @Experimental
   COMPACTOR_MAX_MESSAGE_SIZE("compactor.message.size.max", "10M", PropertyType.BYTES,
       "The maximum size of a message that can be sent to a tablet server.", "2.1.0"),
+  @Experimental
+  COMPACTOR_LG_THREADS("compactor.locality.group.threads", "0", PropertyType.COUNT,
+      "The number of threads a compactor uses to compact the locality groups of a table"
+          + " concurrently, in addition to the compaction thread. When 0, locality groups are"
+          + " compacted one after another.",
+      "2.1.0"),
   // CompactionCoordinator properties
   @Experimental
   COMPACTION_COORDINATOR_PREFIX("compaction.coordinator.", null, PropertyType.PREFIX,
@@ -1352,6 +1513,40 @@ public enum Property {
   COMPACTION_COORDINATOR_TSERVER_COMPACTION_CHECK_INTERVAL(
       "compaction.coordinator.tserver.check.interval", "1m", PropertyType.TIMEDURATION,
       "The interval at which to check the tservers for external compactions.", "2.1.0"),
+  @Experimental
+  COMPACTION_COORDINATOR_JOB_WAIT_MAX("compaction.coordinator.compactor.job.wait.max", "30s",
+      PropertyType.TIMEDURATION,
+      "The longest time the coordinator holds a request for a job from an idle compactor when no"
+          + " job is available for its queue. The request is answered as soon as a tablet server"
+          + " reports a job for the queue, so compactors do not have to poll. The wait is capped"
+          + " at half of general.rpc.timeout, so a job is never reserved for a compactor that has"
+          + " stopped waiting for the answer. When 0, requests are answered immediately.",
+      "2.1.0"),
+  @Experimental
+  COMPACTION_COORDINATOR_JOB_WAIT_THREADS("compaction.coordinator.compactor.job.wait.threads", "16",
+      PropertyType.COUNT,
+      "The most requests from idle compactors the coordinator holds at once while waiting for a"
+          + " job, see compaction.coordinator.compactor.job.wait.max. Further requests are answered"
+          + " immediately. Each held request occupies a thread, so this many threads are added to"
+          + " compaction.coordinator.threads.minimum when sizing the coordinator's thread pool.",
+      "2.1.0"),
+  @Experimental
+  COMPACTION_COORDINATOR_JOB_PREFETCH("compaction.coordinator.compactor.job.prefetch", "0",
+      PropertyType.COUNT,
+      "The number of compaction jobs per queue the coordinator reserves on tablet servers ahead of"
+          + " requests from compactors, so that a compactor is handed a job without waiting for a"
+          + " tablet server to reserve one. Jobs are reserved again as they are handed out, and a"
+          + " held job is only handed out while no tablet server reports a job of higher priority"
+          + " for the queue. A reserved job keeps its tablet from compacting its files, so jobs"
+          + " held longer than compaction.coordinator.compactor.job.prefetch.hold.max are failed."
+          + " When 0, jobs are reserved as compactors ask for them.",
+      "2.1.0"),
+  @Experimental
+  COMPACTION_COORDINATOR_JOB_PREFETCH_HOLD_MAX(
+      "compaction.coordinator.compactor.job.prefetch.hold.max", "1m", PropertyType.TIMEDURATION,
+      "The longest time the coordinator holds a job it reserved ahead of requests from"
+          + " compactors, see compaction.coordinator.compactor.job.prefetch.",
+      "2.1.0"),
   // deprecated properties grouped at the end to reference property that replaces them
   @Deprecated(since = "1.6.0")
   @ReplacedBy(property = INSTANCE_VOLUMES)
@@ -1719,7 +1914,10 @@ public enum Property {
       TSERV_SUMMARYCACHE_SIZE,
 
       // others
-      TSERV_NATIVEMAP_ENABLED, TSERV_SCAN_MAX_OPENFILES);
+      TSERV_NATIVEMAP_ENABLED, TSERV_OFFHEAP_MAP_ENABLED, TSERV_SCAN_MAX_OPENFILES,
+      TSERV_WAL_STREAMS, TSERV_MINC_LG_THREADS, TSERV_MEM_MANAGER, TSERV_SCAN_PREFETCH_THREADS,
+      TSERV_SCAN_PREFETCH_QUEUE_MAX, TSERV_CACHE_WARMUP_THREADS, TSERV_CACHE_WARMUP_QUEUE_MAX,
+      TSERV_MAJC_LG_THREADS, TSERV_SCAN_VISIBILITY_CACHE_SIZE);
 
   /**
    * Checks if the given property may be changed via Zookeeper, but not recognized until the restart
@@ -128,6 +128,9 @@ public enum PropertyType {
   GC_POST_ACTION("gc_post_action", in(true, null, "none", "flush", "compact"),
       "One of 'none', 'flush', or 'compact'."),
 
+  BLOOM_FORMAT("bloom_format", in(true, null, "standard", "blocked"),
+      "One of 'standard' or 'blocked'."),
+
   STRING("string", x -> true,
       "An arbitrary string of characters whose format is unspecified and"
           + " interpreted based on the context of the property to which it applies."),
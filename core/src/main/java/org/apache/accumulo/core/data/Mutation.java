@@ -32,6 +32,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.accumulo.core.dataImpl.MutationAccess;
 import org.apache.accumulo.core.dataImpl.thrift.TMutation;
 import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.accumulo.core.util.ByteBufferUtil;
@@ -114,6 +115,21 @@ public class Mutation implements Writable {
 
   private static final byte[] EMPTY_BYTES = new byte[0];
 
+  static {
+    MutationAccess.setAccessor(new MutationAccess.Accessor() {
+      @Override
+      public byte[] getSerializedUpdates(Mutation m) {
+        m.serialize();
+        return m.data;
+      }
+
+      @Override
+      public List<byte[]> getLargeValues(Mutation m) {
+        return m.values == null ? List.of() : m.values;
+      }
+    });
+  }
+
   private void serialize() {
     if (buffer != null) {
       data = buffer.toArray();
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.dataImpl;
+
+import java.util.List;
+
+import org.apache.accumulo.core.data.Mutation;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Gives Accumulo's server code access to the serialized form of a {@link Mutation}, without copying
+ * it and without adding to the public API of Mutation. The arrays returned belong to the mutation
+ * and must not be modified.
+ */
+public class MutationAccess {
+
+  /**
+   * Implemented inside {@link Mutation}, which registers it when it is initialized.
+   */
+  public interface Accessor {
+    byte[] getSerializedUpdates(Mutation m);
+
+    List<byte[]> getLargeValues(Mutation m);
+  }
+
+  private static volatile Accessor accessor;
+
+  public static void setAccessor(Accessor a) {
+    Preconditions.checkState(accessor == null, "Mutation accessor already set");
+    accessor = a;
+  }
+
+  /**
+   * Gets the serialized column updates of a mutation, serializing it first if needed. Values larger
+   * than the mutation's threshold are not in the serialized updates, see
+   * {@link #getLargeValues(Mutation)}.
+   */
+  public static byte[] getSerializedUpdates(Mutation m) {
+    return accessor.getSerializedUpdates(m);
+  }
+
+  /**
+   * Gets the large values of a mutation, in the order the serialized updates refer to them.
+   *
+   * @return the large values, or an empty list if there are none
+   */
+  public static List<byte[]> getLargeValues(Mutation m) {
+    return accessor.getLargeValues(m);
+  }
+}
@@ -32,8 +32,11 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
+import org.apache.accumulo.core.bloomfilter.BlockedBloomFilter;
 import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
+import org.apache.accumulo.core.bloomfilter.Filter;
 import org.apache.accumulo.core.classloader.ClassLoaderUtil;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationCopy;
@@ -68,6 +71,11 @@ public class BloomFilterLayer {
   private static final SecureRandom random = new SecureRandom();
   private static final Logger LOG = LoggerFactory.getLogger(BloomFilterLayer.class);
   public static final String BLOOM_FILE_NAME = "acu_bloom";
+  // blocked bloom filters are stored under their own name so that readers that do not know the
+  // format ignore them
+  public static final String BLOCKED_BLOOM_FILE_NAME = "acu_bloom_blocked";
+  public static final String STANDARD_FORMAT = "standard";
+  public static final String BLOCKED_FORMAT = "blocked";
   public static final int HASH_COUNT = 5;
 
   private static ExecutorService loadThreadPool = null;
@@ -86,7 +94,8 @@ public class BloomFilterLayer {
   }
 
   public static class Writer implements FileSKVWriter {
-    private DynamicBloomFilter bloomFilter;
+    private Filter bloomFilter;
+    private String bloomFileName;
     private int numKeys;
     private int vectorSize;
 
@@ -112,8 +121,17 @@ public class BloomFilterLayer {
       double errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
       vectorSize = (int) Math
           .ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
-      bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT,
-          Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      int hashType = Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE));
+      String format = acuconf.get(Property.TABLE_BLOOM_FORMAT);
+      if (format.equals(BLOCKED_FORMAT)) {
+        bloomFilter = new BlockedBloomFilter(vectorSize, HASH_COUNT, hashType, numKeys);
+        bloomFileName = BLOCKED_BLOOM_FILE_NAME;
+      } else if (format.equals(STANDARD_FORMAT)) {
+        bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT, hashType, numKeys);
+        bloomFileName = BLOOM_FILE_NAME;
+      } else {
+        throw new IllegalArgumentException("Unknown bloom filter format " + format);
+      }
 
       /**
        * load KeyFunctor
@@ -153,7 +171,7 @@ public class BloomFilterLayer {
       if (closed)
         return;
 
-      DataOutputStream out = writer.createMetaStore(BLOOM_FILE_NAME);
+      DataOutputStream out = writer.createMetaStore(bloomFileName);
       out.writeUTF(transformer.getClass().getName());
       bloomFilter.write(out);
       out.flush();
@@ -185,6 +203,52 @@ public class BloomFilterLayer {
       return writer.supportsLocalityGroups();
     }
 
+    @Override
+    public boolean supportsConcurrentLocalityGroups() {
+      return writer.supportsConcurrentLocalityGroups();
+    }
+
+    @Override
+    public boolean canAppendStoredBlocks(FileSKVIterator source) throws IOException {
+      return writer.canAppendStoredBlocks(source);
+    }
+
+    @Override
+    public synchronized long appendStoredBlocks(FileSKVIterator source,
+        BiConsumer<org.apache.accumulo.core.data.Key,Value> entries) throws IOException {
+      BiConsumer<org.apache.accumulo.core.data.Key,Value> bloomEntries = (key, val) -> {
+        Key bloomKey = transformer.transform(key);
+        if (bloomKey.getBytes().length > 0)
+          bloomFilter.add(bloomKey);
+      };
+      return writer.appendStoredBlocks(source,
+          entries == null ? bloomEntries : entries.andThen(bloomEntries));
+    }
+
+    @Override
+    public LocalityGroupAppender startConcurrentLocalityGroup(String name,
+        Set<ByteSequence> columnFamilies) throws IOException {
+      LocalityGroupAppender appender = writer.startConcurrentLocalityGroup(name, columnFamilies);
+      return new LocalityGroupAppender() {
+        @Override
+        public void append(org.apache.accumulo.core.data.Key key, Value val) throws IOException {
+          appender.append(key, val);
+          Key bloomKey = transformer.transform(key);
+          if (bloomKey.getBytes().length > 0) {
+            // the bloom filter is shared by all locality groups of the file
+            synchronized (Writer.this) {
+              bloomFilter.add(bloomKey);
+            }
+          }
+        }
+
+        @Override
+        public void close() throws IOException {
+          appender.close();
+        }
+      };
+    }
+
     @Override
     public long getLength() throws IOException {
       if (closed) {
@@ -196,7 +260,7 @@ public class BloomFilterLayer {
 
   static class BloomFilterLoader {
 
-    private volatile DynamicBloomFilter bloomFilter;
+    private volatile Filter bloomFilter;
     private int loadRequest = 0;
     private int loadThreshold = 1;
     private int maxLoadThreads;
@@ -220,8 +284,14 @@ public class BloomFilterLayer {
         DataInputStream in = null;
 
         try {
-          in = reader.getMetaStore(BLOOM_FILE_NAME);
-          DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+          Filter tmpBloomFilter;
+          try {
+            in = reader.getMetaStore(BLOOM_FILE_NAME);
+            tmpBloomFilter = new DynamicBloomFilter();
+          } catch (NoSuchMetaStoreException nsme) {
+            in = reader.getMetaStore(BLOCKED_BLOOM_FILE_NAME);
+            tmpBloomFilter = new BlockedBloomFilter();
+          }
 
           // check for closed again after open but before reading the bloom filter in
           if (closed)
@@ -351,6 +421,13 @@ public class BloomFilterLayer {
       this.bfl = bfl;
     }
 
+    /**
+     * @return the reader of the file this reader adds a bloom filter to
+     */
+    public FileSKVIterator getFileReader() {
+      return reader;
+    }
+
     private boolean checkSuper = true;
 
     @Override
@@ -321,9 +321,11 @@ public abstract class FileOperations {
           seekToBeginning, cryptoService, null, null, true);
     }
 
-    protected FileOptions toIndexReaderBuilderOptions(Cache<String,Long> fileLenCache) {
+    protected FileOptions toIndexReaderBuilderOptions(CacheProvider cacheProvider,
+        Cache<String,Long> fileLenCache) {
       return new FileOptions(tableConfiguration, filename, fs, fsConf, rateLimiter, null, null,
-          false, NULL_PROVIDER, fileLenCache, false, cryptoService, null, null, true);
+          false, cacheProvider == null ? NULL_PROVIDER : cacheProvider, fileLenCache, false,
+          cryptoService, null, null, true);
     }
 
     protected FileOptions toScanReaderBuilderOptions(Range range, Set<ByteSequence> columnFamilies,
@@ -458,6 +460,7 @@ public abstract class FileOperations {
   public class IndexReaderBuilder extends FileHelper implements IndexReaderTableConfiguration {
 
     private Cache<String,Long> fileLenCache = null;
+    private CacheProvider cacheProvider = null;
 
     public IndexReaderTableConfiguration forFile(String filename, FileSystem fs,
         Configuration fsConf, CryptoService cs) {
@@ -476,8 +479,16 @@ public abstract class FileOperations {
       return this;
     }
 
+    /**
+     * Read index blocks through the index cache of the provider, loading those not cached.
+     */
+    public IndexReaderBuilder withCacheProvider(CacheProvider cacheProvider) {
+      this.cacheProvider = cacheProvider;
+      return this;
+    }
+
     public FileSKVIterator build() throws IOException {
-      return openIndex(toIndexReaderBuilderOptions(fileLenCache));
+      return openIndex(toIndexReaderBuilderOptions(cacheProvider, fileLenCache));
     }
   }
 
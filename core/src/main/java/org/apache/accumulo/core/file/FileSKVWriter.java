@@ -21,6 +21,7 @@ package org.apache.accumulo.core.file;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
@@ -41,4 +42,60 @@ public interface FileSKVWriter extends AutoCloseable {
   void close() throws IOException;
 
   long getLength() throws IOException;
+
+  /**
+   * Receives the entries of a single locality group that is written concurrently with others.
+   */
+  interface LocalityGroupAppender extends AutoCloseable {
+    void append(Key key, Value value) throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  /**
+   * @return true if this writer supports {@link #startConcurrentLocalityGroup(String, Set)}
+   */
+  default boolean supportsConcurrentLocalityGroups() {
+    return false;
+  }
+
+  /**
+   * Start a locality group whose entries are appended through the returned appender, which may be
+   * used by a different thread than the appenders of other locality groups. Locality groups must be
+   * started one after another, named locality groups before the default locality group, and every
+   * appender must be closed before this writer is closed. This can not be mixed with
+   * {@link #startNewLocalityGroup(String, Set)}, {@link #startDefaultLocalityGroup()} or
+   * {@link #append(Key, Value)} on the same writer.
+   *
+   * @param columnFamilies
+   *          the column families of a named locality group, or null for the default locality group
+   */
+  default LocalityGroupAppender startConcurrentLocalityGroup(String name,
+      Set<ByteSequence> columnFamilies) throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * @return true if {@link #appendStoredBlocks(FileSKVIterator, BiConsumer)} can copy the data
+   *         blocks of the file read by source into this file
+   */
+  default boolean canAppendStoredBlocks(FileSKVIterator source) throws IOException {
+    return false;
+  }
+
+  /**
+   * Append all the entries of a file to the default locality group by copying its data blocks as
+   * they are stored, without decoding and encoding them again. Its entries must sort after any
+   * entries already appended.
+   *
+   * @param entries
+   *          if not null, is passed each copied entry. Layers that build metadata from the entries
+   *          of a file, like bloom filters and summaries, use this.
+   * @return the number of entries copied
+   */
+  default long appendStoredBlocks(FileSKVIterator source, BiConsumer<Key,Value> entries)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
 }
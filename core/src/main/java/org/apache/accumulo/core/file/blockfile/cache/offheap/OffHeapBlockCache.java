@@ -0,0 +1,389 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.file.blockfile.cache.offheap.SlabAllocator.Chunk;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * A block cache that keeps block bytes in direct memory, so a large cache does not add to the work
+ * of the garbage collector. Which blocks are kept is decided by a Caffeine cache, using W-TinyLFU
+ * as {@link org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCache} does, that
+ * maps block names to where their bytes are stored.
+ *
+ * <p>
+ * {@link CacheEntry#getBuffer()} hands out an array, so a cached block is copied out of direct
+ * memory onto the heap to be read. Copies of the most used blocks are kept in a second, much
+ * smaller, cache on the heap and handed out again, so reading a hot block, such as an index block,
+ * does not copy it each time. Blocks read too seldom to stay in that cache are copied on each
+ * access. Caching data blocks compressed, see
+ * {@link org.apache.accumulo.core.conf.Property#TABLE_BLOCKCACHE_COMPRESSED}, limits those copies
+ * to the compressed size of the block. A block that is evicted while it is being copied is freed
+ * once the copy is done.
+ *
+ * <p>
+ * The indexes built over blocks are on the heap. Their weight is added to the weight of their
+ * block, and no new index is built while the indexes of cached blocks use their share of the heap.
+ * The heap for copies and indexes is set with
+ * {@value OffHeapBlockCacheConfiguration#HEAP_SIZE_PROPERTY}.
+ *
+ * <p>
+ * The direct memory used is bounded by the configured cache size and allocated as it is needed.
+ * Memory is handed out by size class, so when the sizes of cached blocks shift a block may find no
+ * room even though the cache is not full, it is then returned without being cached. The JVM limits
+ * direct memory with {@code -XX:MaxDirectMemorySize}, which must be large enough for all off heap
+ * caches.
+ */
+public final class OffHeapBlockCache implements BlockCache {
+  private static final Logger log = LoggerFactory.getLogger(OffHeapBlockCache.class);
+  private static final int STATS_PERIOD_SEC = 60;
+
+  // estimated heap used for each cached block: the map entry, the key and the block's objects
+  static final int BLOCK_HEAP_OVERHEAD = 256;
+
+  private final SlabAllocator allocator;
+  private final Cache<String,Block> cache;
+  private final Policy.Eviction<String,Block> policy;
+  // copies of the most used blocks, handed out instead of copying the blocks again
+  private final Cache<String,byte[]> heapCopies;
+  // heap used by the indexes of cached blocks
+  private final AtomicLong indexHeap = new AtomicLong();
+  private final long maxIndexHeap;
+  private final long maxHeapSize;
+  private final ScheduledExecutorService statsExecutor =
+      ThreadPools.createScheduledExecutorService(1, "OffHeapBlockCacheStatsExecutor", true);
+
+  public OffHeapBlockCache(Configuration conf, CacheType type) {
+    this(conf.getMaxSize(type), OffHeapBlockCacheConfiguration.getSlabSize(conf, type),
+        Math.max(1, conf.getBlockSize()), OffHeapBlockCacheConfiguration.getHeapSize(conf, type));
+  }
+
+  OffHeapBlockCache(long maxSize, int slabSize, long blockSize, long heapSize) {
+    allocator = new SlabAllocator(maxSize, slabSize);
+    cache = Caffeine.newBuilder()
+        .initialCapacity((int) Math.min(1 << 20, Math.ceil(1.2 * maxSize / blockSize)))
+        .weigher((String blockName, Block block) -> block.weight())
+        .maximumWeight(allocator.getUsableSize())
+        // free evicted blocks right away, so their chunks can be reused for the blocks that
+        // replace them
+        .executor(Runnable::run).removalListener(this::removed).recordStats().build();
+    policy = cache.policy().eviction().get();
+    heapCopies = Caffeine.newBuilder().weigher((String blockName, byte[] data) -> data.length)
+        .maximumWeight(heapSize / 2).executor(Runnable::run).build();
+    maxIndexHeap = heapSize - heapSize / 2;
+    maxHeapSize = (long) Math.ceil(1.2 * maxSize / blockSize) * BLOCK_HEAP_OVERHEAD + heapSize;
+    statsExecutor.scheduleAtFixedRate(this::logStats, STATS_PERIOD_SEC, STATS_PERIOD_SEC,
+        TimeUnit.SECONDS);
+  }
+
+  private void removed(String blockName, Block block, RemovalCause cause) {
+    // a block put again to update its weight is still cached
+    if (cause == RemovalCause.REPLACED && cache.asMap().get(blockName) == block) {
+      return;
+    }
+    heapCopies.invalidate(blockName);
+    block.uncache();
+    block.release();
+  }
+
+  /**
+   * The bytes of a block are in direct memory, the on heap index built over them is not.
+   */
+  private final class Block {
+
+    private final String name;
+    private final Chunk chunk;
+    // one for the cache, plus one for each copy in progress
+    private final AtomicInteger references = new AtomicInteger(1);
+    private Weighable index;
+    // the weight of the index counted in the weight of the block and in the index heap
+    private volatile int indexWeight = 0;
+    private boolean cached = true;
+
+    Block(String name, Chunk chunk) {
+      this.name = name;
+      this.chunk = chunk;
+    }
+
+    int weight() {
+      return allocator.weight(chunk.length()) + indexWeight;
+    }
+
+    /**
+     * @return the block's bytes, or null if it was evicted and freed
+     */
+    byte[] copy() {
+      int refs;
+      do {
+        refs = references.get();
+        if (refs == 0) {
+          return null;
+        }
+      } while (!references.compareAndSet(refs, refs + 1));
+
+      try {
+        byte[] data = new byte[chunk.length()];
+        chunk.read(data);
+        return data;
+      } finally {
+        release();
+      }
+    }
+
+    void release() {
+      if (references.decrementAndGet() == 0) {
+        allocator.free(chunk);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <T extends Weighable> T getIndex(Supplier<T> supplier) {
+      if (index == null) {
+        if (!cached || indexHeap.get() >= maxIndexHeap) {
+          return null;
+        }
+        index = supplier.get();
+      }
+      return (T) index;
+    }
+
+    /**
+     * @return true if the index grew, and its new weight was counted
+     */
+    synchronized boolean indexWeightChanged() {
+      if (cached && index != null) {
+        int weight = index.weight();
+        if (weight > indexWeight) {
+          indexHeap.addAndGet(weight - indexWeight);
+          indexWeight = weight;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Stops counting the index of a block that left the cache.
+     */
+    synchronized void uncache() {
+      cached = false;
+      indexHeap.addAndGet(-indexWeight);
+    }
+  }
+
+  private final class OffHeapCacheEntry implements CacheEntry {
+
+    private final byte[] buffer;
+    private final Block block;
+
+    OffHeapCacheEntry(byte[] buffer, Block block) {
+      this.buffer = buffer;
+      this.block = block;
+    }
+
+    @Override
+    public byte[] getBuffer() {
+      return buffer;
+    }
+
+    @Override
+    public <T extends Weighable> T getIndex(Supplier<T> supplier) {
+      // a block that could not be cached has nowhere to keep an index
+      return block == null ? null : block.getIndex(supplier);
+    }
+
+    @Override
+    public void indexWeightChanged() {
+      if (block != null && block.indexWeightChanged()) {
+        // update the weight, unless the block was evicted meanwhile
+        cache.asMap().replace(block.name, block, block);
+      }
+    }
+  }
+
+  /**
+   * @return a block holding a copy of the data, or null if there is no room for it
+   */
+  private Block store(String blockName, byte[] data) {
+    Chunk chunk = allocator.allocate(data.length);
+    if (chunk == null) {
+      return null;
+    }
+    chunk.write(data);
+    return new Block(blockName, chunk);
+  }
+
+  private CacheEntry wrap(Block block) {
+    if (block == null) {
+      return null;
+    }
+    byte[] data = heapCopies.getIfPresent(block.name);
+    if (data == null) {
+      data = block.copy();
+      if (data == null) {
+        return null;
+      }
+      heapCopies.put(block.name, data);
+    }
+    return new OffHeapCacheEntry(data, block);
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    Block block = store(blockName, buf);
+    if (block == null) {
+      log.trace("No room to cache {} of {} bytes", blockName, buf.length);
+      return new OffHeapCacheEntry(buf, null);
+    }
+    cache.put(blockName, block);
+    heapCopies.put(blockName, buf);
+    return new OffHeapCacheEntry(buf, block);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    return wrap(cache.getIfPresent(blockName));
+  }
+
+  private Block load(String blockName, Loader loader, Map<String,byte[]> resolvedDeps,
+      byte[][] loaded) {
+    byte[] data = loader.load(allocator.getMaxBlockSize(), resolvedDeps);
+    if (data == null) {
+      return null;
+    }
+    // the caller gets the loaded bytes, not a copy of what was stored
+    loaded[0] = data;
+    return store(blockName, data);
+  }
+
+  private Map<String,byte[]> resolveDependencies(Map<String,Loader> deps) {
+    HashMap<String,byte[]> resolvedDeps = new HashMap<>();
+    for (Entry<String,Loader> entry : deps.entrySet()) {
+      CacheEntry ce = getBlock(entry.getKey(), entry.getValue());
+      if (ce == null) {
+        return null;
+      }
+      resolvedDeps.put(entry.getKey(), ce.getBuffer());
+    }
+    return resolvedDeps;
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    byte[][] loaded = new byte[1][];
+    Map<String,Loader> deps = loader.getDependencies();
+    Block block;
+    if (deps.isEmpty()) {
+      block = cache.get(blockName, k -> load(k, loader, Collections.emptyMap(), loaded));
+    } else {
+      // Loading dependencies accesses the cache, which cache load functions must not do. So they
+      // are loaded outside of the load function.
+      block = cache.getIfPresent(blockName);
+      if (block == null) {
+        Map<String,byte[]> resolvedDeps = resolveDependencies(deps);
+        if (resolvedDeps == null) {
+          return null;
+        }
+        block =
+            cache.asMap().computeIfAbsent(blockName, k -> load(k, loader, resolvedDeps, loaded));
+      }
+    }
+
+    if (loaded[0] != null) {
+      if (block != null) {
+        heapCopies.put(blockName, loaded[0]);
+      }
+      return new OffHeapCacheEntry(loaded[0], block);
+    }
+    CacheEntry ce = wrap(block);
+    if (ce == null && block != null) {
+      // evicted between the lookup and the copy, so load it again
+      return getBlock(blockName, loader);
+    }
+    return ce;
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return maxHeapSize;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return allocator.getMaxSize();
+  }
+
+  @Override
+  public Stats getStats() {
+    CacheStats stats = cache.stats();
+    return new Stats() {
+      @Override
+      public long hitCount() {
+        return stats.hitCount();
+      }
+
+      @Override
+      public long requestCount() {
+        return stats.requestCount();
+      }
+    };
+  }
+
+  /**
+   * Drop all cached blocks, for when the cache is no longer used.
+   */
+  void clear() {
+    statsExecutor.shutdownNow();
+    cache.invalidateAll();
+    heapCopies.invalidateAll();
+  }
+
+  private void logStats() {
+    double maxMB = ((double) policy.getMaximum()) / ((double) (1024 * 1024));
+    double sizeMB = ((double) policy.weightedSize().getAsLong()) / ((double) (1024 * 1024));
+    log.debug("Off heap cache Size={}MB, Free={}MB, Max={}MB, Blocks={}, Slabs={}", sizeMB,
+        maxMB - sizeMB, maxMB, cache.estimatedSize(), allocator.getAllocatedSlabs());
+    log.debug("Off heap cache heap copies={}, index heap={}MB", heapCopies.estimatedSize(),
+        ((double) indexHeap.get()) / ((double) (1024 * 1024)));
+    log.debug(cache.stats().toString());
+  }
+}
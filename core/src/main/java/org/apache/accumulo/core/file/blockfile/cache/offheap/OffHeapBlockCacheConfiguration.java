@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+public final class OffHeapBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "offheap";
+
+  public static final String SLAB_SIZE_PROPERTY = "slab.size";
+
+  /**
+   * Direct memory is allocated in slabs of this size. A block larger than a slab is not cached.
+   */
+  public static final String DEFAULT_SLAB_SIZE = "4M";
+
+  public static final String HEAP_SIZE_PROPERTY = "heap.size";
+
+  /**
+   * Heap kept for copies of the most used blocks, so reading them does not copy them again, and for
+   * the indexes built over blocks. Half is used for each.
+   */
+  public static final String DEFAULT_HEAP_SIZE = "32M";
+
+  private OffHeapBlockCacheConfiguration() {}
+
+  /**
+   * @return the slab size for the cache type, no larger than the cache
+   */
+  static int getSlabSize(Configuration conf, CacheType type) {
+    Map<String,String> props = conf.getProperties(PROPERTY_PREFIX, type);
+    long slabSize = ConfigurationTypeHelper
+        .getFixedMemoryAsBytes(props.getOrDefault(SLAB_SIZE_PROPERTY, DEFAULT_SLAB_SIZE));
+    if (slabSize > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Slab size " + slabSize + " is too large");
+    }
+    return (int) Math.max(SlabAllocator.MIN_CHUNK_SIZE, Math.min(slabSize, conf.getMaxSize(type)));
+  }
+
+  /**
+   * @return the heap the cache type may use for block copies and indexes, no larger than the cache
+   */
+  static long getHeapSize(Configuration conf, CacheType type) {
+    Map<String,String> props = conf.getProperties(PROPERTY_PREFIX, type);
+    long heapSize = ConfigurationTypeHelper
+        .getFixedMemoryAsBytes(props.getOrDefault(HEAP_SIZE_PROPERTY, DEFAULT_HEAP_SIZE));
+    return Math.min(heapSize, conf.getMaxSize(type));
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Hands out chunks of direct memory for cached blocks. Memory is allocated in slabs of a fixed
+ * size, up to a maximum number of slabs. Each slab in use is cut into chunks of one size class,
+ * size classes grow by about a quarter so a block wastes at most about a fifth of its chunk. A slab
+ * whose chunks are all free goes back to a shared pool, so memory moves between size classes as the
+ * sizes of cached blocks change.
+ */
+final class SlabAllocator {
+
+  static final int MIN_CHUNK_SIZE = 1024;
+  private static final int CHUNK_ALIGNMENT = 64;
+
+  static final class Slab {
+    private final ByteBuffer buffer;
+    private int sizeClass = -1;
+    // offsets of free chunks, the first freeCount are valid
+    private int[] free;
+    private int freeCount;
+    private boolean partial;
+
+    private Slab(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  /**
+   * A chunk of a slab holding a block.
+   */
+  static final class Chunk {
+    private final Slab slab;
+    private final int offset;
+    private final int length;
+
+    private Chunk(Slab slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    int length() {
+      return length;
+    }
+
+    void write(byte[] data) {
+      ByteBuffer dup = slab.buffer.duplicate();
+      dup.position(offset);
+      dup.put(data, 0, length);
+    }
+
+    void read(byte[] dest) {
+      ByteBuffer dup = slab.buffer.duplicate();
+      dup.position(offset);
+      dup.get(dest, 0, length);
+    }
+  }
+
+  private final int slabSize;
+  private final int maxSlabs;
+  private final int[] chunkSizes;
+  // slabs of each size class with at least one free chunk
+  private final ArrayDeque<Slab>[] partialSlabs;
+  private final List<Slab> emptySlabs = new ArrayList<>();
+  private int allocatedSlabs = 0;
+
+  @SuppressWarnings("unchecked")
+  SlabAllocator(long maxSize, int slabSize) {
+    Preconditions.checkArgument(slabSize >= MIN_CHUNK_SIZE, "slab size %s is too small", slabSize);
+    this.slabSize = slabSize;
+    this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxSize / slabSize);
+
+    List<Integer> sizes = new ArrayList<>();
+    int size = MIN_CHUNK_SIZE;
+    while (size < slabSize) {
+      sizes.add(size);
+      size = Math.min(slabSize, align(size + size / 4));
+    }
+    sizes.add(slabSize);
+    chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+
+    partialSlabs = (ArrayDeque<Slab>[]) new ArrayDeque<?>[chunkSizes.length];
+    for (int i = 0; i < partialSlabs.length; i++) {
+      partialSlabs[i] = new ArrayDeque<>();
+    }
+  }
+
+  private static int align(int size) {
+    return (size + CHUNK_ALIGNMENT - 1) / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+  }
+
+  /**
+   * @return the largest block that can be stored
+   */
+  int getMaxBlockSize() {
+    return slabSize;
+  }
+
+  long getMaxSize() {
+    return (long) maxSlabs * slabSize;
+  }
+
+  /**
+   * @return the share of a slab used to store a block of the given length, its chunk plus its part
+   *         of the space at the end of the slab too small for another chunk
+   */
+  int weight(int length) {
+    int chunkSize = chunkSizes[sizeClass(length)];
+    int chunks = slabSize / chunkSize;
+    return (slabSize + chunks - 1) / chunks;
+  }
+
+  /**
+   * @return the memory that can be filled with blocks before a new block may find no chunk of its
+   *         size class free. A slab of each size class in use can be partly used, but blocks
+   *         usually fall in a few size classes, so the slabs left for that are a small share of the
+   *         memory rather than one for every size class.
+   */
+  long getUsableSize() {
+    long max = getMaxSize();
+    long reserveSlabs = Math.min(chunkSizes.length, Math.max(1, maxSlabs / 16));
+    return Math.max(max / 2, max - reserveSlabs * slabSize);
+  }
+
+  private int sizeClass(int length) {
+    int low = 0;
+    int high = chunkSizes.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (chunkSizes[mid] < length) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return a chunk to store a block of the given length in, or null if there is no free chunk of
+   *         its size class and no slab left to make one from
+   */
+  synchronized Chunk allocate(int length) {
+    if (length > slabSize) {
+      return null;
+    }
+    int sizeClass = sizeClass(length);
+    Slab slab = partialSlabs[sizeClass].peekFirst();
+    if (slab == null) {
+      slab = newSlab(sizeClass);
+      if (slab == null) {
+        return null;
+      }
+    }
+
+    int offset = slab.free[--slab.freeCount];
+    if (slab.freeCount == 0) {
+      partialSlabs[sizeClass].removeFirst();
+      slab.partial = false;
+    }
+    return new Chunk(slab, offset, length);
+  }
+
+  private Slab newSlab(int sizeClass) {
+    Slab slab;
+    if (!emptySlabs.isEmpty()) {
+      slab = emptySlabs.remove(emptySlabs.size() - 1);
+    } else if (allocatedSlabs < maxSlabs) {
+      slab = new Slab(ByteBuffer.allocateDirect(slabSize));
+      allocatedSlabs++;
+    } else {
+      return null;
+    }
+
+    int chunkSize = chunkSizes[sizeClass];
+    int chunks = slabSize / chunkSize;
+    slab.sizeClass = sizeClass;
+    slab.free = new int[chunks];
+    // hand out chunks from the start of the slab first
+    for (int i = 0; i < chunks; i++) {
+      slab.free[i] = (chunks - 1 - i) * chunkSize;
+    }
+    slab.freeCount = chunks;
+    slab.partial = true;
+    partialSlabs[sizeClass].addFirst(slab);
+    return slab;
+  }
+
+  synchronized void free(Chunk chunk) {
+    Slab slab = chunk.slab;
+    slab.free[slab.freeCount++] = chunk.offset;
+    if (slab.freeCount == slab.free.length) {
+      // the slab is empty, let any size class use it
+      if (slab.partial) {
+        partialSlabs[slab.sizeClass].remove(slab);
+      }
+      slab.partial = false;
+      slab.sizeClass = -1;
+      slab.free = null;
+      emptySlabs.add(slab);
+    } else if (!slab.partial) {
+      slab.partial = true;
+      partialSlabs[slab.sizeClass].addLast(slab);
+    }
+  }
+
+  /**
+   * @return the number of slabs allocated from direct memory
+   */
+  synchronized int getAllocatedSlabs() {
+    return allocatedSlabs;
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Blocks kept in a file on local disk. The file is split into fixed size segments that are memory
+ * mapped and written in turn as a ring, so the oldest segment is reused, dropping all of its
+ * blocks, when the file is full. Writes come from a single thread, reads from any.
+ *
+ * <p>
+ * Each segment starts with a sequence number that increases every time a segment is started, and
+ * each block in it records the segment's sequence number, its name and a checksum of its bytes. The
+ * index of where blocks are is on the heap; when a file is opened again it is rebuilt by reading
+ * the segments in sequence order, stopping in each at the first block that is incomplete or left
+ * from an earlier use of the segment.
+ *
+ * <p>
+ * A read that races with the reuse of the segment it is reading sees the segment's sequence number
+ * change, or failing that a checksum mismatch, and returns nothing.
+ */
+final class DiskBlockTier implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(DiskBlockTier.class);
+
+  private static final int SEGMENT_MAGIC = 0x41424c32;
+  private static final int BLOCK_MAGIC = 0x41424c4b;
+  // segment magic and sequence
+  static final int SEGMENT_HEADER = 12;
+  // block magic, name length, data length, checksum and segment sequence
+  static final int BLOCK_HEADER = 24;
+  static final int MIN_SEGMENT_SIZE = 64 * 1024;
+
+  private static class Location {
+    final int segment;
+    final int offset;
+    final long sequence;
+
+    Location(int segment, int offset, long sequence) {
+      this.segment = segment;
+      this.offset = offset;
+      this.sequence = sequence;
+    }
+  }
+
+  private final Path file;
+  private final FileChannel channel;
+  private final FileLock lock;
+  private final int segmentSize;
+  private final MappedByteBuffer[] segments;
+  // sequence of the blocks each segment holds, changed before a segment is overwritten
+  private final AtomicLongArray sequences;
+  private final List<List<String>> segmentBlocks;
+  private final ConcurrentHashMap<String,Location> index = new ConcurrentHashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
+
+  private int writeSegment;
+  private int writeOffset;
+  private long nextSequence;
+
+  /**
+   * Open the file, creating it if needed. An existing file of the same size is reused with the
+   * blocks it holds, one of another size is cleared.
+   */
+  DiskBlockTier(Path file, long size, int segmentSize) throws IOException {
+    if (segmentSize < MIN_SEGMENT_SIZE) {
+      throw new IllegalArgumentException(
+          "Segment size " + segmentSize + " is less than " + MIN_SEGMENT_SIZE);
+    }
+    int numSegments = (int) Math.min(Integer.MAX_VALUE, size / segmentSize);
+    if (numSegments < 2) {
+      throw new IllegalArgumentException(
+          "Size " + size + " must be at least two segments of " + segmentSize);
+    }
+    this.file = file;
+    this.segmentSize = segmentSize;
+    Files.createDirectories(file.getParent());
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    try {
+      FileLock fileLock;
+      try {
+        fileLock = channel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        fileLock = null;
+      }
+      lock = fileLock;
+      if (lock == null) {
+        throw new IOException(file + " is in use by another cache");
+      }
+      long length = (long) numSegments * segmentSize;
+      boolean reuse = channel.size() == length;
+      if (!reuse) {
+        channel.truncate(0);
+        // extend the file without writing it, it is sparse until segments are written
+        channel.write(ByteBuffer.allocate(1), length - 1);
+      }
+      segments = new MappedByteBuffer[numSegments];
+      sequences = new AtomicLongArray(numSegments);
+      segmentBlocks = new ArrayList<>(numSegments);
+      for (int i = 0; i < numSegments; i++) {
+        segments[i] =
+            channel.map(FileChannel.MapMode.READ_WRITE, (long) i * segmentSize, segmentSize);
+        sequences.set(i, -1);
+        segmentBlocks.add(new ArrayList<>());
+      }
+      recover();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void recover() {
+    for (int i = 0; i < segments.length; i++) {
+      ByteBuffer segment = segments[i].duplicate();
+      if (segment.getInt(0) == SEGMENT_MAGIC) {
+        sequences.set(i, segment.getLong(4));
+      }
+    }
+    int[] order = IntStream.range(0, segments.length).filter(i -> sequences.get(i) >= 0).boxed()
+        .sorted(Comparator.comparingLong(sequences::get)).mapToInt(Integer::intValue).toArray();
+    if (order.length == 0) {
+      startSegment(0);
+      return;
+    }
+    for (int segment : order) {
+      // newer segments replace blocks of older ones with the same name
+      writeOffset = recoverSegment(segment);
+      writeSegment = segment;
+    }
+    nextSequence = sequences.get(writeSegment) + 1;
+    log.info("Recovered {} blocks from {}", index.size(), file);
+  }
+
+  /**
+   * @return the offset after the last valid block of the segment
+   */
+  private int recoverSegment(int segment) {
+    ByteBuffer buffer = segments[segment].duplicate();
+    long sequence = sequences.get(segment);
+    int offset = SEGMENT_HEADER;
+    while (offset + BLOCK_HEADER <= segmentSize) {
+      if (buffer.getInt(offset) != BLOCK_MAGIC || buffer.getLong(offset + 16) != sequence) {
+        break;
+      }
+      int nameLength = buffer.getInt(offset + 4);
+      int dataLength = buffer.getInt(offset + 8);
+      if (nameLength < 0 || dataLength < 0
+          || (long) offset + BLOCK_HEADER + nameLength + dataLength > segmentSize) {
+        break;
+      }
+      byte[] name = new byte[nameLength];
+      buffer.position(offset + BLOCK_HEADER);
+      buffer.get(name);
+      String blockName = new String(name, UTF_8);
+      index.put(blockName, new Location(segment, offset, sequence));
+      segmentBlocks.get(segment).add(blockName);
+      offset += BLOCK_HEADER + nameLength + dataLength;
+    }
+    return offset;
+  }
+
+  /**
+   * Drop the blocks of a segment and start writing to it.
+   */
+  private void startSegment(int segment) {
+    long sequence = nextSequence++;
+    // readers of the old blocks check the sequence after copying, so change it before writing
+    sequences.set(segment, sequence);
+    for (String blockName : segmentBlocks.get(segment)) {
+      index.computeIfPresent(blockName, (k, loc) -> loc.segment == segment ? null : loc);
+    }
+    segmentBlocks.get(segment).clear();
+    ByteBuffer buffer = segments[segment].duplicate();
+    buffer.putInt(0, SEGMENT_MAGIC);
+    buffer.putLong(4, sequence);
+    writeSegment = segment;
+    writeOffset = SEGMENT_HEADER;
+  }
+
+  /**
+   * @return true if the block is on disk
+   */
+  boolean contains(String blockName) {
+    Location loc = index.get(blockName);
+    return loc != null && sequences.get(loc.segment) == loc.sequence;
+  }
+
+  /**
+   * Write a block to the disk, unless it is already there or larger than a segment.
+   */
+  synchronized void write(String blockName, byte[] data) {
+    if (contains(blockName)) {
+      return;
+    }
+    byte[] name = blockName.getBytes(UTF_8);
+    int length = BLOCK_HEADER + name.length + data.length;
+    if (length > segmentSize - SEGMENT_HEADER) {
+      return;
+    }
+    if (writeOffset + length > segmentSize) {
+      startSegment((writeSegment + 1) % segments.length);
+    }
+    long sequence = sequences.get(writeSegment);
+    CRC32 crc = new CRC32();
+    crc.update(data);
+
+    ByteBuffer buffer = segments[writeSegment].duplicate();
+    buffer.position(writeOffset + 4);
+    buffer.putInt(name.length).putInt(data.length).putInt((int) crc.getValue()).putLong(sequence);
+    buffer.put(name).put(data);
+    // the magic is written last so that recovery does not find a block that was partly written
+    buffer.putInt(writeOffset, BLOCK_MAGIC);
+
+    index.put(blockName, new Location(writeSegment, writeOffset, sequence));
+    segmentBlocks.get(writeSegment).add(blockName);
+    writeOffset += length;
+  }
+
+  /**
+   * @return the bytes of the block, or null if it is not on disk
+   */
+  byte[] read(String blockName) {
+    requests.incrementAndGet();
+    Location loc = index.get(blockName);
+    if (loc == null || sequences.get(loc.segment) != loc.sequence) {
+      return null;
+    }
+    ByteBuffer buffer = segments[loc.segment].duplicate();
+    int nameLength = buffer.getInt(loc.offset + 4);
+    int dataLength = buffer.getInt(loc.offset + 8);
+    int checksum = buffer.getInt(loc.offset + 12);
+    byte[] data = null;
+    // if the segment was reused the lengths may not be those of the block
+    if (nameLength >= 0 && dataLength >= 0
+        && (long) loc.offset + BLOCK_HEADER + nameLength + dataLength <= segmentSize) {
+      data = new byte[dataLength];
+      buffer.position(loc.offset + BLOCK_HEADER + nameLength);
+      buffer.get(data);
+    }
+    VarHandle.acquireFence();
+    if (data == null || sequences.get(loc.segment) != loc.sequence) {
+      return null;
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    if ((int) crc.getValue() != checksum) {
+      log.warn("Checksum mismatch reading block {} from {}", blockName, file);
+      index.remove(blockName, loc);
+      return null;
+    }
+    hits.incrementAndGet();
+    return data;
+  }
+
+  long getHitCount() {
+    return hits.get();
+  }
+
+  long getRequestCount() {
+    return requests.get();
+  }
+
+  int getBlockCount() {
+    return index.size();
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+      lock.release();
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
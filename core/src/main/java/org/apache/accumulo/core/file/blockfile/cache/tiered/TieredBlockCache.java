@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A block cache with two tiers: a {@link TinyLfuBlockCache} in memory in front of a larger file on
+ * local disk. Blocks evicted from memory are written to disk by a background thread, dropping them
+ * when it falls behind, and a block missing from memory is looked for on disk before it is loaded,
+ * moving it back to memory when found. Disk reads are of a memory mapped file, so the operating
+ * system's page cache sits between the two tiers.
+ *
+ * <p>
+ * The blocks on disk are kept when the process restarts and found again when the file is reopened.
+ * Block names include the file they are from, and files are not rewritten, so a block on disk is
+ * never stale. Blocks that their loader says are not persistable, such as the decrypted blocks of
+ * encrypted files, are only kept in memory and dropped when they are evicted.
+ *
+ * <p>
+ * The statistics of each tier are available from {@link Stats#getTierStats()}, those of the cache
+ * as a whole count a hit in either tier.
+ */
+public final class TieredBlockCache implements BlockCache {
+  private static final Logger log = LoggerFactory.getLogger(TieredBlockCache.class);
+
+  public static final String MEMORY_TIER = "l1";
+  public static final String DISK_TIER = "l2";
+
+  private final TinyLfuBlockCache memory;
+  private final DiskBlockTier disk;
+  private final ThreadPoolExecutor spillPool;
+  private final AtomicLong spillsDropped = new AtomicLong();
+  // blocks in memory that must not be written to disk
+  private final Set<String> memoryOnly = ConcurrentHashMap.newKeySet();
+
+  public TieredBlockCache(Configuration conf, CacheType type) throws IOException {
+    this(conf, type, TieredBlockCacheConfiguration.getDiskFile(conf, type),
+        TieredBlockCacheConfiguration.getDiskSize(conf, type),
+        TieredBlockCacheConfiguration.getSegmentSize(conf, type),
+        TieredBlockCacheConfiguration.getSpillQueueSize(conf, type));
+  }
+
+  TieredBlockCache(Configuration conf, CacheType type, Path file, long diskSize, int segmentSize,
+      int spillQueueSize) throws IOException {
+    this.disk = new DiskBlockTier(file, diskSize, segmentSize);
+    this.spillPool = ThreadPools.createThreadPool(1, 1, 0L, TimeUnit.MILLISECONDS,
+        "TieredBlockCache " + type + " spill", new ArrayBlockingQueue<>(spillQueueSize), false);
+    this.memory = new TinyLfuBlockCache(conf, type, this::removed);
+  }
+
+  private void removed(String blockName, byte[] buffer, boolean evicted) {
+    if (memoryOnly.remove(blockName) || !evicted || disk.contains(blockName)) {
+      return;
+    }
+    try {
+      spillPool.execute(() -> disk.write(blockName, buffer));
+    } catch (RejectedExecutionException e) {
+      spillsDropped.incrementAndGet();
+    }
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    return memory.cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    CacheEntry entry = memory.getBlock(blockName);
+    if (entry == null) {
+      byte[] buffer = disk.read(blockName);
+      if (buffer != null) {
+        entry = memory.cacheBlock(blockName, buffer);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Looks for a block on disk before loading it.
+   */
+  private class DiskLoader implements Loader {
+    private final String blockName;
+    private final Loader loader;
+
+    DiskLoader(String blockName, Loader loader) {
+      this.blockName = blockName;
+      this.loader = loader;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return loader.getDependencies().entrySet().stream().collect(
+          Collectors.toMap(Map.Entry::getKey, e -> new DiskLoader(e.getKey(), e.getValue())));
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      byte[] buffer = disk.read(blockName);
+      if (buffer != null) {
+        return buffer.length > maxSize ? null : buffer;
+      }
+      buffer = loader.load(maxSize, dependencies);
+      if (buffer != null && !loader.isPersistable()) {
+        memoryOnly.add(blockName);
+      }
+      return buffer;
+    }
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    return memory.getBlock(blockName, new DiskLoader(blockName, loader));
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return memory.getMaxHeapSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return memory.getMaxSize();
+  }
+
+  boolean isOnDisk(String blockName) {
+    return disk.contains(blockName);
+  }
+
+  int getMemoryOnlyCount() {
+    return memoryOnly.size();
+  }
+
+  /**
+   * @return the number of evicted blocks not written to disk because the writer was behind
+   */
+  public long getSpillsDropped() {
+    return spillsDropped.get();
+  }
+
+  private static Stats stats(long hits, long requests) {
+    return new Stats() {
+      @Override
+      public long hitCount() {
+        return hits;
+      }
+
+      @Override
+      public long requestCount() {
+        return requests;
+      }
+    };
+  }
+
+  @Override
+  public Stats getStats() {
+    Stats memoryStats = memory.getStats();
+    Stats diskStats = stats(disk.getHitCount(), disk.getRequestCount());
+    Stats total = stats(memoryStats.hitCount() + diskStats.hitCount(), memoryStats.requestCount());
+    Map<String,Stats> tiers = Map.of(MEMORY_TIER, memoryStats, DISK_TIER, diskStats);
+    return new Stats() {
+      @Override
+      public long hitCount() {
+        return total.hitCount();
+      }
+
+      @Override
+      public long requestCount() {
+        return total.requestCount();
+      }
+
+      @Override
+      public Map<String,Stats> getTierStats() {
+        return tiers;
+      }
+    };
+  }
+
+  /**
+   * Stop writing evicted blocks and close the disk tier, keeping the blocks written so far.
+   */
+  void close() {
+    spillPool.shutdownNow();
+    try {
+      spillPool.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    disk.close();
+    memoryOnly.clear();
+    log.debug("Closed disk tier holding {} blocks", disk.getBlockCount());
+  }
+}
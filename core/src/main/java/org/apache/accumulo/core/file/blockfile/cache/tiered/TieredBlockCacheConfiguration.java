@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+public final class TieredBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "tiered";
+
+  /**
+   * Local directory for the disk tier, which is a file per cache type. Each process needs its own
+   * directory.
+   */
+  public static final String DISK_DIR_PROPERTY = "l2.dir";
+
+  public static final String DISK_SIZE_PROPERTY = "l2.size";
+  public static final String DEFAULT_DISK_SIZE = "10G";
+
+  /**
+   * The disk tier is reused a segment at a time, a block larger than a segment is not written.
+   */
+  public static final String SEGMENT_SIZE_PROPERTY = "l2.segment.size";
+  public static final String DEFAULT_SEGMENT_SIZE = "64M";
+
+  /**
+   * The number of evicted blocks waiting to be written to disk, more are dropped.
+   */
+  public static final String SPILL_QUEUE_PROPERTY = "l2.spill.queue";
+  public static final String DEFAULT_SPILL_QUEUE = "1000";
+
+  private TieredBlockCacheConfiguration() {}
+
+  private static Map<String,String> props(Configuration conf, CacheType type) {
+    return conf.getProperties(PROPERTY_PREFIX, type);
+  }
+
+  static Path getDiskFile(Configuration conf, CacheType type) {
+    String dir = props(conf, type).get(DISK_DIR_PROPERTY);
+    if (dir == null || dir.isBlank()) {
+      throw new IllegalArgumentException("The " + PROPERTY_PREFIX + " cache property "
+          + DISK_DIR_PROPERTY + " is not set for " + type);
+    }
+    return Path.of(dir, type.name().toLowerCase(Locale.ROOT) + ".cache");
+  }
+
+  static long getDiskSize(Configuration conf, CacheType type) {
+    return ConfigurationTypeHelper.getFixedMemoryAsBytes(
+        props(conf, type).getOrDefault(DISK_SIZE_PROPERTY, DEFAULT_DISK_SIZE));
+  }
+
+  static int getSegmentSize(Configuration conf, CacheType type) {
+    long segmentSize = ConfigurationTypeHelper.getFixedMemoryAsBytes(
+        props(conf, type).getOrDefault(SEGMENT_SIZE_PROPERTY, DEFAULT_SEGMENT_SIZE));
+    if (segmentSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Segment size " + segmentSize + " is too large");
+    }
+    return (int) segmentSize;
+  }
+
+  static int getSpillQueueSize(Configuration conf, CacheType type) {
+    return Integer
+        .parseInt(props(conf, type).getOrDefault(SPILL_QUEUE_PROPERTY, DEFAULT_SPILL_QUEUE));
+  }
+}
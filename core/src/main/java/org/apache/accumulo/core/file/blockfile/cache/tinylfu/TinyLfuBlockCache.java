@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 /**
@@ -61,12 +62,37 @@ public final class TinyLfuBlockCache implements BlockCache {
   private final ScheduledExecutorService statsExecutor =
       ThreadPools.createScheduledExecutorService(1, "TinyLfuBlockCacheStatsExecutor", true);
 
+  /**
+   * Told when a block leaves the cache.
+   */
+  public interface RemovalListener {
+    /**
+     * @param evicted
+     *          true if the block was evicted to make room for others
+     */
+    void removed(String blockName, byte[] buffer, boolean evicted);
+  }
+
   public TinyLfuBlockCache(Configuration conf, CacheType type) {
+    this(conf, type, (blockName, buffer, evicted) -> {});
+  }
+
+  /**
+   * @param removalListener
+   *          called with the name and bytes of each block that leaves the cache, on a thread other
+   *          than the one that caused the removal. Not called when a block is replaced by another
+   *          block of the same name.
+   */
+  public TinyLfuBlockCache(Configuration conf, CacheType type, RemovalListener removalListener) {
     cache = Caffeine.newBuilder()
         .initialCapacity((int) Math.ceil(1.2 * conf.getMaxSize(type) / conf.getBlockSize()))
         .weigher((String blockName, Block block) -> {
           int keyWeight = ClassSize.align(blockName.length()) + ClassSize.STRING;
           return keyWeight + block.weight();
+        }).removalListener((String blockName, Block block, RemovalCause cause) -> {
+          if (cause != RemovalCause.REPLACED) {
+            removalListener.removed(blockName, block.getBuffer(), cause.wasEvicted());
+          }
         }).maximumWeight(conf.getMaxSize(type)).recordStats().build();
     policy = cache.policy().eviction().get();
     maxSize = (int) Math.min(Integer.MAX_VALUE, policy.getMaximum());
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+
+/**
+ * Loads data blocks into the data cache ahead of sequential readers, on an executor shared by all
+ * readers of a process. Readers decide what to prefetch, see
+ * {@link CachableBlockFile.Reader.PrefetchWindow}. This keeps counts of how many prefetched blocks
+ * were read and how many were loaded but never read.
+ */
+public class BlockPrefetcher {
+
+  private final Executor executor;
+
+  private final AtomicLong requested = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong wasted = new AtomicLong();
+
+  /**
+   * @param executor
+   *          runs the prefetches, it should reject work when it is too far behind rather than queue
+   *          it without bound
+   */
+  public BlockPrefetcher(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * @return the running prefetch, or null if the executor rejected it
+   */
+  FutureTask<CacheEntry> submit(Callable<CacheEntry> load) {
+    requested.incrementAndGet();
+    FutureTask<CacheEntry> task = new FutureTask<>(load);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      dropped.incrementAndGet();
+      return null;
+    }
+    return task;
+  }
+
+  /**
+   * Cancels a prefetch that has not started, and takes it off the queue of the executor so that it
+   * does not hold a slot other readers could use.
+   *
+   * @return true if the prefetch had not started and never will
+   */
+  boolean cancel(FutureTask<CacheEntry> task) {
+    if (!task.cancel(false)) {
+      return false;
+    }
+    if (executor instanceof ThreadPoolExecutor) {
+      ((ThreadPoolExecutor) executor).remove(task);
+    }
+    return true;
+  }
+
+  void hit() {
+    hits.incrementAndGet();
+  }
+
+  void wasted() {
+    wasted.incrementAndGet();
+  }
+
+  /**
+   * @return the number of blocks readers asked to prefetch
+   */
+  public long getRequested() {
+    return requested.get();
+  }
+
+  /**
+   * @return the number of prefetches not run because the executor was busy
+   */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of prefetched blocks that readers then read
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of blocks that were prefetched, but that the reader that asked for them
+   *         moved away from without reading
+   */
+  public long getWasted() {
+    return wasted.get();
+  }
+}
@@ -24,10 +24,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
@@ -295,6 +299,49 @@ public class CachableBlockFile {
       }
     }
 
+    /**
+     * Loads a data block as it is stored in the file, for a data cache that keeps blocks
+     * compressed.
+     */
+    private class StoredBlockLoader implements Loader {
+      private final int blockIndex;
+      private final long offset;
+      private final long compressedSize;
+
+      private StoredBlockLoader(int blockIndex) {
+        this.blockIndex = blockIndex;
+        this.offset = -1;
+        this.compressedSize = -1;
+      }
+
+      private StoredBlockLoader(long offset, long compressedSize) {
+        this.blockIndex = -1;
+        this.offset = offset;
+        this.compressedSize = compressedSize;
+      }
+
+      @Override
+      public Map<String,Loader> getDependencies() {
+        return Collections.emptyMap();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        try {
+          BCFile.Reader reader = getBCFileForData();
+          long size =
+              blockIndex >= 0 ? reader.getDataBlockCompressedSize(blockIndex) : compressedSize;
+          if (size > Math.min(maxSize, MAX_ARRAY_SIZE)) {
+            return null;
+          }
+          return blockIndex >= 0 ? reader.getStoredDataBlock(blockIndex)
+              : reader.getStoredDataBlock(offset, compressedSize);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    }
+
     private abstract class BaseBlockLoader implements Loader {
 
       abstract BlockReader getBlockReader(int maxSize, BCFile.Reader bcfr) throws IOException;
@@ -302,6 +349,7 @@ public class CachableBlockFile {
       abstract String getBlockId();
 
       private boolean loadingMetaBlock;
+      private volatile boolean persistable = true;
 
       public BaseBlockLoader(boolean loadingMetaBlock) {
         super();
@@ -335,6 +383,8 @@ public class CachableBlockFile {
           if (_currBlock == null) {
             return null;
           }
+          // the block is read decrypted
+          persistable = !reader.isEncrypted();
 
           byte[] b = null;
           try {
@@ -352,6 +402,11 @@ public class CachableBlockFile {
           throw new UncheckedIOException(e);
         }
       }
+
+      @Override
+      public boolean isPersistable() {
+        return persistable;
+      }
     }
 
     public Reader(CachableBuilder b) {
@@ -420,10 +475,11 @@ public class CachableBlockFile {
     public CachedBlockRead getDataBlock(int blockIndex) throws IOException {
       BlockCache _dCache = cacheProvider.getDataCache();
       if (_dCache != null) {
-        String _lookup = this.cacheId + "O" + blockIndex;
-        CacheEntry ce = _dCache.getBlock(_lookup, new OffsetBlockLoader(blockIndex, false));
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        CacheEntry ce = _dCache.getBlock(dataBlockLookup("O", blockIndex, compressed),
+            dataBlockLoader(blockIndex, compressed));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return cachedDataBlock(ce, blockIndex, compressed);
         }
       }
 
@@ -435,11 +491,11 @@ public class CachableBlockFile {
         throws IOException {
       BlockCache _dCache = cacheProvider.getDataCache();
       if (_dCache != null) {
-        String _lookup = this.cacheId + "R" + offset;
-        CacheEntry ce =
-            _dCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, false));
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        CacheEntry ce = _dCache.getBlock(dataBlockLookup("R", offset, compressed),
+            dataBlockLoader(offset, compressedSize, rawSize, compressed));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return cachedDataBlock(ce, rawSize, compressed);
         }
       }
 
@@ -447,6 +503,70 @@ public class CachableBlockFile {
       return new CachedBlockRead(_currBlock);
     }
 
+    /**
+     * Data blocks kept compressed in the cache are looked up by other names than decompressed ones,
+     * so that a change to how a table caches its blocks does not find blocks in the other form.
+     */
+    private String dataBlockLookup(String kind, long position, boolean compressed) {
+      return cacheId + (compressed ? "C" : "") + kind + position;
+    }
+
+    private Loader dataBlockLoader(int blockIndex, boolean compressed) {
+      return compressed ? new StoredBlockLoader(blockIndex)
+          : new OffsetBlockLoader(blockIndex, false);
+    }
+
+    private Loader dataBlockLoader(long offset, long compressedSize, long rawSize,
+        boolean compressed) {
+      return compressed ? new StoredBlockLoader(offset, compressedSize)
+          : new RawBlockLoader(offset, compressedSize, rawSize, false);
+    }
+
+    private CachedBlockRead cachedDataBlock(CacheEntry ce, int blockIndex, boolean compressed)
+        throws IOException {
+      if (!compressed) {
+        return new CachedBlockRead(ce, ce.getBuffer());
+      }
+      return decompress(ce, getBCFileForData().getDataBlockRawSize(blockIndex));
+    }
+
+    private CachedBlockRead cachedDataBlock(CacheEntry ce, long rawSize, boolean compressed)
+        throws IOException {
+      if (!compressed) {
+        return new CachedBlockRead(ce, ce.getBuffer());
+      }
+      return decompress(ce, rawSize);
+    }
+
+    /**
+     * Decompress a data block cached as it is stored in the file into a pooled buffer, which is
+     * returned to the pool when the block is closed.
+     */
+    private CachedBlockRead decompress(CacheEntry ce, long rawSize) throws IOException {
+      long start = System.nanoTime();
+      byte[] buffer = DecompressionBuffers.get((int) rawSize);
+      try (BlockReader blockReader = getBCFileForData().getDataBlock(ce.getBuffer(), rawSize)) {
+        blockReader.readFully(buffer, 0, (int) rawSize);
+      } catch (IOException | RuntimeException e) {
+        DecompressionBuffers.release(buffer);
+        throw e;
+      }
+      DecompressionBuffers.decompressed(System.nanoTime() - start);
+      return new CachedBlockRead(ce, buffer, (int) rawSize, DecompressionBuffers::release);
+    }
+
+    private BCFile.Reader getBCFileForData() throws IOException {
+      BCFile.Reader reader = bcfr.get();
+      return reader == null ? getBCFile() : reader;
+    }
+
+    /**
+     * @return the BCFile reader of the file, for copying its data blocks as they are stored
+     */
+    public BCFile.Reader getBCFileReader() throws IOException {
+      return getBCFileForData();
+    }
+
     @Override
     public synchronized void close() throws IOException {
       if (closed)
@@ -471,12 +591,159 @@ public class CachableBlockFile {
       this.cacheProvider = cacheProvider;
     }
 
+    /**
+     * Wraps the loader of a prefetched block to record if the prefetch read it from the file.
+     */
+    private static class Prefetch implements Loader {
+      private final Loader loader;
+      private volatile boolean loaded = false;
+      private FutureTask<CacheEntry> task;
+
+      Prefetch(Loader loader) {
+        this.loader = loader;
+      }
+
+      @Override
+      public Map<String,Loader> getDependencies() {
+        return loader.getDependencies();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        byte[] data = loader.load(maxSize, dependencies);
+        loaded = data != null;
+        return data;
+      }
+
+      @Override
+      public boolean isPersistable() {
+        return loader.isPersistable();
+      }
+    }
+
+    /**
+     * Prefetches data blocks for one sequential reader of the file. The reader says which blocks it
+     * will read next, they are loaded into the data cache by the {@link BlockPrefetcher} of the
+     * cache provider, and the reader then gets its blocks through this so that it waits for a block
+     * that is still loading rather than reading it a second time. A window is used by one thread.
+     */
+    public class PrefetchWindow {
+      private final Map<String,Prefetch> pending = new HashMap<>();
+      private BlockPrefetcher prefetcher;
+
+      /**
+       * @return the number of blocks to keep prefetched ahead of a sequential reader, 0 when the
+       *         cache provider does not prefetch
+       */
+      public int size() {
+        CacheProvider provider = cacheProvider;
+        if (provider.getPrefetcher() == null || provider.getDataCache() == null) {
+          return 0;
+        }
+        return provider.getPrefetchBlocks();
+      }
+
+      public void prefetch(int blockIndex) {
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        submit(dataBlockLookup("O", blockIndex, compressed),
+            dataBlockLoader(blockIndex, compressed));
+      }
+
+      public void prefetch(long offset, long compressedSize, long rawSize) {
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        submit(dataBlockLookup("R", offset, compressed),
+            dataBlockLoader(offset, compressedSize, rawSize, compressed));
+      }
+
+      private void submit(String lookup, Loader loader) {
+        CacheProvider provider = cacheProvider;
+        BlockCache _dCache = provider.getDataCache();
+        prefetcher = provider.getPrefetcher();
+        if (prefetcher == null || _dCache == null || pending.containsKey(lookup)) {
+          return;
+        }
+
+        Prefetch prefetch = new Prefetch(loader);
+        prefetch.task = prefetcher.submit(() -> _dCache.getBlock(lookup, prefetch));
+        if (prefetch.task != null) {
+          pending.put(lookup, prefetch);
+        }
+      }
+
+      public CachedBlockRead getDataBlock(int blockIndex) throws IOException {
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        CacheEntry ce = take(dataBlockLookup("O", blockIndex, compressed));
+        if (ce != null) {
+          return cachedDataBlock(ce, blockIndex, compressed);
+        }
+        return Reader.this.getDataBlock(blockIndex);
+      }
+
+      public CachedBlockRead getDataBlock(long offset, long compressedSize, long rawSize)
+          throws IOException {
+        boolean compressed = cacheProvider.isDataCacheCompressed();
+        CacheEntry ce = take(dataBlockLookup("R", offset, compressed));
+        if (ce != null) {
+          return cachedDataBlock(ce, rawSize, compressed);
+        }
+        return Reader.this.getDataBlock(offset, compressedSize, rawSize);
+      }
+
+      /**
+       * @return the prefetched block, waiting for it if it is already loading, or null if it was
+       *         not prefetched, could not be, or had not started loading. A prefetch that has not
+       *         started is cancelled so the caller reads the block itself rather than waiting
+       *         behind the prefetches of other readers.
+       */
+      private CacheEntry take(String lookup) {
+        if (pending.isEmpty()) {
+          return null;
+        }
+        Prefetch prefetch = pending.remove(lookup);
+        if (prefetch == null) {
+          return null;
+        }
+
+        if (prefetcher.cancel(prefetch.task)) {
+          return null;
+        }
+
+        try {
+          CacheEntry ce = prefetch.task.get();
+          if (ce != null && prefetch.loaded) {
+            prefetcher.hit();
+          }
+          return ce;
+        } catch (ExecutionException | CancellationException e) {
+          log.debug("Prefetch of {} failed, reading it again", lookup, e);
+          return null;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return null;
+        }
+      }
+
+      /**
+       * Drop the blocks prefetched for this window that have not been read, for when the reader
+       * moves somewhere else in the file or is closed. Prefetches that have not started are
+       * cancelled.
+       */
+      public void clear() {
+        for (Prefetch prefetch : pending.values()) {
+          if (!prefetcher.cancel(prefetch.task) && prefetch.loaded) {
+            prefetcher.wasted();
+          }
+        }
+        pending.clear();
+      }
+    }
   }
 
   public static class CachedBlockRead extends DataInputStream {
     private SeekableByteArrayInputStream seekableInput;
     private final CacheEntry cb;
     boolean indexable;
+    private Consumer<byte[]> release;
 
     public CachedBlockRead(InputStream in) {
       super(in);
@@ -489,6 +756,16 @@ public class CachableBlockFile {
       this(new SeekableByteArrayInputStream(buf), cb);
     }
 
+    /**
+     * @param buf
+     *          holds the block in its first length bytes, and is passed to release once when this
+     *          is closed
+     */
+    public CachedBlockRead(CacheEntry cb, byte[] buf, int length, Consumer<byte[]> release) {
+      this(new SeekableByteArrayInputStream(buf, length), cb);
+      this.release = release;
+    }
+
     private CachedBlockRead(SeekableByteArrayInputStream seekableInput, CacheEntry cb) {
       super(seekableInput);
       this.seekableInput = seekableInput;
@@ -519,5 +796,15 @@ public class CachableBlockFile {
     public void indexWeightChanged() {
       cb.indexWeightChanged();
     }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      if (release != null) {
+        Consumer<byte[]> r = release;
+        release = null;
+        r.accept(seekableInput.getBuffer());
+      }
+    }
   }
 }
@@ -26,4 +26,28 @@ public interface CacheProvider {
   BlockCache getDataCache();
 
   BlockCache getIndexCache();
+
+  /**
+   * @return the prefetcher used to load data blocks ahead of sequential reads, or null to not
+   *         prefetch
+   */
+  default BlockPrefetcher getPrefetcher() {
+    return null;
+  }
+
+  /**
+   * @return the number of data blocks to prefetch ahead of a sequential read, only used when
+   *         {@link #getPrefetcher()} is not null
+   */
+  default int getPrefetchBlocks() {
+    return 0;
+  }
+
+  /**
+   * @return true to keep data blocks in the data cache as they are stored in the file, compressed,
+   *         and decompress them each time they are read
+   */
+  default boolean isDataCacheCompressed() {
+    return false;
+  }
 }
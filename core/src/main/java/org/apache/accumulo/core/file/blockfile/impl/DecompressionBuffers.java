@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers that data blocks cached in compressed form are decompressed into each time they are read,
+ * reused so that reading such a block does not allocate a new array, and counts of the time spent
+ * decompressing them. The counts are for the process, they are published by tablet servers.
+ */
+public final class DecompressionBuffers {
+
+  // enough for the blocks a busy server has open at once, more are left to the garbage collector
+  private static final int POOL_SIZE = 64;
+
+  private static final ArrayBlockingQueue<byte[]> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+  private static final AtomicLong decompressions = new AtomicLong();
+  private static final AtomicLong decompressionNanos = new AtomicLong();
+
+  private DecompressionBuffers() {}
+
+  /**
+   * @return a buffer at least size bytes long, its contents are undefined
+   */
+  static byte[] get(int size) {
+    byte[] buffer = pool.poll();
+    if (buffer == null || buffer.length < size) {
+      // leave room for the variation in size of blocks of a file, so buffers are reused across them
+      buffer = new byte[(int) Math.min(Integer.MAX_VALUE - 8, size + (long) size / 8)];
+    }
+    return buffer;
+  }
+
+  static void release(byte[] buffer) {
+    pool.offer(buffer);
+  }
+
+  static void decompressed(long nanos) {
+    decompressions.incrementAndGet();
+    decompressionNanos.addAndGet(nanos);
+  }
+
+  /**
+   * @return the number of reads of data blocks cached in compressed form
+   */
+  public static long getDecompressions() {
+    return decompressions.get();
+  }
+
+  /**
+   * @return the total time spent decompressing data blocks read from the cache
+   */
+  public static long getDecompressionNanos() {
+    return decompressionNanos.get();
+  }
+}
@@ -27,9 +27,17 @@ public class ScanCacheProvider implements CacheProvider {
 
   private final BlockCache indexCache;
   private final BlockCache dataCache;
+  private final BlockPrefetcher prefetcher;
+  private final int prefetchBlocks;
+  private final boolean dataCacheCompressed;
 
   public ScanCacheProvider(AccumuloConfiguration tableConfig, ScanDispatch dispatch,
       BlockCache indexCache, BlockCache dataCache) {
+    this(tableConfig, dispatch, indexCache, dataCache, null);
+  }
+
+  public ScanCacheProvider(AccumuloConfiguration tableConfig, ScanDispatch dispatch,
+      BlockCache indexCache, BlockCache dataCache, BlockPrefetcher prefetcher) {
     switch (dispatch.getIndexCacheUsage()) {
       case ENABLED:
         this.indexCache = indexCache;
@@ -66,6 +74,22 @@ public class ScanCacheProvider implements CacheProvider {
         throw new IllegalStateException();
     }
 
+    // prefetched blocks are only of use if they are put in the cache the scan reads from
+    if (prefetcher == null || this.dataCache == null
+        || this.dataCache instanceof OpportunisticBlockCache) {
+      this.prefetcher = null;
+      this.prefetchBlocks = 0;
+    } else {
+      int blocks = dispatch.getPrefetchBlocks();
+      if (blocks == ScanDispatch.TABLE_PREFETCH_BLOCKS) {
+        blocks = tableConfig.getCount(Property.TABLE_SCAN_PREFETCH_BLOCKS);
+      }
+      this.prefetcher = blocks > 0 ? prefetcher : null;
+      this.prefetchBlocks = blocks;
+    }
+
+    this.dataCacheCompressed =
+        this.dataCache != null && tableConfig.getBoolean(Property.TABLE_BLOCKCACHE_COMPRESSED);
   }
 
   @Override
@@ -77,4 +101,19 @@ public class ScanCacheProvider implements CacheProvider {
   public BlockCache getIndexCache() {
     return indexCache;
   }
+
+  @Override
+  public BlockPrefetcher getPrefetcher() {
+    return prefetcher;
+  }
+
+  @Override
+  public int getPrefetchBlocks() {
+    return prefetchBlocks;
+  }
+
+  @Override
+  public boolean isDataCacheCompressed() {
+    return dataCacheCompressed;
+  }
 }
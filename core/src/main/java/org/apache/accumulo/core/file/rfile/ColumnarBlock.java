@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CF_COMMON_PREFIX;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CF_SAME;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CQ_COMMON_PREFIX;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CQ_SAME;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CV_COMMON_PREFIX;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.CV_SAME;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.DELETED;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.PREFIX_COMPRESSION_ENABLED;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.ROW_COMMON_PREFIX;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.ROW_SAME;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.TS_DIFF;
+import static org.apache.accumulo.core.file.rfile.RelativeKey.TS_SAME;
+
+import java.util.Arrays;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.util.UnsynchronizedBuffer;
+import org.apache.hadoop.io.WritableComparator;
+
+/**
+ * The entries of an RFile data block, decoded in one pass over the block's bytes instead of one
+ * entry at a time through a {@link java.io.DataInput}. The fields of every key are held as offsets
+ * and lengths into one backing array, where a field that is the same as the previous entry's field
+ * refers to the same bytes. Values are offsets into the block. A {@link Key} or {@link Value} is
+ * only created for an entry when it is asked for, and consecutive keys share the arrays of fields
+ * that did not change.
+ */
+final class ColumnarBlock {
+
+  private static final int ROW = 0;
+  private static final int CF = 1;
+  private static final int CQ = 2;
+  private static final int CV = 3;
+  private static final int NUM_FIELDS = 4;
+
+  private byte[] data = new byte[1024];
+  private int dataLen;
+
+  private byte[] block;
+  private int cursor;
+
+  private int[][] fieldOffsets = new int[NUM_FIELDS][];
+  private int[][] fieldLengths = new int[NUM_FIELDS][];
+  private long[] timestamps;
+  private boolean[] deleted;
+  private int[] valueOffsets;
+  private int[] valueLengths;
+
+  private int size = 0;
+  private int position = 0;
+  private Key firstPrevKey;
+
+  // arrays created for the most recent key, reused by later keys with the same fields
+  private final byte[][] fieldArrays = new byte[NUM_FIELDS][];
+  private final int[] fieldArrayOffsets = new int[NUM_FIELDS];
+
+  private Key topKey;
+  private final Value topValue = new Value();
+  private int topValueIndex = -1;
+
+  ColumnarBlock() {
+    ensureEntries(64);
+  }
+
+  private void ensureEntries(int entries) {
+    if (timestamps != null && timestamps.length >= entries) {
+      return;
+    }
+    int len = UnsynchronizedBuffer.nextArraySize(entries);
+    for (int f = 0; f < NUM_FIELDS; f++) {
+      fieldOffsets[f] = new int[len];
+      fieldLengths[f] = new int[len];
+    }
+    timestamps = new long[len];
+    deleted = new boolean[len];
+    valueOffsets = new int[len];
+    valueLengths = new int[len];
+  }
+
+  private void ensureData(int additional) {
+    if (dataLen + additional > data.length) {
+      data = Arrays.copyOf(data, UnsynchronizedBuffer.nextArraySize(dataLen + additional));
+    }
+  }
+
+  private int append(ByteSequence bs) {
+    int offset = dataLen;
+    ensureData(bs.length());
+    for (int i = 0; i < bs.length(); i++) {
+      data[dataLen++] = bs.byteAt(i);
+    }
+    return offset;
+  }
+
+  private int readVInt() {
+    return (int) readVLong();
+  }
+
+  // same encoding as WritableUtils.readVLong
+  private long readVLong() {
+    byte firstByte = block[cursor++];
+    if (firstByte >= -112) {
+      return firstByte;
+    }
+    boolean negative = firstByte < -120;
+    int len = negative ? -119 - firstByte : -111 - firstByte;
+    long i = 0;
+    for (int idx = 0; idx < len - 1; idx++) {
+      i = (i << 8) | (block[cursor++] & 0xFF);
+    }
+    return negative ? ~i : i;
+  }
+
+  private int readInt() {
+    int i = ((block[cursor] & 0xFF) << 24) | ((block[cursor + 1] & 0xFF) << 16)
+        | ((block[cursor + 2] & 0xFF) << 8) | (block[cursor + 3] & 0xFF);
+    cursor += 4;
+    return i;
+  }
+
+  private void readField(int field, int entry, boolean same, boolean prefixed) {
+    int[] offsets = fieldOffsets[field];
+    int[] lengths = fieldLengths[field];
+    if (same) {
+      offsets[entry] = offsets[entry - 1];
+      lengths[entry] = lengths[entry - 1];
+    } else if (prefixed) {
+      int prefixLen = readVInt();
+      int remainingLen = readVInt();
+      ensureData(prefixLen + remainingLen);
+      System.arraycopy(data, offsets[entry - 1], data, dataLen, prefixLen);
+      System.arraycopy(block, cursor, data, dataLen + prefixLen, remainingLen);
+      cursor += remainingLen;
+      offsets[entry] = dataLen;
+      lengths[entry] = prefixLen + remainingLen;
+      dataLen += prefixLen + remainingLen;
+    } else {
+      int len = readVInt();
+      ensureData(len);
+      System.arraycopy(block, cursor, data, dataLen, len);
+      cursor += len;
+      offsets[entry] = dataLen;
+      lengths[entry] = len;
+      dataLen += len;
+    }
+  }
+
+  /**
+   * Decode entries written by {@link RelativeKey} followed by their values.
+   *
+   * @param buffer
+   *          the bytes of the block
+   * @param start
+   *          offset of the first entry to decode
+   * @param numEntries
+   *          the number of entries to decode
+   * @param prevKey
+   *          the key before the first entry to decode
+   * @return the offset after the last entry decoded
+   */
+  int decode(byte[] buffer, int start, int numEntries, Key prevKey) {
+    this.block = buffer;
+    this.cursor = start;
+    this.dataLen = 0;
+    this.firstPrevKey = prevKey;
+    // entry 0 holds the previous key, so that the first entry decoded can refer to it
+    ensureEntries(numEntries + 1);
+
+    ByteSequence[] prevFields = fields(prevKey);
+    for (int f = 0; f < NUM_FIELDS; f++) {
+      fieldOffsets[f][0] = append(prevFields[f]);
+      fieldLengths[f][0] = prevFields[f].length();
+    }
+    timestamps[0] = prevKey.getTimestamp();
+    deleted[0] = prevKey.isDeleted();
+
+    for (int entry = 1; entry <= numEntries; entry++) {
+      byte fieldsSame = block[cursor++];
+      byte fieldsPrefixed = 0;
+      if ((fieldsSame & PREFIX_COMPRESSION_ENABLED) == PREFIX_COMPRESSION_ENABLED) {
+        fieldsPrefixed = block[cursor++];
+      }
+
+      readField(ROW, entry, (fieldsSame & ROW_SAME) == ROW_SAME,
+          (fieldsPrefixed & ROW_COMMON_PREFIX) == ROW_COMMON_PREFIX);
+      readField(CF, entry, (fieldsSame & CF_SAME) == CF_SAME,
+          (fieldsPrefixed & CF_COMMON_PREFIX) == CF_COMMON_PREFIX);
+      readField(CQ, entry, (fieldsSame & CQ_SAME) == CQ_SAME,
+          (fieldsPrefixed & CQ_COMMON_PREFIX) == CQ_COMMON_PREFIX);
+      readField(CV, entry, (fieldsSame & CV_SAME) == CV_SAME,
+          (fieldsPrefixed & CV_COMMON_PREFIX) == CV_COMMON_PREFIX);
+
+      if ((fieldsSame & TS_SAME) == TS_SAME) {
+        timestamps[entry] = timestamps[entry - 1];
+      } else if ((fieldsPrefixed & TS_DIFF) == TS_DIFF) {
+        timestamps[entry] = readVLong() + timestamps[entry - 1];
+      } else {
+        timestamps[entry] = readVLong();
+      }
+      deleted[entry] = (fieldsSame & DELETED) == DELETED;
+
+      valueLengths[entry] = readInt();
+      valueOffsets[entry] = cursor;
+      cursor += valueLengths[entry];
+    }
+
+    Arrays.fill(fieldArrays, null);
+    size = numEntries + 1;
+    position = 1;
+    topKey = null;
+    topValueIndex = -1;
+    return cursor;
+  }
+
+  private byte[] fieldArray(int field, int entry) {
+    int offset = fieldOffsets[field][entry];
+    int len = fieldLengths[field][entry];
+    // an empty field has the same offset as whatever field was appended after it, so the length
+    // must be checked too
+    if (fieldArrays[field] == null || fieldArrayOffsets[field] != offset
+        || fieldArrays[field].length != len) {
+      fieldArrays[field] = Arrays.copyOfRange(data, offset, offset + len);
+      fieldArrayOffsets[field] = offset;
+    }
+    return fieldArrays[field];
+  }
+
+  private Key createKey(int entry) {
+    if (entry == 0) {
+      return firstPrevKey;
+    }
+    return new Key(fieldArray(ROW, entry), fieldArray(CF, entry), fieldArray(CQ, entry),
+        fieldArray(CV, entry), timestamps[entry], deleted[entry], false);
+  }
+
+  /**
+   * @return true if there are decoded entries after the current one
+   */
+  boolean hasNext() {
+    return position + 1 < size;
+  }
+
+  void next() {
+    position++;
+    topKey = null;
+  }
+
+  /**
+   * @return the number of decoded entries before the current one
+   */
+  int getPosition() {
+    return position - 1;
+  }
+
+  Key getTopKey() {
+    if (topKey == null) {
+      topKey = createKey(position);
+    }
+    return topKey;
+  }
+
+  Value getTopValue() {
+    if (topValueIndex != position) {
+      int offset = valueOffsets[position];
+      topValue.set(Arrays.copyOfRange(block, offset, offset + valueLengths[position]));
+      topValueIndex = position;
+    }
+    return topValue;
+  }
+
+  /**
+   * @return the key before the current one
+   */
+  Key getPrevKey() {
+    return createKey(position - 1);
+  }
+
+  private int compareField(int field, int entry, ByteSequence bs) {
+    return WritableComparator.compareBytes(data, fieldOffsets[field][entry],
+        fieldLengths[field][entry], bs.getBackingArray(), bs.offset(), bs.length());
+  }
+
+  /**
+   * Move forward to the first entry whose row, family and qualifier are not before those of the
+   * given key, or to the last entry if there is none, like
+   * {@link RelativeKey#fastSkip(java.io.DataInput, Key, org.apache.accumulo.core.util.MutableByteSequence, Key, Key, int)}.
+   *
+   * @return the number of entries moved forward
+   */
+  int skipTo(Key seekKey) {
+    ByteSequence row = seekKey.getRowData();
+    ByteSequence cf = seekKey.getColumnFamilyData();
+    ByteSequence cq = seekKey.getColumnQualifierData();
+
+    int low = position;
+    int high = size - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compareField(ROW, mid, row);
+      if (cmp == 0) {
+        cmp = compareField(CF, mid, cf);
+        if (cmp == 0) {
+          cmp = compareField(CQ, mid, cq);
+        }
+      }
+      if (cmp < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    int skipped = low - position;
+    if (skipped > 0) {
+      position = low;
+      topKey = null;
+    }
+    return skipped;
+  }
+
+  private static ByteSequence[] fields(Key key) {
+    return new ByteSequence[] {key.getRowData(), key.getColumnFamilyData(),
+        key.getColumnQualifierData(), key.getColumnVisibilityData()};
+  }
+
+  // same order as Key.compareTo, without creating a key for the entry
+  private int compareKey(int entry, ByteSequence[] keyFields, Key key) {
+    for (int f = 0; f < NUM_FIELDS; f++) {
+      int cmp = compareField(f, entry, keyFields[f]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    int cmp = Long.compare(key.getTimestamp(), timestamps[entry]);
+    if (cmp == 0 && deleted[entry] != key.isDeleted()) {
+      cmp = deleted[entry] ? -1 : 1;
+    }
+    return cmp;
+  }
+
+  private boolean afterEndKey(Range range, ByteSequence[] endFields, int entry) {
+    int cmp = compareKey(entry, endFields, range.getEndKey());
+    return range.isEndKeyInclusive() ? cmp > 0 : cmp >= 0;
+  }
+
+  /**
+   * @return the position, as returned by {@link #getPosition()}, of the first entry after the end
+   *         of the range
+   */
+  int findEnd(Range range) {
+    if (range.getEndKey() == null) {
+      return size - 1;
+    }
+    // the end key is compared to the decoded fields in place, no key is created for an entry
+    ByteSequence[] endFields = fields(range.getEndKey());
+    if (!afterEndKey(range, endFields, size - 1)) {
+      return size - 1;
+    }
+    int low = position;
+    int high = size - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (afterEndKey(range, endFields, mid)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low - 1;
+  }
+}
@@ -63,10 +63,19 @@ class MultiIndexIterator extends HeapIterator implements FileSKVIterator {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Positions each locality group's index at the entry of the block holding the start of the range.
+   * The end of the range and the column families are not applied, callers stop reading the index
+   * where they need to.
+   */
   @Override
   public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
       throws IOException {
-    throw new UnsupportedOperationException();
+    clear();
+    Key startKey = range.getStartKey() == null ? new Key() : range.getStartKey();
+    for (Iterator<IndexEntry> index : source.getIndexes(startKey)) {
+      addSource(new IndexIterator(index));
+    }
   }
 
   @Override
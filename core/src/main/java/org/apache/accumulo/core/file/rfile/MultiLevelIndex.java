@@ -511,9 +511,21 @@ public class MultiLevelIndex {
 
     private BCFile.Writer blockFileWriter;
 
+    private final boolean bufferedBlocks;
+
     Writer(BCFile.Writer blockFileWriter, int maxBlockSize) {
+      this(blockFileWriter, maxBlockSize, false);
+    }
+
+    /**
+     * @param bufferedBlocks
+     *          write index blocks with {@link BCFile.Writer#prepareBufferedDataBlock()}, for
+     *          indexes of locality groups that are written concurrently
+     */
+    Writer(BCFile.Writer blockFileWriter, int maxBlockSize, boolean bufferedBlocks) {
       this.blockFileWriter = blockFileWriter;
       this.threshold = maxBlockSize;
+      this.bufferedBlocks = bufferedBlocks;
       levels = new ArrayList<>();
     }
 
@@ -535,7 +547,8 @@ public class MultiLevelIndex {
 
       IndexBlock iblock = levels.get(level);
       if ((iblock.getSize() > threshold && iblock.offsets.size() > 1) || last) {
-        BCFile.Writer.BlockAppender out = blockFileWriter.prepareDataBlock();
+        BCFile.Writer.BlockAppender out = bufferedBlocks
+            ? blockFileWriter.prepareBufferedDataBlock() : blockFileWriter.prepareDataBlock();
         iblock.setHasNext(!last);
         iblock.write(out);
         out.close();
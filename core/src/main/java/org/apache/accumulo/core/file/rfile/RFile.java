@@ -39,6 +39,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.sample.Sampler;
@@ -50,6 +51,7 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.BloomFilterLayer;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.core.file.NoSuchMetaStoreException;
@@ -88,6 +90,11 @@ public class RFile {
 
   private static final Logger log = LoggerFactory.getLogger(RFile.class);
 
+  // a reader that calls next() this many times in a row within a cached block, without seeking,
+  // decodes the rest of the block at once; seek heavy readers that only look at a few entries after
+  // each seek would waste the work of decoding the whole block
+  static final int COLUMNAR_AFTER_ENTRIES = 16;
+
   private RFile() {}
 
   private static final int RINDEX_MAGIC = 0x20637474;
@@ -167,17 +174,18 @@ public class RFile {
       this.version = version;
     }
 
-    public LocalityGroupMetadata(Set<ByteSequence> pcf, int indexBlockSize, BCFile.Writer bfw) {
+    public LocalityGroupMetadata(Set<ByteSequence> pcf, int indexBlockSize, BCFile.Writer bfw,
+        boolean bufferedBlocks) {
       isDefaultLG = true;
       columnFamilies = new HashMap<>();
       previousColumnFamilies = pcf;
 
-      indexWriter =
-          new MultiLevelIndex.BufferedWriter(new MultiLevelIndex.Writer(bfw, indexBlockSize));
+      indexWriter = new MultiLevelIndex.BufferedWriter(
+          new MultiLevelIndex.Writer(bfw, indexBlockSize, bufferedBlocks));
     }
 
     public LocalityGroupMetadata(String name, Set<ByteSequence> cfset, int indexBlockSize,
-        BCFile.Writer bfw) {
+        BCFile.Writer bfw, boolean bufferedBlocks) {
       this.name = name;
       isDefaultLG = false;
       columnFamilies = new HashMap<>();
@@ -185,8 +193,8 @@ public class RFile {
         columnFamilies.put(cf, new MutableLong(0));
       }
 
-      indexWriter =
-          new MultiLevelIndex.BufferedWriter(new MultiLevelIndex.Writer(bfw, indexBlockSize));
+      indexWriter = new MultiLevelIndex.BufferedWriter(
+          new MultiLevelIndex.Writer(bfw, indexBlockSize, bufferedBlocks));
     }
 
     private Key getFirstKey() {
@@ -243,6 +251,30 @@ public class RFile {
 
     }
 
+    /**
+     * Add the column family counts of a locality group whose blocks were copied into this one.
+     */
+    private void addColumnCounts(LocalityGroupMetadata copied) {
+      if (columnFamilies == null) {
+        return;
+      }
+
+      if (copied.columnFamilies == null) {
+        // the copied locality group had too many column families to keep track of
+        columnFamilies = null;
+        return;
+      }
+
+      for (Entry<ByteSequence,MutableLong> entry : copied.columnFamilies.entrySet()) {
+        columnFamilies.computeIfAbsent(entry.getKey(), cf -> new MutableLong(0))
+            .add(entry.getValue().longValue());
+      }
+
+      if (columnFamilies.size() > Writer.MAX_CF_IN_DLG) {
+        columnFamilies = null;
+      }
+    }
+
     @Override
     public void readFields(DataInput in) throws IOException {
 
@@ -427,6 +459,8 @@ public class RFile {
 
     private BCFile.Writer fileWriter;
     private BlockAppender blockWriter;
+    // compress blocks on the appending thread, for locality groups written concurrently
+    private final boolean bufferedBlocks;
 
     private final long blockSize;
     private final long maxBlockSize;
@@ -438,6 +472,10 @@ public class RFile {
 
     private Key prevKey = new Key();
 
+    // the last block copied by appendStoredBlocks, which is added to the index once it is known
+    // whether it is the last block of the locality group
+    private IndexEntry copiedBlock = null;
+
     private SampleLocalityGroupWriter sample;
 
     // Use windowed stats to fix ACCUMULO-4669
@@ -445,12 +483,18 @@ public class RFile {
     private double averageKeySize = 0;
 
     LocalityGroupWriter(BCFile.Writer fileWriter, long blockSize, long maxBlockSize,
-        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample) {
+        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample,
+        boolean bufferedBlocks) {
       this.fileWriter = fileWriter;
       this.blockSize = blockSize;
       this.maxBlockSize = maxBlockSize;
       this.currentLocalityGroup = currentLocalityGroup;
       this.sample = sample;
+      this.bufferedBlocks = bufferedBlocks;
+    }
+
+    private BlockAppender prepareDataBlock() throws IOException {
+      return bufferedBlocks ? fileWriter.prepareBufferedDataBlock() : fileWriter.prepareDataBlock();
     }
 
     private boolean isGiantKey(Key k) {
@@ -477,7 +521,8 @@ public class RFile {
       }
 
       if (blockWriter == null) {
-        blockWriter = fileWriter.prepareDataBlock();
+        addCopiedBlock();
+        blockWriter = prepareDataBlock();
       } else if (blockWriter.getRawSize() > blockSize) {
 
         // Look for a key that's short to put in the index, defining short as average or below.
@@ -493,7 +538,7 @@ public class RFile {
         if ((closeKey.getSize() <= averageKeySize || blockWriter.getRawSize() > maxBlockSize)
             && !isGiantKey(closeKey)) {
           closeBlock(closeKey, false);
-          blockWriter = fileWriter.prepareDataBlock();
+          blockWriter = prepareDataBlock();
           // set average to zero so its recomputed for the next block
           averageKeySize = 0;
           // To constrain the growth of data blocks, we limit our worst case scenarios to closing
@@ -502,7 +547,7 @@ public class RFile {
         } else if (((long) key.getSize() + (long) value.getSize() + blockWriter.getRawSize() + 128L)
             >= Integer.MAX_VALUE) {
           closeBlock(closeKey, false);
-          blockWriter = fileWriter.prepareDataBlock();
+          blockWriter = prepareDataBlock();
           averageKeySize = 0;
 
         }
@@ -539,9 +584,86 @@ public class RFile {
       entries = 0;
     }
 
+    private void addCopiedBlock() throws IOException {
+      if (copiedBlock != null) {
+        currentLocalityGroup.indexWriter.add(copiedBlock.getKey(), copiedBlock.getNumEntries(),
+            copiedBlock.getOffset(), copiedBlock.getCompressedSize(), copiedBlock.getRawSize());
+        copiedBlock = null;
+      }
+    }
+
+    /**
+     * Copy the data blocks of a locality group of another file into this one as they are stored.
+     * The index entries of the copied blocks are reused, only their offsets change.
+     *
+     * @return the number of entries copied
+     */
+    long appendStoredBlocks(BCFile.Reader source, LocalityGroupMetadata sourceGroup,
+        BiConsumer<Key,Value> entries) throws IOException {
+      Key firstKey = sourceGroup.getFirstKey();
+      if (firstKey == null) {
+        return 0;
+      }
+
+      if (firstKey.compareTo(prevKey) < 0) {
+        throw new IllegalArgumentException(
+            "Keys appended out-of-order.  New key " + firstKey + ", previous key " + prevKey);
+      }
+
+      if (blockWriter != null) {
+        closeBlock(lastKeyInBlock, false);
+      }
+
+      currentLocalityGroup.addColumnCounts(sourceGroup);
+      if (currentLocalityGroup.getFirstKey() == null) {
+        currentLocalityGroup.setFirstKey(firstKey);
+      }
+
+      long copied = 0;
+      IndexIterator iiter = sourceGroup.indexReader.lookup(new Key());
+      while (iiter.hasNext()) {
+        IndexEntry indexEntry = iiter.next();
+        byte[] storedBlock =
+            source.getStoredDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize());
+        if (entries != null) {
+          readEntries(source, storedBlock, indexEntry, entries);
+        }
+
+        long offset = fileWriter.appendStoredDataBlock(storedBlock);
+        addCopiedBlock();
+        copiedBlock = new IndexEntry(indexEntry.getKey(), indexEntry.getNumEntries(), offset,
+            indexEntry.getCompressedSize(), indexEntry.getRawSize());
+        copied += indexEntry.getNumEntries();
+      }
+
+      // the key of the last block in the index of a locality group is its last key
+      if (copiedBlock != null) {
+        prevKey = new Key(copiedBlock.getKey());
+      }
+      return copied;
+    }
+
+    private static void readEntries(BCFile.Reader source, byte[] storedBlock, IndexEntry indexEntry,
+        BiConsumer<Key,Value> entries) throws IOException {
+      try (BCFile.Reader.BlockReader block =
+          source.getDataBlock(storedBlock, indexEntry.getRawSize())) {
+        RelativeKey rk = new RelativeKey();
+        Value val = new Value();
+        for (int i = 0; i < indexEntry.getNumEntries(); i++) {
+          rk.readFields(block);
+          val.readFields(block);
+          entries.accept(rk.getKey(), val);
+        }
+      }
+    }
+
     public void close() throws IOException {
       if (blockWriter != null) {
         closeBlock(lastKeyInBlock, true);
+      } else if (copiedBlock != null) {
+        currentLocalityGroup.indexWriter.addLast(copiedBlock.getKey(), copiedBlock.getNumEntries(),
+            copiedBlock.getOffset(), copiedBlock.getCompressedSize(), copiedBlock.getRawSize());
+        copiedBlock = null;
       }
 
       if (sample != null) {
@@ -575,6 +697,10 @@ public class RFile {
 
     private LocalityGroupWriter lgWriter;
 
+    // locality groups written by startConcurrentLocalityGroup that are not closed yet
+    private boolean startedConcurrentLocalityGroup = false;
+    private int openConcurrentLocalityGroups = 0;
+
     private SamplerConfigurationImpl samplerConfig;
     private Sampler sampler;
 
@@ -603,6 +729,11 @@ public class RFile {
 
       closeData();
 
+      if (openConcurrentLocalityGroups > 0) {
+        throw new IllegalStateException(
+            openConcurrentLocalityGroups + " concurrent locality groups were not closed");
+      }
+
       BlockAppender mba = fileWriter.prepareMetaBlock("RFile.index");
 
       mba.writeInt(RINDEX_MAGIC);
@@ -679,6 +810,11 @@ public class RFile {
             "Can not start anymore new locality groups after default locality group started");
       }
 
+      if (startedConcurrentLocalityGroup) {
+        throw new IllegalStateException(
+            "Can not start sequential locality groups after concurrent locality groups");
+      }
+
       if (lgWriter != null) {
         lgWriter.close();
       }
@@ -688,34 +824,43 @@ public class RFile {
         sampleGroups.add(sampleLocalityGroup);
       }
 
+      currentLocalityGroup = newLocalityGroupMetadata(name, columnFamilies, false);
+      sampleLocalityGroup = newLocalityGroupMetadata(name, columnFamilies, false);
       if (columnFamilies == null) {
         startedDefaultLocalityGroup = true;
-        currentLocalityGroup =
-            new LocalityGroupMetadata(previousColumnFamilies, indexBlockSize, fileWriter);
-        sampleLocalityGroup =
-            new LocalityGroupMetadata(previousColumnFamilies, indexBlockSize, fileWriter);
       } else {
-        if (!Collections.disjoint(columnFamilies, previousColumnFamilies)) {
-          HashSet<ByteSequence> overlap = new HashSet<>(columnFamilies);
-          overlap.retainAll(previousColumnFamilies);
-          throw new IllegalArgumentException(
-              "Column families over lap with previous locality group : " + overlap);
-        }
-        currentLocalityGroup =
-            new LocalityGroupMetadata(name, columnFamilies, indexBlockSize, fileWriter);
-        sampleLocalityGroup =
-            new LocalityGroupMetadata(name, columnFamilies, indexBlockSize, fileWriter);
         previousColumnFamilies.addAll(columnFamilies);
       }
 
+      lgWriter = newLocalityGroupWriter(currentLocalityGroup, sampleLocalityGroup, false);
+    }
+
+    private LocalityGroupMetadata newLocalityGroupMetadata(String name,
+        Set<ByteSequence> columnFamilies, boolean bufferedBlocks) {
+      if (columnFamilies == null) {
+        return new LocalityGroupMetadata(previousColumnFamilies, indexBlockSize, fileWriter,
+            bufferedBlocks);
+      }
+
+      if (!Collections.disjoint(columnFamilies, previousColumnFamilies)) {
+        HashSet<ByteSequence> overlap = new HashSet<>(columnFamilies);
+        overlap.retainAll(previousColumnFamilies);
+        throw new IllegalArgumentException(
+            "Column families over lap with previous locality group : " + overlap);
+      }
+      return new LocalityGroupMetadata(name, columnFamilies, indexBlockSize, fileWriter,
+          bufferedBlocks);
+    }
+
+    private LocalityGroupWriter newLocalityGroupWriter(LocalityGroupMetadata lgm,
+        LocalityGroupMetadata sampleLgm, boolean bufferedBlocks) {
       SampleLocalityGroupWriter sampleWriter = null;
       if (sampler != null) {
-        sampleWriter = new SampleLocalityGroupWriter(
-            new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null),
-            sampler);
+        sampleWriter = new SampleLocalityGroupWriter(new LocalityGroupWriter(fileWriter, blockSize,
+            maxBlockSize, sampleLgm, null, bufferedBlocks), sampler);
       }
-      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, currentLocalityGroup,
-          sampleWriter);
+      return new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, lgm, sampleWriter,
+          bufferedBlocks);
     }
 
     @Override
@@ -737,6 +882,144 @@ public class RFile {
       return true;
     }
 
+    @Override
+    public boolean supportsConcurrentLocalityGroups() {
+      return true;
+    }
+
+    /**
+     * Start a locality group that can be written concurrently with others. Each locality group
+     * encodes and compresses its blocks on the thread appending to it and the finished blocks are
+     * copied into the file as they complete, so the blocks of concurrent locality groups are
+     * interleaved in the file. This is transparent to readers, which locate every block through the
+     * index of its locality group.
+     */
+    @Override
+    public synchronized LocalityGroupAppender startConcurrentLocalityGroup(String name,
+        Set<ByteSequence> columnFamilies) throws IOException {
+      if (dataClosed) {
+        throw new IllegalStateException("data closed");
+      }
+
+      if (startedDefaultLocalityGroup) {
+        throw new IllegalStateException(
+            "Can not start anymore new locality groups after default locality group started");
+      }
+
+      if (lgWriter != null) {
+        throw new IllegalStateException(
+            "Can not start concurrent locality groups after sequential locality groups");
+      }
+
+      LocalityGroupMetadata lgm = newLocalityGroupMetadata(name, columnFamilies, true);
+      LocalityGroupMetadata sampleLgm = newLocalityGroupMetadata(name, columnFamilies, true);
+      if (columnFamilies == null) {
+        startedDefaultLocalityGroup = true;
+      } else {
+        previousColumnFamilies.addAll(columnFamilies);
+      }
+
+      localityGroups.add(lgm);
+      sampleGroups.add(sampleLgm);
+      startedConcurrentLocalityGroup = true;
+      openConcurrentLocalityGroups++;
+
+      LocalityGroupWriter writer = newLocalityGroupWriter(lgm, sampleLgm, true);
+
+      return new LocalityGroupAppender() {
+        private boolean lgClosed = false;
+
+        @Override
+        public void append(Key key, Value value) throws IOException {
+          if (lgClosed) {
+            throw new IllegalStateException("Cannot append, locality group closed");
+          }
+          writer.append(key, value);
+        }
+
+        @Override
+        public void close() throws IOException {
+          if (lgClosed) {
+            return;
+          }
+          lgClosed = true;
+          try {
+            writer.close();
+          } finally {
+            synchronized (Writer.this) {
+              openConcurrentLocalityGroups--;
+            }
+          }
+        }
+      };
+    }
+
+    private static Reader getRFileReader(FileSKVIterator source) {
+      if (source instanceof BloomFilterLayer.Reader) {
+        source = ((BloomFilterLayer.Reader) source).getFileReader();
+      }
+      return source instanceof Reader ? (Reader) source : null;
+    }
+
+    /**
+     * Blocks can be copied from an RFile with only a default locality group, that was written with
+     * the same compression algorithm and block size as this file, when neither file is encrypted
+     * and this file does not keep a sample.
+     */
+    @Override
+    public boolean canAppendStoredBlocks(FileSKVIterator source) throws IOException {
+      Reader reader = getRFileReader(source);
+      return reader != null && sampler == null && reader.rfileVersion == RINDEX_VER_8
+          && reader.localityGroups.size() == 1 && reader.localityGroups.get(0).isDefaultLG
+          && fileWriter.canCopyDataBlocks(reader.reader.getBCFileReader())
+          && hasBlockSize(reader.localityGroups.get(0));
+    }
+
+    /**
+     * Checks that the blocks of a locality group are the size this file writes, so that blocks
+     * written with another block size are not carried into new files. Every block but the last is
+     * closed once it is larger than the block size, and is only much larger if its last entry is.
+     */
+    private boolean hasBlockSize(LocalityGroupMetadata lg) throws IOException {
+      if (lg.getFirstKey() == null) {
+        return true;
+      }
+      IndexIterator iiter = lg.indexReader.lookup(new Key());
+      while (iiter.hasNext()) {
+        IndexEntry indexEntry = iiter.next();
+        if (iiter.hasNext() && (indexEntry.getRawSize() <= blockSize
+            || indexEntry.getRawSize() > 2 * maxBlockSize)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public long appendStoredBlocks(FileSKVIterator source, BiConsumer<Key,Value> entries)
+        throws IOException {
+      if (!canAppendStoredBlocks(source)) {
+        throw new IllegalArgumentException("Can not copy the blocks of " + source);
+      }
+
+      if (dataClosed) {
+        throw new IllegalStateException("Cannot append, data closed");
+      }
+
+      if (!startedDefaultLocalityGroup || lgWriter == null) {
+        throw new IllegalStateException("Can only copy blocks into the default locality group");
+      }
+
+      if (!previousColumnFamilies.isEmpty()) {
+        throw new IllegalStateException(
+            "Can not copy blocks into a default locality group that follows other groups");
+      }
+
+      Reader reader = getRFileReader(source);
+      return lgWriter.appendStoredBlocks(reader.reader.getBCFileReader(),
+          reader.localityGroups.get(0), entries);
+    }
+
     @Override
     public long getLength() {
       if (!closed) {
@@ -748,7 +1031,12 @@ public class RFile {
 
   private static class LocalityGroupReader extends LocalityGroup implements FileSKVIterator {
 
+    // a reader that moves into this many blocks in a row without seeking elsewhere is reading
+    // sequentially, and has the blocks after the one it is reading prefetched
+    private static final int PREFETCH_AFTER_BLOCKS = 2;
+
     private CachableBlockFile.Reader reader;
+    private CachableBlockFile.Reader.PrefetchWindow prefetch;
     private MultiLevelIndex.Reader index;
     private int blockCount;
     private Key firstKey;
@@ -767,7 +1055,7 @@ public class RFile {
       this.version = version;
 
       this.reader = reader;
-
+      this.prefetch = reader.new PrefetchWindow();
     }
 
     public LocalityGroupReader(LocalityGroupReader lgr) {
@@ -777,17 +1065,26 @@ public class RFile {
       this.startBlock = lgr.startBlock;
       this.blockCount = lgr.blockCount;
       this.reader = lgr.reader;
+      this.prefetch = reader.new PrefetchWindow();
       this.version = lgr.version;
     }
 
     Iterator<IndexEntry> getIndex() throws IOException {
-      return index.lookup(new Key());
+      return getIndex(new Key());
+    }
+
+    /**
+     * @return the index entries from that of the block holding the given key
+     */
+    Iterator<IndexEntry> getIndex(Key startKey) throws IOException {
+      return index.lookup(startKey);
     }
 
     @Override
     public void close() throws IOException {
       closed = true;
       hasTop = false;
+      prefetch.clear();
       if (currBlock != null)
         currBlock.close();
 
@@ -803,14 +1100,27 @@ public class RFile {
     private boolean hasTop = false;
     private AtomicBoolean interruptFlag;
 
+    // when the current block's bytes are available, its remaining entries are decoded at once and
+    // served from here instead of rk and val
+    private ColumnarBlock columnar = null;
+    private boolean useColumnar = false;
+    // position in columnar of the first entry past the end of the range
+    private int columnarEnd;
+    // entries read one at a time by next() from the current block since it was read or last seeked
+    private int sequentialEntries = 0;
+
+    // blocks moved into by next() since the last seek, and the index of the last block prefetched
+    private int sequentialBlocks = 0;
+    private int prefetchedThrough = -1;
+
     @Override
     public Key getTopKey() {
-      return rk.getKey();
+      return useColumnar ? columnar.getTopKey() : rk.getKey();
     }
 
     @Override
     public Value getTopValue() {
-      return val;
+      return useColumnar ? columnar.getTopValue() : val;
     }
 
     @Override
@@ -833,6 +1143,13 @@ public class RFile {
       if (!hasTop)
         throw new IllegalStateException();
 
+      if (useColumnar && columnar.hasNext()) {
+        columnar.next();
+        entriesLeft--;
+        hasTop = columnar.getPosition() < columnarEnd;
+        return;
+      }
+
       if (entriesLeft == 0) {
         currBlock.close();
         if (metricsGatherer != null)
@@ -847,15 +1164,32 @@ public class RFile {
           if (!checkRange)
             hasTop = true;
 
+          sequentialBlocks++;
+          sequentialEntries = 0;
+          prefetchAhead();
+
         } else {
           rk = null;
           val = null;
+          useColumnar = false;
           hasTop = false;
           return;
         }
       }
 
-      prevKey = rk.getKey();
+      prevKey = getTopKey();
+
+      if (sequentialEntries >= COLUMNAR_AFTER_ENTRIES && currBlock.isIndexable()
+          && metricsGatherer == null) {
+        decodeBlock();
+        entriesLeft--;
+        hasTop = columnar.getPosition() < columnarEnd;
+        return;
+      }
+
+      useColumnar = false;
+      sequentialEntries++;
+      rk.setPrevKey(prevKey);
       rk.readFields(currBlock);
       val.readFields(currBlock);
 
@@ -867,19 +1201,65 @@ public class RFile {
         hasTop = !range.afterEndKey(rk.getKey());
     }
 
+    /**
+     * Decode the entries left in the current block, which must be indexable, and make the first of
+     * them the top entry.
+     */
+    private void decodeBlock() {
+      if (columnar == null) {
+        columnar = new ColumnarBlock();
+      }
+      // the stream is not read again for this block, so it is left where it is
+      columnar.decode(currBlock.getBuffer(), currBlock.getPosition(), entriesLeft, prevKey);
+      useColumnar = true;
+      columnarEnd = checkRange ? columnar.findEnd(range) : Integer.MAX_VALUE;
+    }
+
     private CachableBlockFile.CachedBlockRead getDataBlock(IndexEntry indexEntry)
         throws IOException {
       if (interruptFlag != null && interruptFlag.get())
         throw new IterationInterruptedException();
 
       if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
-        return reader.getDataBlock(startBlock + iiter.previousIndex());
+        return prefetch.getDataBlock(startBlock + iiter.previousIndex());
       else
-        return reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
+        return prefetch.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
             indexEntry.getRawSize());
 
     }
 
+    /**
+     * Once reading sequentially, keep the blocks after the current one prefetched, up to the block
+     * that holds the end of the range. Leaves the index iterator where it was.
+     */
+    private void prefetchAhead() {
+      int window = sequentialBlocks < PREFETCH_AFTER_BLOCKS ? 0 : prefetch.size();
+      if (window == 0 || checkRange) {
+        // not reading sequentially, or the range ends in the current block
+        return;
+      }
+
+      int moved = 0;
+      while (moved < window && iiter.hasNext()) {
+        IndexEntry next = iiter.next();
+        moved++;
+        int blockIndex = iiter.previousIndex();
+        if (blockIndex > prefetchedThrough) {
+          if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
+            prefetch.prefetch(startBlock + blockIndex);
+          else
+            prefetch.prefetch(next.getOffset(), next.getCompressedSize(), next.getRawSize());
+          prefetchedThrough = blockIndex;
+        }
+        if (range.afterEndKey(next.getKey()))
+          break;
+      }
+
+      for (; moved > 0; moved--) {
+        iiter.previous();
+      }
+    }
+
     @Override
     public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
         throws IOException {
@@ -904,6 +1284,7 @@ public class RFile {
 
     private void reset() {
       rk = null;
+      useColumnar = false;
       hasTop = false;
       if (currBlock != null) {
         try {
@@ -922,6 +1303,7 @@ public class RFile {
 
       this.range = range;
       this.checkRange = true;
+      this.sequentialEntries = 0;
 
       if (blockCount == 0) {
         // its an empty file
@@ -942,6 +1324,10 @@ public class RFile {
       }
 
       if (rk != null) {
+        if (useColumnar) {
+          prevKey = columnar.getPrevKey();
+        }
+
         if (range.beforeStartKey(prevKey) && range.afterEndKey(getTopKey())) {
           // range is between the two keys in the file where the last range seeked to stopped, so
           // there is
@@ -964,14 +1350,22 @@ public class RFile {
           // causing the build of an index... doing this could slow down some use cases and
           // and speed up others.
 
-          MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
-          SkippR skippr =
-              RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
-          if (skippr.skipped > 0) {
-            entriesLeft -= skippr.skipped;
-            val = new Value(valbs.toArray());
-            prevKey = skippr.prevKey;
-            rk = skippr.rk;
+          if (useColumnar) {
+            int skipped = columnar.skipTo(startKey);
+            if (skipped > 0) {
+              entriesLeft -= skipped;
+              prevKey = columnar.getPrevKey();
+            }
+          } else {
+            MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
+            SkippR skippr =
+                RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
+            if (skippr.skipped > 0) {
+              entriesLeft -= skippr.skipped;
+              val = new Value(valbs.toArray());
+              prevKey = skippr.prevKey;
+              rk = skippr.rk;
+            }
           }
 
           reseek = false;
@@ -1000,6 +1394,9 @@ public class RFile {
         iiter = index.lookup(startKey);
 
         reset();
+        prefetch.clear();
+        sequentialBlocks = 0;
+        prefetchedThrough = -1;
 
         if (iiter.hasNext()) {
 
@@ -1064,7 +1461,11 @@ public class RFile {
         }
       }
 
-      hasTop = rk != null && !range.afterEndKey(rk.getKey());
+      if (useColumnar) {
+        columnarEnd = columnar.findEnd(range);
+      }
+
+      hasTop = rk != null && !range.afterEndKey(getTopKey());
 
       while (hasTop() && range.beforeStartKey(getTopKey())) {
         next();
@@ -1447,14 +1848,21 @@ public class RFile {
     }
 
     public FileSKVIterator getIndex() throws IOException {
+      return new MultiIndexIterator(this, getIndexes(new Key()));
+    }
 
+    /**
+     * @return the index entries of each locality group, from those of the blocks holding the given
+     *         key
+     */
+    List<Iterator<IndexEntry>> getIndexes(Key startKey) throws IOException {
       ArrayList<Iterator<IndexEntry>> indexes = new ArrayList<>();
 
       for (LocalityGroupReader lgr : currentReaders) {
-        indexes.add(lgr.getIndex());
+        indexes.add(lgr.getIndex(startKey));
       }
 
-      return new MultiIndexIterator(this, indexes);
+      return indexes;
     }
 
     @Override
@@ -40,21 +40,21 @@ public class RelativeKey implements Writable {
   private byte fieldsPrefixed;
 
   // Exact match compression options (first byte) and flag for further
-  private static final byte ROW_SAME = BIT << 0;
-  private static final byte CF_SAME = BIT << 1;
-  private static final byte CQ_SAME = BIT << 2;
-  private static final byte CV_SAME = BIT << 3;
-  private static final byte TS_SAME = BIT << 4;
-  private static final byte DELETED = BIT << 5;
+  static final byte ROW_SAME = BIT << 0;
+  static final byte CF_SAME = BIT << 1;
+  static final byte CQ_SAME = BIT << 2;
+  static final byte CV_SAME = BIT << 3;
+  static final byte TS_SAME = BIT << 4;
+  static final byte DELETED = BIT << 5;
   // private static final byte UNUSED_1_6 = BIT << 6;
-  private static final byte PREFIX_COMPRESSION_ENABLED = (byte) (BIT << 7);
+  static final byte PREFIX_COMPRESSION_ENABLED = (byte) (BIT << 7);
 
   // Prefix compression (second byte)
-  private static final byte ROW_COMMON_PREFIX = BIT << 0;
-  private static final byte CF_COMMON_PREFIX = BIT << 1;
-  private static final byte CQ_COMMON_PREFIX = BIT << 2;
-  private static final byte CV_COMMON_PREFIX = BIT << 3;
-  private static final byte TS_DIFF = BIT << 4;
+  static final byte ROW_COMMON_PREFIX = BIT << 0;
+  static final byte CF_COMMON_PREFIX = BIT << 1;
+  static final byte CQ_COMMON_PREFIX = BIT << 2;
+  static final byte CV_COMMON_PREFIX = BIT << 3;
+  static final byte TS_DIFF = BIT << 4;
 
   // private static final byte UNUSED_2_5 = BIT << 5;
   // private static final byte UNUSED_2_6 = BIT << 6;
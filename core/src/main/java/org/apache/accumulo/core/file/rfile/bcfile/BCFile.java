@@ -134,9 +134,12 @@ public final class BCFile {
       // Hadoop compression
       private final RateLimitedOutputStream fsOut;
       private final OutputStream cipherOut;
-      private final long posStart;
+      private long posStart;
       private final SimpleBufferedOutputStream fsBufferedOutput;
       private OutputStream out;
+      // !null only if the block is compressed into memory and copied to the file when finished
+      private final ByteArrayOutputStream memOut;
+      private long posEnd = -1;
 
       public WBlockState(Algorithm compressionAlgo, RateLimitedOutputStream fsOut,
           BytesWritable fsOutputBuffer, Configuration conf, FileEncrypter encrypter)
@@ -149,6 +152,7 @@ public final class BCFile {
 
         this.fsBufferedOutput =
             new SimpleBufferedOutputStream(this.fsOut, fsOutputBuffer.getBytes());
+        this.memOut = null;
         this.compressor = compressAlgo.getCompressor();
 
         try {
@@ -160,6 +164,54 @@ public final class BCFile {
         }
       }
 
+      /**
+       * Create the state for a block that is compressed into memory by the thread writing it. The
+       * compressed block is encrypted and copied into the file by
+       * {@link #copyTo(RateLimitedOutputStream, BytesWritable, Configuration, FileEncrypter)}.
+       */
+      public WBlockState(Algorithm compressionAlgo) throws IOException {
+        this.compressAlgo = compressionAlgo;
+        this.fsOut = null;
+        this.cipherOut = null;
+        this.fsBufferedOutput = null;
+        this.posStart = -1;
+        this.memOut = new ByteArrayOutputStream();
+        this.compressor = compressAlgo.getCompressor();
+
+        try {
+          this.out = compressionAlgo.createCompressionStream(memOut, compressor, 0);
+        } catch (IOException e) {
+          compressAlgo.returnCompressor(compressor);
+          throw e;
+        }
+      }
+
+      boolean isBuffered() {
+        return memOut != null;
+      }
+
+      /**
+       * Copy a finished block that was compressed into memory to the file.
+       */
+      void copyTo(RateLimitedOutputStream fsOut, BytesWritable fsOutputBuffer, Configuration conf,
+          FileEncrypter encrypter) throws IOException {
+        posStart = fsOut.position();
+
+        fsOutputBuffer.setCapacity(getFSOutputBufferSize(conf));
+        SimpleBufferedOutputStream bufferedOut =
+            new SimpleBufferedOutputStream(fsOut, fsOutputBuffer.getBytes());
+        OutputStream encryptedOut = encrypter.encryptStream(bufferedOut);
+        memOut.writeTo(encryptedOut);
+        encryptedOut.flush();
+        if (encryptedOut != bufferedOut) {
+          // see finish(), closing the cipher stream flushes its final bytes but not the file
+          encryptedOut.close();
+        }
+        bufferedOut.flush();
+
+        posEnd = fsOut.position();
+      }
+
       /**
        * Get the output stream for BlockAppender's consumption.
        *
@@ -186,6 +238,9 @@ public final class BCFile {
        * Current size of compressed data.
        */
       long getCompressedSize() {
+        if (memOut != null) {
+          return posEnd < 0 ? memOut.size() : posEnd - posStart;
+        }
         return getCurrentPos() - posStart;
       }
 
@@ -291,6 +346,20 @@ public final class BCFile {
         if (closed) {
           return;
         }
+        if (wBlkState.isBuffered()) {
+          try {
+            synchronized (Writer.this) {
+              ++errorCount;
+            }
+            // finish compressing without holding the lock, only the copy to the file is serialized
+            wBlkState.finish();
+            writeBufferedBlock(wBlkState);
+          } finally {
+            closed = true;
+          }
+          return;
+        }
+
         try {
           ++errorCount;
           wBlkState.finish();
@@ -335,7 +404,7 @@ public final class BCFile {
      * allowed and may lead to undetermined results.
      */
     @Override
-    public void close() throws IOException {
+    public synchronized void close() throws IOException {
       if (closed) {
         return;
       }
@@ -377,7 +446,7 @@ public final class BCFile {
       return dataIndex.getDefaultCompressionAlgorithm();
     }
 
-    private BlockAppender prepareMetaBlock(String name, Algorithm compressAlgo)
+    private synchronized BlockAppender prepareMetaBlock(String name, Algorithm compressAlgo)
         throws IOException, MetaBlockAlreadyExists {
       if (blkInProgress) {
         throw new IllegalStateException("Cannot create Meta Block until previous block is closed.");
@@ -418,7 +487,7 @@ public final class BCFile {
      *
      * @return The BlockAppender stream
      */
-    public BlockAppender prepareDataBlock() throws IOException {
+    public synchronized BlockAppender prepareDataBlock() throws IOException {
       if (blkInProgress) {
         throw new IllegalStateException("Cannot create Data Block until previous block is closed.");
       }
@@ -434,6 +503,65 @@ public final class BCFile {
       return ba;
     }
 
+    /**
+     * Create a Data Block that is compressed into memory by the calling thread and copied into the
+     * file when its BlockAppender is closed. Unlike {@link #prepareDataBlock()}, any number of
+     * these may be open at once and they may be written and closed by different threads, which
+     * allows the compression of several streams of blocks to proceed in parallel. Their start
+     * position and compressed size are only known after they are closed. They can not be closed
+     * while a block from {@link #prepareDataBlock()} is in progress or after the first Meta Block.
+     *
+     * @return The BlockAppender stream
+     */
+    public BlockAppender prepareBufferedDataBlock() throws IOException {
+      return new BlockAppender(new WBlockState(getDefaultCompressionAlgorithm()));
+    }
+
+    private synchronized void writeBufferedBlock(WBlockState wbs) throws IOException {
+      if (blkInProgress) {
+        throw new IllegalStateException(
+            "Cannot write buffered Data Block until previous block is closed.");
+      }
+
+      if (metaBlkSeen) {
+        throw new IllegalStateException("Cannot create Data Block after Meta Blocks.");
+      }
+
+      wbs.copyTo(out, fsOutputBuffer, conf, encrypter);
+      --errorCount;
+    }
+
+    /**
+     * @return true if the Data Blocks of a file can be copied into this file as they are stored,
+     *         which requires that both use the same compression algorithm and neither is encrypted
+     */
+    public boolean canCopyDataBlocks(Reader source) {
+      return encrypter instanceof NoFileEncrypter && source.decrypter instanceof NoFileDecrypter
+          && getDefaultCompressionAlgorithm().getName()
+              .equals(source.dataIndex.getDefaultCompressionAlgorithm().getName());
+    }
+
+    /**
+     * Append a Data Block as it is stored in another file, see
+     * {@link Reader#getStoredDataBlock(long, long)}. The caller must check that the block can be
+     * read as a block of this file with {@link #canCopyDataBlocks(Reader)}.
+     *
+     * @return the offset of the block in this file
+     */
+    public synchronized long appendStoredDataBlock(byte[] storedBlock) throws IOException {
+      if (blkInProgress) {
+        throw new IllegalStateException("Cannot copy Data Block until previous block is closed.");
+      }
+
+      if (metaBlkSeen) {
+        throw new IllegalStateException("Cannot create Data Block after Meta Blocks.");
+      }
+
+      long offset = out.position();
+      out.write(storedBlock, 0, storedBlock.length);
+      return offset;
+    }
+
     /**
      * Callback to make sure a meta block is added to the internal list when its stream is closed.
      */
@@ -476,19 +604,18 @@ public final class BCFile {
       private final InputStream in;
       private volatile boolean closed;
 
-      public <InputStreamType extends InputStream & Seekable> RBlockState(Algorithm compressionAlgo,
-          InputStreamType fsin, BlockRegion region, Configuration conf, FileDecrypter decrypter)
-          throws IOException {
+      /**
+       * @param blockIn
+       *          the stored bytes of the block
+       */
+      public RBlockState(Algorithm compressionAlgo, InputStream blockIn, BlockRegion region,
+          Configuration conf, FileDecrypter decrypter) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.region = region;
         this.decompressor = compressionAlgo.getDecompressor();
 
-        BoundedRangeFileInputStream boundedRangeFileInputStream = new BoundedRangeFileInputStream(
-            fsin, this.region.getOffset(), this.region.getCompressedSize());
-
         try {
-          InputStream inputStreamToBeCompressed =
-              decrypter.decryptStream(boundedRangeFileInputStream);
+          InputStream inputStreamToBeCompressed = decrypter.decryptStream(blockIn);
           this.in = compressAlgo.createDecompressionStream(inputStreamToBeCompressed, decompressor,
               getFSInputBufferSize(conf));
         } catch (IOException e) {
@@ -678,6 +805,13 @@ public final class BCFile {
       // nothing to be done now
     }
 
+    /**
+     * @return true if the blocks of the file are encrypted
+     */
+    public boolean isEncrypted() {
+      return !(decrypter instanceof NoFileDecrypter);
+    }
+
     /**
      * Get the number of data blocks.
      *
@@ -747,9 +881,57 @@ public final class BCFile {
       return dataIndex.getBlockRegionList().get(blockIndex).getRawSize();
     }
 
+    /**
+     * Read a data block as it is stored in the file, still compressed and encrypted.
+     *
+     * @return the stored bytes, which {@link #getDataBlock(byte[], long)} reads
+     */
+    public byte[] getStoredDataBlock(long offset, long compressedSize) throws IOException {
+      byte[] block = new byte[(int) compressedSize];
+      try (DataInputStream blockIn =
+          new DataInputStream(new BoundedRangeFileInputStream(in, offset, compressedSize))) {
+        blockIn.readFully(block);
+      }
+      return block;
+    }
+
+    public byte[] getStoredDataBlock(int blockIndex) throws IOException {
+      BlockRegion region = getDataBlockRegion(blockIndex);
+      return getStoredDataBlock(region.getOffset(), region.getCompressedSize());
+    }
+
+    public long getDataBlockCompressedSize(int blockIndex) {
+      return getDataBlockRegion(blockIndex).getCompressedSize();
+    }
+
+    /**
+     * Stream access to a Data Block whose stored bytes were read earlier.
+     *
+     * @param storedBlock
+     *          the bytes returned by {@link #getStoredDataBlock(long, long)}
+     * @param rawSize
+     *          the uncompressed size of the block
+     */
+    public BlockReader getDataBlock(byte[] storedBlock, long rawSize) throws IOException {
+      BlockRegion region = new BlockRegion(0, storedBlock.length, rawSize);
+      RBlockState rbs = new RBlockState(dataIndex.getDefaultCompressionAlgorithm(),
+          new ByteArrayInputStream(storedBlock), region, conf, decrypter);
+      return new BlockReader(rbs);
+    }
+
+    private BlockRegion getDataBlockRegion(int blockIndex) {
+      if (blockIndex < 0 || blockIndex >= getBlockCount()) {
+        throw new IndexOutOfBoundsException(
+            String.format("blockIndex=%d, numBlocks=%d", blockIndex, getBlockCount()));
+      }
+      return dataIndex.getBlockRegionList().get(blockIndex);
+    }
+
     private BlockReader createReader(Algorithm compressAlgo, BlockRegion region)
         throws IOException {
-      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, decrypter);
+      BoundedRangeFileInputStream blockIn =
+          new BoundedRangeFileInputStream(in, region.getOffset(), region.getCompressedSize());
+      RBlockState rbs = new RBlockState(compressAlgo, blockIn, region, conf, decrypter);
       return new BlockReader(rbs);
     }
   }
@@ -27,10 +27,14 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 /**
  * Constructs a {@link PriorityQueue} of multiple SortedKeyValueIterators. Provides a simple way to
- * interact with multiple SortedKeyValueIterators in sorted order.
+ * interact with multiple SortedKeyValueIterators in sorted order. Subclasses may instead merge with
+ * a {@link LoserTree}, see {@link #setLoserTreeMerge(boolean)}.
  */
 public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value> {
   private PriorityQueue<SortedKeyValueIterator<Key,Value>> heap;
+  private int maxSize;
+  // when set, sources are merged with this instead of heap
+  private LoserTree tree = null;
   private SortedKeyValueIterator<Key,Value> topIdx = null;
   private Key nextKey;
 
@@ -46,10 +50,29 @@ public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value>
     if (heap != null)
       throw new IllegalStateException("heap already exist");
 
+    this.maxSize = maxSize;
     heap = new PriorityQueue<>(maxSize == 0 ? 1 : maxSize,
         (si1, si2) -> si1.getTopKey().compareTo(si2.getTopKey()));
   }
 
+  /**
+   * Choose whether sources are merged with a loser tree instead of a priority queue. A loser tree
+   * does one comparison per level of the tree when the top source changes, where the priority queue
+   * does about two. Must be called before any sources are added.
+   */
+  protected void setLoserTreeMerge(boolean enabled) {
+    if (heap == null)
+      throw new IllegalStateException("heap does not exist");
+    if (topIdx != null)
+      throw new IllegalStateException("sources already added");
+
+    tree = enabled ? new LoserTree(maxSize) : null;
+  }
+
+  protected final boolean isLoserTreeMerge() {
+    return tree != null;
+  }
+
   @Override
   public final Key getTopKey() {
     return topIdx.getTopKey();
@@ -72,6 +95,11 @@ public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value>
     }
 
     topIdx.next();
+    if (tree != null) {
+      topIdx = tree.next();
+      return;
+    }
+
     if (topIdx.hasTop()) {
       if (nextKey == null) {
         // topIdx is the only iterator
@@ -110,12 +138,19 @@ public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value>
 
   protected final void clear() {
     heap.clear();
+    if (tree != null)
+      tree.clear();
     topIdx = null;
     nextKey = null;
   }
 
   protected final void addSource(SortedKeyValueIterator<Key,Value> source) {
     if (source.hasTop()) {
+      if (tree != null) {
+        topIdx = tree.add(source);
+        return;
+      }
+
       heap.add(source);
       if (topIdx != null) {
         heap.add(topIdx);
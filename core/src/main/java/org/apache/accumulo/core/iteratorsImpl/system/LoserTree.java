@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.util.Arrays;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * A tournament tree of losers over the top keys of several iterators. Each internal node holds the
+ * source that lost the match played there, so after the winning source advances only the matches on
+ * its path to the root are replayed, one comparison per level. The smallest source the winner beat
+ * is kept as the runner up, and while the winner's new key is still before it the winner is kept
+ * without replaying anything.
+ *
+ * <p>
+ * Sources with equal top keys are ordered by the order they were added, so the winner is
+ * deterministic. Sources without a top sort after all others.
+ */
+final class LoserTree {
+
+  private SortedKeyValueIterator<Key,Value>[] sources;
+  // cached top key of each source, null once a source has no top
+  private Key[] keys;
+  private int size = 0;
+
+  // losers[n] is the loser of the match at internal node n, for 1 <= n < size. The leaf of source
+  // i is node size + i.
+  private int[] losers;
+  private int winner = -1;
+  // the smallest source the winner has beaten, -1 if there are no other sources
+  private int runnerUp = -1;
+  // sources were added since the tree was last built
+  private boolean dirty = false;
+
+  @SuppressWarnings("unchecked")
+  LoserTree(int capacity) {
+    capacity = Math.max(capacity, 1);
+    sources = (SortedKeyValueIterator<Key,Value>[]) new SortedKeyValueIterator<?,?>[capacity];
+    keys = new Key[capacity];
+    losers = new int[capacity];
+  }
+
+  void clear() {
+    Arrays.fill(sources, 0, size, null);
+    Arrays.fill(keys, 0, size, null);
+    size = 0;
+    winner = -1;
+    runnerUp = -1;
+    dirty = false;
+  }
+
+  /**
+   * Add a source that has a top. The tree is rebuilt the next time the winner advances.
+   *
+   * @return the source with the smallest top key added since the last clear
+   */
+  SortedKeyValueIterator<Key,Value> add(SortedKeyValueIterator<Key,Value> source) {
+    if (size == sources.length) {
+      int capacity = size * 2;
+      sources = Arrays.copyOf(sources, capacity);
+      keys = Arrays.copyOf(keys, capacity);
+      losers = new int[capacity];
+    }
+    sources[size] = source;
+    keys[size] = source.getTopKey();
+    if (winner == -1 || less(size, winner)) {
+      winner = size;
+    }
+    size++;
+    dirty = true;
+    return sources[winner];
+  }
+
+  /**
+   * Called after the winner has been advanced.
+   *
+   * @return the new winner or null if no source has a top
+   */
+  SortedKeyValueIterator<Key,Value> next() {
+    if (dirty) {
+      // the winner was chosen as sources were added, now that all of them are known build the
+      // tree from their current keys
+      for (int i = 0; i < size; i++) {
+        keys[i] = sources[i].hasTop() ? sources[i].getTopKey() : null;
+      }
+      winner = size == 0 ? -1 : build(1);
+      dirty = false;
+    } else {
+      SortedKeyValueIterator<Key,Value> source = sources[winner];
+      keys[winner] = source.hasTop() ? source.getTopKey() : null;
+      if (keys[winner] != null && (runnerUp == -1 || less(winner, runnerUp))) {
+        // the same source wins again, nothing it beat has changed
+        return source;
+      }
+      replay();
+    }
+
+    if (winner == -1 || keys[winner] == null) {
+      return null;
+    }
+    findRunnerUp();
+    return sources[winner];
+  }
+
+  private boolean less(int a, int b) {
+    if (keys[a] == null) {
+      return false;
+    }
+    if (keys[b] == null) {
+      return true;
+    }
+    int cmp = keys[a].compareTo(keys[b]);
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+
+  private int build(int node) {
+    if (node >= size) {
+      return node - size;
+    }
+    int left = build(2 * node);
+    int right = build(2 * node + 1);
+    if (less(left, right)) {
+      losers[node] = right;
+      return left;
+    } else {
+      losers[node] = left;
+      return right;
+    }
+  }
+
+  private void replay() {
+    int candidate = winner;
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = losers[node];
+      if (less(loser, candidate)) {
+        losers[node] = candidate;
+        candidate = loser;
+      }
+    }
+    winner = candidate;
+  }
+
+  private void findRunnerUp() {
+    int best = -1;
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = losers[node];
+      if (best == -1 || less(loser, best)) {
+        best = loser;
+      }
+    }
+    runnerUp = best;
+  }
+}
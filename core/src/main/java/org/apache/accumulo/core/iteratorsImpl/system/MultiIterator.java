@@ -50,6 +50,7 @@ public class MultiIterator extends HeapIterator {
     super(other.iters.size());
     this.iters = new ArrayList<>();
     this.fence = other.fence;
+    setLoserTreeMerge(other.isLoserTreeMerge());
     for (SortedKeyValueIterator<Key,Value> iter : other.iters) {
       iters.add(iter.deepCopy(env));
     }
@@ -91,6 +92,15 @@ public class MultiIterator extends HeapIterator {
     this(readers, null, init);
   }
 
+  /**
+   * Merge the iterators with a loser tree instead of a priority queue. Must be called before this
+   * iterator is seeked.
+   */
+  @Override
+  public void setLoserTreeMerge(boolean enabled) {
+    super.setLoserTreeMerge(enabled);
+  }
+
   @Override
   public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
       throws IOException {
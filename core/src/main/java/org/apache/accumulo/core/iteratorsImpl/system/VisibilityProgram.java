@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.AuthorizationContainer;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.ColumnVisibility.Node;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+import org.apache.accumulo.core.util.BadArgumentException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * A column visibility expression compiled for repeated evaluation. The parse tree is flattened into
+ * an int array in prefix order and the distinct terms of the expression are unescaped once, so
+ * evaluation only does a lookup per term it needs, stopping as soon as the result is known. It
+ * gives the same result as {@link VisibilityEvaluator}.
+ *
+ * <p>
+ * Compiled expressions are kept in a process wide cache keyed by the expression bytes, so scans of
+ * the same table share them and do not start cold. The size of the cache is set by tablet servers
+ * from {@code tserver.scan.visibility.cache.size}.
+ */
+public final class VisibilityProgram {
+
+  public static final long DEFAULT_CACHE_SIZE = 10_000;
+
+  private static final Cache<ByteSequence,VisibilityProgram> cache =
+      Caffeine.newBuilder().maximumSize(DEFAULT_CACHE_SIZE).build();
+
+  // operators are negative, terms are indexes into terms. An operator is followed by its number of
+  // children and the index of the end of its subtree, then by its children.
+  private static final int AND = -1;
+  private static final int OR = -2;
+
+  private static final VisibilityProgram EMPTY = new VisibilityProgram(new int[0], null);
+
+  private final int[] code;
+  // unescaped terms, null for a term that no authorization can match
+  private final ByteSequence[] terms;
+
+  private VisibilityProgram(int[] code, ByteSequence[] terms) {
+    this.code = code;
+    this.terms = terms;
+  }
+
+  /**
+   * Get the compiled form of a visibility expression, compiling it if it is not cached.
+   *
+   * @throws BadArgumentException
+   *           if the expression can not be parsed
+   * @throws VisibilityParseException
+   *           if an AND or OR has less than two children
+   */
+  public static VisibilityProgram get(ByteSequence expression) throws VisibilityParseException {
+    VisibilityProgram program = cache.getIfPresent(expression);
+    if (program == null) {
+      program = compile(expression.toArray());
+      // the caller's bytes may be a view into a larger array that will change, so key on a copy
+      cache.put(new ArrayByteSequence(expression.toArray()), program);
+    }
+    return program;
+  }
+
+  /**
+   * Set the number of compiled expressions to keep.
+   */
+  public static void setCacheSize(long size) {
+    cache.policy().eviction().ifPresent(eviction -> eviction.setMaximum(size));
+  }
+
+  static VisibilityProgram compile(byte[] expression) throws VisibilityParseException {
+    if (expression.length == 0) {
+      return EMPTY;
+    }
+    ColumnVisibility cv = new ColumnVisibility(expression);
+    List<Integer> code = new ArrayList<>();
+    Map<ByteSequence,Integer> termIndexes = new HashMap<>();
+    compile(expression, cv.getParseTree(), code, termIndexes);
+
+    ByteSequence[] terms = new ByteSequence[termIndexes.size()];
+    termIndexes.forEach((term, index) -> terms[index] = unescape(term));
+    return new VisibilityProgram(code.stream().mapToInt(Integer::intValue).toArray(), terms);
+  }
+
+  private static void compile(byte[] expression, Node node, List<Integer> code,
+      Map<ByteSequence,Integer> termIndexes) throws VisibilityParseException {
+    switch (node.getType()) {
+      case TERM:
+        code.add(termIndexes.computeIfAbsent(node.getTerm(expression), t -> termIndexes.size()));
+        break;
+      case AND:
+      case OR:
+        if (node.getChildren() == null || node.getChildren().size() < 2) {
+          throw new VisibilityParseException(node.getType() + " has less than 2 children",
+              expression, node.getTermStart());
+        }
+        int start = code.size();
+        code.add(node.getType() == ColumnVisibility.NodeType.AND ? AND : OR);
+        code.add(node.getChildren().size());
+        code.add(0);
+        for (Node child : node.getChildren()) {
+          compile(expression, child, code, termIndexes);
+        }
+        code.set(start + 2, code.size());
+        break;
+      default:
+        throw new VisibilityParseException("No such node type", expression, node.getTermStart());
+    }
+  }
+
+  /**
+   * Terms in an expression are in escaped form, see
+   * {@link VisibilityEvaluator#escape(byte[], boolean)}. The evaluator compares them to escaped
+   * authorizations, which matches the same authorizations as comparing the unescaped term. A term
+   * with an invalid escape can not match any escaped authorization.
+   */
+  private static ByteSequence unescape(ByteSequence term) {
+    byte[] unescaped = new byte[term.length()];
+    int len = 0;
+    for (int i = 0; i < term.length(); i++) {
+      byte b = term.byteAt(i);
+      if (b == '\\') {
+        i++;
+        if (i == term.length()) {
+          return null;
+        }
+        b = term.byteAt(i);
+        if (b != '"' && b != '\\') {
+          return null;
+        }
+      } else if (b == '"') {
+        return null;
+      }
+      unescaped[len++] = b;
+    }
+    return new ArrayByteSequence(unescaped, 0, len);
+  }
+
+  /**
+   * @return true if the authorizations satisfy the expression
+   */
+  public boolean evaluate(AuthorizationContainer auths) {
+    return code.length == 0 || evaluate(0, auths);
+  }
+
+  private boolean evaluate(int pc, AuthorizationContainer auths) {
+    int op = code[pc];
+    if (op >= 0) {
+      return terms[op] != null && auths.contains(terms[op]);
+    }
+    int children = code[pc + 1];
+    int child = pc + 3;
+    for (int i = 0; i < children; i++) {
+      boolean result = evaluate(child, auths);
+      if (op == AND && !result) {
+        return false;
+      } else if (op == OR && result) {
+        return true;
+      }
+      child = code[child] >= 0 ? child + 1 : code[child + 2];
+    }
+    return op == AND;
+  }
+}
@@ -53,6 +53,20 @@ import io.micrometer.core.instrument.MeterRegistry;
  * <td></td>
  * </tr>
  * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_COORDINATOR_JOB_WAIT}</td>
+ * <td>Timer</td>
+ * <td>The time compactors waited for a job, tagged by queue</td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_COORDINATOR_IDLE_COMPACTORS}</td>
+ * <td>Gauge</td>
+ * <td>The compactors waiting for a job, tagged by queue</td>
+ * </tr>
+ * <tr>
  * <td>currentFateOps</td>
  * <td>Gauge</td>
  * <td>{@link #METRICS_FATE_TOTAL_IN_PROGRESS}</td>
@@ -330,6 +344,27 @@ import io.micrometer.core.instrument.MeterRegistry;
  * derived</td>
  * </tr>
  * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_TSERVER_CACHE_HITS}</td>
+ * <td>Counter</td>
+ * <td>Tagged with the cache type and the tier, which is all for the cache as a whole</td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_TSERVER_CACHE_REQUESTS}</td>
+ * <td>Counter</td>
+ * <td>Tagged with the cache type and the tier, which is all for the cache as a whole</td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_TSERVER_CACHE_DECOMPRESS}</td>
+ * <td>FunctionTimer</td>
+ * <td>Time spent decompressing data blocks cached in compressed form, once per cache hit</td>
+ * </tr>
+ * <tr>
  * <td>queryRate</td>
  * <td>Gauge</td>
  * <td>{@link #METRICS_TSERVER_SCAN_RESULTS}</td>
@@ -397,6 +432,48 @@ import io.micrometer.core.instrument.MeterRegistry;
  * <td>Gauge</td>
  * <td></td>
  * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_BATCH_ENTRIES}</td>
+ * <td>DistributionSummary</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_BATCH_BYTES}</td>
+ * <td>DistributionSummary</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_PREFETCH_REQUESTED}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_PREFETCH_DROPPED}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_PREFETCH_HITS}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_SCAN_PREFETCH_WASTED}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
  * <!-- major compactions -->
  * <tr>
  * <td>{i|e}_{compactionServiceName}_{executor_name}_queued</td>
@@ -515,6 +592,78 @@ import io.micrometer.core.instrument.MeterRegistry;
  * <td>Distribution Summary</td>
  * <td></td>
  * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_UPDATE_ROW_LOCK_WAIT}</td>
+ * <td>Timer</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_UPDATE_ROW_LOCK_DEFERRED}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
+ * <!-- Write ahead logs -->
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_WAL_SYNC_BATCH_SIZE}</td>
+ * <td>Distribution Summary</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_WAL_SYNC_LATENCY}</td>
+ * <td>Timer</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_WAL_QUEUE_DEPTH}</td>
+ * <td>Distribution Summary</td>
+ * <td></td>
+ * </tr>
+ * <!-- memory management -->
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_MEM_PREDICTED_HOLD}</td>
+ * <td>Gauge</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_MEM_INGEST_RATE}</td>
+ * <td>Gauge</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_MEM_PREDICTED_FLUSH}</td>
+ * <td>Gauge</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_MEM_PREDICTIVE_FLUSHES}</td>
+ * <td>Counter</td>
+ * <td></td>
+ * </tr>
+ * <tr>
+ * <td>N/A</td>
+ * <td>N/A</td>
+ * <td>{@link #METRICS_MEM_HOLD}</td>
+ * <td>Timer</td>
+ * <td></td>
+ * </tr>
  * <!-- Thrift -->
  * <tr>
  * <td>idle</td>
@@ -541,6 +690,10 @@ public interface MetricsProducer {
   String METRICS_COMPACTOR_PREFIX = "accumulo.compactor";
   String METRICS_COMPACTOR_MAJC_STUCK = METRICS_COMPACTOR_PREFIX + "majc.stuck";
 
+  String METRICS_COORDINATOR_PREFIX = "accumulo.compaction.coordinator.";
+  String METRICS_COORDINATOR_JOB_WAIT = METRICS_COORDINATOR_PREFIX + "job.wait";
+  String METRICS_COORDINATOR_IDLE_COMPACTORS = METRICS_COORDINATOR_PREFIX + "compactors.idle";
+
   String METRICS_FATE_PREFIX = "accumulo.fate.";
   String METRICS_FATE_TYPE_IN_PROGRESS = METRICS_FATE_PREFIX + "ops.in_progress_by_type";
   String METRICS_FATE_TOTAL_IN_PROGRESS = METRICS_FATE_PREFIX + "ops.in_progress";
@@ -582,6 +735,13 @@ public interface MetricsProducer {
   String METRICS_SCAN_OPEN_FILES = METRICS_SCAN + ".files.open";
   String METRICS_SCAN_RESULTS = METRICS_SCAN + ".result";
   String METRICS_SCAN_YIELDS = METRICS_SCAN + ".yields";
+  String METRICS_SCAN_BATCH_ENTRIES = METRICS_SCAN + ".batch.entries";
+  String METRICS_SCAN_BATCH_BYTES = METRICS_SCAN + ".batch.bytes";
+  String METRICS_SCAN_PREFETCH_PREFIX = METRICS_SCAN + ".prefetch.";
+  String METRICS_SCAN_PREFETCH_REQUESTED = METRICS_SCAN_PREFETCH_PREFIX + "requested";
+  String METRICS_SCAN_PREFETCH_DROPPED = METRICS_SCAN_PREFETCH_PREFIX + "dropped";
+  String METRICS_SCAN_PREFETCH_HITS = METRICS_SCAN_PREFETCH_PREFIX + "hits";
+  String METRICS_SCAN_PREFETCH_WASTED = METRICS_SCAN_PREFETCH_PREFIX + "wasted";
 
   String METRICS_TSERVER_PREFIX = "accumulo.tserver.";
   String METRICS_TSERVER_ENTRIES = METRICS_TSERVER_PREFIX + "entries";
@@ -605,6 +765,9 @@ public interface MetricsProducer {
   String METRICS_TSERVER_SCAN_RESULTS = METRICS_TSERVER_PREFIX + "scan.results";
   String METRICS_TSERVER_SCAN_RESULTS_BYTES = METRICS_TSERVER_PREFIX + "scan.results.bytes";
   String METRICS_TSERVER_SCANNED_ENTRIES = METRICS_TSERVER_PREFIX + "scan.scanned.entries";
+  String METRICS_TSERVER_CACHE_HITS = METRICS_TSERVER_PREFIX + "cache.hits";
+  String METRICS_TSERVER_CACHE_REQUESTS = METRICS_TSERVER_PREFIX + "cache.requests";
+  String METRICS_TSERVER_CACHE_DECOMPRESS = METRICS_TSERVER_PREFIX + "cache.decompress";
 
   String METRICS_THRIFT_PREFIX = "accumulo.thrift.";
   String METRICS_THRIFT_EXECUTE = METRICS_THRIFT_PREFIX + "execute";
@@ -616,6 +779,20 @@ public interface MetricsProducer {
   String METRICS_UPDATE_COMMIT_PREP = METRICS_UPDATE_COMMIT + ".prep";
   String METRICS_UPDATE_WALOG_WRITE = METRICS_UPDATE_PREFIX + "walog.write";
   String METRICS_UPDATE_MUTATION_ARRAY_SIZE = METRICS_UPDATE_PREFIX + "mutation.arrays.size";
+  String METRICS_UPDATE_ROW_LOCK_WAIT = METRICS_UPDATE_PREFIX + "row.lock.wait";
+  String METRICS_UPDATE_ROW_LOCK_DEFERRED = METRICS_UPDATE_PREFIX + "row.lock.deferred";
+
+  String METRICS_WAL_PREFIX = "accumulo.tserver.wal.";
+  String METRICS_WAL_SYNC_BATCH_SIZE = METRICS_WAL_PREFIX + "sync.batch.size";
+  String METRICS_WAL_SYNC_LATENCY = METRICS_WAL_PREFIX + "sync.latency";
+  String METRICS_WAL_QUEUE_DEPTH = METRICS_WAL_PREFIX + "queue.depth";
+
+  String METRICS_MEM_PREFIX = "accumulo.tserver.memory.";
+  String METRICS_MEM_PREDICTED_HOLD = METRICS_MEM_PREFIX + "predicted.hold";
+  String METRICS_MEM_INGEST_RATE = METRICS_MEM_PREFIX + "ingest.rate";
+  String METRICS_MEM_PREDICTED_FLUSH = METRICS_MEM_PREFIX + "predicted.flush";
+  String METRICS_MEM_PREDICTIVE_FLUSHES = METRICS_MEM_PREFIX + "predictive.flushes";
+  String METRICS_MEM_HOLD = METRICS_MEM_PREFIX + "hold";
 
   /**
    * Build Micrometer Meter objects and register them with the registry
@@ -64,6 +64,17 @@ public interface BlockCache {
      * @return The loaded block or null if loading the block would exceed maxSize.
      */
     byte[] load(int maxSize, Map<String,byte[]> dependencies);
+
+    /**
+     * Whether the block returned by the last call to {@link #load(int, Map)} may be written outside
+     * of memory, by caches that keep blocks on disk. Blocks of encrypted files are cached
+     * decrypted, so they must only be kept in memory.
+     *
+     * @since 2.1.0
+     */
+    default boolean isPersistable() {
+      return true;
+    }
   }
 
   /**
@@ -117,5 +128,16 @@ public interface BlockCache {
      * @return the number of lookups
      */
     long requestCount();
+
+    /**
+     * For a cache made of more than one tier, the statistics of each tier. A lookup is a request to
+     * each tier it reaches and a hit in the tier that returns the cached value.
+     *
+     * @return statistics of each tier by tier name, empty if the cache has a single tier
+     * @since 2.1.0
+     */
+    default Map<String,Stats> getTierStats() {
+      return Map.of();
+    }
   }
 }
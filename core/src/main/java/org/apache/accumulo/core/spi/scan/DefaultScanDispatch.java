@@ -48,6 +48,11 @@ class DefaultScanDispatch extends ScanDispatchImpl {
     return new ScanDispatchImpl().setDataCacheUsage(usage);
   }
 
+  @Override
+  public Builder setPrefetchBlocks(int blocks) {
+    return new ScanDispatchImpl().setPrefetchBlocks(blocks);
+  }
+
   @Override
   public ScanDispatch build() {
     return this;
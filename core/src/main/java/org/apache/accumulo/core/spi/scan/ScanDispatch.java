@@ -59,6 +59,18 @@ public interface ScanDispatch {
 
   public CacheUsage getIndexCacheUsage();
 
+  /**
+   * @return the number of data blocks a scan keeps loading into cache ahead of where it is reading
+   *         once it reads blocks sequentially, or {@value #TABLE_PREFETCH_BLOCKS} to use the
+   *         table's {@code table.scan.prefetch.blocks} setting
+   */
+  public int getPrefetchBlocks();
+
+  /**
+   * The value of {@link #getPrefetchBlocks()} that means the table setting is used.
+   */
+  public static final int TABLE_PREFETCH_BLOCKS = -1;
+
   /**
    * @since 2.1.0
    */
@@ -94,6 +106,18 @@ public interface ScanDispatch {
      */
     public Builder setDataCacheUsage(CacheUsage usage);
 
+    /**
+     * If this is not called, then {@value ScanDispatch#TABLE_PREFETCH_BLOCKS} should be used.
+     * Prefetching loads blocks into the data cache, so it has no effect when the scan does not load
+     * data into cache.
+     *
+     * @param blocks
+     *          the number of data blocks to prefetch ahead of a sequential scan, 0 to not prefetch,
+     *          or {@value ScanDispatch#TABLE_PREFETCH_BLOCKS} to use the table setting
+     * @return may return self or a new object
+     */
+    public Builder setPrefetchBlocks(int blocks);
+
     /**
      * @return an immutable {@link ScanDispatch} object.
      */
@@ -37,11 +37,13 @@ class ScanDispatchImpl implements ScanDispatch, Builder {
   private String executorName;
   private CacheUsage indexCacheUsage;
   private CacheUsage dataCacheUsage;
+  private int prefetchBlocks;
 
   ScanDispatchImpl() {
     executorName = SimpleScanDispatcher.DEFAULT_SCAN_EXECUTOR_NAME;
     indexCacheUsage = CacheUsage.TABLE;
     dataCacheUsage = CacheUsage.TABLE;
+    prefetchBlocks = TABLE_PREFETCH_BLOCKS;
   }
 
   @Override
@@ -78,6 +80,15 @@ class ScanDispatchImpl implements ScanDispatch, Builder {
     return this;
   }
 
+  @Override
+  public Builder setPrefetchBlocks(int blocks) {
+    Preconditions.checkState(!built);
+    Preconditions.checkArgument(blocks >= TABLE_PREFETCH_BLOCKS, "Invalid prefetch blocks %s",
+        blocks);
+    this.prefetchBlocks = blocks;
+    return this;
+  }
+
   @Override
   public CacheUsage getDataCacheUsage() {
     Preconditions.checkState(built);
@@ -90,9 +101,16 @@ class ScanDispatchImpl implements ScanDispatch, Builder {
     return indexCacheUsage;
   }
 
+  @Override
+  public int getPrefetchBlocks() {
+    Preconditions.checkState(built);
+    return prefetchBlocks;
+  }
+
   @Override
   public String toString() {
     return "{executorName=" + executorName + ", indexCacheUsage=" + indexCacheUsage
-        + ", dataCacheUsage=" + dataCacheUsage + ", built=" + built + "}";
+        + ", dataCacheUsage=" + dataCacheUsage + ", prefetchBlocks=" + prefetchBlocks + ", built="
+        + built + "}";
   }
 }
@@ -49,6 +49,9 @@ import org.apache.accumulo.core.spi.scan.ScanDispatch.CacheUsage;
  * takes precedence over all other settings. See {@link ScannerBase#setExecutionHints(Map)}</LI>
  * <LI>{@code table.scan.dispatcher.opts.cacheUsage.<type>[.index|.data]=enabled|disabled|opportunistic|table}
  * : for scans that set the hint {@code scan_type=<type>} determines how the scan will use cache.
+ * <LI>{@code table.scan.dispatcher.opts.prefetch.<type>=<blocks>} : for scans that set the hint
+ * {@code scan_type=<type>} sets the number of data blocks to prefetch once the scan reads
+ * sequentially, overriding {@code table.scan.prefetch.blocks}.</LI>
  * </UL>
  *
  * The {@code multi_executor} and {@code single_executor} options override the {@code executor}
@@ -59,6 +62,8 @@ public class SimpleScanDispatcher implements ScanDispatcher {
 
   private final String EXECUTOR_PREFIX = "executor.";
 
+  private final String PREFETCH_PREFIX = "prefetch.";
+
   private final Set<String> VALID_OPTS = Set.of("executor", "multi_executor", "single_executor");
 
   private ScanDispatch singleDispatch;
@@ -76,6 +81,7 @@ public class SimpleScanDispatcher implements ScanDispatcher {
     Map<String,CacheUsage> indexCacheUsage = new HashMap<>();
     Map<String,CacheUsage> dataCacheUsage = new HashMap<>();
     Map<String,String> scanExecutors = new HashMap<>();
+    Map<String,Integer> prefetchBlocks = new HashMap<>();
     Set<String> hintScanTypes = new HashSet<>();
 
     options.forEach((k, v) -> {
@@ -86,6 +92,10 @@ public class SimpleScanDispatcher implements ScanDispatcher {
         String hintScanType = k.substring(EXECUTOR_PREFIX.length());
         scanExecutors.put(hintScanType, v);
         hintScanTypes.add(hintScanType);
+      } else if (k.startsWith(PREFETCH_PREFIX)) {
+        String hintScanType = k.substring(PREFETCH_PREFIX.length());
+        prefetchBlocks.put(hintScanType, Integer.parseInt(v));
+        hintScanTypes.add(hintScanType);
       } else if (cacheMatcher.matches()) {
         String hintScanType = cacheMatcher.group(1);
         CacheUsage usage = CacheUsage.valueOf(v.toUpperCase());
@@ -123,16 +133,20 @@ public class SimpleScanDispatcher implements ScanDispatcher {
           EnumMap<ScanInfo.Type,ScanDispatch> precomupted = new EnumMap<>(ScanInfo.Type.class);
           CacheUsage iCacheUsage = indexCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE);
           CacheUsage dCacheUsage = dataCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE);
+          int prefetch =
+              prefetchBlocks.getOrDefault(hintScanType, ScanDispatch.TABLE_PREFETCH_BLOCKS);
           precomupted.put(ScanInfo.Type.SINGLE,
               ScanDispatch.builder()
                   .setExecutorName(
                       scanExecutors.getOrDefault(hintScanType, singleDispatch.getExecutorName()))
-                  .setIndexCacheUsage(iCacheUsage).setDataCacheUsage(dCacheUsage).build());
+                  .setIndexCacheUsage(iCacheUsage).setDataCacheUsage(dCacheUsage)
+                  .setPrefetchBlocks(prefetch).build());
           precomupted.put(ScanInfo.Type.MULTI,
               ScanDispatch.builder()
                   .setExecutorName(
                       scanExecutors.getOrDefault(hintScanType, multiDispatch.getExecutorName()))
-                  .setIndexCacheUsage(iCacheUsage).setDataCacheUsage(dCacheUsage).build());
+                  .setIndexCacheUsage(iCacheUsage).setDataCacheUsage(dCacheUsage)
+                  .setPrefetchBlocks(prefetch).build());
           return precomupted;
         }));
   }
@@ -103,6 +103,12 @@ public class SummaryReader {
             return idxCacheEntry.getBuffer();
           }
         }
+
+        @Override
+        public boolean isPersistable() {
+          // where a block taken from the index cache came from is not known
+          return idxCacheEntry == null && loader.isPersistable();
+        }
       };
       return summaryCache.getBlock(blockName, idxLoader);
     }
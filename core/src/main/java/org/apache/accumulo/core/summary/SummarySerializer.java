@@ -125,7 +125,7 @@ class SummarySerializer {
     }
   }
 
-  private static class LgBuilder {
+  static class LgBuilder {
     private Summarizer summarizer;
     private SummarizerConfiguration conf;
     private Collector collector;
@@ -377,6 +377,22 @@ class SummarySerializer {
 
       lgb = new LgBuilder(conf, kvs);
     }
+
+    /**
+     * Start summarizing a locality group that is written concurrently with others. The returned
+     * builder is used by the thread writing the locality group, which must finish it before this is
+     * saved.
+     *
+     * @param name
+     *          the locality group name, or null for the default locality group
+     */
+    synchronized LgBuilder startConcurrentLocalityGroup(String name) {
+      Preconditions.checkState(lgb == null);
+      LgBuilder concurrentLgb =
+          name == null ? new LgBuilder(conf, kvs) : new LgBuilder(conf, kvs, name);
+      locGroups.add(concurrentLgb);
+      return concurrentLgb;
+    }
   }
 
   public static Builder builder(SummarizerConfiguration conf, SummarizerFactory factory,
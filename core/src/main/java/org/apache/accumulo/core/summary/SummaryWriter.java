@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 import org.apache.accumulo.core.client.summary.SummarizerConfiguration;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
@@ -30,6 +31,7 @@ import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.hadoop.io.WritableUtils;
 
@@ -86,6 +88,63 @@ public class SummaryWriter implements FileSKVWriter {
     }
   }
 
+  @Override
+  public boolean supportsConcurrentLocalityGroups() {
+    return writer.supportsConcurrentLocalityGroups();
+  }
+
+  @Override
+  public LocalityGroupAppender startConcurrentLocalityGroup(String name,
+      Set<ByteSequence> columnFamilies) throws IOException {
+    SummarySerializer.LgBuilder[] lgBuilders =
+        new SummarySerializer.LgBuilder[summaryStores.length];
+    for (int i = 0; i < summaryStores.length; i++) {
+      lgBuilders[i] = summaryStores[i].startConcurrentLocalityGroup(name);
+    }
+
+    LocalityGroupAppender appender = writer.startConcurrentLocalityGroup(name, columnFamilies);
+    return new LocalityGroupAppender() {
+      private boolean closed = false;
+
+      @Override
+      public void append(Key key, Value value) throws IOException {
+        appender.append(key, value);
+        for (SummarySerializer.LgBuilder lgb : lgBuilders) {
+          lgb.put(key, value);
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        appender.close();
+        for (SummarySerializer.LgBuilder lgb : lgBuilders) {
+          lgb.finish();
+        }
+      }
+    };
+  }
+
+  @Override
+  public boolean canAppendStoredBlocks(FileSKVIterator source) throws IOException {
+    return writer.canAppendStoredBlocks(source);
+  }
+
+  @Override
+  public long appendStoredBlocks(FileSKVIterator source, BiConsumer<Key,Value> entries)
+      throws IOException {
+    BiConsumer<Key,Value> summaryEntries = (key, value) -> {
+      for (SummarySerializer.Builder ssb : summaryStores) {
+        ssb.put(key, value);
+      }
+    };
+    return writer.appendStoredBlocks(source,
+        entries == null ? summaryEntries : entries.andThen(summaryEntries));
+  }
+
   @Override
   public DataOutputStream createMetaStore(String name) throws IOException {
     return writer.createMetaStore(name);
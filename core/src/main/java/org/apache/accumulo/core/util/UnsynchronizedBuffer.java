@@ -181,6 +181,36 @@ public class UnsynchronizedBuffer {
       }
     }
 
+    /**
+     * Resets this reader to the start of the given bytes, so that it can be reused.
+     *
+     * @param b
+     *          bytes to read
+     */
+    public void reset(byte[] b) {
+      this.data = b;
+      this.offset = 0;
+    }
+
+    /**
+     * Gets the position of the next byte this reader will read.
+     *
+     * @return offset into the bytes being read
+     */
+    public int getOffset() {
+      return offset;
+    }
+
+    /**
+     * Skips over bytes in this reader's buffer.
+     *
+     * @param len
+     *          number of bytes to skip
+     */
+    public void skip(int len) {
+      offset += len;
+    }
+
     /**
      * Reads an integer value from this reader's buffer.
      *
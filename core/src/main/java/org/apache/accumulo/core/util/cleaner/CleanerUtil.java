@@ -138,6 +138,13 @@ public class CleanerUtil {
     });
   }
 
+  // stops the thread that streams batches to a scanner iterator that was dropped before it was
+  // exhausted or closed; stopStreaming must not reference the iterator
+  public static Cleanable scanStreamStopper(Object iter, Runnable stopStreaming) {
+    requireNonNull(stopStreaming);
+    return CLEANER.register(iter, stopStreaming);
+  }
+
   // this is dubious; MetadataConstraints should probably use the ZooCache provided by context
   // can be done in a follow-on action; for now, this merely replaces the previous finalizer
   public static Cleanable zooCacheClearer(Object o, ZooCache zc) {
@@ -128,6 +128,15 @@ service CompactionCoordinatorService {
     3:string externalCompactionId
   )
 
+  /*
+   * Called by TabletServer when it queues compaction jobs at a priority it did not have queued
+   */
+  void compactionJobsQueued(
+    1:trace.TInfo tinfo
+    2:security.TCredentials credentials
+    3:string tserver
+  )
+
 }
 
 service CompactorService {
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+import org.junit.Test;
+
+public class BlockedBloomFilterTest {
+
+  private static Key key(int i) {
+    return new Key(("row" + i).getBytes(UTF_8));
+  }
+
+  private static int countFalsePositives(Filter filter, int numKeys) {
+    int falsePositives = 0;
+    for (int i = numKeys; i < numKeys * 2; i++) {
+      if (filter.membershipTest(key(i))) {
+        falsePositives++;
+      }
+    }
+    return falsePositives;
+  }
+
+  @Test
+  public void testMembership() throws IOException {
+    int numKeys = 10_000;
+    // about 1% false positives for a standard filter with 5 hashes
+    int vectorSize = numKeys * 10;
+    BlockedBloomFilter filter = new BlockedBloomFilter(vectorSize, 5, Hash.MURMUR_HASH, numKeys);
+    for (int i = 0; i < numKeys; i++) {
+      filter.add(key(i));
+    }
+    for (int i = 0; i < numKeys; i++) {
+      assertTrue(filter.membershipTest(key(i)));
+    }
+    int falsePositives = countFalsePositives(filter, numKeys);
+    assertTrue("false positives " + falsePositives, falsePositives < numKeys * 0.03);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    filter.write(new DataOutputStream(baos));
+    BlockedBloomFilter copy = new BlockedBloomFilter();
+    copy.readFields(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    for (int i = 0; i < numKeys; i++) {
+      assertTrue(copy.membershipTest(key(i)));
+    }
+    assertEquals(falsePositives, countFalsePositives(copy, numKeys));
+  }
+
+  @Test
+  public void testRows() {
+    // keep adding past the number of keys a row is sized for
+    BlockedBloomFilter filter = new BlockedBloomFilter(1000, 5, Hash.MURMUR_HASH, 100);
+    for (int i = 0; i < 1000; i++) {
+      filter.add(key(i));
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.membershipTest(key(i)));
+    }
+    // each row is near its design false positive rate, which the whole filter stays close to
+    assertTrue(countFalsePositives(filter, 1000) < 1000 * 0.3);
+  }
+
+  @Test
+  public void testOr() {
+    BlockedBloomFilter f1 = new BlockedBloomFilter(4096, 5, Hash.MURMUR_HASH, 1000);
+    BlockedBloomFilter f2 = new BlockedBloomFilter(4096, 5, Hash.MURMUR_HASH, 1000);
+    f1.add(key(1));
+    f2.add(key(2));
+    f1.or(f2);
+    assertTrue(f1.membershipTest(key(1)));
+    assertTrue(f1.membershipTest(key(2)));
+
+    assertThrows(IllegalArgumentException.class,
+        () -> f1.or(new BlockedBloomFilter(8192, 5, Hash.MURMUR_HASH, 1000)));
+    assertThrows(IllegalArgumentException.class,
+        () -> f1.or(new DynamicBloomFilter(4096, 5, Hash.MURMUR_HASH, 1000)));
+  }
+}
@@ -19,7 +19,9 @@
 package org.apache.accumulo.core.clientImpl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.SortedSet;
@@ -86,4 +88,24 @@ public class ScannerOptionsTest {
       assertThrows(IllegalArgumentException.class, () -> options.fetchColumn(null));
     }
   }
+
+  @Test
+  public void testStreamingWindow() {
+    try (ScannerOptions options = new ScannerOptions()) {
+      assertEquals(0, options.getStreamingWindow());
+      options.setStreamingWindow(8);
+      assertEquals(8, new ScannerOptions(options).getStreamingWindow());
+      assertThrows(IllegalArgumentException.class, () -> options.setStreamingWindow(-1));
+      assertEquals(8, options.getStreamingWindow());
+    }
+  }
+
+  @Test
+  public void testAdaptiveBatchSize() {
+    try (ScannerOptions options = new ScannerOptions()) {
+      assertFalse(options.isAdaptiveBatchSize());
+      options.setAdaptiveBatchSize(true);
+      assertTrue(new ScannerOptions(options).isAdaptiveBatchSize());
+    }
+  }
 }
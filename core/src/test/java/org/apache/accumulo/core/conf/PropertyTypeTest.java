@@ -150,6 +150,12 @@ public class PropertyTypeTest {
     invalid("", "other");
   }
 
+  @Test
+  public void testTypeBLOOM_FORMAT() {
+    valid(null, "standard", "blocked");
+    invalid("", "other", "Blocked");
+  }
+
   @Test
   public void testTypeFRACTION() {
     valid(null, "1", "0", "1.0", "25%", "2.5%", "10.2E-3", "10.2E-3%", ".3");
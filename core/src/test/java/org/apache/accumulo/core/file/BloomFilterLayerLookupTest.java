@@ -18,6 +18,7 @@
  */
 package org.apache.accumulo.core.file;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -145,6 +146,47 @@ public class BloomFilterLayerLookupTest {
     assertTrue(rate1 > rate2);
   }
 
+  @Test
+  public void testBlockedFormat() throws IOException {
+    ConfigurationCopy acuconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_FORMAT, BloomFilterLayer.BLOCKED_FORMAT);
+    acuconf.set(Property.TABLE_BLOOM_SIZE, "1000");
+    acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
+    acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "0");
+    acuconf.set(Property.TSERV_BLOOM_LOAD_MAXCONCURRENT, "0");
+
+    Configuration conf = new Configuration();
+    FileSystem fs = FileSystem.get(conf);
+    String fname = new File(tempDir.getRoot(),
+        testName.getMethodName() + "." + FileOperations.getNewFileExtension(acuconf))
+            .getAbsolutePath();
+    FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder()
+        .forFile(fname, fs, conf, CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(acuconf).build();
+    writer.startDefaultLocalityGroup();
+    // more rows than the filter was sized for, so that it has several rows of blocks
+    for (int i = 0; i < 5000; i += 2) {
+      writer.append(new Key(new Text("r" + String.format("%010d", i)), new Text("cf1")),
+          new Value("v" + i));
+    }
+    writer.close();
+
+    FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder()
+        .forFile(fname, fs, conf, CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(acuconf).build();
+    reader.getMetaStore(BloomFilterLayer.BLOCKED_BLOOM_FILE_NAME).close();
+    for (int i = 0; i < 5000; i += 2) {
+      seek(reader, i);
+      assertTrue(reader.hasTop());
+    }
+    for (int i = 1; i < 5000; i += 2) {
+      seek(reader, i);
+      assertFalse(reader.hasTop());
+    }
+    reader.close();
+  }
+
   private void seek(FileSKVIterator bmfr, int row) throws IOException {
     String fi = String.format("%010d", row);
     // bmfr.seek(new Range(new Text("r"+fi)));
@@ -19,17 +19,32 @@
 package org.apache.accumulo.core.file;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
 import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.CacheProvider;
 import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheType;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
 public class FileOperationsTest {
@@ -67,4 +82,64 @@ public class FileOperationsTest {
 
     assertFalse("Should not throw with more than 1 dot in filename.", caughtException);
   }
+
+  @Test
+  public void testIndexReaderUsesCache() throws Exception {
+    String filename = "target/test.index.cache." + RFile.EXTENSION;
+    File testFile = new File(filename);
+    if (testFile.exists()) {
+      FileUtils.forceDelete(testFile);
+    }
+    FileOperations fileOperations = FileOperations.getInstance();
+    Configuration conf = new Configuration();
+    FileSystem fs = FileSystem.getLocal(conf);
+    ConfigurationCopy acuconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    // small blocks so the file has a multi level index
+    acuconf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "1K");
+    acuconf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX, "1K");
+    acuconf.set(Property.TSERV_INDEXCACHE_SIZE, "10M");
+    try {
+      try (FileSKVWriter writer = fileOperations.newWriterBuilder()
+          .forFile(filename, fs, conf, CryptoServiceFactory.newDefaultInstance())
+          .withTableConfiguration(acuconf).build()) {
+        writer.startDefaultLocalityGroup();
+        for (int i = 0; i < 20_000; i++) {
+          writer.append(new Key(String.format("row_%06d", i)), new Value("value" + i));
+        }
+      }
+
+      BlockCacheManager manager = BlockCacheManagerFactory.getInstance(acuconf);
+      manager.start(new BlockCacheConfiguration(acuconf));
+      BlockCache indexCache = manager.getBlockCache(CacheType.INDEX);
+      CacheProvider cacheProvider = new BasicCacheProvider(indexCache, null);
+      for (int pass = 0; pass < 2; pass++) {
+        int entries = 0;
+        try (FileSKVIterator index = fileOperations.newIndexReaderBuilder()
+            .forFile(filename, fs, conf, CryptoServiceFactory.newDefaultInstance())
+            .withTableConfiguration(acuconf).withCacheProvider(cacheProvider).build()) {
+          while (index.hasTop()) {
+            entries++;
+            index.next();
+          }
+        }
+        assertTrue(entries > 100);
+      }
+      // the second pass found the index blocks the first loaded
+      assertTrue(indexCache.getStats().hitCount() > 10);
+
+      // seeking the index starts at the block holding the start of the range
+      try (FileSKVIterator index = fileOperations.newIndexReaderBuilder()
+          .forFile(filename, fs, conf, CryptoServiceFactory.newDefaultInstance())
+          .withTableConfiguration(acuconf).withCacheProvider(cacheProvider).build()) {
+        index.seek(new Range(new Text("row_010000"), false, new Text("row_012000"), true),
+            Collections.emptySet(), false);
+        assertTrue(index.hasTop());
+        String row = index.getTopKey().getRow().toString();
+        assertTrue(row, row.compareTo("row_010000") > 0 && row.compareTo("row_010200") < 0);
+      }
+      manager.stop();
+    } finally {
+      FileUtils.forceDelete(testFile);
+    }
+  }
 }
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.file.blockfile.cache.offheap.SlabAllocator.Chunk;
+import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.junit.Test;
+
+public class OffHeapBlockCacheTest {
+
+  private static byte[] block(int size, int seed) {
+    byte[] data = new byte[size];
+    Arrays.fill(data, (byte) seed);
+    data[0] = (byte) (seed >> 8);
+    return data;
+  }
+
+  private static class TestLoader implements Loader {
+    private final byte[] data;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    TestLoader(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      loads.incrementAndGet();
+      return data.length > maxSize ? null : data;
+    }
+  }
+
+  @Test
+  public void testCacheAndLoad() {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1 << 20, 1 << 16, 1 << 12, 1 << 16);
+
+    byte[] b1 = block(5000, 1);
+    cache.cacheBlock("b1", b1);
+    CacheEntry ce = cache.getBlock("b1");
+    assertArrayEquals(b1, ce.getBuffer());
+    assertNull(cache.getBlock("b2"));
+
+    byte[] b2 = block(100, 2);
+    TestLoader loader = new TestLoader(b2);
+    assertArrayEquals(b2, cache.getBlock("b2", loader).getBuffer());
+    assertArrayEquals(b2, cache.getBlock("b2", loader).getBuffer());
+    assertEquals(1, loader.loads.get());
+
+    // larger than a slab, so it is read but not cached
+    TestLoader bigLoader = new TestLoader(block((1 << 16) + 1, 3));
+    assertNull(cache.getBlock("big", bigLoader));
+    assertNull(cache.getBlock("big", bigLoader));
+    assertEquals(2, bigLoader.loads.get());
+
+    assertEquals(2, cache.getStats().hitCount());
+    cache.clear();
+  }
+
+  @Test
+  public void testIndex() {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1 << 20, 1 << 16, 1 << 12, 1 << 16);
+    cache.cacheBlock("b1", block(3000, 1));
+    Weighable index = () -> 10;
+    assertSame(index, cache.getBlock("b1").getIndex(() -> index));
+    // the index is kept with the cached block, not with the copy of its bytes
+    assertSame(index, cache.getBlock("b1").getIndex(() -> () -> 20));
+    cache.clear();
+  }
+
+  @Test
+  public void testHeapCopies() {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1 << 20, 1 << 16, 1 << 12, 1 << 16);
+    byte[] b1 = block(3000, 1);
+    cache.cacheBlock("b1", b1);
+    // hits on a hot block reuse one copy
+    assertSame(b1, cache.getBlock("b1").getBuffer());
+    assertSame(b1, cache.getBlock("b1").getBuffer());
+    byte[] b2 = block(3000, 2);
+    TestLoader loader = new TestLoader(b2);
+    assertSame(b2, cache.getBlock("b2", loader).getBuffer());
+    assertSame(b2, cache.getBlock("b2", loader).getBuffer());
+    cache.clear();
+
+    // with no heap for copies each hit copies the block
+    cache = new OffHeapBlockCache(1 << 20, 1 << 16, 1 << 12, 0);
+    cache.cacheBlock("b1", b1);
+    byte[] copy = cache.getBlock("b1").getBuffer();
+    assertArrayEquals(b1, copy);
+    assertNotSame(copy, cache.getBlock("b1").getBuffer());
+    cache.clear();
+  }
+
+  @Test
+  public void testIndexWeight() {
+    OffHeapBlockCache cache = new OffHeapBlockCache(1 << 20, 1 << 16, 1 << 12, 2000);
+    cache.cacheBlock("b1", block(3000, 1));
+    cache.cacheBlock("b2", block(3000, 2));
+    AtomicInteger weight = new AtomicInteger(10);
+    Weighable index = weight::get;
+    CacheEntry ce = cache.getBlock("b1");
+    assertSame(index, ce.getIndex(() -> index));
+
+    // the index grew past its share of the heap, so no other index is built
+    weight.set(1500);
+    ce.indexWeightChanged();
+    assertNull(cache.getBlock("b2").getIndex(() -> () -> 10));
+    assertSame(index, cache.getBlock("b1").getIndex(() -> () -> 20));
+
+    // the index counts against the cache size, and its block is evicted when it is too large
+    weight.set(1 << 21);
+    ce.indexWeightChanged();
+    assertNull(cache.getBlock("b1"));
+    assertNotNull(cache.getBlock("b2").getIndex(() -> () -> 10));
+    cache.clear();
+  }
+
+  @Test
+  public void testEviction() {
+    int slabSize = 1 << 16;
+    OffHeapBlockCache cache = new OffHeapBlockCache(8 * slabSize, slabSize, 1 << 12, slabSize);
+    // far more blocks of varying sizes than fit
+    for (int i = 0; i < 2000; i++) {
+      byte[] data = block(1000 + (i % 7) * 3000, i);
+      CacheEntry ce = cache.getBlock("b" + i, new TestLoader(data));
+      assertArrayEquals(data, ce.getBuffer());
+    }
+    assertTrue(cache.getMaxSize() <= 8 * slabSize);
+
+    // everything still cached reads back correctly
+    int cached = 0;
+    for (int i = 0; i < 2000; i++) {
+      CacheEntry ce = cache.getBlock("b" + i);
+      if (ce != null) {
+        assertArrayEquals(block(1000 + (i % 7) * 3000, i), ce.getBuffer());
+        cached++;
+      }
+    }
+    assertTrue(cached > 0);
+    cache.clear();
+  }
+
+  @Test
+  public void testUsableSize() {
+    int slabSize = 4 << 20;
+    // slabs are allocated as they are used, so large caches cost nothing here
+    SlabAllocator allocator = new SlabAllocator(1L << 30, slabSize);
+    assertEquals((1L << 30) - 16 * slabSize, allocator.getUsableSize());
+    allocator = new SlabAllocator(1L << 26, slabSize);
+    assertEquals((1L << 26) - slabSize, allocator.getUsableSize());
+    allocator = new SlabAllocator(1L << 40, slabSize);
+    assertTrue(allocator.getUsableSize() > (1L << 40) - 64L * slabSize);
+    allocator = new SlabAllocator(slabSize, slabSize);
+    assertEquals(slabSize / 2, allocator.getUsableSize());
+  }
+
+  @Test
+  public void testSlabReuse() {
+    int slabSize = 1 << 16;
+    SlabAllocator allocator = new SlabAllocator(2 * slabSize, slabSize);
+    Chunk[] small = new Chunk[2 * slabSize / 1024];
+    for (int i = 0; i < small.length; i++) {
+      small[i] = allocator.allocate(1000);
+      assertNotNull(small[i]);
+    }
+    assertNull(allocator.allocate(1000));
+    assertNull(allocator.allocate(20000));
+    assertEquals(2, allocator.getAllocatedSlabs());
+
+    // freeing a whole slab of small chunks lets another size class use it
+    for (int i = 0; i < small.length / 2; i++) {
+      allocator.free(small[i]);
+    }
+    Chunk large = allocator.allocate(20000);
+    assertNotNull(large);
+    assertEquals(2, allocator.getAllocatedSlabs());
+
+    byte[] data = block(20000, 7);
+    large.write(data);
+    byte[] read = new byte[20000];
+    large.read(read);
+    assertArrayEquals(data, read);
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.tiered;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
+import org.apache.accumulo.core.spi.cache.BlockCache.Stats;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TieredBlockCacheTest {
+
+  private static final int SEGMENT_SIZE = DiskBlockTier.MIN_SEGMENT_SIZE;
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private static byte[] block(int size, int seed) {
+    byte[] data = new byte[size];
+    Arrays.fill(data, (byte) seed);
+    data[0] = (byte) (seed >> 8);
+    return data;
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    Path file = tempFolder.getRoot().toPath().resolve("data.cache");
+    try (DiskBlockTier disk = new DiskBlockTier(file, 4L * SEGMENT_SIZE, SEGMENT_SIZE)) {
+      disk.write("b1", block(1000, 1));
+      disk.write("b2", block(2000, 2));
+      assertArrayEquals(block(1000, 1), disk.read("b1"));
+      assertArrayEquals(block(2000, 2), disk.read("b2"));
+      assertNull(disk.read("b3"));
+      assertEquals(2, disk.getHitCount());
+      assertEquals(3, disk.getRequestCount());
+
+      // larger than a segment
+      disk.write("big", block(SEGMENT_SIZE, 3));
+      assertFalse(disk.contains("big"));
+
+      // a second process can not use the same file
+      assertThrows(IOException.class,
+          () -> new DiskBlockTier(file, 4L * SEGMENT_SIZE, SEGMENT_SIZE));
+    }
+  }
+
+  @Test
+  public void testSegmentReuse() throws IOException {
+    Path file = tempFolder.getRoot().toPath().resolve("data.cache");
+    try (DiskBlockTier disk = new DiskBlockTier(file, 2L * SEGMENT_SIZE, SEGMENT_SIZE)) {
+      // about three segments worth of blocks, so the first segment is reused
+      int blockSize = SEGMENT_SIZE / 8;
+      for (int i = 0; i < 24; i++) {
+        disk.write("b" + i, block(blockSize, i));
+      }
+      assertNull(disk.read("b0"));
+      assertFalse(disk.contains("b0"));
+      assertArrayEquals(block(blockSize, 23), disk.read("b23"));
+      assertTrue(disk.getBlockCount() < 24);
+    }
+  }
+
+  @Test
+  public void testRecovery() throws IOException {
+    Path file = tempFolder.getRoot().toPath().resolve("data.cache");
+    int blockSize = SEGMENT_SIZE / 8;
+    try (DiskBlockTier disk = new DiskBlockTier(file, 3L * SEGMENT_SIZE, SEGMENT_SIZE)) {
+      for (int i = 0; i < 30; i++) {
+        disk.write("b" + i, block(blockSize, i));
+      }
+    }
+    int count;
+    try (DiskBlockTier disk = new DiskBlockTier(file, 3L * SEGMENT_SIZE, SEGMENT_SIZE)) {
+      count = disk.getBlockCount();
+      assertTrue(count > 10);
+      assertNull(disk.read("b0"));
+      for (int i = 30 - count; i < 30; i++) {
+        assertArrayEquals(block(blockSize, i), disk.read("b" + i));
+      }
+      // writes continue after the recovered blocks
+      disk.write("new", block(100, 99));
+      assertArrayEquals(block(100, 99), disk.read("new"));
+      assertArrayEquals(block(blockSize, 29), disk.read("b29"));
+    }
+
+    // a different size starts empty
+    try (DiskBlockTier disk = new DiskBlockTier(file, 4L * SEGMENT_SIZE, SEGMENT_SIZE)) {
+      assertEquals(0, disk.getBlockCount());
+    }
+  }
+
+  private static class TestLoader implements Loader {
+    private final byte[] data;
+    private final boolean persistable;
+    private int loads;
+
+    TestLoader(byte[] data) {
+      this(data, true);
+    }
+
+    TestLoader(byte[] data, boolean persistable) {
+      this.data = data;
+      this.persistable = persistable;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      loads++;
+      return data;
+    }
+
+    @Override
+    public boolean isPersistable() {
+      return persistable;
+    }
+  }
+
+  @Test
+  public void testEvictedBlocksAreSpilled() throws Exception {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_DATACACHE_SIZE, "100K");
+    Path file = tempFolder.getRoot().toPath().resolve("data.cache");
+    TieredBlockCache cache = new TieredBlockCache(new BlockCacheConfiguration(cc), CacheType.DATA,
+        file, 16L * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+
+    int blockSize = 10_000;
+    // fill memory until blocks are evicted, only evicted blocks are written to disk and eviction
+    // and the write to disk happen in the background
+    String spilled = null;
+    for (int i = 0; i < 10_000 && spilled == null; i++) {
+      cache.cacheBlock("b" + i, block(blockSize, i));
+      if (i % 20 == 19) {
+        Thread.sleep(10);
+        for (int j = 0; j <= i && spilled == null; j++) {
+          if (cache.isOnDisk("b" + j)) {
+            spilled = "b" + j;
+          }
+        }
+      }
+    }
+    assertNotNull(spilled);
+
+    TestLoader loader = new TestLoader(block(blockSize, -1));
+    CacheEntry entry = cache.getBlock(spilled, loader);
+    assertNotNull(entry);
+    assertArrayEquals(block(blockSize, Integer.parseInt(spilled.substring(1))), entry.getBuffer());
+    assertEquals(0, loader.loads);
+
+    Stats disk = cache.getStats().getTierStats().get(TieredBlockCache.DISK_TIER);
+    assertTrue(disk.hitCount() >= 1);
+    Stats memory = cache.getStats().getTierStats().get(TieredBlockCache.MEMORY_TIER);
+    assertEquals(memory.hitCount() + disk.hitCount(), cache.getStats().hitCount());
+    cache.close();
+  }
+
+  @Test
+  public void testUnpersistableBlocksAreNotSpilled() throws Exception {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_DATACACHE_SIZE, "100K");
+    Path file = tempFolder.getRoot().toPath().resolve("data.cache");
+    TieredBlockCache cache = new TieredBlockCache(new BlockCacheConfiguration(cc), CacheType.DATA,
+        file, 16L * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+
+    // load persistable and unpersistable blocks in turn, until persistable ones are spilled
+    int blockSize = 10_000;
+    int spilled = 0;
+    int loaded = 0;
+    for (int i = 0; i < 10_000 && spilled < 5; i++) {
+      boolean persistable = i % 2 == 1;
+      cache.getBlock("b" + i, new TestLoader(block(blockSize, i), persistable));
+      loaded++;
+      if (i % 20 == 19) {
+        Thread.sleep(10);
+        spilled = 0;
+        for (int j = 1; j <= i; j += 2) {
+          if (cache.isOnDisk("b" + j)) {
+            spilled++;
+          }
+        }
+      }
+    }
+    assertTrue(spilled >= 5);
+    // unpersistable blocks are forgotten once they leave memory, which happens in the background
+    for (int i = 0; i < 100 && cache.getMemoryOnlyCount() > loaded / 4; i++) {
+      Thread.sleep(100);
+    }
+    assertTrue(cache.getMemoryOnlyCount() <= loaded / 4);
+    cache.close();
+
+    // a block must not be written to disk, even after a restart
+    cache = new TieredBlockCache(new BlockCacheConfiguration(cc), CacheType.DATA, file,
+        16L * SEGMENT_SIZE, SEGMENT_SIZE, 1000);
+    int recovered = 0;
+    for (int i = 0; i < loaded; i++) {
+      if (i % 2 == 0) {
+        assertFalse(cache.isOnDisk("b" + i));
+      } else if (cache.isOnDisk("b" + i)) {
+        recovered++;
+      }
+    }
+    assertTrue(recovered > 0);
+    cache.close();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarBlockTest {
+
+  private static final int HEADER_LEN = 7;
+
+  private List<Key> keys;
+  private List<Value> values;
+  private byte[] block;
+
+  @Before
+  public void setUp() throws IOException {
+    TreeMap<Key,Value> entries = new TreeMap<>();
+    Random rand = new Random(13);
+    for (int i = 0; i < 500; i++) {
+      Key key = new Key(String.format("r%04d", rand.nextInt(100)).getBytes(UTF_8),
+          ("cf" + rand.nextInt(3)).getBytes(UTF_8), ("cq" + rand.nextInt(20)).getBytes(UTF_8),
+          (rand.nextBoolean() ? "" : "A&B").getBytes(UTF_8), rand.nextInt(3) - 1,
+          rand.nextInt(20) == 0);
+      byte[] val = new byte[rand.nextInt(20)];
+      rand.nextBytes(val);
+      entries.put(key, new Value(val));
+    }
+    keys = new ArrayList<>(entries.keySet());
+    values = new ArrayList<>(entries.values());
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    // bytes before the entries, as when decoding starts part way through a block
+    out.write(new byte[HEADER_LEN]);
+    Key prevKey = new Key();
+    for (int i = 0; i < keys.size(); i++) {
+      new RelativeKey(prevKey, keys.get(i)).write(out);
+      values.get(i).write(out);
+      prevKey = keys.get(i);
+    }
+    out.close();
+    block = baos.toByteArray();
+  }
+
+  @Test
+  public void testDecode() {
+    ColumnarBlock columnar = new ColumnarBlock();
+    assertEquals(block.length, columnar.decode(block, HEADER_LEN, keys.size(), new Key()));
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, columnar.getPosition());
+      assertEquals(keys.get(i), columnar.getTopKey());
+      assertEquals(keys.get(i).isDeleted(), columnar.getTopKey().isDeleted());
+      assertEquals(values.get(i), columnar.getTopValue());
+      assertEquals(i == 0 ? new Key() : keys.get(i - 1), columnar.getPrevKey());
+      assertEquals(i < keys.size() - 1, columnar.hasNext());
+      if (columnar.hasNext()) {
+        columnar.next();
+      }
+    }
+    assertFalse(columnar.hasNext());
+  }
+
+  @Test
+  public void testSkipTo() {
+    ColumnarBlock columnar = new ColumnarBlock();
+    columnar.decode(block, HEADER_LEN, keys.size(), new Key());
+
+    Key seekKey = keys.get(200);
+    int expected = 0;
+    while (expected < 200
+        && keys.get(expected).compareTo(seekKey, PartialKey.ROW_COLFAM_COLQUAL) < 0) {
+      expected++;
+    }
+    assertEquals(expected, columnar.skipTo(seekKey));
+    assertEquals(expected, columnar.getPosition());
+    assertEquals(keys.get(expected), columnar.getTopKey());
+    assertEquals(values.get(expected), columnar.getTopValue());
+
+    // seeking backwards does not move
+    assertEquals(0, columnar.skipTo(keys.get(10)));
+    assertEquals(expected, columnar.getPosition());
+
+    // seeking past the last entry stops on it
+    columnar.skipTo(new Key("zzz"));
+    assertEquals(keys.size() - 1, columnar.getPosition());
+    assertEquals(keys.get(keys.size() - 1), columnar.getTopKey());
+    assertFalse(columnar.hasNext());
+  }
+
+  @Test
+  public void testFindEnd() {
+    ColumnarBlock columnar = new ColumnarBlock();
+    columnar.decode(block, HEADER_LEN, keys.size(), new Key());
+
+    // nothing in the block is past the end of these
+    assertEquals(keys.size(), columnar.findEnd(new Range()));
+    assertEquals(keys.size(), columnar.findEnd(new Range(null, "zzz")));
+
+    Range range = new Range(null, keys.get(300).getRow().toString());
+    int end = columnar.findEnd(range);
+    assertTrue(range.afterEndKey(keys.get(end)));
+    assertFalse(range.afterEndKey(keys.get(end - 1)));
+
+    // end keys that differ from the entries only in timestamp or delete flag
+    for (int i = 0; i < keys.size(); i += 7) {
+      Key endKey = keys.get(i);
+      Key flipped = new Key(endKey);
+      flipped.setDeleted(!endKey.isDeleted());
+      for (Key k : List.of(endKey, flipped,
+          endKey.followingKey(PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME))) {
+        for (boolean inclusive : new boolean[] {true, false}) {
+          range = new Range(null, false, k, inclusive);
+          int expected = 0;
+          while (expected < keys.size() && !range.afterEndKey(keys.get(expected))) {
+            expected++;
+          }
+          assertEquals(range.toString(), expected, columnar.findEnd(range));
+        }
+      }
+    }
+  }
+}
@@ -44,8 +44,13 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.accumulo.core.client.sample.RowSampler;
 import org.apache.accumulo.core.client.sample.Sampler;
@@ -65,12 +70,16 @@ import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
 import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
+import org.apache.accumulo.core.file.blockfile.impl.DecompressionBuffers;
+import org.apache.accumulo.core.file.blockfile.impl.ScanCacheProvider;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -82,8 +91,11 @@ import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.Se
 import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.TabletColumnFamily;
 import org.apache.accumulo.core.sample.impl.SamplerConfigurationImpl;
 import org.apache.accumulo.core.sample.impl.SamplerFactory;
+import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
 import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.accumulo.core.spi.scan.ScanDispatch;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -1645,6 +1657,78 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testConcurrentLocalityGroups() throws Exception {
+    // write locality groups from separate threads, so their blocks are interleaved in the file
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter(false);
+    List<FileSKVWriter.LocalityGroupAppender> appenders =
+        List.of(trf.writer.startConcurrentLocalityGroup("lg1", newColFamByteSequence("3mod10")),
+            trf.writer.startConcurrentLocalityGroup("lg2",
+                newColFamByteSequence("5mod10", "7mod10")),
+            trf.writer.startConcurrentLocalityGroup(null, null));
+    List<Set<Integer>> lgResidues = List.of(Set.of(3), Set.of(5, 7), Set.of(0, 1, 2, 4, 6, 8, 9));
+
+    assertThrows(IllegalStateException.class,
+        () -> trf.writer.startNewLocalityGroup("lg3", newColFamByteSequence("a")));
+
+    int num = 10000;
+    ExecutorService executor = Executors.newFixedThreadPool(appenders.size());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int lg = 0; lg < appenders.size(); lg++) {
+        FileSKVWriter.LocalityGroupAppender appender = appenders.get(lg);
+        Set<Integer> residues = lgResidues.get(lg);
+        futures.add(executor.submit(() -> {
+          try (appender) {
+            for (int i = 0; i < num; i++) {
+              if (residues.contains(i % 10)) {
+                appender.append(newKey(formatString("i", i), (i % 10) + "mod10", "", "", i + 2),
+                    newValue("" + i));
+              }
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    trf.writer.close();
+
+    trf.openReader();
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    assertEquals(3, trf.reader.getNumLocalityGroupsSeeked());
+    for (int i = 0; i < num; i++) {
+      assertTrue(trf.iter.hasTop());
+      assertEquals(newKey(formatString("i", i), (i % 10) + "mod10", "", "", i + 2),
+          trf.iter.getTopKey());
+      assertEquals(newValue("" + i), trf.iter.getTopValue());
+      trf.iter.next();
+    }
+    assertFalse(trf.iter.hasTop());
+
+    for (int m = 0; m < 10; m++) {
+      trf.iter.seek(new Range(new Key(), true, null, true), newColFamByteSequence(m + "mod10"),
+          true);
+      assertEquals(1, trf.reader.getNumLocalityGroupsSeeked());
+      for (int i = m; i < num; i += 10) {
+        assertTrue(trf.iter.hasTop());
+        assertEquals(newKey(formatString("i", i), (i % 10) + "mod10", "", "", i + 2),
+            trf.iter.getTopKey());
+        assertEquals(newValue("" + i), trf.iter.getTopValue());
+        trf.iter.next();
+      }
+      assertFalse(trf.iter.hasTop());
+    }
+
+    trf.closeReader();
+  }
+
   @Test
   public void testReseekUnconsumed() throws Exception {
     TestRFile trf = new TestRFile(conf);
@@ -1704,6 +1788,54 @@ public class RFileTest {
     trf.closeReader();
   }
 
+  @Test
+  public void testSeekHeavyAndSequentialReads() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+
+    // large blocks, so that reads switch to decoding the rest of a cached block part way through
+    trf.openWriter(32 * 1024);
+
+    for (int i = 0; i < 5000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf1", "cq1", "L1", 42), newValue("foo" + i));
+    }
+
+    trf.closeWriter();
+    trf.openReader();
+
+    Set<ByteSequence> cfs = Collections.emptySet();
+    int[] reads = {1, 2, RFile.COLUMNAR_AFTER_ENTRIES - 1, RFile.COLUMNAR_AFTER_ENTRIES,
+        RFile.COLUMNAR_AFTER_ENTRIES + 1, 3 * RFile.COLUMNAR_AFTER_ENTRIES, 600};
+
+    for (int count = 0; count < 500; count++) {
+      int start = random.nextInt(4000);
+      int numToScan = reads[random.nextInt(reads.length)];
+
+      trf.reader.seek(new Range(newKey(formatString("r_", start), "cf1", "cq1", "L1", 42), null),
+          cfs, false);
+      for (int j = start; j < start + numToScan; j++) {
+        assertTrue(trf.reader.hasTop());
+        assertEquals(newKey(formatString("r_", j), "cf1", "cq1", "L1", 42), trf.reader.getTopKey());
+        assertEquals(newValue("foo" + j), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+
+      // seek a little forward, usually within the block already being read
+      int start2 = start + numToScan + random.nextInt(5);
+      int end2 = start2 + random.nextInt(3);
+      trf.reader.seek(new Range(newKey(formatString("r_", start2), "cf1", "cq1", "L1", 42),
+          newKey(formatString("r_", end2), "cf1", "cq1", "L1", 42)), cfs, false);
+      for (int j = start2; j <= end2; j++) {
+        assertTrue(trf.reader.hasTop());
+        assertEquals(newKey(formatString("r_", j), "cf1", "cq1", "L1", 42), trf.reader.getTopKey());
+        assertEquals(newValue("foo" + j), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+      assertFalse(trf.reader.hasTop());
+    }
+
+    trf.closeReader();
+  }
+
   @Test
   public void testMissingUnreleasedVersions() {
     assertThrows(NullPointerException.class,
@@ -1925,6 +2057,13 @@ public class RFileTest {
     conf = null;
   }
 
+  @Test
+  public void testEncConcurrentLocalityGroups() throws Exception {
+    conf = getAccumuloConfig(ConfigMode.CRYPTO_ON);
+    testConcurrentLocalityGroups();
+    conf = null;
+  }
+
   @Test
   public void testEncryptedRFiles() throws Exception {
     conf = getAccumuloConfig(ConfigMode.CRYPTO_ON);
@@ -2281,6 +2420,362 @@ public class RFileTest {
     }
   }
 
+  @Test
+  public void testPrefetch() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(500);
+    for (int i = 0; i < 5000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue(i + ""));
+    }
+    trf.closeWriter();
+    trf.openReader();
+
+    ConfigurationCopy aconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    aconf.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+    aconf.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(100000));
+    aconf.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TABLE_BLOCKCACHE_ENABLED, "true");
+    aconf.set(Property.TABLE_SCAN_PREFETCH_BLOCKS, "3");
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(aconf);
+    manager.start(new BlockCacheConfiguration(aconf));
+    // prefetches run as they are requested, so the counts do not depend on timing
+    BlockPrefetcher prefetcher = new BlockPrefetcher(Runnable::run);
+    trf.reader.setCacheProvider(new ScanCacheProvider(aconf, ScanDispatch.builder().build(),
+        manager.getBlockCache(CacheType.INDEX), manager.getBlockCache(CacheType.DATA), prefetcher));
+
+    // read a few blocks and then move elsewhere, leaving prefetched blocks unread
+    trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 200; i++) {
+      assertEquals(newKey(formatString("r_", i), "cf", "cq", "", 1), trf.reader.getTopKey());
+      trf.reader.next();
+    }
+    assertTrue(prefetcher.getRequested() > 0);
+    assertTrue(prefetcher.getHits() > 0);
+    trf.reader.seek(new Range(formatString("r_", 4000), null), EMPTY_COL_FAMS, false);
+    assertEquals(newKey(formatString("r_", 4000), "cf", "cq", "", 1), trf.reader.getTopKey());
+    assertTrue(prefetcher.getWasted() > 0);
+
+    // nothing past the block holding the end of a range is prefetched
+    long wasted = prefetcher.getWasted();
+    trf.reader.seek(new Range(formatString("r_", 1000), formatString("r_", 2000)), EMPTY_COL_FAMS,
+        false);
+    int count = 0;
+    while (trf.reader.hasTop()) {
+      assertEquals(newValue((1000 + count) + ""), trf.reader.getTopValue());
+      count++;
+      trf.reader.next();
+    }
+    assertEquals(1001, count);
+    trf.reader.seek(new Range(formatString("r_", 3000), null), EMPTY_COL_FAMS, false);
+    assertEquals(wasted, prefetcher.getWasted());
+
+    // a scan that does not prefetch reads the same data
+    long requested = prefetcher.getRequested();
+    trf.reader.setCacheProvider(new ScanCacheProvider(aconf,
+        ScanDispatch.builder().setPrefetchBlocks(0).build(), manager.getBlockCache(CacheType.INDEX),
+        manager.getBlockCache(CacheType.DATA), prefetcher));
+    trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 5000; i++) {
+      assertEquals(newValue(i + ""), trf.reader.getTopValue());
+      trf.reader.next();
+    }
+    assertFalse(trf.reader.hasTop());
+    assertEquals(requested, prefetcher.getRequested());
+
+    trf.closeReader();
+    manager.stop();
+  }
+
+  @Test
+  public void testPrefetchNotStarted() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(500);
+    for (int i = 0; i < 5000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue(i + ""));
+    }
+    trf.closeWriter();
+    trf.openReader();
+
+    ConfigurationCopy aconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    aconf.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+    aconf.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(100000));
+    aconf.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TABLE_BLOCKCACHE_ENABLED, "true");
+    aconf.set(Property.TABLE_SCAN_PREFETCH_BLOCKS, "3");
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(aconf);
+    manager.start(new BlockCacheConfiguration(aconf));
+    // an executor that is too busy to ever get to the prefetches
+    List<Runnable> queued = new ArrayList<>();
+    BlockPrefetcher prefetcher = new BlockPrefetcher(queued::add);
+    trf.reader.setCacheProvider(new ScanCacheProvider(aconf, ScanDispatch.builder().build(),
+        manager.getBlockCache(CacheType.INDEX), manager.getBlockCache(CacheType.DATA), prefetcher));
+
+    // the reader does not wait for prefetches that have not started, it reads the blocks itself
+    trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 4000; i++) {
+      assertEquals(newValue(i + ""), trf.reader.getTopValue());
+      trf.reader.next();
+    }
+    assertTrue(prefetcher.getRequested() > 0);
+    assertEquals(0, prefetcher.getHits());
+    assertFalse(queued.isEmpty());
+
+    trf.closeReader();
+    // closing the reader cancels the prefetches it left behind
+    for (Runnable r : queued) {
+      assertTrue(((Future<?>) r).isCancelled());
+    }
+    manager.stop();
+  }
+
+  @Test
+  public void testCompressedDataCache() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(500);
+    for (int i = 0; i < 5000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue(i + ""));
+    }
+    trf.closeWriter();
+    trf.openReader();
+
+    ConfigurationCopy aconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    aconf.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+    aconf.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(100000));
+    aconf.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(100000000));
+    aconf.set(Property.TABLE_BLOCKCACHE_ENABLED, "true");
+    aconf.set(Property.TABLE_BLOCKCACHE_COMPRESSED, "true");
+    aconf.set(Property.TABLE_SCAN_PREFETCH_BLOCKS, "2");
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(aconf);
+    manager.start(new BlockCacheConfiguration(aconf));
+    BlockCache dataCache = manager.getBlockCache(CacheType.DATA);
+    trf.reader.setCacheProvider(new ScanCacheProvider(aconf, ScanDispatch.builder().build(),
+        manager.getBlockCache(CacheType.INDEX), dataCache, new BlockPrefetcher(Runnable::run)));
+
+    long decompressions = DecompressionBuffers.getDecompressions();
+    for (int pass = 0; pass < 2; pass++) {
+      trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+      for (int i = 0; i < 5000; i++) {
+        assertEquals(newKey(formatString("r_", i), "cf", "cq", "", 1), trf.reader.getTopKey());
+        assertEquals(newValue(i + ""), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+      assertFalse(trf.reader.hasTop());
+    }
+    // every read of a cached block decompresses it, the second pass reads all from the cache
+    assertTrue(DecompressionBuffers.getDecompressions() - decompressions > 10);
+    long hits = dataCache.getStats().hitCount();
+    assertTrue(hits > 0);
+
+    // seeks into the middle of cached blocks
+    for (int i = 0; i < 5000; i += 97) {
+      trf.reader.seek(new Range(formatString("r_", i), null), EMPTY_COL_FAMS, false);
+      assertEquals(newValue(i + ""), trf.reader.getTopValue());
+    }
+    assertTrue(dataCache.getStats().hitCount() > hits);
+
+    trf.closeReader();
+    manager.stop();
+  }
+
+  @Test
+  public void testAppendStoredBlocks() throws Exception {
+    TestRFile[] sources = new TestRFile[2];
+    for (int f = 0; f < sources.length; f++) {
+      sources[f] = new TestRFile(conf);
+      sources[f].openWriter(500);
+      for (int i = f * 1000; i < (f + 1) * 1000; i++) {
+        sources[f].writer.append(newKey(formatString("r_", i), "cf" + (i % 3), "cq", "", 1),
+            newValue(i + ""));
+      }
+      sources[f].closeWriter();
+      sources[f].openReader();
+    }
+
+    TestRFile lgSource = new TestRFile(conf);
+    lgSource.openWriter(false);
+    lgSource.writer.startNewLocalityGroup("lg1", newColFamByteSequence("cf0"));
+    lgSource.writer.append(newKey("r", "cf0", "cq", "", 1), newValue("1"));
+    lgSource.closeWriter();
+    lgSource.openReader();
+
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter(500);
+    assertFalse(trf.writer.canAppendStoredBlocks(lgSource.reader));
+    // blocks written with another block size are not copied
+    for (int blockSize : new int[] {200, 5000}) {
+      TestRFile otherSize = new TestRFile(conf);
+      otherSize.openWriter(blockSize);
+      assertFalse(otherSize.writer.canAppendStoredBlocks(sources[0].reader));
+      otherSize.closeWriter();
+    }
+    for (int i = 0; i < 100; i++) {
+      trf.writer.append(newKey(formatString("q_", i), "cf0", "cq", "", 1), newValue(i + ""));
+    }
+    List<Key> copiedKeys = new ArrayList<>();
+    for (TestRFile source : sources) {
+      assertTrue(trf.writer.canAppendStoredBlocks(source.reader));
+      assertEquals(1000, trf.writer.appendStoredBlocks(source.reader,
+          (key, value) -> copiedKeys.add(new Key(key))));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> trf.writer.appendStoredBlocks(sources[0].reader, null));
+    for (int i = 0; i < 100; i++) {
+      trf.writer.append(newKey(formatString("s_", i), "cf0", "cq", "", 1), newValue(i + ""));
+    }
+    trf.closeWriter();
+    for (TestRFile source : sources) {
+      source.closeReader();
+    }
+    lgSource.closeReader();
+
+    assertEquals(2000, copiedKeys.size());
+    for (int i = 0; i < 2000; i++) {
+      assertEquals(newKey(formatString("r_", i), "cf" + (i % 3), "cq", "", 1), copiedKeys.get(i));
+    }
+
+    trf.openReader();
+    trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (String prefix : List.of("q_", "r_", "s_")) {
+      int count = prefix.equals("r_") ? 2000 : 100;
+      for (int i = 0; i < count; i++) {
+        assertTrue(trf.reader.hasTop());
+        assertEquals(formatString(prefix, i), trf.reader.getTopKey().getRow().toString());
+        assertEquals(newValue(i + ""), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+    }
+    assertFalse(trf.reader.hasTop());
+
+    // seek into copied blocks
+    for (int i = 0; i < 2000; i += 97) {
+      trf.reader.seek(new Range(formatString("r_", i), null), EMPTY_COL_FAMS, false);
+      assertEquals(newValue(i + ""), trf.reader.getTopValue());
+    }
+    assertEquals(newKey(formatString("s_", 99), "cf0", "cq", "", 1), trf.reader.getLastKey());
+    Map<String,ArrayList<ByteSequence>> lgs = trf.reader.getLocalityGroupCF();
+    assertEquals(newColFamByteSequence("cf0", "cf1", "cf2"), new HashSet<>(lgs.get(null)));
+    trf.closeReader();
+
+    // a file made only of copied blocks
+    TestRFile copy = new TestRFile(conf);
+    copy.openWriter(500);
+    sources[0].openReader();
+    copy.writer.appendStoredBlocks(sources[0].reader, null);
+    sources[0].closeReader();
+    copy.closeWriter();
+    copy.openReader();
+    copy.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(newValue(i + ""), copy.reader.getTopValue());
+      copy.reader.next();
+    }
+    assertFalse(copy.reader.hasTop());
+    copy.closeReader();
+  }
+
+  /**
+   * Records whether the loaders of blocks said the blocks may be written outside of memory.
+   */
+  private static class PersistableRecorder implements BlockCache {
+    private final BlockCache cache;
+    private final Map<String,Boolean> persistable = new ConcurrentHashMap<>();
+
+    PersistableRecorder(BlockCache cache) {
+      this.cache = cache;
+    }
+
+    @Override
+    public CacheEntry cacheBlock(String blockName, byte[] buf) {
+      return cache.cacheBlock(blockName, buf);
+    }
+
+    @Override
+    public CacheEntry getBlock(String blockName) {
+      return cache.getBlock(blockName);
+    }
+
+    @Override
+    public CacheEntry getBlock(String blockName, Loader loader) {
+      return cache.getBlock(blockName, new Loader() {
+        @Override
+        public Map<String,Loader> getDependencies() {
+          return loader.getDependencies();
+        }
+
+        @Override
+        public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+          byte[] data = loader.load(maxSize, dependencies);
+          if (data != null) {
+            persistable.put(blockName, loader.isPersistable());
+          }
+          return data;
+        }
+      });
+    }
+
+    @Override
+    public long getMaxHeapSize() {
+      return cache.getMaxHeapSize();
+    }
+
+    @Override
+    public long getMaxSize() {
+      return cache.getMaxSize();
+    }
+
+    @Override
+    public Stats getStats() {
+      return cache.getStats();
+    }
+  }
+
+  @Test
+  public void testEncryptedBlocksAreNotPersistable() throws Exception {
+    for (ConfigMode mode : new ConfigMode[] {ConfigMode.CRYPTO_OFF, ConfigMode.CRYPTO_ON}) {
+      TestRFile trf = new TestRFile(getAccumuloConfig(mode));
+      trf.openWriter(500);
+      for (int i = 0; i < 2000; i++) {
+        trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue(i + ""));
+      }
+      trf.closeWriter();
+      trf.openReader();
+
+      ConfigurationCopy aconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+      aconf.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+      aconf.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(100000));
+      aconf.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100000000));
+      aconf.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(100000000));
+      BlockCacheManager manager = BlockCacheManagerFactory.getInstance(aconf);
+      manager.start(new BlockCacheConfiguration(aconf));
+      PersistableRecorder indexCache =
+          new PersistableRecorder(manager.getBlockCache(CacheType.INDEX));
+      PersistableRecorder dataCache =
+          new PersistableRecorder(manager.getBlockCache(CacheType.DATA));
+      trf.reader.setCacheProvider(new BasicCacheProvider(indexCache, dataCache));
+
+      trf.reader.seek(new Range(), EMPTY_COL_FAMS, false);
+      for (int i = 0; i < 2000; i++) {
+        assertEquals(newValue(i + ""), trf.reader.getTopValue());
+        trf.reader.next();
+      }
+      assertFalse(trf.reader.hasTop());
+
+      // blocks of encrypted files are cached decrypted, so must stay in memory
+      boolean expected = mode == ConfigMode.CRYPTO_OFF;
+      assertFalse(dataCache.persistable.isEmpty());
+      assertTrue(dataCache.persistable.values().stream().allMatch(p -> p == expected));
+      // the serialized file metadata holds only where blocks are and the encrypted file key
+      indexCache.persistable.forEach((block, persistable) -> assertEquals(block,
+          expected || block.endsWith("!RootData"), persistable));
+
+      trf.closeReader();
+      manager.stop();
+    }
+  }
+
   @Test
   public void testCryptoDoesntLeakSensitive() throws IOException {
     conf = getAccumuloConfig(ConfigMode.CRYPTO_ON);
@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 
@@ -411,4 +412,66 @@ public class MultiIteratorTest {
     mi.seek(r7, EMPTY_COL_FAMS, false);
     assertFalse(mi.hasTop());
   }
+
+  private static List<String> readAll(MultiIterator mi, Range range) throws IOException {
+    mi.seek(range, EMPTY_COL_FAMS, false);
+    List<String> entries = new ArrayList<>();
+    Key prev = null;
+    while (mi.hasTop()) {
+      assertTrue(range.contains(mi.getTopKey()));
+      assertTrue(prev == null || prev.compareTo(mi.getTopKey()) <= 0);
+      prev = new Key(mi.getTopKey());
+      entries.add(mi.getTopKey() + " " + mi.getTopValue());
+      mi.next();
+    }
+    return entries;
+  }
+
+  @Test
+  public void testLoserTreeMerge() throws IOException {
+    Random rand = new Random(5);
+    for (int numSources : new int[] {1, 2, 3, 7, 16, 33}) {
+      List<TreeMap<Key,Value>> maps = new ArrayList<>();
+      List<String> expected = new ArrayList<>();
+      for (int s = 0; s < numSources; s++) {
+        TreeMap<Key,Value> map = new TreeMap<>();
+        // some sources are empty and sources share keys
+        int entries = rand.nextInt(4) == 0 ? 0 : rand.nextInt(200);
+        for (int e = 0; e < entries; e++) {
+          newKeyValue(map, rand.nextInt(100), rand.nextInt(3), false, s + "_" + e);
+        }
+        maps.add(map);
+        map.forEach((k, v) -> expected.add(k + " " + v));
+      }
+
+      for (int r = 0; r < 20; r++) {
+        int startRow = rand.nextInt(100);
+        Range range = r == 0 ? new Range()
+            : new Range(newRow(startRow), true, newRow(startRow + rand.nextInt(20)), true);
+        List<String> results = new ArrayList<>();
+        for (boolean loserTree : new boolean[] {false, true}) {
+          List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+          maps.forEach(map -> iters.add(new SortedMapIterator(map)));
+          MultiIterator mi = new MultiIterator(iters, (Range) null);
+          mi.setLoserTreeMerge(loserTree);
+          List<String> actual = readAll(mi, range);
+          // entries with equal keys may come out in any order
+          actual.sort(null);
+          if (loserTree) {
+            assertEquals(results, actual);
+            // reuse the same iterator for another seek
+            List<String> copy = readAll(mi.deepCopy(null), range);
+            copy.sort(null);
+            assertEquals(results, copy);
+          } else {
+            results = actual;
+          }
+        }
+        if (r == 0) {
+          expected.sort(null);
+          assertEquals(expected, results);
+        }
+      }
+    }
+  }
 }
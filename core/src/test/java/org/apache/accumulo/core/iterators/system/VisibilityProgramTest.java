@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators.system;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import java.util.List;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityProgram;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.util.BadArgumentException;
+import org.junit.Test;
+
+public class VisibilityProgramTest {
+
+  private static final List<String> EXPRESSIONS = List.of("", "A", "B", "A&B", "A|B", "A&B&C",
+      "(A|B)&C", "A|(B&C)", "(A&B)|(C&D)", "((A|B)&(C|D))|E", "A&(B|(C&(D|E)))", "\"A\"", "\"A&B\"",
+      "\"A\\\\B\"", "\"A\\\"B\"", "\"A\\\\B\"|C", "Z|(Y&\"A&B\")");
+
+  private static final List<Authorizations> AUTHS = List.of(Authorizations.EMPTY,
+      new Authorizations("A"), new Authorizations("A", "B"), new Authorizations("C", "D"),
+      new Authorizations("A", "B", "C", "D", "E"), new Authorizations("E"),
+      new Authorizations("A&B", "Y"), new Authorizations("A\\B", "A\"B"));
+
+  @Test
+  public void testSameAsEvaluator() throws Exception {
+    for (String expression : EXPRESSIONS) {
+      ArrayByteSequence bytes = new ArrayByteSequence(expression);
+      VisibilityProgram program = VisibilityProgram.get(bytes);
+      for (Authorizations auths : AUTHS) {
+        boolean expected =
+            new VisibilityEvaluator(auths).evaluate(new ColumnVisibility(expression));
+        assertEquals(expression + " " + auths, expected, program.evaluate(auths));
+      }
+    }
+  }
+
+  @Test
+  public void testCached() throws Exception {
+    byte[] buffer = "xxA&(B|C)yy".getBytes(UTF_8);
+    VisibilityProgram program = VisibilityProgram.get(new ArrayByteSequence(buffer, 2, 7));
+    // the cache must not keep a reference to the caller's bytes
+    buffer[2] = 'D';
+    assertSame(program, VisibilityProgram.get(new ArrayByteSequence("A&(B|C)")));
+    assertEquals(true, program.evaluate(new Authorizations("A", "C")));
+    assertEquals(false, program.evaluate(new Authorizations("D", "C")));
+  }
+
+  @Test
+  public void testInvalid() {
+    assertThrows(BadArgumentException.class,
+        () -> VisibilityProgram.get(new ArrayByteSequence("A&")));
+    assertThrows(BadArgumentException.class,
+        () -> VisibilityProgram.get(new ArrayByteSequence("A&B|C")));
+  }
+}
@@ -143,6 +143,41 @@ public class SimpleScanDispatcherTest {
         Map.of("scan_type", "slow"), "E3", "E3", TABLE, TABLE);
   }
 
+  @Test
+  public void testPrefetch() {
+    var dispatcher = new SimpleScanDispatcher();
+    dispatcher.init(new ScanDispatcher.InitParameters() {
+
+      @Override
+      public TableId getTableId() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Map<String,String> getOptions() {
+        return Map.of("prefetch.bulk", "8", "prefetch.lookup", "0");
+      }
+
+      @Override
+      public ServiceEnvironment getServiceEnv() {
+        throw new UnsupportedOperationException();
+      }
+    });
+
+    Map<String,ScanExecutor> executors = new HashMap<>();
+    String dname = SimpleScanDispatcher.DEFAULT_SCAN_EXECUTOR_NAME;
+    Map<String,Integer> expected =
+        Map.of("bulk", 8, "lookup", 0, "other", ScanDispatch.TABLE_PREFETCH_BLOCKS);
+    expected.forEach((scanType, blocks) -> {
+      TestScanInfo tsi = new TestScanInfo("a", Type.MULTI, 4);
+      tsi.executionHints = Map.of("scan_type", scanType);
+      ScanDispatch dispatch = dispatcher.dispatch(new DispatchParametersImps(tsi, executors));
+      assertEquals(blocks.intValue(), dispatch.getPrefetchBlocks());
+      assertEquals(dname, dispatch.getExecutorName());
+      assertEquals(TABLE, dispatch.getDataCacheUsage());
+    });
+  }
+
   @Test
   public void testCache() {
     String dname = SimpleScanDispatcher.DEFAULT_SCAN_EXECUTOR_NAME;
@@ -25,25 +25,36 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.IterConfigUtil;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.FileSKVWriter.LocalityGroupAppender;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.ColumnFamilySkippingIterator;
@@ -69,6 +80,8 @@ import org.apache.hadoop.fs.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.util.concurrent.Uninterruptibles;
+
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.context.Scope;
 
@@ -96,6 +109,14 @@ public class FileCompactor implements Callable<CompactionStats> {
     SortedKeyValueIterator<Key,Value> getMinCIterator();
 
     TCompactionReason getReason();
+
+    /**
+     * @return an executor used to compact locality groups concurrently, or null to compact them one
+     *         after another on the compacting thread
+     */
+    default ExecutorService getLocalityGroupExecutor() {
+      return null;
+    }
   }
 
   private final Map<StoredTabletFile,DataFileValue> filesToCompact;
@@ -109,6 +130,8 @@ public class FileCompactor implements Callable<CompactionStats> {
 
   // things to report
   private String currentLocalityGroup = "";
+  // named locality groups being compacted concurrently, in the order they started
+  private final Set<String> activeLocalityGroups = new LinkedHashSet<>();
   private final long startTime;
 
   private final AtomicLong entriesRead = new AtomicLong(0);
@@ -128,6 +151,19 @@ public class FileCompactor implements Callable<CompactionStats> {
     this.currentLocalityGroup = name;
   }
 
+  /**
+   * Reports the named locality groups being compacted concurrently as a comma separated list, the
+   * default locality group is reported as an empty name like it is by the serial path.
+   */
+  private synchronized void setLocalityGroupActive(String name, boolean active) {
+    if (active) {
+      activeLocalityGroups.add(name);
+    } else {
+      activeLocalityGroups.remove(name);
+    }
+    this.currentLocalityGroup = String.join(",", activeLocalityGroups);
+  }
+
   public synchronized String getCurrentLocalityGroup() {
     return currentLocalityGroup;
   }
@@ -216,18 +252,28 @@ public class FileCompactor implements Callable<CompactionStats> {
 
       long t1 = System.currentTimeMillis();
 
-      HashSet<ByteSequence> allColumnFamilies = new HashSet<>();
+      ExecutorService lgExecutor = env.getLocalityGroupExecutor();
 
-      if (mfw.supportsLocalityGroups()) {
-        for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
-          setLocalityGroup(entry.getKey());
-          compactLocalityGroup(entry.getKey(), entry.getValue(), true, mfw, majCStats);
-          allColumnFamilies.addAll(entry.getValue());
+      CompactionStats copyStats = canCopyBlocks(lGroups) ? copyBlocks(mfw) : null;
+      if (copyStats != null) {
+        majCStats.add(copyStats);
+      } else if (lgExecutor != null && !lGroups.isEmpty()
+          && mfw.supportsConcurrentLocalityGroups()) {
+        compactLocalityGroupsConcurrently(lgExecutor, lGroups, mfw, majCStats);
+      } else {
+        HashSet<ByteSequence> allColumnFamilies = new HashSet<>();
+
+        if (mfw.supportsLocalityGroups()) {
+          for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
+            setLocalityGroup(entry.getKey());
+            compactLocalityGroup(entry.getKey(), entry.getValue(), true, mfw, majCStats);
+            allColumnFamilies.addAll(entry.getValue());
+          }
         }
-      }
 
-      setLocalityGroup("");
-      compactLocalityGroup(null, allColumnFamilies, false, mfw, majCStats);
+        setLocalityGroup("");
+        compactLocalityGroup(null, allColumnFamilies, false, mfw, majCStats);
+      }
 
       long t2 = System.currentTimeMillis();
 
@@ -334,9 +380,230 @@ public class FileCompactor implements Callable<CompactionStats> {
     return iters;
   }
 
+  /**
+   * Checks the conditions for {@link #copyBlocks(FileSKVWriter)} that do not require opening the
+   * input files.
+   */
+  private boolean canCopyBlocks(Map<String,Set<ByteSequence>> lGroups) {
+    if (!acuTableConf.getBoolean(Property.TABLE_COMPACTION_BLOCK_COPY)
+        || env.getIteratorScope() != IteratorScope.majc || !lGroups.isEmpty()
+        || !iterators.isEmpty() || filesToCompact.isEmpty()) {
+      return false;
+    }
+
+    // without propagating deletes, a delete and the entries it hides would be dropped. A table
+    // that fails on deletes does not have any.
+    if (!propagateDeletes
+        && DeletingIterator.getBehavior(acuTableConf) != DeletingIterator.Behavior.FAIL) {
+      return false;
+    }
+
+    if (filesToCompact.values().stream().anyMatch(DataFileValue::isTimeSet)) {
+      return false;
+    }
+
+    // Any iterator, even the versioning iterator tables are created with, could drop entries of
+    // the input files. Whether it would depends on how the files were written, which can not be
+    // known from the table's current settings, so only tables without iterators copy blocks.
+    return IterConfigUtil
+        .parseIterConf(IteratorScope.majc, List.of(), new HashMap<>(), acuTableConf).isEmpty();
+  }
+
+  /**
+   * Compacts files whose rows do not overlap by copying their data blocks into the output file
+   * without decompressing them, in the order of their rows. Because no row is in more than one file
+   * and no iterators run, this gives the same entries as merging the files, except that deletes are
+   * kept along with any entries in the same file that they hide.
+   *
+   * @return null, without changing the output file, if the files can not be compacted this way
+   */
+  private CompactionStats copyBlocks(FileSKVWriter mfw)
+      throws IOException, CompactionCanceledException {
+    ArrayList<FileSKVIterator> readers = new ArrayList<>(filesToCompact.size());
+    Span copySpan = TraceUtil.startSpan(this.getClass(), "copyBlocks");
+    try (Scope span = copySpan.makeCurrent()) {
+      openMapDataFiles(readers);
+
+      Range dataRange = extent.toDataRange();
+      // the files with entries, by their first key
+      TreeMap<Key,FileSKVIterator> nonEmpty = new TreeMap<>();
+      for (FileSKVIterator reader : readers) {
+        if (!mfw.canAppendStoredBlocks(reader)) {
+          return null;
+        }
+        Key first = reader.getFirstKey();
+        if (first == null) {
+          continue;
+        }
+        // blocks can not be split, so every entry of the file must be in the tablet
+        if (!dataRange.contains(first) || !dataRange.contains(reader.getLastKey())) {
+          return null;
+        }
+        if (nonEmpty.put(first, reader) != null) {
+          return null;
+        }
+      }
+
+      Key prevLast = null;
+      for (FileSKVIterator reader : nonEmpty.values()) {
+        if (prevLast != null && prevLast.compareRow(reader.getFirstKey().getRow()) >= 0) {
+          return null;
+        }
+        prevLast = reader.getLastKey();
+      }
+
+      log.debug("Copying the blocks of {} files to compact {}", nonEmpty.size(), extent);
+
+      setLocalityGroup("");
+      mfw.startDefaultLocalityGroup();
+      long entriesCopied = 0;
+      for (FileSKVIterator reader : nonEmpty.values()) {
+        if (!env.isCompactionEnabled()) {
+          throw new CompactionCanceledException();
+        }
+        long entries = mfw.appendStoredBlocks(reader, null);
+        entriesCopied += entries;
+        entriesRead.addAndGet(entries);
+        entriesWritten.addAndGet(entries);
+      }
+      return new CompactionStats(entriesCopied, entriesCopied);
+    } catch (Exception e) {
+      TraceUtil.setException(copySpan, e, true);
+      throw e;
+    } finally {
+      for (FileSKVIterator reader : readers) {
+        try {
+          reader.close();
+        } catch (Exception e) {
+          log.warn("Failed to close map file", e);
+        }
+      }
+      copySpan.end();
+    }
+  }
+
+  /**
+   * Compact each locality group on its own thread into its own block stream of the output file. The
+   * default locality group is compacted by the calling thread.
+   */
+  private void compactLocalityGroupsConcurrently(ExecutorService lgExecutor,
+      Map<String,Set<ByteSequence>> lGroups, FileSKVWriter mfw, CompactionStats majCStats)
+      throws IOException, CompactionCanceledException {
+    // stops the other locality groups when one fails
+    AtomicBoolean failed = new AtomicBoolean(false);
+    BooleanSupplier enabled = () -> !failed.get() && env.isCompactionEnabled();
+
+    List<Future<CompactionStats>> futures = new ArrayList<>();
+    Exception error = null;
+    CompactionStats defaultStats = null;
+    try {
+      HashSet<ByteSequence> allColumnFamilies = new HashSet<>();
+      for (Entry<String,Set<ByteSequence>> entry : lGroups.entrySet()) {
+        futures.add(lgExecutor
+            .submit(newLocalityGroupTask(entry.getKey(), entry.getValue(), true, mfw, enabled)));
+        allColumnFamilies.addAll(entry.getValue());
+      }
+      defaultStats = newLocalityGroupTask(null, allColumnFamilies, false, mfw, enabled).call();
+    } catch (Exception e) {
+      failed.set(true);
+      error = e;
+    }
+
+    // always wait for all locality groups, they must be done with the output file before it closes
+    for (Future<CompactionStats> future : futures) {
+      try {
+        majCStats.add(Uninterruptibles.getUninterruptibly(future));
+      } catch (ExecutionException e) {
+        failed.set(true);
+        // prefer the failure that caused the other locality groups to be canceled
+        if (error == null || error instanceof CompactionCanceledException) {
+          error = e.getCause() instanceof Exception ? (Exception) e.getCause()
+              : new IOException(e.getCause());
+        }
+      }
+    }
+
+    if (error instanceof IOException) {
+      throw (IOException) error;
+    } else if (error instanceof CompactionCanceledException) {
+      throw (CompactionCanceledException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error != null) {
+      throw new IOException(error);
+    }
+
+    majCStats.add(defaultStats);
+  }
+
+  private Callable<CompactionStats> newLocalityGroupTask(String lgName,
+      Set<ByteSequence> columnFamilies, boolean inclusive, FileSKVWriter mfw,
+      BooleanSupplier enabled) throws IOException {
+    // the locality group is started and the in memory map is copied on the calling thread, so that
+    // both happen in order
+    SortedKeyValueIterator<Key,Value> minCIter =
+        env.getIteratorScope() == IteratorScope.minc ? env.getMinCIterator().deepCopy(null) : null;
+    LocalityGroupAppender appender =
+        mfw.startConcurrentLocalityGroup(lgName, inclusive ? columnFamilies : null);
+    return () -> {
+      if (inclusive) {
+        setLocalityGroupActive(lgName, true);
+      }
+      try (appender) {
+        return compactLocalityGroup(lgName, columnFamilies, inclusive, minCIter, appender, enabled);
+      } finally {
+        if (inclusive) {
+          setLocalityGroupActive(lgName, false);
+        }
+      }
+    };
+  }
+
   private void compactLocalityGroup(String lgName, Set<ByteSequence> columnFamilies,
       boolean inclusive, FileSKVWriter mfw, CompactionStats majCStats)
       throws IOException, CompactionCanceledException {
+    LocalityGroupAppender appender = new LocalityGroupAppender() {
+      @Override
+      public void append(Key key, Value value) throws IOException {
+        mfw.append(key, value);
+      }
+
+      @Override
+      public void close() {
+        // the locality group is finished when the next one starts or the file is closed
+      }
+    };
+
+    if (inclusive) {
+      mfw.startNewLocalityGroup(lgName, columnFamilies);
+    } else {
+      mfw.startDefaultLocalityGroup();
+    }
+
+    SortedKeyValueIterator<Key,Value> minCIter =
+        env.getIteratorScope() == IteratorScope.minc ? env.getMinCIterator() : null;
+    try {
+      majCStats.add(compactLocalityGroup(lgName, columnFamilies, inclusive, minCIter, appender,
+          env::isCompactionEnabled));
+    } catch (CompactionCanceledException e) {
+      // cancel major compaction operation
+      try {
+        try {
+          mfw.close();
+        } catch (IOException e2) {
+          log.error("{}", e2.getMessage(), e2);
+        }
+        fs.deleteRecursively(outputFile.getPath());
+      } catch (Exception e2) {
+        log.warn("Failed to delete Canceled compaction output file {}", outputFile, e2);
+      }
+      throw e;
+    }
+  }
+
+  private CompactionStats compactLocalityGroup(String lgName, Set<ByteSequence> columnFamilies,
+      boolean inclusive, SortedKeyValueIterator<Key,Value> minCIter, LocalityGroupAppender appender,
+      BooleanSupplier enabled) throws IOException, CompactionCanceledException {
     ArrayList<FileSKVIterator> readers = new ArrayList<>(filesToCompact.size());
     Span compactSpan = TraceUtil.startSpan(this.getClass(), "compact");
     try (Scope span = compactSpan.makeCurrent()) {
@@ -344,11 +611,13 @@ public class FileCompactor implements Callable<CompactionStats> {
       List<SortedKeyValueIterator<Key,Value>> iters = openMapDataFiles(readers);
 
       if (env.getIteratorScope() == IteratorScope.minc) {
-        iters.add(env.getMinCIterator());
+        iters.add(minCIter);
       }
 
-      CountingIterator citr =
-          new CountingIterator(new MultiIterator(iters, extent.toDataRange()), entriesRead);
+      MultiIterator multiIter = new MultiIterator(iters, extent.toDataRange());
+      multiIter
+          .setLoserTreeMerge(acuTableConf.getBoolean(Property.TABLE_COMPACTION_LOSER_TREE_MERGE));
+      CountingIterator citr = new CountingIterator(multiIter, entriesRead);
       SortedKeyValueIterator<Key,Value> delIter =
           DeletingIterator.wrap(citr, propagateDeletes, DeletingIterator.getBehavior(acuTableConf));
       ColumnFamilySkippingIterator cfsi = new ColumnFamilySkippingIterator(delIter);
@@ -363,16 +632,10 @@ public class FileCompactor implements Callable<CompactionStats> {
 
       itr.seek(extent.toDataRange(), columnFamilies, inclusive);
 
-      if (inclusive) {
-        mfw.startNewLocalityGroup(lgName, columnFamilies);
-      } else {
-        mfw.startDefaultLocalityGroup();
-      }
-
       Span writeSpan = TraceUtil.startSpan(this.getClass(), "write");
       try (Scope write = writeSpan.makeCurrent()) {
-        while (itr.hasTop() && env.isCompactionEnabled()) {
-          mfw.append(itr.getTopKey(), itr.getTopValue());
+        while (itr.hasTop() && enabled.getAsBoolean()) {
+          appender.append(itr.getTopKey(), itr.getTopValue());
           itr.next();
           entriesCompacted++;
 
@@ -382,24 +645,12 @@ public class FileCompactor implements Callable<CompactionStats> {
           }
         }
 
-        if (itr.hasTop() && !env.isCompactionEnabled()) {
-          // cancel major compaction operation
-          try {
-            try {
-              mfw.close();
-            } catch (IOException e) {
-              log.error("{}", e.getMessage(), e);
-            }
-            fs.deleteRecursively(outputFile.getPath());
-          } catch (Exception e) {
-            log.warn("Failed to delete Canceled compaction output file {}", outputFile, e);
-          }
+        if (itr.hasTop() && !enabled.getAsBoolean()) {
           throw new CompactionCanceledException();
         }
 
+        return new CompactionStats(citr.getCount(), entriesCompacted);
       } finally {
-        CompactionStats lgMajcStats = new CompactionStats(citr.getCount(), entriesCompacted);
-        majCStats.add(lgMajcStats);
         writeSpan.end();
       }
 
@@ -21,9 +21,11 @@ package org.apache.accumulo.server.data;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.List;
 
 import org.apache.accumulo.core.data.ColumnUpdate;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.dataImpl.MutationAccess;
 import org.apache.accumulo.core.dataImpl.thrift.TMutation;
 import org.apache.accumulo.core.util.UnsynchronizedBuffer;
 import org.apache.hadoop.io.Text;
@@ -79,6 +81,144 @@ public class ServerMutation extends Mutation {
     return new ServerColumnUpdate(cf, cq, cv, hasts, ts, deleted, val, this);
   }
 
+  /**
+   * Reads the column updates of server mutations in place from their serialized form, without
+   * creating a {@link ColumnUpdate} or copying any bytes. The column family, qualifier and
+   * visibility of the current update are slices of {@link #getData()}, the value is a slice of
+   * {@link #getValueData()}. These arrays belong to the mutation and must not be modified. A reader
+   * can be reused for many mutations, but is not thread safe.
+   */
+  public static class UpdateReader {
+
+    private final UnsynchronizedBuffer.Reader in = new UnsynchronizedBuffer.Reader(new byte[0]);
+    private byte[] data;
+    private List<byte[]> largeValues;
+    private long systemTime;
+    private int remaining = 0;
+
+    private int cfOffset;
+    private int cfLength;
+    private int cqOffset;
+    private int cqLength;
+    private int cvOffset;
+    private int cvLength;
+    private long timestamp;
+    private boolean deleted;
+    private byte[] valueData;
+    private int valueOffset;
+    private int valueLength;
+
+    /**
+     * Starts reading the updates of a mutation.
+     *
+     * @return false if the mutation can not be read in place, in which case
+     *         {@link Mutation#getUpdates()} must be used
+     */
+    public boolean reset(Mutation m) {
+      remaining = 0;
+      if (!(m instanceof ServerMutation)) {
+        return false;
+      }
+      ServerMutation sm = (ServerMutation) m;
+      if (sm.getSerializedFormat() != SERIALIZED_FORMAT.VERSION2) {
+        return false;
+      }
+      data = MutationAccess.getSerializedUpdates(sm);
+      largeValues = MutationAccess.getLargeValues(sm);
+      systemTime = sm.getSystemTimestamp();
+      remaining = sm.size();
+      in.reset(data);
+      return true;
+    }
+
+    /**
+     * Advances to the next update of the mutation.
+     *
+     * @return false when there are no more updates
+     */
+    public boolean next() {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+
+      cfLength = (int) in.readVLong();
+      cfOffset = in.getOffset();
+      in.skip(cfLength);
+      cqLength = (int) in.readVLong();
+      cqOffset = in.getOffset();
+      in.skip(cqLength);
+      cvLength = (int) in.readVLong();
+      cvOffset = in.getOffset();
+      in.skip(cvLength);
+
+      // as in ServerColumnUpdate, updates without a timestamp get the system time
+      timestamp = in.readBoolean() ? in.readVLong() : systemTime;
+      deleted = in.readBoolean();
+
+      int len = (int) in.readVLong();
+      if (len < 0) {
+        valueData = largeValues.get((-1 * len) - 1);
+        valueOffset = 0;
+        valueLength = valueData.length;
+      } else {
+        valueData = data;
+        valueOffset = in.getOffset();
+        valueLength = len;
+        in.skip(len);
+      }
+      return true;
+    }
+
+    public byte[] getData() {
+      return data;
+    }
+
+    public int getColumnFamilyOffset() {
+      return cfOffset;
+    }
+
+    public int getColumnFamilyLength() {
+      return cfLength;
+    }
+
+    public int getColumnQualifierOffset() {
+      return cqOffset;
+    }
+
+    public int getColumnQualifierLength() {
+      return cqLength;
+    }
+
+    public int getColumnVisibilityOffset() {
+      return cvOffset;
+    }
+
+    public int getColumnVisibilityLength() {
+      return cvLength;
+    }
+
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    public boolean isDeleted() {
+      return deleted;
+    }
+
+    public byte[] getValueData() {
+      return valueData;
+    }
+
+    public int getValueOffset() {
+      return valueOffset;
+    }
+
+    public int getValueLength() {
+      return valueLength;
+    }
+  }
+
   @Override
   public long estimatedMemoryUsed() {
     return super.estimatedMemoryUsed() + 8;
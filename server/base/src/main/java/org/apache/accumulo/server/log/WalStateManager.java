@@ -59,6 +59,11 @@ import org.slf4j.LoggerFactory;
  * file.
  *
  * <p>
+ * A tablet server writing to several WAL streams concurrently will have one OPEN log per stream.
+ * Each log is tracked independently, so the state of one stream's logs says nothing about
+ * another's.
+ *
+ * <p>
  * In the event of a recovery, the log is identified as belonging to a dead server. The manager will
  * update the tablets assigned to that server with log references. Once all tablets have been
  * reassigned and the log references are removed, the log will be eligible for deletion.
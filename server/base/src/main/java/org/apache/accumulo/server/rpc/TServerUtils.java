@@ -139,14 +139,31 @@ public class TServerUtils {
       Property portSearchProperty, Property minThreadProperty, Property threadTimeOutProperty,
       Property timeBetweenThreadChecksProperty, Property maxMessageSizeProperty)
       throws UnknownHostException {
-    final AccumuloConfiguration config = context.getConfiguration();
-
-    final IntStream portHint = config.getPortStream(portHintProperty);
-
     int minThreads = 2;
     if (minThreadProperty != null) {
-      minThreads = config.getCount(minThreadProperty);
+      minThreads = context.getConfiguration().getCount(minThreadProperty);
     }
+    return startServer(context, hostname, portHintProperty, processor, serverName, threadName,
+        portSearchProperty, minThreads, threadTimeOutProperty, timeBetweenThreadChecksProperty,
+        maxMessageSizeProperty);
+  }
+
+  /**
+   * Start a server, at the given port, or higher, if that port is not available, with the given
+   * minimum number of threads in the pool. Useful for services that hold some requests for a long
+   * time and need threads set aside for them.
+   *
+   * @see #startServer(ServerContext, String, Property, TProcessor, String, String, Property,
+   *      Property, Property, Property, Property)
+   */
+  public static ServerAddress startServer(ServerContext context, String hostname,
+      Property portHintProperty, TProcessor processor, String serverName, String threadName,
+      Property portSearchProperty, int minThreads, Property threadTimeOutProperty,
+      Property timeBetweenThreadChecksProperty, Property maxMessageSizeProperty)
+      throws UnknownHostException {
+    final AccumuloConfiguration config = context.getConfiguration();
+
+    final IntStream portHint = config.getPortStream(portHintProperty);
 
     long threadTimeOut = ThreadPools.DEFAULT_TIMEOUT_MILLISECS;
     if (threadTimeOutProperty != null) {
@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.server.compaction;
+
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.metadata.TabletFile;
+import org.apache.accumulo.core.metadata.schema.DataFileValue;
+import org.apache.accumulo.core.spi.compaction.CompactionKind;
+import org.apache.accumulo.core.tabletserver.thrift.TCompactionReason;
+import org.apache.accumulo.core.util.LocalityGroupUtil;
+import org.apache.accumulo.core.util.ratelimit.NullRateLimiter;
+import org.apache.accumulo.core.util.ratelimit.RateLimiter;
+import org.apache.accumulo.server.MockServerContext;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.compaction.FileCompactor.CompactionEnv;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.server.iterators.SystemIteratorEnvironment;
+import org.apache.accumulo.server.iterators.TabletIteratorEnvironment;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileCompactorTest {
+
+  private static final TableId TABLE_ID = TableId.of("1");
+  private static final KeyExtent EXTENT = new KeyExtent(TABLE_ID, null, null);
+  private static final int FAMILIES = 6;
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private ServerContext context;
+  private FileSystem fs;
+  private int nextFile = 0;
+
+  @Before
+  public void setup() throws IOException {
+    context = MockServerContext.get();
+    expect(context.getVolumeManager())
+        .andReturn(VolumeManagerImpl.getLocalForTesting(tempFolder.getRoot().getAbsolutePath()))
+        .anyTimes();
+    replay(context);
+    fs = FileSystem.getLocal(new Configuration());
+  }
+
+  private static class TestEnv implements CompactionEnv {
+    private final ExecutorService localityGroupExecutor;
+
+    TestEnv(ExecutorService localityGroupExecutor) {
+      this.localityGroupExecutor = localityGroupExecutor;
+    }
+
+    @Override
+    public boolean isCompactionEnabled() {
+      return true;
+    }
+
+    @Override
+    public IteratorScope getIteratorScope() {
+      return IteratorScope.majc;
+    }
+
+    @Override
+    public RateLimiter getReadLimiter() {
+      return NullRateLimiter.INSTANCE;
+    }
+
+    @Override
+    public RateLimiter getWriteLimiter() {
+      return NullRateLimiter.INSTANCE;
+    }
+
+    @Override
+    public SystemIteratorEnvironment createIteratorEnv(ServerContext context,
+        AccumuloConfiguration acuTableConf, TableId tableId) {
+      return new TabletIteratorEnvironment(context, IteratorScope.majc, true, acuTableConf, tableId,
+          CompactionKind.SYSTEM);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> getMinCIterator() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TCompactionReason getReason() {
+      return TCompactionReason.SYSTEM;
+    }
+
+    @Override
+    public ExecutorService getLocalityGroupExecutor() {
+      return localityGroupExecutor;
+    }
+  }
+
+  private TabletFile newFile(String prefix) {
+    String name = String.format("%s%07d.%s", prefix, nextFile++, RFile.EXTENSION);
+    return new TabletFile(new Path("file:" + tempFolder.getRoot().getAbsolutePath() + "/tables/"
+        + TABLE_ID + "/default_tablet/" + name));
+  }
+
+  private StoredTabletFile writeFile(String prefix, AccumuloConfiguration tableConf,
+      TreeMap<Key,Value> data) throws IOException {
+    TabletFile file = newFile(prefix);
+    try (FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder()
+        .forFile(file.getMetaInsert(), fs, fs.getConf(), CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(tableConf).build()) {
+      writer.startDefaultLocalityGroup();
+      for (Entry<Key,Value> entry : data.entrySet()) {
+        writer.append(entry.getKey(), entry.getValue());
+      }
+    }
+    return new StoredTabletFile(file.getMetaInsert());
+  }
+
+  private List<Entry<Key,Value>> read(AccumuloConfiguration tableConf, TabletFile file,
+      Collection<ByteSequence> families, boolean inclusive) throws IOException {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    try (FileSKVIterator reader = FileOperations.getInstance().newReaderBuilder()
+        .forFile(file.getMetaInsert(), fs, fs.getConf(), CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(tableConf).build()) {
+      reader.seek(new Range(), families, inclusive);
+      while (reader.hasTop()) {
+        entries.add(Map.entry(new Key(reader.getTopKey()), new Value(reader.getTopValue())));
+        reader.next();
+      }
+    }
+    return entries;
+  }
+
+  private TabletFile compact(AccumuloConfiguration tableConf,
+      Map<StoredTabletFile,DataFileValue> files, boolean propagateDeletes, CompactionEnv env)
+      throws Exception {
+    TabletFile output = newFile("C");
+    new FileCompactor(context, EXTENT, files, output, propagateDeletes, env,
+        Collections.emptyList(), tableConf).call();
+    return output;
+  }
+
+  @Test
+  public void testConcurrentLocalityGroupsMatchSerial() throws Exception {
+    ConfigurationCopy tableConf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    // small blocks so every locality group spans many blocks
+    tableConf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "4K");
+    tableConf.set(Property.TABLE_LOCALITY_GROUPS, "g1,g2,g3");
+    tableConf.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g1", "cf0,cf1");
+    tableConf.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g2", "cf2");
+    tableConf.set(Property.TABLE_LOCALITY_GROUP_PREFIX.getKey() + "g3", "cf3");
+
+    // overlapping files, with deletes and versions of the same cells in different files
+    Map<StoredTabletFile,DataFileValue> files = new HashMap<>();
+    for (int f = 0; f < 3; f++) {
+      TreeMap<Key,Value> data = new TreeMap<>();
+      for (int row = f; row < 3000; row += 2) {
+        for (int cf = 0; cf < FAMILIES; cf++) {
+          Key key = new Key(String.format("r%06d", row), "cf" + cf, "cq", 10 + f);
+          if ((row + cf + f) % 17 == 0) {
+            key.setDeleted(true);
+          }
+          data.put(key, new Value("v" + f + "_" + row + "_" + cf));
+        }
+      }
+      files.put(writeFile("F", tableConf, data), new DataFileValue(1, data.size()));
+    }
+
+    TabletFile serial = compact(tableConf, files, false, new TestEnv(null));
+
+    ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(3);
+    TabletFile concurrent;
+    try {
+      concurrent = compact(tableConf, files, false, new TestEnv(pool));
+      // the three named locality groups were handed to the pool
+      assertEquals(3, pool.getTaskCount());
+    } finally {
+      pool.shutdownNow();
+    }
+
+    List<Entry<Key,Value>> expected = read(tableConf, serial, Set.of(), false);
+    assertTrue(expected.size() > 10_000);
+    assertEquals(expected, read(tableConf, concurrent, Set.of(), false));
+
+    // each locality group holds the same entries in both files
+    Map<String,Set<ByteSequence>> groups = LocalityGroupUtil.getLocalityGroups(tableConf);
+    for (Set<ByteSequence> families : groups.values()) {
+      List<Entry<Key,Value>> group = read(tableConf, serial, families, true);
+      assertTrue(group.size() > 1000);
+      assertEquals(group, read(tableConf, concurrent, families, true));
+    }
+  }
+
+  private int countBlocks(AccumuloConfiguration tableConf, TabletFile file) throws IOException {
+    int blocks = 0;
+    try (FileSKVIterator index = FileOperations.getInstance().newIndexReaderBuilder()
+        .forFile(file.getMetaInsert(), fs, fs.getConf(), CryptoServiceFactory.newDefaultInstance())
+        .withTableConfiguration(tableConf).build()) {
+      while (index.hasTop()) {
+        blocks++;
+        index.next();
+      }
+    }
+    return blocks;
+  }
+
+  @Test
+  public void testCopyBlocks() throws Exception {
+    ConfigurationCopy tableConf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    tableConf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "4K");
+
+    // files that do not share rows
+    Map<StoredTabletFile,DataFileValue> files = new HashMap<>();
+    List<Entry<Key,Value>> expected = new ArrayList<>();
+    int inputBlocks = 0;
+    for (int f = 0; f < 3; f++) {
+      TreeMap<Key,Value> data = new TreeMap<>();
+      for (int row = f * 1000; row < (f + 1) * 1000; row++) {
+        data.put(new Key(String.format("r%06d", row), "cf", "cq", 5), new Value("v" + row));
+      }
+      expected.addAll(data.entrySet());
+      StoredTabletFile file = writeFile(f == 0 ? "C" : "F", tableConf, data);
+      files.put(file, new DataFileValue(1, data.size()));
+      inputBlocks += countBlocks(tableConf, file);
+    }
+    assertTrue(inputBlocks > 10);
+
+    // copying is off by default. A merge packs the last, partial, blocks of the files together
+    TabletFile merged = compact(tableConf, files, true, new TestEnv(null));
+    int mergedBlocks = countBlocks(tableConf, merged);
+    assertTrue(mergedBlocks < inputBlocks);
+    assertEquals(expected, read(tableConf, merged, Set.of(), false));
+
+    ConfigurationCopy copyConf = new ConfigurationCopy(tableConf);
+    copyConf.set(Property.TABLE_COMPACTION_BLOCK_COPY, "true");
+    TabletFile copied = compact(copyConf, files, true, new TestEnv(null));
+    assertEquals(inputBlocks, countBlocks(copyConf, copied));
+    assertEquals(expected, read(copyConf, copied, Set.of(), false));
+
+    // a full compaction drops deletes, so it merges unless the table fails on deletes
+    assertEquals(mergedBlocks,
+        countBlocks(copyConf, compact(copyConf, files, false, new TestEnv(null))));
+    copyConf.set(Property.TABLE_DELETE_BEHAVIOR, "fail");
+    TabletFile full = compact(copyConf, files, false, new TestEnv(null));
+    assertEquals(inputBlocks, countBlocks(copyConf, full));
+    assertEquals(expected, read(copyConf, full, Set.of(), false));
+
+    // the files may hold versions that the versioning iterator tables are created with would drop
+    ConfigurationCopy versioningConf = new ConfigurationCopy(copyConf);
+    String prefix = Property.TABLE_ITERATOR_PREFIX.getKey() + IteratorScope.majc.name() + ".vers";
+    versioningConf.set(prefix, "20," + VersioningIterator.class.getName());
+    versioningConf.set(prefix + ".opt.maxVersions", "1");
+    assertEquals(mergedBlocks,
+        countBlocks(versioningConf, compact(versioningConf, files, false, new TestEnv(null))));
+
+    // files written with another block size are merged, so that the new block size is applied
+    copyConf.set(Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE, "1M");
+    assertEquals(1, countBlocks(copyConf, compact(copyConf, files, false, new TestEnv(null))));
+  }
+}
@@ -18,14 +18,18 @@
  */
 package org.apache.accumulo.server.data;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.util.ReflectionUtils;
@@ -77,4 +81,48 @@ public class ServerMutationTest {
 
   }
 
+  @Test
+  public void testUpdateReader() {
+    Mutation orig = new Mutation("r1");
+    orig.put("cf1", "cq1", "v1");
+    orig.put("cf2", "cq2", new ColumnVisibility("A&B"), 56, "v2");
+    orig.putDelete("cf3", "cq3", 57);
+    orig.put("", "", "");
+    // large values are stored apart from the other serialized data
+    byte[] big = new byte[1 << 16];
+    Arrays.fill(big, (byte) 7);
+    orig.put("cf4", "cq4", new Value(big));
+
+    ServerMutation m = new ServerMutation(orig.toThrift());
+    m.setSystemTimestamp(42);
+
+    ServerMutation.UpdateReader reader = new ServerMutation.UpdateReader();
+    assertTrue(reader.reset(m));
+    for (ColumnUpdate cu : m.getUpdates()) {
+      assertTrue(reader.next());
+      byte[] data = reader.getData();
+      assertArrayEquals(cu.getColumnFamily(),
+          Arrays.copyOfRange(data, reader.getColumnFamilyOffset(),
+              reader.getColumnFamilyOffset() + reader.getColumnFamilyLength()));
+      assertArrayEquals(cu.getColumnQualifier(),
+          Arrays.copyOfRange(data, reader.getColumnQualifierOffset(),
+              reader.getColumnQualifierOffset() + reader.getColumnQualifierLength()));
+      assertArrayEquals(cu.getColumnVisibility(),
+          Arrays.copyOfRange(data, reader.getColumnVisibilityOffset(),
+              reader.getColumnVisibilityOffset() + reader.getColumnVisibilityLength()));
+      assertEquals(cu.getTimestamp(), reader.getTimestamp());
+      assertEquals(cu.isDeleted(), reader.isDeleted());
+      assertArrayEquals(cu.getValue(), Arrays.copyOfRange(reader.getValueData(),
+          reader.getValueOffset(), reader.getValueOffset() + reader.getValueLength()));
+    }
+    assertFalse(reader.next());
+
+    // the reader can be reused, but not for mutations that are not server mutations
+    assertTrue(reader.reset(m));
+    assertTrue(reader.next());
+    assertEquals(42, reader.getTimestamp());
+    assertFalse(reader.reset(orig));
+    assertFalse(reader.next());
+  }
+
 }
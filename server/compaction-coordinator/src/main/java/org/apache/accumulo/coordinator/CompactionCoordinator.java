@@ -21,6 +21,7 @@ package org.apache.accumulo.coordinator;
 import static org.apache.accumulo.fate.util.UtilWaitThread.sleepUninterruptibly;
 
 import java.net.UnknownHostException;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,8 +29,11 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.coordinator.QueueSummaries.PrioTserver;
 import org.apache.accumulo.core.Constants;
@@ -54,6 +58,7 @@ import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.dataImpl.thrift.TKeyExtent;
 import org.apache.accumulo.core.metadata.TServerInstance;
 import org.apache.accumulo.core.metadata.schema.ExternalCompactionId;
+import org.apache.accumulo.core.metrics.MetricsProducer;
 import org.apache.accumulo.core.metrics.MetricsUtil;
 import org.apache.accumulo.core.rpc.ThriftUtil;
 import org.apache.accumulo.core.securityImpl.thrift.TCredentials;
@@ -92,8 +97,12 @@ import org.slf4j.LoggerFactory;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 public class CompactionCoordinator extends AbstractServer
-    implements CompactionCoordinatorService.Iface, LiveTServerSet.Listener {
+    implements CompactionCoordinatorService.Iface, LiveTServerSet.Listener, MetricsProducer {
 
   private static final Logger LOG = LoggerFactory.getLogger(CompactionCoordinator.class);
   private static final long TIME_BETWEEN_GC_CHECKS = 5000;
@@ -111,6 +120,27 @@ public class CompactionCoordinator extends AbstractServer
   /* Map of queue name to last time compactor called to get a compaction job */
   private static final Map<String,Long> TIME_COMPACTOR_LAST_CHECKED = new ConcurrentHashMap<>();
 
+  /* Map of queue name to the number of compactors waiting in getCompactionJob for a job */
+  private final Map<String,AtomicInteger> idleCompactors = new ConcurrentHashMap<>();
+  /* Map of queue name to the time compactors waited for a job from the queue */
+  private final Map<String,Timer> jobWaitTimers = new ConcurrentHashMap<>();
+  private volatile MeterRegistry meterRegistry = null;
+  /* Limits the compactor requests held in getCompactionJob, each of which occupies a thread */
+  private final Semaphore jobWaiters;
+
+  /* tservers that queued new jobs and whose summaries are waiting to be gathered */
+  private final Set<TServerInstance> tserversWithNewJobs = ConcurrentHashMap.newKeySet();
+  private final ExecutorService tserverSummaryUpdater =
+      ThreadPools.createFixedThreadPool(10, "Compaction Summary Updater", false);
+
+  /* Jobs reserved on tservers before compactors ask for them, at most jobPrefetch per queue */
+  private final PrefetchedJobs prefetchedJobs = new PrefetchedJobs(1, TimeUnit.MINUTES);
+  private final int jobPrefetch;
+  /* queues whose held jobs are being topped up */
+  private final Set<String> queuesPrefetching = ConcurrentHashMap.newKeySet();
+  private final ExecutorService jobPrefetcher =
+      ThreadPools.createFixedThreadPool(4, "Compaction Job Prefetcher", false);
+
   private final GarbageCollectionLogger gcLogger = new GarbageCollectionLogger();
   protected SecurityOperation security;
   protected final AccumuloConfiguration aconf;
@@ -127,6 +157,8 @@ public class CompactionCoordinator extends AbstractServer
   protected CompactionCoordinator(ServerOpts opts, String[] args) {
     super("compaction-coordinator", opts, args);
     aconf = getConfiguration();
+    jobWaiters = new Semaphore(aconf.getCount(Property.COMPACTION_COORDINATOR_JOB_WAIT_THREADS));
+    jobPrefetch = aconf.getCount(Property.COMPACTION_COORDINATOR_JOB_PREFETCH);
     schedExecutor = ThreadPools.createGeneralScheduledExecutorService(aconf);
     compactionFinalizer = createCompactionFinalizer(schedExecutor);
     tserverSet = createLiveTServerSet();
@@ -134,11 +166,14 @@ public class CompactionCoordinator extends AbstractServer
     startGCLogger(schedExecutor);
     printStartupMsg();
     startCompactionCleaner(schedExecutor);
+    startPrefetchedJobReleaser(schedExecutor);
   }
 
   protected CompactionCoordinator(ServerOpts opts, String[] args, AccumuloConfiguration conf) {
     super("compaction-coordinator", opts, args);
     aconf = conf;
+    jobWaiters = new Semaphore(aconf.getCount(Property.COMPACTION_COORDINATOR_JOB_WAIT_THREADS));
+    jobPrefetch = aconf.getCount(Property.COMPACTION_COORDINATOR_JOB_PREFETCH);
     schedExecutor = ThreadPools.createGeneralScheduledExecutorService(aconf);
     compactionFinalizer = createCompactionFinalizer(schedExecutor);
     tserverSet = createLiveTServerSet();
@@ -146,6 +181,7 @@ public class CompactionCoordinator extends AbstractServer
     startGCLogger(schedExecutor);
     printStartupMsg();
     startCompactionCleaner(schedExecutor);
+    startPrefetchedJobReleaser(schedExecutor);
   }
 
   protected CompactionFinalizer
@@ -171,6 +207,37 @@ public class CompactionCoordinator extends AbstractServer
     schedExecutor.scheduleWithFixedDelay(() -> cleanUpCompactors(), 0, 5, TimeUnit.MINUTES);
   }
 
+  protected void startPrefetchedJobReleaser(ScheduledThreadPoolExecutor schedExecutor) {
+    if (jobPrefetch > 0) {
+      long maxHold = aconf.getTimeInMillis(Property.COMPACTION_COORDINATOR_JOB_PREFETCH_HOLD_MAX);
+      long period = Math.max(1000, maxHold / 2);
+      schedExecutor.scheduleWithFixedDelay(() -> releasePrefetchedJobs(maxHold), period, period,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Fail the prefetched jobs that no compactor asked for in time, so their tablets can compact the
+   * files again.
+   */
+  private void releasePrefetchedJobs(long maxHold) {
+    Map<ExternalCompactionId,KeyExtent> expired =
+        prefetchedJobs.removeExpired(TimeUnit.MILLISECONDS.toNanos(maxHold), System.nanoTime());
+    if (!expired.isEmpty()) {
+      LOG.debug("Releasing {} prefetched compaction jobs that were not asked for", expired.size());
+      compactionFinalizer.failCompactions(expired);
+    }
+  }
+
+  Set<ExternalCompactionId> getPrefetchedJobIds() {
+    return prefetchedJobs.getIds();
+  }
+
+  // Exposed for tests
+  int getPrefetchedJobCount(String queue) {
+    return prefetchedJobs.size(queue);
+  }
+
   protected void printStartupMsg() {
     LOG.info("Version " + Constants.VERSION);
     LOG.info("Instance " + getContext().getInstanceID());
@@ -232,10 +299,12 @@ public class CompactionCoordinator extends AbstractServer
     Property maxMessageSizeProperty =
         (aconf.get(Property.COMPACTION_COORDINATOR_MAX_MESSAGE_SIZE) != null
             ? Property.COMPACTION_COORDINATOR_MAX_MESSAGE_SIZE : Property.GENERAL_MAX_MESSAGE_SIZE);
+    // set aside a thread for each compactor request that may be held waiting for a job
+    int minThreads = aconf.getCount(Property.COMPACTION_COORDINATOR_MINTHREADS)
+        + aconf.getCount(Property.COMPACTION_COORDINATOR_JOB_WAIT_THREADS);
     ServerAddress sp = TServerUtils.startServer(getContext(), getHostname(),
         Property.COMPACTION_COORDINATOR_CLIENTPORT, processor, this.getClass().getSimpleName(),
-        "Thrift Client Server", Property.COMPACTION_COORDINATOR_THRIFTCLIENT_PORTSEARCH,
-        Property.COMPACTION_COORDINATOR_MINTHREADS,
+        "Thrift Client Server", Property.COMPACTION_COORDINATOR_THRIFTCLIENT_PORTSEARCH, minThreads,
         Property.COMPACTION_COORDINATOR_MINTHREADS_TIMEOUT,
         Property.COMPACTION_COORDINATOR_THREADCHECK, maxMessageSizeProperty);
     LOG.info("address = {}", sp.address);
@@ -262,6 +331,7 @@ public class CompactionCoordinator extends AbstractServer
     try {
       MetricsUtil.initializeMetrics(getContext().getConfiguration(), this.applicationName,
           clientAddress);
+      MetricsUtil.initializeProducers(this);
     } catch (Exception e1) {
       LOG.error("Error initializing metrics, metrics will not be emitted.", e1);
     }
@@ -312,6 +382,16 @@ public class CompactionCoordinator extends AbstractServer
     }
 
     LOG.info("Shutting down");
+    // release the compactor requests held waiting for a job
+    QUEUE_SUMMARIES.wakeWaiters();
+  }
+
+  @Override
+  public void close() {
+    shutdown = true;
+    QUEUE_SUMMARIES.wakeWaiters();
+    jobPrefetcher.shutdownNow();
+    super.close();
   }
 
   private void updateSummaries() {
@@ -382,6 +462,47 @@ public class CompactionCoordinator extends AbstractServer
         .getTimeInMillis(Property.COMPACTION_COORDINATOR_TSERVER_COMPACTION_CHECK_INTERVAL);
   }
 
+  protected long getMaxJobWaitTime() {
+    // answer well before the compactor's rpc times out, a job reserved after that is orphaned
+    return Math.min(this.aconf.getTimeInMillis(Property.COMPACTION_COORDINATOR_JOB_WAIT_MAX),
+        this.aconf.getTimeInMillis(Property.GENERAL_RPC_TIMEOUT) / 2);
+  }
+
+  @Override
+  public void registerMetrics(MeterRegistry registry) {
+    meterRegistry = registry;
+    idleCompactors.forEach((queue, idle) -> registerIdleGauge(registry, queue, idle));
+  }
+
+  private static void registerIdleGauge(MeterRegistry registry, String queue, AtomicInteger idle) {
+    Gauge.builder(METRICS_COORDINATOR_IDLE_COMPACTORS, idle, AtomicInteger::get)
+        .description("Compactors waiting for a job").tag("queue", queue).register(registry);
+  }
+
+  // Exposed for tests
+  AtomicInteger getIdleCompactors(String queue) {
+    return idleCompactors.computeIfAbsent(queue, q -> {
+      AtomicInteger idle = new AtomicInteger();
+      MeterRegistry registry = meterRegistry;
+      if (registry != null) {
+        registerIdleGauge(registry, q, idle);
+      }
+      return idle;
+    });
+  }
+
+  /**
+   * @return the timer for the queue, registered once, or null when metrics are not registered
+   */
+  private Timer getJobWaitTimer(String queue) {
+    MeterRegistry registry = meterRegistry;
+    if (registry == null) {
+      return null;
+    }
+    return jobWaitTimers.computeIfAbsent(queue, q -> Timer.builder(METRICS_COORDINATOR_JOB_WAIT)
+        .description("Time compactors waited for a job").tag("queue", q).register(registry));
+  }
+
   /**
    * Callback for the LiveTServerSet object to update current set of tablet servers, including ones
    * that were deleted and added
@@ -428,7 +549,141 @@ public class CompactionCoordinator extends AbstractServer
     LOG.trace("getCompactionJob called for queue {} by compactor {}", queue, compactorAddress);
     TIME_COMPACTOR_LAST_CHECKED.put(queue, System.currentTimeMillis());
 
-    TExternalCompactionJob result = null;
+    final long start = System.nanoTime();
+    TExternalCompactionJob result = takePrefetchedJob(queue, compactorAddress);
+    if (result == null) {
+      result = reserveCompactionJob(queue, compactorAddress, externalCompactionId);
+    }
+
+    long maxWait = getMaxJobWaitTime();
+    if (result == null && maxWait > 0 && jobWaiters.tryAcquire()) {
+      // hold the request until a tserver reports a job for the queue, instead of having the
+      // compactor poll for one
+      final long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWait);
+      AtomicInteger idle = getIdleCompactors(queue);
+      idle.incrementAndGet();
+      try {
+        while (result == null && !shutdown) {
+          long remaining = deadline - System.nanoTime();
+          if (!QUEUE_SUMMARIES.awaitTserver(queue, remaining, TimeUnit.NANOSECONDS,
+              () -> shutdown)) {
+            break;
+          }
+          result = reserveCompactionJob(queue, compactorAddress, externalCompactionId);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        idle.decrementAndGet();
+        jobWaiters.release();
+      }
+    }
+
+    if (result == null) {
+      LOG.trace("No tservers found for queue {}, returning empty job to compactor {}", queue,
+          compactorAddress);
+      result = new TExternalCompactionJob();
+    } else {
+      Timer timer = getJobWaitTimer(queue);
+      if (timer != null) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      // the queue has work and compactors asking for it, so reserve the next jobs ahead of time
+      prefetchJobs(queue);
+    }
+
+    return result;
+
+  }
+
+  private static class Reservation {
+    final TExternalCompactionJob job;
+    final short prio;
+
+    Reservation(TExternalCompactionJob job, short prio) {
+      this.job = job;
+      this.prio = prio;
+    }
+  }
+
+  /**
+   * Reserve a compaction job for the queue from the tservers that reported having one, and track it
+   * as running on the compactor.
+   *
+   * @return the reserved job, or null if no tserver had one
+   */
+  private TExternalCompactionJob reserveCompactionJob(String queue, String compactorAddress,
+      String externalCompactionId) {
+    Reservation reservation = reserveOnTserver(queue, compactorAddress, externalCompactionId);
+    if (reservation == null) {
+      return null;
+    }
+    TExternalCompactionJob job = reservation.job;
+    RUNNING.put(ExternalCompactionId.of(job.getExternalCompactionId()),
+        new RunningCompaction(job, compactorAddress, queue));
+    LOG.debug("Returning external job {} to {}", job.externalCompactionId, compactorAddress);
+    return job;
+  }
+
+  /**
+   * Hand out the highest priority job reserved ahead of time for the queue, unless a tserver
+   * reported a job of higher priority.
+   *
+   * @return the job, or null if none was handed out
+   */
+  private TExternalCompactionJob takePrefetchedJob(String queue, String compactorAddress) {
+    if (jobPrefetch == 0) {
+      return null;
+    }
+    TExternalCompactionJob job =
+        prefetchedJobs.take(queue, QUEUE_SUMMARIES.getHighestPriority(queue));
+    if (job != null) {
+      RUNNING.put(ExternalCompactionId.of(job.getExternalCompactionId()),
+          new RunningCompaction(job, compactorAddress, queue));
+      LOG.debug("Returning prefetched external job {} to {}", job.externalCompactionId,
+          compactorAddress);
+    }
+    return job;
+  }
+
+  /**
+   * Reserve jobs for the queue in the background, until jobPrefetch are held or the tservers have
+   * no more. The coordinator stands in for the compactor while a job is held.
+   */
+  private void prefetchJobs(String queue) {
+    if (jobPrefetch == 0 || shutdown || !queuesPrefetching.add(queue)) {
+      return;
+    }
+    try {
+      jobPrefetcher.execute(() -> {
+        try {
+          while (!shutdown && prefetchedJobs.size(queue) < jobPrefetch) {
+            ExternalCompactionId ecid = ExternalCompactionId.generate(UUID.randomUUID());
+            prefetchedJobs.reserving(ecid);
+            Reservation reservation = reserveOnTserver(queue, getHostname(), ecid.canonical());
+            if (reservation == null) {
+              break;
+            }
+            LOG.trace("Prefetched external job {} for queue {}", ecid, queue);
+            prefetchedJobs.add(queue, reservation.job, reservation.prio, System.nanoTime());
+          }
+        } finally {
+          queuesPrefetching.remove(queue);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      queuesPrefetching.remove(queue);
+    }
+  }
+
+  /**
+   * Reserve a compaction job for the queue from the tservers that reported having one.
+   *
+   * @return the reserved job and its priority, or null if no tserver had one
+   */
+  private Reservation reserveOnTserver(String queue, String compactorAddress,
+      String externalCompactionId) {
+    Reservation result = null;
 
     PrioTserver prioTserver = QUEUE_SUMMARIES.getNextTserver(queue);
 
@@ -451,10 +706,7 @@ public class CompactionCoordinator extends AbstractServer
           prioTserver = QUEUE_SUMMARIES.getNextTserver(queue);
           continue;
         }
-        RUNNING.put(ExternalCompactionId.of(job.getExternalCompactionId()),
-            new RunningCompaction(job, compactorAddress, queue));
-        LOG.debug("Returning external job {} to {}", job.externalCompactionId, compactorAddress);
-        result = job;
+        result = new Reservation(job, prioTserver.prio);
         break;
       } catch (TException e) {
         LOG.warn("Error from tserver {} while trying to reserve compaction, trying next tserver",
@@ -466,14 +718,7 @@ public class CompactionCoordinator extends AbstractServer
       }
     }
 
-    if (result == null) {
-      LOG.trace("No tservers found for queue {}, returning empty job to compactor {}", queue,
-          compactorAddress);
-      result = new TExternalCompactionJob();
-    }
-
     return result;
-
   }
 
   /**
@@ -682,6 +927,45 @@ public class CompactionCoordinator extends AbstractServer
     ExternalCompactionUtil.cancelCompaction(getContext(), address, externalCompactionId);
   }
 
+  /**
+   * Called by a TabletServer when it queues jobs at a priority it did not have queued. The
+   * summaries of that tserver are gathered right away, instead of at the next check of all
+   * tservers, so that compactors waiting in {@link #getCompactionJob} get the new jobs.
+   *
+   * @param tinfo
+   *          trace info
+   * @param credentials
+   *          tcredentials object
+   * @param tserver
+   *          address of the tserver
+   * @throws ThriftSecurityException
+   *           permission error
+   */
+  @Override
+  public void compactionJobsQueued(TInfo tinfo, TCredentials credentials, String tserver)
+      throws ThriftSecurityException {
+    // do not expect users to call this directly, expect tservers to call this method
+    if (!security.canPerformSystemActions(credentials)) {
+      throw new AccumuloSecurityException(credentials.getPrincipal(),
+          SecurityErrorCode.PERMISSION_DENIED).asThriftException();
+    }
+    TServerInstance tsi = tserverSet.find(tserver);
+    if (tsi == null) {
+      LOG.debug("Ignoring queued compaction jobs from unknown tserver {}", tserver);
+      return;
+    }
+    // a tserver that is already waiting to be gathered does not need another task
+    if (tserversWithNewJobs.add(tsi)) {
+      tserverSummaryUpdater.execute(() -> {
+        tserversWithNewJobs.remove(tsi);
+        Set<String> queuesSeen = new HashSet<>();
+        updateSummaries(tsi, queuesSeen);
+        queuesSeen.forEach(
+            q -> TIME_COMPACTOR_LAST_CHECKED.computeIfAbsent(q, k -> System.currentTimeMillis()));
+      });
+    }
+  }
+
   private void deleteEmpty(ZooReaderWriter zoorw, String path)
       throws KeeperException, InterruptedException {
     try {
@@ -18,6 +18,7 @@
  */
 package org.apache.accumulo.coordinator;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -93,7 +94,9 @@ public class DeadCompactionDetector {
     // must return ids covering the time period from before reservation until after commit. If the
     // ids do not cover this time period then legitimate running compactions could be canceled.
     Collection<ExternalCompactionId> running =
-        ExternalCompactionUtil.getCompactionIdsRunningOnCompactors(context);
+        new ArrayList<>(ExternalCompactionUtil.getCompactionIdsRunningOnCompactors(context));
+    // jobs the coordinator reserved before a compactor asked for them are not on a compactor yet
+    running.addAll(coordinator.getPrefetchedJobIds());
 
     running.forEach((ecid) -> {
       if (tabletCompactions.remove(ecid) != null) {
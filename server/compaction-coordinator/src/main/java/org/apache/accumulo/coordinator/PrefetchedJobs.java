@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.coordinator;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.metadata.schema.ExternalCompactionId;
+import org.apache.accumulo.core.tabletserver.thrift.TExternalCompactionJob;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Compaction jobs reserved on tablet servers ahead of requests from compactors, so that a compactor
+ * can be handed a job without waiting for a tablet server to reserve one. The jobs of each queue
+ * are kept in priority order.
+ */
+public class PrefetchedJobs {
+
+  private static class HeldJob {
+    final TExternalCompactionJob job;
+    final short prio;
+    final long reservedNanos;
+
+    HeldJob(TExternalCompactionJob job, short prio, long reservedNanos) {
+      this.job = job;
+      this.prio = prio;
+      this.reservedNanos = reservedNanos;
+    }
+  }
+
+  // highest priority first, then the job held longest
+  private static final Comparator<HeldJob> ORDER =
+      Comparator.comparingInt((HeldJob h) -> -h.prio).thenComparingLong(h -> h.reservedNanos);
+
+  /* Map of queue name to the jobs held for it */
+  private final Map<String,PriorityQueue<HeldJob>> held = new HashMap<>();
+
+  /*
+   * Ids of jobs being reserved, or handed out recently. A compactor reports the id of its job only
+   * once it has the job, so until then the job is neither held nor known to be running.
+   */
+  private final Cache<ExternalCompactionId,Boolean> pending;
+
+  public PrefetchedJobs(long pendingTime, TimeUnit unit) {
+    pending = Caffeine.newBuilder().expireAfterWrite(pendingTime, unit).build();
+  }
+
+  /**
+   * Called before a job is reserved with the given id.
+   */
+  void reserving(ExternalCompactionId ecid) {
+    pending.put(ecid, true);
+  }
+
+  synchronized void add(String queue, TExternalCompactionJob job, short prio, long nowNanos) {
+    held.computeIfAbsent(queue, q -> new PriorityQueue<>(ORDER))
+        .add(new HeldJob(job, prio, nowNanos));
+  }
+
+  synchronized int size(String queue) {
+    PriorityQueue<HeldJob> jobs = held.get(queue);
+    return jobs == null ? 0 : jobs.size();
+  }
+
+  /**
+   * @param minPrio
+   *          the priority of the best job a tablet server reported for the queue, or null if none
+   * @return the highest priority job held for the queue, or null if there is none or a tablet
+   *         server reported a job of higher priority
+   */
+  synchronized TExternalCompactionJob take(String queue, Short minPrio) {
+    PriorityQueue<HeldJob> jobs = held.get(queue);
+    if (jobs == null || (minPrio != null && jobs.peek().prio < minPrio)) {
+      return null;
+    }
+    HeldJob next = jobs.poll();
+    if (jobs.isEmpty()) {
+      held.remove(queue);
+    }
+    pending.put(ExternalCompactionId.of(next.job.getExternalCompactionId()), true);
+    return next.job;
+  }
+
+  /**
+   * Stop holding jobs that no compactor asked for in time.
+   *
+   * @return the jobs no longer held, which must be failed so their tablets can compact the files
+   */
+  synchronized Map<ExternalCompactionId,KeyExtent> removeExpired(long maxHoldNanos, long nowNanos) {
+    Map<ExternalCompactionId,KeyExtent> expired = new HashMap<>();
+    for (Iterator<PriorityQueue<HeldJob>> queues = held.values().iterator(); queues.hasNext();) {
+      PriorityQueue<HeldJob> jobs = queues.next();
+      jobs.removeIf(h -> {
+        if (nowNanos - h.reservedNanos > maxHoldNanos) {
+          expired.put(ExternalCompactionId.of(h.job.getExternalCompactionId()),
+              KeyExtent.fromThrift(h.job.getExtent()));
+          return true;
+        }
+        return false;
+      });
+      if (jobs.isEmpty()) {
+        queues.remove();
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * @return the ids of the jobs held, being reserved, or handed out too recently for their
+   *         compactor to report them
+   */
+  synchronized Set<ExternalCompactionId> getIds() {
+    Set<ExternalCompactionId> ids = new HashSet<>(pending.asMap().keySet());
+    held.values().forEach(jobs -> jobs
+        .forEach(h -> ids.add(ExternalCompactionId.of(h.job.getExternalCompactionId()))));
+    return ids;
+  }
+
+  synchronized void clear() {
+    held.clear();
+    pending.invalidateAll();
+  }
+}
@@ -30,6 +30,8 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import org.apache.accumulo.core.metadata.TServerInstance;
 import org.apache.accumulo.core.tabletserver.thrift.TCompactionQueueSummary;
@@ -164,6 +166,47 @@ public class QueueSummaries {
       QUEUES.computeIfAbsent(qp.getQueue(), k -> new TreeMap<>(Comparator.reverseOrder()))
           .computeIfAbsent(qp.getPriority(), k -> new TreeSet<>()).add(tsi);
     });
+
+    if (!newQP.isEmpty()) {
+      // wake requests waiting in awaitTserver, each checks its own queue
+      notifyAll();
+    }
+  }
+
+  /**
+   * @return the highest priority a tserver reported for the queue, or null if none did
+   */
+  synchronized Short getHighestPriority(String queue) {
+    TreeMap<Short,TreeSet<TServerInstance>> m = QUEUES.get(queue);
+    return m == null ? null : m.firstKey();
+  }
+
+  /**
+   * Wait until a tserver has reported a summary for the queue.
+   *
+   * @param stopped
+   *          checked each time waiters are woken, stops the wait when true
+   * @return true if a tserver has a summary for the queue, false if the timeout elapsed or the wait
+   *         was stopped first
+   */
+  synchronized boolean awaitTserver(String queue, long timeout, TimeUnit unit,
+      BooleanSupplier stopped) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!QUEUES.containsKey(queue)) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0 || stopped.getAsBoolean()) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+
+  /**
+   * Wake all requests waiting in awaitTserver, so they check whether they were stopped.
+   */
+  synchronized void wakeWaiters() {
+    notifyAll();
   }
 
   synchronized void removeSummary(TServerInstance tsi, String queue, short priority) {
@@ -18,12 +18,14 @@
  */
 package org.apache.accumulo.coordinator;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -33,10 +35,19 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.accumulo.core.client.security.tokens.PasswordToken;
 import org.apache.accumulo.core.clientImpl.thrift.ThriftSecurityException;
+import org.apache.accumulo.core.compaction.thrift.CompactionCoordinatorService;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.thrift.TKeyExtent;
 import org.apache.accumulo.core.metadata.TServerInstance;
 import org.apache.accumulo.core.metadata.schema.ExternalCompactionId;
@@ -57,7 +68,10 @@ import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.ServerOpts;
 import org.apache.accumulo.server.manager.LiveTServerSet;
 import org.apache.accumulo.server.rpc.ServerAddress;
+import org.apache.accumulo.server.rpc.TServerUtils;
+import org.apache.accumulo.server.rpc.ThriftServerType;
 import org.apache.accumulo.server.security.AuditedSecurityOperation;
+import org.apache.thrift.transport.TTransport;
 import org.apache.thrift.transport.TTransportException;
 import org.apache.zookeeper.KeeperException;
 import org.easymock.EasyMock;
@@ -589,4 +603,267 @@ public class CompactionCoordinatorTest {
     coordinator.close();
   }
 
+  @Test
+  public void testGetCompactionJobWaitIsBounded() throws Exception {
+    PowerMock.resetAll();
+    PowerMock.suppress(PowerMock.constructor(AbstractServer.class));
+
+    AccumuloConfiguration conf = PowerMock.createNiceMock(AccumuloConfiguration.class);
+    EasyMock.expect(conf.getCount(Property.COMPACTION_COORDINATOR_JOB_WAIT_THREADS)).andReturn(1)
+        .anyTimes();
+    EasyMock.expect(conf.getTimeInMillis(Property.COMPACTION_COORDINATOR_JOB_WAIT_MAX))
+        .andReturn(TimeUnit.MINUTES.toMillis(10)).anyTimes();
+    EasyMock.expect(conf.getTimeInMillis(Property.GENERAL_RPC_TIMEOUT)).andReturn(4000L).anyTimes();
+    ServerContext context = PowerMock.createNiceMock(ServerContext.class);
+    TCredentials creds = PowerMock.createNiceMock(TCredentials.class);
+
+    CompactionFinalizer finalizer = PowerMock.createNiceMock(CompactionFinalizer.class);
+    LiveTServerSet tservers = PowerMock.createNiceMock(LiveTServerSet.class);
+
+    ServerAddress client = PowerMock.createNiceMock(ServerAddress.class);
+    HostAndPort address = HostAndPort.fromString("localhost:10240");
+    EasyMock.expect(client.getAddress()).andReturn(address).anyTimes();
+
+    TabletClientService.Client tsc = PowerMock.createNiceMock(TabletClientService.Client.class);
+
+    AuditedSecurityOperation security = PowerMock.createNiceMock(AuditedSecurityOperation.class);
+    EasyMock.expect(security.canPerformSystemActions(creds)).andReturn(true).anyTimes();
+
+    PowerMock.replayAll();
+
+    TestCoordinator coordinator =
+        new TestCoordinator(conf, finalizer, tservers, client, tsc, context, security);
+    coordinator.resetInternals();
+    assertEquals(2000L, coordinator.getMaxJobWaitTime());
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // the first idle compactor is held, waiting for a job
+      long start = System.nanoTime();
+      Future<TExternalCompactionJob> waiting =
+          executor.submit(() -> coordinator.getCompactionJob(TraceUtil.traceInfo(), creds, "R2DQ",
+              "localhost:10240", UUID.randomUUID().toString()));
+      while (coordinator.getIdleCompactors("R2DQ").get() == 0) {
+        Thread.sleep(10);
+      }
+
+      // only one request may be held, the second is answered immediately
+      TExternalCompactionJob job = coordinator.getCompactionJob(TraceUtil.traceInfo(), creds,
+          "R2DQ", "localhost:10241", UUID.randomUUID().toString());
+      assertNull(job.getExternalCompactionId());
+      assertEquals(1, coordinator.getIdleCompactors("R2DQ").get());
+
+      // the held request is answered well before the compactor's rpc times out
+      assertNull(waiting.get(60, TimeUnit.SECONDS).getExternalCompactionId());
+      long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertTrue("waited " + elapsed + "ms", elapsed >= 2000 && elapsed < 4000);
+      assertEquals(0, coordinator.getIdleCompactors("R2DQ").get());
+
+      // closing the coordinator answers a held request right away
+      waiting = executor.submit(() -> coordinator.getCompactionJob(TraceUtil.traceInfo(), creds,
+          "R2DQ", "localhost:10240", UUID.randomUUID().toString()));
+      while (coordinator.getIdleCompactors("R2DQ").get() == 0) {
+        Thread.sleep(10);
+      }
+      start = System.nanoTime();
+      coordinator.close();
+      assertNull(waiting.get(60, TimeUnit.SECONDS).getExternalCompactionId());
+      elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      assertTrue("waited " + elapsed + "ms", elapsed < 1000);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    PowerMock.verifyAll();
+    coordinator.resetInternals();
+    coordinator.close();
+  }
+
+  @Test
+  public void testGetCompactionJobPrefetched() throws Exception {
+    PowerMock.resetAll();
+    PowerMock.suppress(PowerMock.constructor(AbstractServer.class));
+    PowerMock.suppress(PowerMock.methods(ThriftUtil.class, "returnClient"));
+
+    AccumuloConfiguration conf = PowerMock.createNiceMock(AccumuloConfiguration.class);
+    EasyMock.expect(conf.getCount(Property.COMPACTION_COORDINATOR_JOB_PREFETCH)).andReturn(2)
+        .anyTimes();
+    EasyMock.expect(conf.getTimeInMillis(Property.COMPACTION_COORDINATOR_JOB_PREFETCH_HOLD_MAX))
+        .andReturn(TimeUnit.MINUTES.toMillis(10)).anyTimes();
+    ServerContext context = PowerMock.createNiceMock(ServerContext.class);
+    TCredentials creds = PowerMock.createNiceMock(TCredentials.class);
+
+    CompactionFinalizer finalizer = PowerMock.createNiceMock(CompactionFinalizer.class);
+    LiveTServerSet tservers = PowerMock.createNiceMock(LiveTServerSet.class);
+
+    ServerAddress client = PowerMock.createNiceMock(ServerAddress.class);
+    HostAndPort address = HostAndPort.fromString("localhost:10240");
+    EasyMock.expect(client.getAddress()).andReturn(address).anyTimes();
+
+    // the tserver reserves a job under whatever id it is given
+    TabletClientService.Client tsc = PowerMock.createNiceMock(TabletClientService.Client.class);
+    EasyMock
+        .expect(tsc.reserveCompactionJob(EasyMock.anyObject(), EasyMock.anyObject(),
+            EasyMock.eq("R2DQ"), EasyMock.anyLong(), EasyMock.anyObject(), EasyMock.anyObject()))
+        .andAnswer(() -> {
+          TExternalCompactionJob job = new TExternalCompactionJob();
+          job.setExternalCompactionId((String) EasyMock.getCurrentArguments()[5]);
+          job.setExtent(new TKeyExtent(ByteBuffer.wrap("1".getBytes(UTF_8)), null, null));
+          return job;
+        }).anyTimes();
+
+    AuditedSecurityOperation security = PowerMock.createNiceMock(AuditedSecurityOperation.class);
+    EasyMock.expect(security.canPerformSystemActions(creds)).andReturn(true).anyTimes();
+
+    PowerMock.replayAll();
+
+    TestCoordinator coordinator =
+        new TestCoordinator(conf, finalizer, tservers, client, tsc, context, security);
+    coordinator.resetInternals();
+    TServerInstance tsi = new TServerInstance("localhost:9997", 0);
+    CompactionCoordinator.QUEUE_SUMMARIES.update(tsi,
+        List.of(new TCompactionQueueSummary("R2DQ", (short) 1)));
+
+    // the first job is reserved for the compactor that asked, then more are reserved ahead of time
+    String eci1 = ExternalCompactionId.generate(UUID.randomUUID()).canonical();
+    TExternalCompactionJob job1 =
+        coordinator.getCompactionJob(TraceUtil.traceInfo(), creds, "R2DQ", "localhost:10241", eci1);
+    assertEquals(eci1, job1.getExternalCompactionId());
+    while (coordinator.getPrefetchedJobCount("R2DQ") < 2) {
+      Thread.sleep(10);
+    }
+
+    // the next compactor is handed a held job, under the id it was reserved with
+    String eci2 = ExternalCompactionId.generate(UUID.randomUUID()).canonical();
+    TExternalCompactionJob job2 =
+        coordinator.getCompactionJob(TraceUtil.traceInfo(), creds, "R2DQ", "localhost:10242", eci2);
+    ExternalCompactionId prefetched = ExternalCompactionId.of(job2.getExternalCompactionId());
+    assertTrue(coordinator.getPrefetchedJobIds().contains(prefetched));
+    assertEquals("localhost:10242", coordinator.getRunning().get(prefetched).getCompactorAddress());
+    // the job handed out is replaced
+    while (coordinator.getPrefetchedJobCount("R2DQ") < 2) {
+      Thread.sleep(10);
+    }
+
+    // held jobs are not handed out while a tserver reports a job of higher priority
+    CompactionCoordinator.QUEUE_SUMMARIES.update(tsi,
+        List.of(new TCompactionQueueSummary("R2DQ", (short) 5)));
+    String eci3 = ExternalCompactionId.generate(UUID.randomUUID()).canonical();
+    TExternalCompactionJob job3 =
+        coordinator.getCompactionJob(TraceUtil.traceInfo(), creds, "R2DQ", "localhost:10243", eci3);
+    assertEquals(eci3, job3.getExternalCompactionId());
+
+    coordinator.resetInternals();
+    coordinator.close();
+  }
+
+  @Test
+  public void testCompactionJobsQueued() throws Exception {
+    PowerMock.resetAll();
+    PowerMock.suppress(PowerMock.constructor(AbstractServer.class));
+    PowerMock.suppress(PowerMock.methods(ThriftUtil.class, "returnClient"));
+
+    AccumuloConfiguration conf = PowerMock.createNiceMock(AccumuloConfiguration.class);
+    ServerContext context = PowerMock.createNiceMock(ServerContext.class);
+    TCredentials creds = PowerMock.createNiceMock(TCredentials.class);
+
+    CompactionFinalizer finalizer = PowerMock.createNiceMock(CompactionFinalizer.class);
+    LiveTServerSet tservers = PowerMock.createNiceMock(LiveTServerSet.class);
+    TServerInstance instance = PowerMock.createNiceMock(TServerInstance.class);
+    EasyMock.expect(tservers.find("localhost:9997")).andReturn(instance);
+
+    ServerAddress client = PowerMock.createNiceMock(ServerAddress.class);
+    HostAndPort address = HostAndPort.fromString("localhost:10240");
+    EasyMock.expect(client.getAddress()).andReturn(address).anyTimes();
+
+    TabletClientService.Client tsc = PowerMock.createNiceMock(TabletClientService.Client.class);
+    EasyMock.expect(tsc.getCompactionQueueInfo(EasyMock.anyObject(), EasyMock.anyObject()))
+        .andReturn(List.of(new TCompactionQueueSummary("R2DQ", (short) 1)));
+
+    AuditedSecurityOperation security = PowerMock.createNiceMock(AuditedSecurityOperation.class);
+    EasyMock.expect(security.canPerformSystemActions(creds)).andReturn(true);
+
+    PowerMock.replayAll();
+
+    TestCoordinator coordinator =
+        new TestCoordinator(conf, finalizer, tservers, client, tsc, context, security);
+    coordinator.resetInternals();
+    coordinator.compactionJobsQueued(TraceUtil.traceInfo(), creds, "localhost:9997");
+    // the tserver's summaries are gathered in the background
+    assertTrue(CompactionCoordinator.QUEUE_SUMMARIES.awaitTserver("R2DQ", 60, TimeUnit.SECONDS,
+        () -> false));
+    assertEquals(Set.of(instance), coordinator.getQueues().get("R2DQ").get((short) 1));
+    assertEquals(Set.of(QueueAndPriority.get("R2DQ", (short) 1)),
+        coordinator.getIndex().get(instance));
+
+    PowerMock.verifyAll();
+    coordinator.resetInternals();
+    coordinator.close();
+  }
+
+  @Test
+  public void testCompactionJobsQueuedOverThrift() throws Exception {
+    PowerMock.resetAll();
+    PowerMock.suppress(PowerMock.constructor(AbstractServer.class));
+    PowerMock.suppress(PowerMock.methods(ThriftUtil.class, "returnClient"));
+
+    AccumuloConfiguration conf = PowerMock.createNiceMock(AccumuloConfiguration.class);
+    ConfigurationCopy serverConf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    serverConf.set(Property.COMPACTION_COORDINATOR_CLIENTPORT, "0");
+    ServerContext context = PowerMock.createNiceMock(ServerContext.class);
+    EasyMock.expect(context.getConfiguration()).andReturn(serverConf).anyTimes();
+    EasyMock.expect(context.getThriftServerType()).andReturn(ThriftServerType.THREADPOOL)
+        .anyTimes();
+    EasyMock.expect(context.getClientTimeoutInMillis()).andReturn(10_000L).anyTimes();
+    TCredentials creds = new TCredentials("root", PasswordToken.class.getName(),
+        ByteBuffer.wrap("secret".getBytes(UTF_8)), "instance");
+
+    CompactionFinalizer finalizer = PowerMock.createNiceMock(CompactionFinalizer.class);
+    LiveTServerSet tservers = PowerMock.createNiceMock(LiveTServerSet.class);
+    TServerInstance instance = PowerMock.createNiceMock(TServerInstance.class);
+    EasyMock.expect(tservers.find("localhost:9997")).andReturn(instance);
+
+    ServerAddress client = PowerMock.createNiceMock(ServerAddress.class);
+    HostAndPort address = HostAndPort.fromString("localhost:10240");
+    EasyMock.expect(client.getAddress()).andReturn(address).anyTimes();
+
+    TabletClientService.Client tsc = PowerMock.createNiceMock(TabletClientService.Client.class);
+    EasyMock.expect(tsc.getCompactionQueueInfo(EasyMock.anyObject(), EasyMock.anyObject()))
+        .andReturn(List.of(new TCompactionQueueSummary("R2DQ", (short) 1)));
+
+    // the credentials arrive deserialized on the server side
+    AuditedSecurityOperation security = PowerMock.createNiceMock(AuditedSecurityOperation.class);
+    EasyMock.expect(security.canPerformSystemActions(creds)).andReturn(true);
+
+    PowerMock.replayAll();
+
+    TestCoordinator coordinator =
+        new TestCoordinator(conf, finalizer, tservers, client, tsc, context, security);
+    coordinator.resetInternals();
+
+    ServerAddress server =
+        TServerUtils.startServer(context, "localhost", Property.COMPACTION_COORDINATOR_CLIENTPORT,
+            new CompactionCoordinatorService.Processor<>(coordinator), "CompactionCoordinatorTest",
+            "Thrift Client Server", null, 1, null, null, null);
+    TTransport transport = null;
+    try {
+      transport = ThriftUtil.createClientTransport(server.getAddress(), 10_000, null, null);
+      CompactionCoordinatorService.Client coordinatorClient =
+          ThriftUtil.createClient(new CompactionCoordinatorService.Client.Factory(), transport);
+      coordinatorClient.compactionJobsQueued(TraceUtil.traceInfo(), creds, "localhost:9997");
+    } finally {
+      if (transport != null) {
+        transport.close();
+      }
+      server.getServer().stop();
+    }
+
+    assertTrue(CompactionCoordinator.QUEUE_SUMMARIES.awaitTserver("R2DQ", 60, TimeUnit.SECONDS,
+        () -> false));
+    assertEquals(Set.of(instance), coordinator.getQueues().get("R2DQ").get((short) 1));
+
+    PowerMock.verifyAll();
+    coordinator.resetInternals();
+    coordinator.close();
+  }
 }
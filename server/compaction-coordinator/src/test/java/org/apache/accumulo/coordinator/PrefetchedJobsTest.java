@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.coordinator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.metadata.schema.ExternalCompactionId;
+import org.apache.accumulo.core.tabletserver.thrift.TExternalCompactionJob;
+import org.junit.Test;
+
+public class PrefetchedJobsTest {
+
+  private static final KeyExtent EXTENT = new KeyExtent(TableId.of("1"), null, null);
+
+  private static TExternalCompactionJob job(ExternalCompactionId ecid) {
+    TExternalCompactionJob job = new TExternalCompactionJob();
+    job.setExternalCompactionId(ecid.canonical());
+    job.setExtent(EXTENT.toThrift());
+    return job;
+  }
+
+  @Test
+  public void testPriorityOrder() {
+    PrefetchedJobs jobs = new PrefetchedJobs(1, TimeUnit.MINUTES);
+    TExternalCompactionJob low = job(ExternalCompactionId.generate(UUID.randomUUID()));
+    TExternalCompactionJob high1 = job(ExternalCompactionId.generate(UUID.randomUUID()));
+    TExternalCompactionJob high2 = job(ExternalCompactionId.generate(UUID.randomUUID()));
+    jobs.add("q1", low, (short) 1, 0);
+    jobs.add("q1", high1, (short) 5, 1);
+    jobs.add("q1", high2, (short) 5, 2);
+    assertEquals(3, jobs.size("q1"));
+    assertEquals(0, jobs.size("q2"));
+    assertNull(jobs.take("q2", null));
+
+    // a tserver reported a job of higher priority than any held
+    assertNull(jobs.take("q1", (short) 6));
+    assertEquals(high1, jobs.take("q1", (short) 5));
+    assertEquals(high2, jobs.take("q1", null));
+    assertNull(jobs.take("q1", (short) 2));
+    assertEquals(low, jobs.take("q1", (short) 1));
+    assertEquals(0, jobs.size("q1"));
+  }
+
+  @Test
+  public void testExpiry() {
+    PrefetchedJobs jobs = new PrefetchedJobs(1, TimeUnit.MINUTES);
+    ExternalCompactionId old = ExternalCompactionId.generate(UUID.randomUUID());
+    ExternalCompactionId young = ExternalCompactionId.generate(UUID.randomUUID());
+    jobs.add("q1", job(old), (short) 1, 0);
+    jobs.add("q2", job(young), (short) 1, 100);
+
+    assertTrue(jobs.removeExpired(200, 150).isEmpty());
+    Map<ExternalCompactionId,KeyExtent> expired = jobs.removeExpired(100, 150);
+    assertEquals(Map.of(old, EXTENT), expired);
+    assertEquals(0, jobs.size("q1"));
+    assertEquals(1, jobs.size("q2"));
+  }
+
+  @Test
+  public void testIds() {
+    PrefetchedJobs jobs = new PrefetchedJobs(1, TimeUnit.MINUTES);
+    ExternalCompactionId reserving = ExternalCompactionId.generate(UUID.randomUUID());
+    ExternalCompactionId held = ExternalCompactionId.generate(UUID.randomUUID());
+    ExternalCompactionId handedOut = ExternalCompactionId.generate(UUID.randomUUID());
+    jobs.reserving(reserving);
+    jobs.add("q1", job(held), (short) 1, 0);
+    jobs.add("q1", job(handedOut), (short) 2, 0);
+    jobs.take("q1", null);
+    // a job is covered from before it is reserved until its compactor can report it
+    assertEquals(Set.of(reserving, held, handedOut), jobs.getIds());
+
+    jobs.clear();
+    assertTrue(jobs.getIds().isEmpty());
+    assertEquals(0, jobs.size("q1"));
+  }
+}
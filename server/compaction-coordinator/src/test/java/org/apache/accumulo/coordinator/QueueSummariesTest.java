@@ -19,11 +19,18 @@
 package org.apache.accumulo.coordinator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.coordinator.QueueSummaries.PrioTserver;
 import org.apache.accumulo.core.metadata.TServerInstance;
@@ -191,4 +198,42 @@ public class QueueSummariesTest {
       assertNull(queueSum.getNextTserver("q3"));
     }
   }
+
+  @Test
+  public void testAwaitTserver() throws Exception {
+    QueueSummaries queueSum = new QueueSummaries();
+
+    assertFalse(queueSum.awaitTserver("q1", 10, TimeUnit.MILLISECONDS, () -> false));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> waiter =
+          executor.submit(() -> queueSum.awaitTserver("q1", 60, TimeUnit.SECONDS, () -> false));
+      update(queueSum, "ts1", "q2", "5");
+      update(queueSum, "ts1", "q1", "5");
+      assertTrue(waiter.get(60, TimeUnit.SECONDS));
+      assertTrue(queueSum.awaitTserver("q1", 0, TimeUnit.MILLISECONDS, () -> false));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWakeWaiters() throws Exception {
+    QueueSummaries queueSum = new QueueSummaries();
+    AtomicBoolean stopped = new AtomicBoolean(false);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Boolean> waiter =
+          executor.submit(() -> queueSum.awaitTserver("q1", 60, TimeUnit.SECONDS, stopped::get));
+      // waking without stopping keeps the request waiting
+      queueSum.wakeWaiters();
+      stopped.set(true);
+      queueSum.wakeWaiters();
+      assertFalse(waiter.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
@@ -30,6 +30,7 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -149,6 +150,7 @@ public class Compactor extends AbstractServer implements MetricsProducer, Compac
   protected final AtomicReference<ExternalCompactionId> currentCompactionId =
       new AtomicReference<>();
   private final CompactionWatcher watcher;
+  private final ExecutorService localityGroupPool;
 
   private SecurityOperation security;
   private ServiceLock compactorLock;
@@ -165,6 +167,7 @@ public class Compactor extends AbstractServer implements MetricsProducer, Compac
     aconf = getConfiguration();
     setupSecurity();
     watcher = new CompactionWatcher(aconf);
+    localityGroupPool = createLocalityGroupPool(aconf);
     var schedExecutor = ThreadPools.createGeneralScheduledExecutorService(aconf);
     startGCLogger(schedExecutor);
     startCancelChecker(schedExecutor, TIME_BETWEEN_CANCEL_CHECKS);
@@ -177,12 +180,20 @@ public class Compactor extends AbstractServer implements MetricsProducer, Compac
     aconf = conf;
     setupSecurity();
     watcher = new CompactionWatcher(aconf);
+    localityGroupPool = createLocalityGroupPool(aconf);
     var schedExecutor = ThreadPools.createGeneralScheduledExecutorService(aconf);
     startGCLogger(schedExecutor);
     startCancelChecker(schedExecutor, TIME_BETWEEN_CANCEL_CHECKS);
     printStartupMsg();
   }
 
+  private static ExecutorService createLocalityGroupPool(AccumuloConfiguration conf) {
+    int threads = conf.getCount(Property.COMPACTOR_LG_THREADS);
+    return threads > 0
+        ? ThreadPools.createFixedThreadPool(threads, "compactor locality group compactor", true)
+        : null;
+  }
+
   @Override
   public void registerMetrics(MeterRegistry registry) {
     LongTaskTimer timer = LongTaskTimer.builder(METRICS_COMPACTOR_MAJC_STUCK)
@@ -584,7 +595,7 @@ public class Compactor extends AbstractServer implements MetricsProducer, Compac
           job.getIteratorSettings().getIterators()
               .forEach(tis -> iters.add(SystemIteratorUtil.toIteratorSetting(tis)));
 
-          ExtCEnv cenv = new ExtCEnv(JOB_HOLDER, queueName);
+          ExtCEnv cenv = new ExtCEnv(JOB_HOLDER, queueName, localityGroupPool);
           FileCompactor compactor = new FileCompactor(getContext(), extent, files, outputFile,
               job.isPropagateDeletes(), cenv, iters, tConfig);
 
@@ -681,15 +692,24 @@ public class Compactor extends AbstractServer implements MetricsProducer, Compac
 
         TExternalCompactionJob job;
         try {
+          long requested = System.currentTimeMillis();
           job = getNextJob(getNextId());
           if (!job.isSetExternalCompactionId()) {
             LOG.trace("No external compactions in queue {}", this.queueName);
-            UtilWaitThread.sleep(getWaitTimeBetweenCompactionChecks());
+            // the coordinator may have held the request waiting for a job, only sleep for the
+            // rest of the time between checks
+            long waited = System.currentTimeMillis() - requested;
+            long sleepTime = getWaitTimeBetweenCompactionChecks() - waited;
+            if (sleepTime > 0) {
+              UtilWaitThread.sleep(sleepTime);
+            }
             continue;
           }
           if (!job.getExternalCompactionId().equals(currentCompactionId.get().toString())) {
-            throw new IllegalStateException("Returned eci " + job.getExternalCompactionId()
-                + " does not match supplied eci " + currentCompactionId.get());
+            // the coordinator handed out a job it reserved before this request, under its own id
+            LOG.debug("Returned eci {} replaces supplied eci {}", job.getExternalCompactionId(),
+                currentCompactionId.get());
+            currentCompactionId.set(ExternalCompactionId.of(job.getExternalCompactionId()));
           }
         } catch (RetriesExceededException e2) {
           LOG.warn("Retries exceeded getting next job. Retrying...");
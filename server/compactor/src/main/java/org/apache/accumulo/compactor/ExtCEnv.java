@@ -18,6 +18,8 @@
  */
 package org.apache.accumulo.compactor;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.TableId;
@@ -41,6 +43,7 @@ public class ExtCEnv implements CompactionEnv {
   private final CompactionJobHolder jobHolder;
   private TExternalCompactionJob job;
   private String queueName;
+  private final ExecutorService localityGroupExecutor;
 
   public static class CompactorIterEnv extends TabletIteratorEnvironment {
 
@@ -58,10 +61,11 @@ public class ExtCEnv implements CompactionEnv {
     }
   }
 
-  ExtCEnv(CompactionJobHolder jobHolder, String queueName) {
+  ExtCEnv(CompactionJobHolder jobHolder, String queueName, ExecutorService localityGroupExecutor) {
     this.jobHolder = jobHolder;
     this.job = jobHolder.getJob();
     this.queueName = queueName;
+    this.localityGroupExecutor = localityGroupExecutor;
   }
 
   @Override
@@ -92,6 +96,11 @@ public class ExtCEnv implements CompactionEnv {
         CompactionKind.valueOf(job.getKind().name()), queueName);
   }
 
+  @Override
+  public ExecutorService getLocalityGroupExecutor() {
+    return localityGroupExecutor;
+  }
+
   @Override
   public SortedKeyValueIterator<Key,Value> getMinCIterator() {
     throw new UnsupportedOperationException();
@@ -158,6 +158,51 @@ public class GarbageCollectWriteAheadLogsTest {
     EasyMock.verify(context, marker, tserverSet, fs);
   }
 
+  @Test
+  public void testKeepOpenLogsOfConcurrentStreams() throws Exception {
+    ServerContext context = EasyMock.createMock(ServerContext.class);
+    VolumeManager fs = EasyMock.createMock(VolumeManager.class);
+    WalStateManager marker = EasyMock.createMock(WalStateManager.class);
+    LiveTServerSet tserverSet = EasyMock.createMock(LiveTServerSet.class);
+
+    GCStatus status = new GCStatus(null, null, null, new GcCycleStats());
+
+    // a server writing to several WAL streams has an open log per stream
+    UUID open1 = UUID.randomUUID();
+    UUID open2 = UUID.randomUUID();
+    Path open1Path = new Path("hdfs://localhost:9000/accumulo/wal/localhost+1234/" + open1);
+    Path open2Path = new Path("hdfs://localhost:9000/accumulo/wal/localhost+1234/" + open2);
+
+    tserverSet.scanServers();
+    EasyMock.expectLastCall();
+    EasyMock.expect(tserverSet.getCurrentServers()).andReturn(Collections.singleton(server1));
+
+    EasyMock.expect(marker.getAllMarkers())
+        .andReturn(Collections.singletonMap(server1, List.of(id, open1, open2))).once();
+    EasyMock.expect(marker.state(server1, id)).andReturn(new Pair<>(WalState.UNREFERENCED, path));
+    EasyMock.expect(marker.state(server1, open1)).andReturn(new Pair<>(WalState.OPEN, open1Path));
+    EasyMock.expect(marker.state(server1, open2)).andReturn(new Pair<>(WalState.OPEN, open2Path));
+    EasyMock.expect(fs.deleteRecursively(path)).andReturn(true).once();
+    marker.removeWalMarker(server1, id);
+    EasyMock.expectLastCall().once();
+    EasyMock.replay(context, fs, marker, tserverSet);
+    GarbageCollectWriteAheadLogs gc = new GarbageCollectWriteAheadLogs(context, fs, false,
+        tserverSet, marker, tabletOnServer1List) {
+      @Override
+      @Deprecated
+      protected int removeReplicationEntries(Map<UUID,TServerInstance> candidates) {
+        return 0;
+      }
+
+      @Override
+      protected Map<UUID,Path> getSortedWALogs() {
+        return Collections.emptyMap();
+      }
+    };
+    gc.collect(status);
+    EasyMock.verify(context, fs, marker, tserverSet);
+  }
+
   @Test
   public void deleteUnreferenceLogOnDeadServer() throws Exception {
     ServerContext context = EasyMock.createMock(ServerContext.class);
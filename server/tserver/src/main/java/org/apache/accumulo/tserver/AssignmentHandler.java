@@ -189,6 +189,7 @@ class AssignmentHandler implements Runnable {
           server.recentlyUnloadedCache.remove(tablet.getExtent());
         }
       }
+      server.resourceManager.warmUpCache(extent, tablet.getDatafiles().keySet());
       tablet = null; // release this reference
       successful = true;
     } catch (Exception e) {
@@ -88,6 +88,7 @@ public class InMemoryMap {
   private volatile String memDumpFile = null;
   private final String memDumpDir;
   private final String mapType;
+  private final boolean concurrentWrites;
 
   private Map<String,Set<ByteSequence>> lggroups;
 
@@ -108,6 +109,8 @@ public class InMemoryMap {
   public static final String TYPE_DEFAULT_MAP = "DefaultMap";
   public static final String TYPE_LOCALITY_GROUP_MAP = "LocalityGroupMap";
   public static final String TYPE_LOCALITY_GROUP_MAP_NATIVE = "LocalityGroupMap with native";
+  public static final String TYPE_OFF_HEAP_MAP_WRAPPER = "OffHeapMapWrapper";
+  public static final String TYPE_LOCALITY_GROUP_MAP_OFF_HEAP = "LocalityGroupMap with off heap";
 
   private AtomicReference<Pair<SamplerConfigurationImpl,Sampler>> samplerRef =
       new AtomicReference<>(null);
@@ -132,6 +135,8 @@ public class InMemoryMap {
   public InMemoryMap(AccumuloConfiguration config, ServerContext context, TableId tableId) {
 
     boolean useNativeMap = config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED);
+    boolean useOffHeapMap = config.getBoolean(Property.TSERV_OFFHEAP_MAP_ENABLED);
+    this.concurrentWrites = config.getBoolean(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES);
 
     this.memDumpDir = config.get(Property.TSERV_MEMDUMP_DIR);
     this.lggroups = LocalityGroupUtil.getLocalityGroupsIgnoringErrors(config, tableId);
@@ -143,19 +148,29 @@ public class InMemoryMap {
     SimpleMap sampleMap;
 
     if (lggroups.isEmpty()) {
-      allMap = newMap(useNativeMap);
-      sampleMap = newMap(useNativeMap);
-      mapType = useNativeMap ? TYPE_NATIVE_MAP_WRAPPER : TYPE_DEFAULT_MAP;
+      allMap = newMap(useNativeMap, useOffHeapMap);
+      sampleMap = newMap(useNativeMap, useOffHeapMap);
+      if (useNativeMap)
+        mapType = TYPE_NATIVE_MAP_WRAPPER;
+      else if (useOffHeapMap)
+        mapType = TYPE_OFF_HEAP_MAP_WRAPPER;
+      else
+        mapType = TYPE_DEFAULT_MAP;
     } else {
-      allMap = new LocalityGroupMap(lggroups, useNativeMap);
-      sampleMap = new LocalityGroupMap(lggroups, useNativeMap);
-      mapType = useNativeMap ? TYPE_LOCALITY_GROUP_MAP_NATIVE : TYPE_LOCALITY_GROUP_MAP;
+      allMap = new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap, concurrentWrites);
+      sampleMap = new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap, concurrentWrites);
+      if (useNativeMap)
+        mapType = TYPE_LOCALITY_GROUP_MAP_NATIVE;
+      else if (useOffHeapMap)
+        mapType = TYPE_LOCALITY_GROUP_MAP_OFF_HEAP;
+      else
+        mapType = TYPE_LOCALITY_GROUP_MAP;
     }
 
     map = new SampleMap(allMap, sampleMap);
   }
 
-  private static SimpleMap newMap(boolean useNativeMap) {
+  private static SimpleMap newMap(boolean useNativeMap, boolean useOffHeapMap) {
     if (useNativeMap) {
       try {
         return new NativeMapWrapper();
@@ -164,16 +179,22 @@ public class InMemoryMap {
       }
     }
 
+    if (useOffHeapMap) {
+      return new OffHeapMapWrapper();
+    }
+
     return new DefaultMap();
   }
 
   /**
    * Description of the type of SimpleMap that is created.
    * <p>
-   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP or
-   * TYPE_NATIVE_MAP_WRAPPER. If there is one more locality groups, then the InMemoryMap has an
-   * array for simple maps that either contain either TYPE_LOCALITY_GROUP_MAP which contains
-   * DefaultMaps or TYPE_LOCALITY_GROUP_MAP_NATIVE which contains NativeMapWrappers.
+   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP,
+   * TYPE_NATIVE_MAP_WRAPPER or TYPE_OFF_HEAP_MAP_WRAPPER. If there is one more locality groups,
+   * then the InMemoryMap has an array for simple maps that either contain either
+   * TYPE_LOCALITY_GROUP_MAP which contains DefaultMaps, TYPE_LOCALITY_GROUP_MAP_NATIVE which
+   * contains NativeMapWrappers or TYPE_LOCALITY_GROUP_MAP_OFF_HEAP which contains
+   * OffHeapMapWrappers.
    *
    * @return String that describes the Map type
    */
@@ -284,14 +305,17 @@ public class InMemoryMap {
     private SimpleMap[] maps;
     private Partitioner partitioner;
     private PreAllocatedArray<List<Mutation>> partitioned;
+    private final boolean concurrentWrites;
 
-    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap) {
+    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap,
+        boolean useOffHeapMap, boolean concurrentWrites) {
       this.groupFams = new PreAllocatedArray<>(groups.size());
       this.maps = new SimpleMap[groups.size() + 1];
-      this.partitioned = new PreAllocatedArray<>(groups.size() + 1);
+      this.partitioned = newPartitionLists(groups.size() + 1);
+      this.concurrentWrites = concurrentWrites;
 
       for (int i = 0; i < maps.length; i++) {
-        maps[i] = newMap(useNativeMap);
+        maps[i] = newMap(useNativeMap, useOffHeapMap);
       }
 
       int count = 0;
@@ -303,10 +327,14 @@ public class InMemoryMap {
       }
 
       partitioner = new LocalityGroupUtil.Partitioner(this.groupFams);
+    }
 
-      for (int i = 0; i < partitioned.length; i++) {
-        partitioned.set(i, new ArrayList<>());
+    private static PreAllocatedArray<List<Mutation>> newPartitionLists(int size) {
+      PreAllocatedArray<List<Mutation>> lists = new PreAllocatedArray<>(size);
+      for (int i = 0; i < lists.length; i++) {
+        lists.set(i, new ArrayList<>());
       }
+      return lists;
     }
 
     @Override
@@ -348,24 +376,34 @@ public class InMemoryMap {
     }
 
     @Override
-    public synchronized void mutate(List<Mutation> mutations, int kvCount) {
-      // this method is synchronized because it reuses objects to avoid allocation,
-      // currently, the method that calls this is synchronized so there is no
-      // loss in parallelism.... synchronization was added here for future proofing
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      if (concurrentWrites) {
+        // writers may be in here at the same time, so each one partitions into its own lists
+        mutate(mutations, kvCount, newPartitionLists(maps.length));
+      } else {
+        // synchronized because it reuses objects to avoid allocation, the method that calls this
+        // is synchronized when writes are not concurrent so there is no loss in parallelism
+        synchronized (this) {
+          mutate(mutations, kvCount, partitioned);
+        }
+      }
+    }
 
+    private void mutate(List<Mutation> mutations, int kvCount,
+        PreAllocatedArray<List<Mutation>> parts) {
       try {
-        partitioner.partition(mutations, partitioned);
+        partitioner.partition(mutations, parts);
 
-        for (int i = 0; i < partitioned.length; i++) {
-          if (!partitioned.get(i).isEmpty()) {
-            maps[i].mutate(partitioned.get(i), kvCount);
-            for (Mutation m : partitioned.get(i))
+        for (int i = 0; i < parts.length; i++) {
+          if (!parts.get(i).isEmpty()) {
+            maps[i].mutate(parts.get(i), kvCount);
+            for (Mutation m : parts.get(i))
               kvCount += m.getUpdates().size();
           }
         }
       } finally {
         // clear immediately so mutations can be garbage collected
-        for (List<Mutation> list : partitioned) {
+        for (List<Mutation> list : parts) {
           list.clear();
         }
       }
@@ -470,6 +508,41 @@ public class InMemoryMap {
     }
   }
 
+  private static class OffHeapMapWrapper implements SimpleMap {
+    private OffHeapMap offHeapMap;
+
+    OffHeapMapWrapper() {
+      offHeapMap = new OffHeapMap();
+    }
+
+    @Override
+    public int size() {
+      return offHeapMap.size();
+    }
+
+    @Override
+    public InterruptibleIterator skvIterator(SamplerConfigurationImpl samplerConfig) {
+      if (samplerConfig != null)
+        throw new SampleNotPresentException();
+      return offHeapMap.skvIterator();
+    }
+
+    @Override
+    public void delete() {
+      offHeapMap.delete();
+    }
+
+    @Override
+    public long getMemoryUsed() {
+      return offHeapMap.getMemoryUsed();
+    }
+
+    @Override
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      offHeapMap.mutate(mutations, kvCount);
+    }
+  }
+
   private AtomicInteger nextKVCount = new AtomicInteger(1);
   private AtomicInteger kvCount = new AtomicInteger(0);
 
@@ -480,6 +553,11 @@ public class InMemoryMap {
    *
    */
   public void mutate(List<Mutation> mutations, int numKVs) {
+    if (concurrentWrites) {
+      mutateConcurrently(mutations, numKVs);
+      return;
+    }
+
     // Can not update mutationCount while writes that started before
     // are in progress, this would cause partial mutations to be seen.
     // Also, can not continue until mutation count is updated, because
@@ -497,6 +575,36 @@ public class InMemoryMap {
     }
   }
 
+  /**
+   * Applies changes without holding the write lock while the map is updated. Each writer reserves a
+   * range of kv counts and inserts into the map in parallel with other writers. Writers then
+   * publish their kv count in the order their ranges were reserved, so a reader never sees a
+   * mutation unless all mutations with a lower kv count are also complete.
+   */
+  private void mutateConcurrently(List<Mutation> mutations, int numKVs) {
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      map.mutate(mutations, kv);
+    } finally {
+      boolean interrupted = false;
+      synchronized (writeSerializer) {
+        while (kvCount.get() != kv - 1) {
+          try {
+            writeSerializer.wait();
+          } catch (InterruptedException e) {
+            // must publish even when interrupted or writers that came after this would hang
+            interrupted = true;
+          }
+        }
+        kvCount.set(kv + numKVs - 1);
+        writeSerializer.notifyAll();
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   /**
    * Returns a long representing the size of the InMemoryMap
    *
@@ -0,0 +1,704 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.IterationInterruptedException;
+import org.apache.accumulo.server.data.ServerMutation;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * This class stores data outside of the java heap in direct byte buffers. Like {@link NativeMap}
+ * this allows us to store more in memory and avoid pauses caused by Java GC, but it is written in
+ * pure java so no native library has to be built and deployed.
+ *
+ * <p>
+ * Entries are appended to a sequence of arena pages and linked into a skip list whose nodes live in
+ * the same pages, so no java objects are created per entry. Nodes in the same row share a single
+ * copy of the row bytes. One thread may update the map at a time while any number of threads read
+ * it. A node is fully written before it is linked into the list and links are published with
+ * release semantics, so readers never observe partially written entries.
+ *
+ * <p>
+ * The memory reported by {@link #getMemoryUsed()} is the exact number of bytes allocated for arena
+ * pages. When the map is deleted its pages are returned to a pool shared by all maps and reused by
+ * new maps, so direct memory is recycled when maps are deleted instead of whenever the garbage
+ * collector gets to the buffers. Like {@link NativeMap}, a map must not be read after it is
+ * deleted.
+ */
+public class OffHeapMap {
+
+  @VisibleForTesting
+  static final int MAX_LEVEL = 16;
+
+  private static final int MIN_PAGE_SIZE = 1 << 16;
+  private static final int DEFAULT_MAX_PAGE_SIZE = 1 << 22;
+
+  private static final long NULL = 0;
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final VarHandle ARRAY_LONGS =
+      MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+  private static final PagePool PAGE_POOL = new PagePool();
+
+  // node layout, nodes are always 8 byte aligned so that links can be accessed atomically
+  private static final int LEVEL_OFF = 0;
+  private static final int KVCOUNT_OFF = 4;
+  private static final int NEXT_OFF = 8;
+
+  // entry layout, relative to the end of a node's links
+  private static final int TS_OFF = 0;
+  private static final int ROW_ADDR_OFF = 8;
+  private static final int ROW_LEN_OFF = 16;
+  private static final int CF_LEN_OFF = 20;
+  private static final int CQ_LEN_OFF = 24;
+  private static final int CV_LEN_OFF = 28;
+  private static final int VAL_LEN_OFF = 32;
+  private static final int DEL_OFF = 36;
+  private static final int ENTRY_HEADER_LEN = 37;
+
+  private final int maxPageSize;
+
+  private volatile ByteBuffer[] pages;
+  private volatile long memoryUsed = 0;
+  private volatile int size = 0;
+
+  // the following are only accessed by the thread holding the lock on this object
+  private ByteBuffer currentPage;
+  // a view of the current page whose position is used for bulk writes, readers only use absolute
+  // reads of the pages
+  private ByteBuffer currentPageWriter;
+  private int pageOffset;
+  private int nextPageSize = MIN_PAGE_SIZE;
+  private final long head;
+  private final long[] preds = new long[MAX_LEVEL];
+  private final Target insertTarget = new Target();
+  private final ServerMutation.UpdateReader updateReader = new ServerMutation.UpdateReader();
+
+  public OffHeapMap() {
+    this(DEFAULT_MAX_PAGE_SIZE);
+  }
+
+  @VisibleForTesting
+  OffHeapMap(int maxPageSize) {
+    this.maxPageSize = Math.max(MIN_PAGE_SIZE, maxPageSize);
+    this.pages = new ByteBuffer[0];
+    newPage(0);
+    // reserve address zero so it can be used as the null link
+    pageOffset = 8;
+    head = allocate(NEXT_OFF + 8 * MAX_LEVEL);
+    ByteBuffer b = buffer(head);
+    b.putInt(offset(head) + LEVEL_OFF, MAX_LEVEL);
+    b.putInt(offset(head) + KVCOUNT_OFF, Integer.MAX_VALUE);
+    // a recycled page is not zeroed, every other node has all of its links written when inserted
+    for (int i = 0; i < MAX_LEVEL; i++) {
+      b.putLong(offset(head) + NEXT_OFF + 8 * i, NULL);
+    }
+  }
+
+  /**
+   * Sets the number of bytes of pages from deleted maps that are kept for reuse. Pages freed beyond
+   * this are left to the garbage collector. Tablet servers set this to the maximum size of the in
+   * memory maps.
+   */
+  public static void setMaxPooledMemory(long maxPooledBytes) {
+    PAGE_POOL.setMaxPooledBytes(maxPooledBytes);
+  }
+
+  @VisibleForTesting
+  static long getPooledMemory() {
+    return PAGE_POOL.getPooledBytes();
+  }
+
+  /**
+   * Pages of deleted maps, grouped by size. Maps allocate pages in power of two sizes between
+   * {@link #MIN_PAGE_SIZE} and {@link #DEFAULT_MAX_PAGE_SIZE}, only those sizes are kept.
+   */
+  private static class PagePool {
+    private final Map<Integer,ArrayDeque<ByteBuffer>> freePages = new HashMap<>();
+    private long pooledBytes = 0;
+    private long maxPooledBytes = 0;
+
+    synchronized ByteBuffer take(int size) {
+      ArrayDeque<ByteBuffer> pagesOfSize = freePages.get(size);
+      if (pagesOfSize == null || pagesOfSize.isEmpty()) {
+        return null;
+      }
+      pooledBytes -= size;
+      return pagesOfSize.pop();
+    }
+
+    synchronized void give(ByteBuffer page) {
+      int size = page.capacity();
+      if (Integer.bitCount(size) != 1 || size < MIN_PAGE_SIZE || size > DEFAULT_MAX_PAGE_SIZE
+          || pooledBytes + size > maxPooledBytes) {
+        return;
+      }
+      pooledBytes += size;
+      freePages.computeIfAbsent(size, k -> new ArrayDeque<>()).push(page);
+    }
+
+    synchronized void setMaxPooledBytes(long maxPooledBytes) {
+      this.maxPooledBytes = maxPooledBytes;
+      // drop the largest pages first until under the new limit
+      while (pooledBytes > maxPooledBytes) {
+        int largest = freePages.entrySet().stream().filter(e -> !e.getValue().isEmpty())
+            .mapToInt(Map.Entry::getKey).max().getAsInt();
+        freePages.get(largest).pop();
+        pooledBytes -= largest;
+      }
+    }
+
+    synchronized long getPooledBytes() {
+      return pooledBytes;
+    }
+  }
+
+  private static int pageIndex(long addr) {
+    return (int) (addr >>> 32);
+  }
+
+  private static int offset(long addr) {
+    return (int) addr;
+  }
+
+  private ByteBuffer buffer(long addr) {
+    ByteBuffer[] p = pages;
+    if (p == null)
+      throw new IllegalStateException("Off heap map was deleted");
+    return p[pageIndex(addr)];
+  }
+
+  private void newPage(int minSize) {
+    int pageSize = Math.max(nextPageSize, minSize);
+    nextPageSize = Math.min(maxPageSize, nextPageSize * 2);
+
+    ByteBuffer[] newPages = Arrays.copyOf(pages, pages.length + 1);
+    currentPage = PAGE_POOL.take(pageSize);
+    if (currentPage == null) {
+      currentPage = ByteBuffer.allocateDirect(pageSize);
+    }
+    currentPageWriter = currentPage.duplicate();
+    newPages[pages.length] = currentPage;
+    pageOffset = 0;
+    memoryUsed += pageSize;
+    pages = newPages;
+  }
+
+  private long allocate(int len) {
+    int aligned = (len + 7) & ~7;
+    if (pageOffset + aligned > currentPage.capacity()) {
+      newPage(aligned);
+    }
+    long addr = ((long) (pages.length - 1) << 32) | pageOffset;
+    pageOffset += aligned;
+    return addr;
+  }
+
+  private long next(long node, int level) {
+    return (long) LONGS.getAcquire(buffer(node), offset(node) + NEXT_OFF + 8 * level);
+  }
+
+  private static int level(ByteBuffer b, int nodeOffset) {
+    return b.getInt(nodeOffset + LEVEL_OFF);
+  }
+
+  private static int entryOffset(ByteBuffer b, int nodeOffset) {
+    return nodeOffset + NEXT_OFF + 8 * level(b, nodeOffset);
+  }
+
+  /**
+   * The fields of a key that is being searched for or inserted, extracted once so that comparisons
+   * against many nodes do not allocate. The column fields are slices of arrays that may be shared
+   * with the source of the key, so a target used for inserts can be reset for each update.
+   */
+  private static class Target {
+    byte[] row;
+    byte[] cf;
+    int cfOffset;
+    int cfLength;
+    byte[] cq;
+    int cqOffset;
+    int cqLength;
+    byte[] cv;
+    int cvOffset;
+    int cvLength;
+    long ts;
+    boolean deleted;
+    boolean memKey;
+    int kvCount;
+
+    Target set(byte[] row, ColumnUpdate cvp, int kvCount) {
+      this.row = row;
+      this.cf = cvp.getColumnFamily();
+      this.cfOffset = 0;
+      this.cfLength = cf.length;
+      this.cq = cvp.getColumnQualifier();
+      this.cqOffset = 0;
+      this.cqLength = cq.length;
+      this.cv = cvp.getColumnVisibility();
+      this.cvOffset = 0;
+      this.cvLength = cv.length;
+      this.ts = cvp.getTimestamp();
+      this.deleted = cvp.isDeleted();
+      this.memKey = true;
+      this.kvCount = kvCount;
+      return this;
+    }
+
+    Target set(byte[] row, ServerMutation.UpdateReader reader, int kvCount) {
+      this.row = row;
+      this.cf = this.cq = this.cv = reader.getData();
+      this.cfOffset = reader.getColumnFamilyOffset();
+      this.cfLength = reader.getColumnFamilyLength();
+      this.cqOffset = reader.getColumnQualifierOffset();
+      this.cqLength = reader.getColumnQualifierLength();
+      this.cvOffset = reader.getColumnVisibilityOffset();
+      this.cvLength = reader.getColumnVisibilityLength();
+      this.ts = reader.getTimestamp();
+      this.deleted = reader.isDeleted();
+      this.memKey = true;
+      this.kvCount = kvCount;
+      return this;
+    }
+
+    static Target of(Key key) {
+      Target t = new Target();
+      t.row = toArray(key.getRowData());
+      t.cf = toArray(key.getColumnFamilyData());
+      t.cfLength = t.cf.length;
+      t.cq = toArray(key.getColumnQualifierData());
+      t.cqLength = t.cq.length;
+      t.cv = toArray(key.getColumnVisibilityData());
+      t.cvLength = t.cv.length;
+      t.ts = key.getTimestamp();
+      t.deleted = key.isDeleted();
+      t.memKey = key instanceof MemKey;
+      t.kvCount = t.memKey ? ((MemKey) key).getKVCount() : 0;
+      return t;
+    }
+
+    private static byte[] toArray(ByteSequence bs) {
+      if (bs.isBackedByArray() && bs.offset() == 0 && bs.getBackingArray().length == bs.length())
+        return bs.getBackingArray();
+      return bs.toArray();
+    }
+  }
+
+  /**
+   * Compares unsigned bytes eight at a time, reading big endian longs from both sides so that the
+   * first differing long orders the same way as its first differing byte.
+   */
+  private static int compareBytes(ByteBuffer b, int off, int len, byte[] other, int otherOffset,
+      int otherLength) {
+    int n = Math.min(len, otherLength);
+    int i = 0;
+    for (; i + Long.BYTES <= n; i += Long.BYTES) {
+      long l1 = b.getLong(off + i);
+      long l2 = (long) ARRAY_LONGS.get(other, otherOffset + i);
+      if (l1 != l2)
+        return Long.compareUnsigned(l1, l2);
+    }
+    for (; i < n; i++) {
+      int cmp = (b.get(off + i) & 0xff) - (other[otherOffset + i] & 0xff);
+      if (cmp != 0)
+        return cmp;
+    }
+    return len - otherLength;
+  }
+
+  private long rowAddr(long node) {
+    ByteBuffer b = buffer(node);
+    return b.getLong(entryOffset(b, offset(node)) + ROW_ADDR_OFF);
+  }
+
+  private boolean rowEquals(long node, byte[] row) {
+    ByteBuffer b = buffer(node);
+    int e = entryOffset(b, offset(node));
+    long rowAddr = b.getLong(e + ROW_ADDR_OFF);
+    int rowLen = b.getInt(e + ROW_LEN_OFF);
+    return rowLen == row.length
+        && compareBytes(buffer(rowAddr), offset(rowAddr), rowLen, row, 0, row.length) == 0;
+  }
+
+  /**
+   * Compares the key stored in a node with a target key, ordering keys the same way as
+   * {@link MemKeyComparator}.
+   */
+  private int compare(long node, Target t) {
+    ByteBuffer b = buffer(node);
+    int nodeOffset = offset(node);
+    int e = entryOffset(b, nodeOffset);
+
+    long rowAddr = b.getLong(e + ROW_ADDR_OFF);
+    int cmp = compareBytes(buffer(rowAddr), offset(rowAddr), b.getInt(e + ROW_LEN_OFF), t.row, 0,
+        t.row.length);
+    if (cmp != 0)
+      return cmp;
+
+    int pos = e + ENTRY_HEADER_LEN;
+    int len = b.getInt(e + CF_LEN_OFF);
+    cmp = compareBytes(b, pos, len, t.cf, t.cfOffset, t.cfLength);
+    if (cmp != 0)
+      return cmp;
+
+    pos += len;
+    len = b.getInt(e + CQ_LEN_OFF);
+    cmp = compareBytes(b, pos, len, t.cq, t.cqOffset, t.cqLength);
+    if (cmp != 0)
+      return cmp;
+
+    pos += len;
+    len = b.getInt(e + CV_LEN_OFF);
+    cmp = compareBytes(b, pos, len, t.cv, t.cvOffset, t.cvLength);
+    if (cmp != 0)
+      return cmp;
+
+    cmp = Long.compare(t.ts, b.getLong(e + TS_OFF));
+    if (cmp != 0)
+      return cmp;
+
+    if (b.get(e + DEL_OFF) != 0)
+      cmp = t.deleted ? 0 : -1;
+    else
+      cmp = t.deleted ? 1 : 0;
+    if (cmp != 0)
+      return cmp;
+
+    if (t.memKey)
+      return t.kvCount - b.getInt(nodeOffset + KVCOUNT_OFF);
+    else
+      return 1;
+  }
+
+  /**
+   * Finds the last node at each level whose key is less than the target. The returned node is the
+   * predecessor at level zero.
+   */
+  private long findPredecessors(Target t, long[] predecessors) {
+    long x = head;
+    for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+      long nx = next(x, level);
+      while (nx != NULL && compare(nx, t) < 0) {
+        x = nx;
+        nx = next(x, level);
+      }
+      if (predecessors != null)
+        predecessors[level] = x;
+    }
+    return x;
+  }
+
+  private static int randomLevel() {
+    int r = ThreadLocalRandom.current().nextInt();
+    int level = 1;
+    while ((r & 3) == 0 && level < MAX_LEVEL) {
+      level++;
+      r >>>= 2;
+    }
+    return level;
+  }
+
+  private void put(Target t, byte[] value, int valueOffset, int valueLength) {
+    findPredecessors(t, preds);
+
+    // share the row bytes with an adjacent node in the same row
+    long rowAddr = NULL;
+    long succ = next(preds[0], 0);
+    if (preds[0] != head && rowEquals(preds[0], t.row)) {
+      rowAddr = rowAddr(preds[0]);
+    } else if (succ != NULL && rowEquals(succ, t.row)) {
+      rowAddr = rowAddr(succ);
+    }
+
+    int level = randomLevel();
+    int entryStart = NEXT_OFF + 8 * level;
+    int dataLen = t.cfLength + t.cqLength + t.cvLength + valueLength;
+    int len = entryStart + ENTRY_HEADER_LEN + dataLen + (rowAddr == NULL ? t.row.length : 0);
+    long node = allocate(len);
+
+    ByteBuffer b = buffer(node);
+    int nodeOffset = offset(node);
+    int e = nodeOffset + entryStart;
+
+    b.putInt(nodeOffset + LEVEL_OFF, level);
+    b.putInt(nodeOffset + KVCOUNT_OFF, t.kvCount);
+    for (int i = 0; i < level; i++) {
+      b.putLong(nodeOffset + NEXT_OFF + 8 * i, next(preds[i], i));
+    }
+
+    // new nodes are always allocated in the current page
+    ByteBuffer w = currentPageWriter;
+    w.position(e + ENTRY_HEADER_LEN);
+    w.put(t.cf, t.cfOffset, t.cfLength);
+    w.put(t.cq, t.cqOffset, t.cqLength);
+    w.put(t.cv, t.cvOffset, t.cvLength);
+    w.put(value, valueOffset, valueLength);
+    if (rowAddr == NULL) {
+      rowAddr = node + (w.position() - nodeOffset);
+      w.put(t.row, 0, t.row.length);
+    }
+
+    b.putLong(e + TS_OFF, t.ts);
+    b.putLong(e + ROW_ADDR_OFF, rowAddr);
+    b.putInt(e + ROW_LEN_OFF, t.row.length);
+    b.putInt(e + CF_LEN_OFF, t.cfLength);
+    b.putInt(e + CQ_LEN_OFF, t.cqLength);
+    b.putInt(e + CV_LEN_OFF, t.cvLength);
+    b.putInt(e + VAL_LEN_OFF, valueLength);
+    b.put(e + DEL_OFF, (byte) (t.deleted ? 1 : 0));
+
+    // link the node in from the bottom up, once linked at level zero it is visible to readers
+    for (int i = 0; i < level; i++) {
+      LONGS.setRelease(buffer(preds[i]), offset(preds[i]) + NEXT_OFF + 8 * i, node);
+    }
+
+    size++;
+  }
+
+  public synchronized void put(Key key, Value value) {
+    if (!(key instanceof MemKey))
+      key = new MemKey(key, Integer.MAX_VALUE);
+    byte[] v = value.get();
+    put(Target.of(key), v, 0, v.length);
+  }
+
+  public synchronized void mutate(List<Mutation> mutations, int kvCount) {
+    if (pages == null)
+      throw new IllegalStateException("Off heap map was deleted");
+
+    for (Mutation m : mutations) {
+      byte[] row = m.getRow();
+      if (updateReader.reset(m)) {
+        // copy straight from the serialized mutation, without creating a ColumnUpdate per update
+        while (updateReader.next()) {
+          put(insertTarget.set(row, updateReader, kvCount++), updateReader.getValueData(),
+              updateReader.getValueOffset(), updateReader.getValueLength());
+        }
+      } else {
+        for (ColumnUpdate cvp : m.getUpdates()) {
+          byte[] val = cvp.getValue();
+          put(insertTarget.set(row, cvp, kvCount++), val, 0, val.length);
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the exact number of off heap bytes allocated by this map
+   */
+  public long getMemoryUsed() {
+    return memoryUsed;
+  }
+
+  public synchronized void delete() {
+    ByteBuffer[] deleted = pages;
+    if (deleted == null)
+      throw new IllegalStateException("Double delete of off heap map");
+    pages = null;
+    currentPage = null;
+    currentPageWriter = null;
+    for (ByteBuffer page : deleted) {
+      PAGE_POOL.give(page);
+    }
+  }
+
+  public InterruptibleIterator skvIterator() {
+    if (pages == null)
+      throw new IllegalStateException("Off heap map was deleted");
+    return new OffHeapIterator(this, null);
+  }
+
+  private static class OffHeapIterator implements InterruptibleIterator {
+
+    private final OffHeapMap map;
+    private Range range = new Range();
+    private AtomicBoolean interruptFlag;
+    private int interruptCheckCount = 0;
+
+    private long node;
+    private Key topKey;
+    private Value topValue;
+
+    // consecutive keys in a row share their row array, like the nodes share their row bytes
+    private long lastRowAddr = NULL;
+    private byte[] lastRow;
+
+    // views of the map's pages whose positions are used for bulk reads, created as needed
+    private ByteBuffer[] readers = new ByteBuffer[0];
+
+    private OffHeapIterator(OffHeapMap map, AtomicBoolean interruptFlag) {
+      this.map = map;
+      this.interruptFlag = interruptFlag;
+      setNode(map.next(map.head, 0));
+    }
+
+    private void setNode(long node) {
+      this.node = node;
+      this.topKey = null;
+      this.topValue = null;
+      if (node != NULL) {
+        decode();
+        if (range.afterEndKey(topKey)) {
+          this.node = NULL;
+          this.topKey = null;
+          this.topValue = null;
+        }
+      }
+    }
+
+    private ByteBuffer reader(long addr) {
+      int index = pageIndex(addr);
+      if (index >= readers.length) {
+        readers = Arrays.copyOf(readers, index + 1);
+      }
+      if (readers[index] == null) {
+        readers[index] = map.buffer(addr).duplicate();
+      }
+      return readers[index];
+    }
+
+    private static byte[] copy(ByteBuffer reader, int len) {
+      byte[] data = new byte[len];
+      reader.get(data);
+      return data;
+    }
+
+    private void decode() {
+      ByteBuffer b = map.buffer(node);
+      int nodeOffset = offset(node);
+      int e = entryOffset(b, nodeOffset);
+
+      long rowAddr = b.getLong(e + ROW_ADDR_OFF);
+      if (rowAddr != lastRowAddr) {
+        ByteBuffer rowReader = reader(rowAddr);
+        rowReader.position(offset(rowAddr));
+        lastRow = copy(rowReader, b.getInt(e + ROW_LEN_OFF));
+        lastRowAddr = rowAddr;
+      }
+
+      ByteBuffer r = reader(node);
+      r.position(e + ENTRY_HEADER_LEN);
+      byte[] cf = copy(r, b.getInt(e + CF_LEN_OFF));
+      byte[] cq = copy(r, b.getInt(e + CQ_LEN_OFF));
+      byte[] cv = copy(r, b.getInt(e + CV_LEN_OFF));
+      byte[] val = copy(r, b.getInt(e + VAL_LEN_OFF));
+
+      topKey = new MemKey(lastRow, cf, cq, cv, b.getLong(e + TS_OFF), b.get(e + DEL_OFF) != 0,
+          false, b.getInt(nodeOffset + KVCOUNT_OFF));
+      topValue = new Value(val);
+    }
+
+    @Override
+    public Key getTopKey() {
+      return topKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+      return topValue;
+    }
+
+    @Override
+    public boolean hasTop() {
+      return node != NULL;
+    }
+
+    @Override
+    public void next() {
+      if (node == NULL)
+        throw new NoSuchElementException();
+
+      // checking the interrupt flag for every call to next had bad a bad performance impact
+      // so check it every 100th time
+      if (interruptFlag != null && interruptCheckCount++ % 100 == 0 && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      setNode(map.next(node, 0));
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+      if (interruptFlag != null && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      this.range = range;
+
+      Key key = range.getStartKey();
+      if (key == null) {
+        setNode(map.next(map.head, 0));
+      } else {
+        setNode(map.next(map.findPredecessors(Target.of(key), null), 0));
+      }
+
+      while (hasTop() && range.beforeStartKey(getTopKey())) {
+        next();
+      }
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
+        IteratorEnvironment env) {
+      throw new UnsupportedOperationException("init");
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      if (env != null && env.isSamplingEnabled()) {
+        throw new SampleNotPresentException();
+      }
+      return new OffHeapIterator(map, interruptFlag);
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {
+      this.interruptFlag = flag;
+    }
+  }
+}
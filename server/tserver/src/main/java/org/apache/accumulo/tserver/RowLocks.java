@@ -19,11 +19,12 @@
 package org.apache.accumulo.tserver;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
@@ -31,26 +32,42 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.tserver.ConditionalMutationSet.DeferFilter;
 import org.apache.accumulo.tserver.data.ServerConditionalMutation;
+import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetrics;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
+/**
+ * Row locks for conditional updates, held in a fixed size table of stripes selected by the hash of
+ * the row. Each stripe has one lock that is reused by whichever of its rows is locked first, so
+ * locking a row does not allocate in the common case. When a different row of the same stripe is
+ * locked at the same time, that row falls back to a lock created for it in the stripe's overflow
+ * map. Rows never share a lock, so collisions do not cause unrelated rows to wait on each other.
+ */
 class RowLocks {
 
-  // The compute function in Concurrent Hash Map supports atomic execution of the remapping function
-  // and will only execute it once. Properly computing the reference counts relies on this specific
-  // behavior. Not all concurrent map implementations have the desired behavior. For example
-  // ConcurrentSkipListMap.compute is not atomic and may execute the function multiple times.
-  private final Map<ByteSequence,RowLock> rowLocks = new ConcurrentHashMap<>();
+  // must be a power of two
+  private static final int DEFAULT_STRIPES = 1 << 12;
+
+  private final Stripe[] stripes;
+
+  /**
+   * The row and count of the locks handed out by a stripe, and its overflow map, are guarded by
+   * synchronizing on the stripe.
+   */
+  private static class Stripe {
+    final RowLock lock = new RowLock(this);
+    Map<ByteSequence,RowLock> overflow = null;
+  }
 
   static class RowLock {
-    ReentrantLock rlock;
+    private final ReentrantLock rlock = new ReentrantLock();
+    private final Stripe stripe;
+    byte[] row;
     int count;
-    ByteSequence rowSeq;
 
-    RowLock(ReentrantLock rlock, ByteSequence rowSeq) {
-      this.rlock = rlock;
-      this.count = 1;
-      this.rowSeq = rowSeq;
+    RowLock(Stripe stripe) {
+      this.stripe = stripe;
     }
 
     public boolean tryLock() {
@@ -66,32 +83,100 @@ class RowLocks {
     }
   }
 
-  private RowLock getRowLock(ArrayByteSequence rowSeq) {
-    return rowLocks.compute(rowSeq, (key, value) -> {
-      if (value == null) {
-        return new RowLock(new ReentrantLock(), rowSeq);
+  RowLocks() {
+    this(DEFAULT_STRIPES);
+  }
+
+  @VisibleForTesting
+  RowLocks(int numStripes) {
+    Preconditions.checkArgument(Integer.bitCount(numStripes) == 1,
+        "number of stripes must be a power of two");
+    stripes = new Stripe[numStripes];
+    for (int i = 0; i < numStripes; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  private Stripe getStripe(byte[] row) {
+    int hash = Arrays.hashCode(row);
+    hash ^= hash >>> 16;
+    return stripes[hash & (stripes.length - 1)];
+  }
+
+  private RowLock getRowLock(byte[] row) {
+    Stripe stripe = getStripe(row);
+    synchronized (stripe) {
+      RowLock lock = stripe.lock;
+      if (lock.count > 0 && Arrays.equals(lock.row, row)) {
+        lock.count++;
+        return lock;
+      }
+
+      ArrayByteSequence rowSeq = null;
+      if (stripe.overflow != null) {
+        rowSeq = new ArrayByteSequence(row);
+        RowLock overflowLock = stripe.overflow.get(rowSeq);
+        if (overflowLock != null) {
+          overflowLock.count++;
+          return overflowLock;
+        }
+      }
+
+      if (lock.count == 0) {
+        lock.row = row;
+        lock.count = 1;
+        return lock;
+      }
+
+      // the stripe's lock is in use by another row
+      if (stripe.overflow == null) {
+        stripe.overflow = new HashMap<>();
+        rowSeq = new ArrayByteSequence(row);
       }
-      value.count++;
-      return value;
-    });
+      RowLock overflowLock = new RowLock(stripe);
+      overflowLock.row = row;
+      overflowLock.count = 1;
+      stripe.overflow.put(rowSeq, overflowLock);
+      return overflowLock;
+    }
   }
 
   private void returnRowLock(RowLock lock) {
     Objects.requireNonNull(lock);
-    rowLocks.compute(lock.rowSeq, (key, value) -> {
-      Preconditions.checkState(value == lock);
-      Preconditions.checkState(value.count > 0);
-      return (--value.count > 0) ? value : null;
-    });
+    Stripe stripe = lock.stripe;
+    synchronized (stripe) {
+      Preconditions.checkState(lock.count > 0);
+      if (--lock.count == 0) {
+        if (lock != stripe.lock) {
+          RowLock removed = stripe.overflow.remove(new ArrayByteSequence(lock.row));
+          Preconditions.checkState(removed == lock);
+          if (stripe.overflow.isEmpty()) {
+            stripe.overflow = null;
+          }
+        }
+        lock.row = null;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getOverflowCount() {
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        count += stripe.overflow == null ? 0 : stripe.overflow.size();
+      }
+    }
+    return count;
   }
 
   List<RowLock> acquireRowlocks(Map<KeyExtent,List<ServerConditionalMutation>> updates,
-      Map<KeyExtent,List<ServerConditionalMutation>> deferred) {
+      Map<KeyExtent,List<ServerConditionalMutation>> deferred, TabletServerUpdateMetrics metrics) {
     ArrayList<RowLock> locks = new ArrayList<>();
 
     for (List<ServerConditionalMutation> scml : updates.values()) {
       for (ServerConditionalMutation scm : scml) {
-        locks.add(getRowLock(new ArrayByteSequence(scm.getRow())));
+        locks.add(getRowLock(scm.getRow()));
       }
     }
 
@@ -104,15 +189,25 @@ class RowLocks {
         if (!rowLock.tryLock()) {
           if (rowsNotLocked == null)
             rowsNotLocked = new HashSet<>();
-          rowsNotLocked.add(rowLock.rowSeq);
+          rowsNotLocked.add(new ArrayByteSequence(rowLock.row));
         }
       }
-    } else {
+    } else if (locks.size() == 1) {
       // if there is only one lock, then wait for it
-      locks.get(0).lock();
+      RowLock rowLock = locks.get(0);
+      if (!rowLock.tryLock()) {
+        long t1 = System.nanoTime();
+        rowLock.lock();
+        if (metrics != null) {
+          metrics.addRowLockWait(System.nanoTime() - t1);
+        }
+      }
     }
 
     if (rowsNotLocked != null) {
+      if (metrics != null) {
+        metrics.addRowLockDeferred(rowsNotLocked.size());
+      }
 
       final HashSet<ByteSequence> rnlf = rowsNotLocked;
       // assume will get locks needed, do something expensive otherwise
@@ -133,10 +228,10 @@ class RowLocks {
       ArrayList<RowLock> filteredLocks = new ArrayList<>();
       ArrayList<RowLock> locksToReturn = new ArrayList<>();
       for (RowLock rowLock : locks) {
-        if (rowsNotLocked.contains(rowLock.rowSeq)) {
-          locksToReturn.add(rowLock);
-        } else {
+        if (rowLock.rlock.isHeldByCurrentThread()) {
           filteredLocks.add(rowLock);
+        } else {
+          locksToReturn.add(rowLock);
         }
       }
 
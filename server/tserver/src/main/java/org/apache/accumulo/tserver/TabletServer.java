@@ -64,6 +64,7 @@ import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityProgram;
 import org.apache.accumulo.core.manager.thrift.ManagerClientService;
 import org.apache.accumulo.core.master.thrift.BulkImportState;
 import org.apache.accumulo.core.master.thrift.Compacting;
@@ -76,6 +77,7 @@ import org.apache.accumulo.core.metadata.schema.TabletsMetadata;
 import org.apache.accumulo.core.metrics.MetricsUtil;
 import org.apache.accumulo.core.replication.thrift.ReplicationServicer;
 import org.apache.accumulo.core.rpc.ThriftUtil;
+import org.apache.accumulo.core.spi.cache.CacheType;
 import org.apache.accumulo.core.spi.fs.VolumeChooserEnvironment;
 import org.apache.accumulo.core.tabletserver.log.LogEntry;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Iface;
@@ -136,10 +138,13 @@ import org.apache.accumulo.tserver.log.TabletServerLogger;
 import org.apache.accumulo.tserver.managermessage.ManagerMessage;
 import org.apache.accumulo.tserver.managermessage.SplitReportMessage;
 import org.apache.accumulo.tserver.metrics.CompactionExecutorsMetrics;
+import org.apache.accumulo.tserver.metrics.TabletServerCacheMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerMinCMetrics;
+import org.apache.accumulo.tserver.metrics.TabletServerPrefetchMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerScanMetrics;
 import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetrics;
+import org.apache.accumulo.tserver.metrics.TabletServerWalMetrics;
 import org.apache.accumulo.tserver.scan.ScanRunState;
 import org.apache.accumulo.tserver.session.Session;
 import org.apache.accumulo.tserver.session.SessionManager;
@@ -177,6 +182,7 @@ public class TabletServer extends AbstractServer {
   TabletServerUpdateMetrics updateMetrics;
   TabletServerScanMetrics scanMetrics;
   TabletServerMinCMetrics mincMetrics;
+  TabletServerWalMetrics walMetrics;
   CompactionExecutorsMetrics ceMetrics;
 
   public TabletServerScanMetrics getScanMetrics() {
@@ -187,6 +193,10 @@ public class TabletServer extends AbstractServer {
     return mincMetrics;
   }
 
+  public TabletServerWalMetrics getWalMetrics() {
+    return walMetrics;
+  }
+
   private final LogSorter logSorter;
   @SuppressWarnings("deprecation")
   private org.apache.accumulo.tserver.replication.ReplicationWorker replWorker = null;
@@ -248,6 +258,7 @@ public class TabletServer extends AbstractServer {
     var replWorker = new org.apache.accumulo.tserver.replication.ReplicationWorker(context);
     this.replWorker = replWorker;
     this.statsKeeper = new TabletStatsKeeper();
+    VisibilityProgram.setCacheSize(aconf.getCount(Property.TSERV_SCAN_VISIBILITY_CACHE_SIZE));
     final int numBusyTabletsToLog = aconf.getCount(Property.TSERV_LOG_BUSY_TABLETS_COUNT);
     final long logBusyTabletsDelay =
         aconf.getTimeInMillis(Property.TSERV_LOG_BUSY_TABLETS_INTERVAL);
@@ -342,8 +353,9 @@ public class TabletServer extends AbstractServer {
         .maxWait(walFailureRetryMax, TimeUnit.MILLISECONDS).backOffFactor(1.5)
         .logInterval(3, TimeUnit.MINUTES).createFactory();
 
-    logger = new TabletServerLogger(this, walMaxSize, syncCounter, flushCounter,
-        walCreationRetryFactory, walWritingRetryFactory, walMaxAge);
+    logger =
+        new TabletServerLogger(this, walMaxSize, syncCounter, flushCounter, walCreationRetryFactory,
+            walWritingRetryFactory, walMaxAge, aconf.getCount(Property.TSERV_WAL_STREAMS));
     this.resourceManager = new TabletServerResourceManager(context);
     this.security = AuditedSecurityOperation.getInstance(context);
 
@@ -439,6 +451,7 @@ public class TabletServer extends AbstractServer {
           synchronized (closedLogs) {
             closedCopy = copyClosedLogs(closedLogs);
           }
+          Map<Integer,List<DfsLogger>> closedByStream = groupClosedLogsByStream(closedCopy);
 
           // bail early now if we're shutting down
           for (Entry<KeyExtent,Tablet> entry : getOnlineTablets().entrySet()) {
@@ -452,7 +465,8 @@ public class TabletServer extends AbstractServer {
               continue;
             }
 
-            tablet.checkIfMinorCompactionNeededForLogs(closedCopy);
+            tablet.checkIfMinorCompactionNeededForLogs(closedByStream
+                .getOrDefault(logger.getStream(tablet.getExtent()), Collections.emptyList()));
           }
         } catch (Exception t) {
           log.error("Unexpected exception in {}", Thread.currentThread().getName(), t);
@@ -748,8 +762,14 @@ public class TabletServer extends AbstractServer {
     updateMetrics = new TabletServerUpdateMetrics();
     scanMetrics = new TabletServerScanMetrics();
     mincMetrics = new TabletServerMinCMetrics();
+    walMetrics = new TabletServerWalMetrics();
     ceMetrics = new CompactionExecutorsMetrics();
-    MetricsUtil.initializeProducers(metrics, updateMetrics, scanMetrics, mincMetrics, ceMetrics);
+    MetricsUtil.initializeProducers(metrics, updateMetrics, scanMetrics, mincMetrics, walMetrics,
+        ceMetrics, resourceManager.getMemoryMetrics(),
+        new TabletServerPrefetchMetrics(resourceManager.getBlockPrefetcher()),
+        new TabletServerCacheMetrics(Map.of(CacheType.INDEX, resourceManager.getIndexCache(),
+            CacheType.DATA, resourceManager.getDataCache(), CacheType.SUMMARY,
+            resourceManager.getSummaryCache())));
 
     this.compactionManager = new CompactionManager(new Iterable<Compactable>() {
       @Override
@@ -757,7 +777,7 @@ public class TabletServer extends AbstractServer {
         return Iterators.transform(onlineTablets.snapshot().values().iterator(),
             Tablet::asCompactable);
       }
-    }, getContext(), ceMetrics);
+    }, getContext(), ceMetrics, getClientAddressString());
     compactionManager.start();
 
     try {
@@ -915,6 +935,9 @@ public class TabletServer extends AbstractServer {
       server.stop();
     }
 
+    log.debug("Stopping WAL stream writers");
+    logger.close();
+
     try {
       log.debug("Closing filesystems");
       getVolumeManager().close();
@@ -1229,8 +1252,9 @@ public class TabletServer extends AbstractServer {
 
   // This is a set of WALs that are closed but may still be referenced by tablets. A LinkedHashSet
   // is used because its very import to know the order in which WALs were closed when deciding if a
-  // WAL is eligible for removal. Maintaining the order that logs were used in is currently a simple
-  // task because there is only one active log at a time.
+  // WAL is eligible for removal. Maintaining the order that logs were used in is a simple task
+  // because each WAL stream has only one active log at a time. Logs from different streams are
+  // interleaved in this set, so ordering decisions must be made per stream.
   LinkedHashSet<DfsLogger> closedLogs = new LinkedHashSet<>();
 
   @VisibleForTesting
@@ -1240,8 +1264,8 @@ public class TabletServer extends AbstractServer {
 
   /**
    * For a closed WAL to be eligible for removal it must be unreferenced AND all closed WALs older
-   * than it must be unreferenced. This method finds WALs that meet those conditions. See Github
-   * issue #537.
+   * than it in the same WAL stream must be unreferenced. This method finds WALs that meet those
+   * conditions. See Github issue #537.
    */
   @VisibleForTesting
   static Set<DfsLogger> findOldestUnreferencedWals(List<DfsLogger> closedLogs,
@@ -1250,25 +1274,36 @@ public class TabletServer extends AbstractServer {
 
     referencedRemover.removeInUse(unreferenced);
 
-    Iterator<DfsLogger> closedIter = closedLogs.iterator();
-    Iterator<DfsLogger> unrefIter = unreferenced.iterator();
-
     Set<DfsLogger> eligible = new HashSet<>();
+    // streams that have a referenced log, nothing closed after it in that stream can be removed
+    Set<Integer> blockedStreams = new HashSet<>();
 
-    while (closedIter.hasNext() && unrefIter.hasNext()) {
-      DfsLogger closed = closedIter.next();
-      DfsLogger unref = unrefIter.next();
-
-      if (closed.equals(unref)) {
-        eligible.add(unref);
+    for (DfsLogger closed : closedLogs) {
+      if (blockedStreams.contains(closed.getStream())) {
+        continue;
+      }
+      if (unreferenced.contains(closed)) {
+        eligible.add(closed);
       } else {
-        break;
+        blockedStreams.add(closed.getStream());
       }
     }
 
     return eligible;
   }
 
+  /**
+   * Splits closed WALs by the stream they were written to, keeping the order they were closed in.
+   */
+  @VisibleForTesting
+  static Map<Integer,List<DfsLogger>> groupClosedLogsByStream(List<DfsLogger> closedLogs) {
+    Map<Integer,List<DfsLogger>> byStream = new HashMap<>();
+    for (DfsLogger closed : closedLogs) {
+      byStream.computeIfAbsent(closed.getStream(), k -> new ArrayList<>()).add(closed);
+    }
+    return byStream;
+  }
+
   @VisibleForTesting
   static List<DfsLogger> copyClosedLogs(LinkedHashSet<DfsLogger> closedLogs) {
     List<DfsLogger> closedCopy = new ArrayList<>(closedLogs.size());
@@ -34,11 +34,13 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -51,9 +53,15 @@ import org.apache.accumulo.core.conf.AccumuloConfiguration.ScanExecutorConfig;
 import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.core.file.blockfile.impl.CacheProvider;
 import org.apache.accumulo.core.file.blockfile.impl.ScanCacheProvider;
+import org.apache.accumulo.core.metadata.TabletFile;
 import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.cache.BlockCacheManager;
 import org.apache.accumulo.core.spi.cache.CacheType;
@@ -75,8 +83,11 @@ import org.apache.accumulo.server.fs.FileManager.ScanFileManager;
 import org.apache.accumulo.tserver.memory.LargestFirstMemoryManager;
 import org.apache.accumulo.tserver.memory.NativeMapLoader;
 import org.apache.accumulo.tserver.memory.TabletMemoryReport;
+import org.apache.accumulo.tserver.metrics.TabletServerMemoryMetrics;
 import org.apache.accumulo.tserver.session.ScanSession;
 import org.apache.accumulo.tserver.tablet.Tablet;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.io.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,6 +106,8 @@ public class TabletServerResourceManager {
   private static final Logger log = LoggerFactory.getLogger(TabletServerResourceManager.class);
 
   private final ThreadPoolExecutor minorCompactionThreadPool;
+  private final ThreadPoolExecutor minorCompactionLocalityGroupPool;
+  private final ThreadPoolExecutor majorCompactionLocalityGroupPool;
   private final ThreadPoolExecutor splitThreadPool;
   private final ThreadPoolExecutor defaultSplitThreadPool;
   private final ThreadPoolExecutor defaultMigrationPool;
@@ -104,6 +117,9 @@ public class TabletServerResourceManager {
   private final ThreadPoolExecutor summaryRetrievalPool;
   private final ThreadPoolExecutor summaryPartitionPool;
   private final ThreadPoolExecutor summaryRemotePool;
+  private final ThreadPoolExecutor prefetchPool;
+  private final BlockPrefetcher prefetcher;
+  private final ThreadPoolExecutor cacheWarmupPool;
 
   private final Map<String,ThreadPoolExecutor> scanExecutors;
   private final Map<String,ScanExecutor> scanExecutorChoices;
@@ -114,6 +130,8 @@ public class TabletServerResourceManager {
 
   private final LargestFirstMemoryManager memoryManager;
 
+  private final TabletServerMemoryMetrics memoryMetrics = new TabletServerMemoryMetrics();
+
   private final MemoryManagementFramework memMgmt;
 
   private final BlockCacheManager cacheManager;
@@ -258,6 +276,13 @@ public class TabletServerResourceManager {
     if (usingNativeMap) {
       NativeMapLoader.load();
     }
+    // both native and off heap maps store their data outside of the java heap
+    boolean usingHeapMap =
+        !usingNativeMap && !acuConf.getBoolean(Property.TSERV_OFFHEAP_MAP_ENABLED);
+    if (!usingNativeMap && !usingHeapMap) {
+      // keep the pages of deleted off heap maps for new maps, up to the size of the maps
+      OffHeapMap.setMaxPooledMemory(maxMemory);
+    }
 
     long totalQueueSize = acuConf.getAsBytes(Property.TSERV_TOTAL_MUTATION_QUEUE_MAX);
 
@@ -278,8 +303,8 @@ public class TabletServerResourceManager {
     long sCacheSize = _sCache.getMaxHeapSize();
 
     Runtime runtime = Runtime.getRuntime();
-    if (usingNativeMap) {
-      // Still check block cache sizes when using native maps.
+    if (!usingHeapMap) {
+      // Still check block cache sizes when using native or off heap maps.
       if (dCacheSize + iCacheSize + sCacheSize + totalQueueSize > runtime.maxMemory()) {
         throw new IllegalArgumentException(String.format(
             "Block cache sizes %,d" + " and mutation queue size %,d is too large for this JVM"
@@ -298,7 +323,7 @@ public class TabletServerResourceManager {
 
     // totalMemory - freeMemory = memory in use
     // maxMemory - memory in use = max available memory
-    if (!usingNativeMap
+    if (usingHeapMap
         && maxMemory > runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) {
       log.warn("In-memory map may not fit into local memory space.");
     }
@@ -309,6 +334,16 @@ public class TabletServerResourceManager {
         () -> context.getConfiguration().getCount(Property.TSERV_MINC_MAXCONCURRENT),
         "minor compactor", minorCompactionThreadPool);
 
+    int mincLgThreads = acuConf.getCount(Property.TSERV_MINC_LG_THREADS);
+    minorCompactionLocalityGroupPool =
+        mincLgThreads > 0 ? ThreadPools.createFixedThreadPool(mincLgThreads,
+            "minor compaction locality group writer", true) : null;
+
+    int majcLgThreads = acuConf.getCount(Property.TSERV_MAJC_LG_THREADS);
+    majorCompactionLocalityGroupPool =
+        majcLgThreads > 0 ? ThreadPools.createFixedThreadPool(majcLgThreads,
+            "major compaction locality group compactor", true) : null;
+
     splitThreadPool = ThreadPools.createThreadPool(0, 1, 1, TimeUnit.SECONDS, "splitter", true);
 
     defaultSplitThreadPool =
@@ -357,6 +392,15 @@ public class TabletServerResourceManager {
         () -> context.getConfiguration().getCount(Property.TSERV_SUMMARY_PARTITION_THREADS),
         "summary partition", summaryPartitionPool);
 
+    prefetchPool = ThreadPools.createFixedThreadPool(
+        acuConf.getCount(Property.TSERV_SCAN_PREFETCH_THREADS), "scan block prefetch",
+        new ArrayBlockingQueue<>(acuConf.getCount(Property.TSERV_SCAN_PREFETCH_QUEUE_MAX)), true);
+    prefetcher = new BlockPrefetcher(prefetchPool);
+
+    cacheWarmupPool = ThreadPools.createFixedThreadPool(
+        acuConf.getCount(Property.TSERV_CACHE_WARMUP_THREADS), "block cache warm up",
+        new ArrayBlockingQueue<>(acuConf.getCount(Property.TSERV_CACHE_WARMUP_QUEUE_MAX)), true);
+
     Collection<ScanExecutorConfig> scanExecCfg = acuConf.getScanExecutors();
     Map<String,Queue<Runnable>> scanExecQueues = new HashMap<>();
     scanExecutors = scanExecCfg.stream().collect(
@@ -371,8 +415,10 @@ public class TabletServerResourceManager {
 
     fileManager = new FileManager(context, maxOpenFiles, fileLenCache);
 
-    memoryManager = new LargestFirstMemoryManager();
-    memoryManager.init(context);
+    memoryManager =
+        ConfigurationTypeHelper.getClassInstance(null, acuConf.get(Property.TSERV_MEM_MANAGER),
+            LargestFirstMemoryManager.class, new LargestFirstMemoryManager());
+    memoryManager.init(context, memoryMetrics);
     memMgmt = new MemoryManagementFramework();
     memMgmt.startThreads();
 
@@ -591,8 +637,9 @@ public class TabletServerResourceManager {
         }
 
         if (!holdCommits) {
-          log.debug(String.format("Commits held for %6.2f secs",
-              (System.currentTimeMillis() - holdStartTime) / 1000.0));
+          long heldTime = System.currentTimeMillis() - holdStartTime;
+          memoryMetrics.addHold(heldTime);
+          log.debug(String.format("Commits held for %6.2f secs", heldTime / 1000.0));
           commitHold.notifyAll();
         }
       }
@@ -617,6 +664,10 @@ public class TabletServerResourceManager {
     }
   }
 
+  public TabletServerMemoryMetrics getMemoryMetrics() {
+    return memoryMetrics;
+  }
+
   public long holdTime() {
     if (!holdCommits) {
       return 0;
@@ -670,7 +721,7 @@ public class TabletServerResourceManager {
       }
 
       return fileManager.newScanFileManager(extent,
-          new ScanCacheProvider(tableConf, scanDispatch, _iCache, _dCache));
+          new ScanCacheProvider(tableConf, scanDispatch, _iCache, _dCache, prefetcher));
     }
 
     // END methods that Tablets call to manage their set of open map files
@@ -857,6 +908,58 @@ public class TabletServerResourceManager {
     return fileLenCache;
   }
 
+  /**
+   * @return loads data blocks into the data cache ahead of sequential scans
+   */
+  public BlockPrefetcher getBlockPrefetcher() {
+    return prefetcher;
+  }
+
+  /**
+   * Load the index blocks of a newly assigned tablet's files into the index cache in the
+   * background, so that its first scans do not read them from the file system. Files are skipped
+   * when the warm up queue is full.
+   */
+  public void warmUpCache(KeyExtent extent, Collection<? extends TabletFile> files) {
+    AccumuloConfiguration tableConf = context.getTableConfiguration(extent.tableId());
+    if (_iCache == null || !tableConf.getBoolean(Property.TABLE_INDEXCACHE_ENABLED)
+        || !tableConf.getBoolean(Property.TABLE_INDEXCACHE_WARMUP)) {
+      return;
+    }
+
+    CacheProvider cacheProvider = new BasicCacheProvider(_iCache, null);
+    for (TabletFile file : files) {
+      try {
+        cacheWarmupPool.execute(() -> warmUpIndex(extent, file, tableConf, cacheProvider));
+      } catch (RejectedExecutionException e) {
+        log.debug("Cache warm up queue is full, not warming up files of {}", extent);
+        return;
+      }
+    }
+  }
+
+  private void warmUpIndex(KeyExtent extent, TabletFile file, AccumuloConfiguration tableConf,
+      CacheProvider cacheProvider) {
+    try {
+      FileSystem ns = context.getVolumeManager().getFileSystemByPath(file.getPath());
+      try (FileSKVIterator index = FileOperations.getInstance().newIndexReaderBuilder()
+          .forFile(file.getPathStr(), ns, ns.getConf(), context.getCryptoService())
+          .withTableConfiguration(tableConf).withCacheProvider(cacheProvider)
+          .withFileLenCache(fileLenCache).build()) {
+        // reading the index entries loads the index blocks that hold them, the file may be shared
+        // with other tablets so only read those of this one
+        index.seek(extent.toDataRange(), Collections.emptySet(), false);
+        Text endRow = extent.endRow();
+        while (index.hasTop() && (endRow == null || index.getTopKey().compareRow(endRow) <= 0)) {
+          index.next();
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      // the file may have been compacted away since the tablet was loaded
+      log.debug("Failed to warm up cache for {} of {}", file, extent, e);
+    }
+  }
+
   public ExecutorService getSummaryRetrievalExecutor() {
     return summaryRetrievalPool;
   }
@@ -868,4 +971,20 @@ public class TabletServerResourceManager {
   public ExecutorService getSummaryRemoteExecutor() {
     return summaryRemotePool;
   }
+
+  /**
+   * @return the executor minor compactions use to write locality groups concurrently, or null when
+   *         they write them one after another
+   */
+  public ExecutorService getMinorCompactionLocalityGroupExecutor() {
+    return minorCompactionLocalityGroupPool;
+  }
+
+  /**
+   * @return the executor major compactions use to compact locality groups concurrently, or null
+   *         when they compact them one after another
+   */
+  public ExecutorService getMajorCompactionLocalityGroupExecutor() {
+    return majorCompactionLocalityGroupPool;
+  }
 }
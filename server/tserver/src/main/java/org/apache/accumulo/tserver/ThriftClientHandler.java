@@ -133,6 +133,7 @@ import org.apache.accumulo.server.zookeeper.TransactionWatcher;
 import org.apache.accumulo.tserver.ConditionCheckerContext.ConditionChecker;
 import org.apache.accumulo.tserver.RowLocks.RowLock;
 import org.apache.accumulo.tserver.data.ServerConditionalMutation;
+import org.apache.accumulo.tserver.scan.AdaptiveBatchSizer;
 import org.apache.accumulo.tserver.scan.LookupTask;
 import org.apache.accumulo.tserver.scan.NextBatchTask;
 import org.apache.accumulo.tserver.scan.ScanParameters;
@@ -332,8 +333,18 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
         columnSet, ssiList, ssio, isolated, SamplerConfigurationImpl.fromThrift(tSamplerConfig),
         batchTimeOut, contextArg);
 
-    final SingleScanSession scanSession =
-        new SingleScanSession(credentials, extent, scanParams, readaheadThreshold, executionHints);
+    final SingleScanSession scanSession = new SingleScanSession(credentials, extent, scanParams,
+        readaheadThreshold, getStreamingWindow(executionHints), executionHints);
+    if (executionHints != null
+        && Boolean.parseBoolean(executionHints.get(Constants.SCANNER_ADAPTIVE_BATCH_SIZE_HINT))) {
+      var tableConf = context.getTableConfiguration(extent.tableId());
+      scanSession.batchSizer =
+          new AdaptiveBatchSizer(batchSize, tableConf.getAsBytes(Property.TABLE_SCAN_MAXMEM),
+              tableConf.getAsBytes(Property.TABLE_SCAN_ADAPTIVE_MAXMEM), TimeUnit.MILLISECONDS
+                  .toNanos(tableConf.getTimeInMillis(Property.TABLE_SCAN_ADAPTIVE_TARGET_TIME)));
+      scanParams.setBatchLimits(scanSession.batchSizer.getMaxEntries(),
+          scanSession.batchSizer.getMaxBytes());
+    }
     scanSession.scanner =
         tablet.createScanner(new Range(range), scanParams, scanSession.interruptFlag);
 
@@ -352,6 +363,25 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
     return new InitialScan(sid, scanResult);
   }
 
+  /**
+   * @return the number of batches a streaming scan asked to have in flight, limited by
+   *         {@link Property#TSERV_SCAN_STREAMING_WINDOW_MAX}, or 0 if the scan does not stream
+   */
+  private int getStreamingWindow(Map<String,String> executionHints) {
+    String window =
+        executionHints == null ? null : executionHints.get(Constants.SCANNER_STREAMING_WINDOW_HINT);
+    if (window == null) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Math.min(Integer.parseInt(window),
+          server.getConfiguration().getCount(Property.TSERV_SCAN_STREAMING_WINDOW_MAX)));
+    } catch (NumberFormatException e) {
+      log.debug("Ignoring invalid streaming window {}", window);
+      return 0;
+    }
+  }
+
   @Override
   public ScanResult continueScan(TInfo tinfo, long scanID) throws NoSuchScanIDException,
       NotServingTabletException, org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException,
@@ -374,6 +404,9 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
       org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException,
       TSampleNotPresentException {
 
+    long consumeNanos =
+        scanSession.lastResponseNanos == 0 ? -1 : System.nanoTime() - scanSession.lastResponseNanos;
+
     if (scanSession.nextBatchTask == null) {
       scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
       server.resourceManager.executeReadAhead(scanSession.extent,
@@ -423,13 +456,24 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
 
     ScanResult scanResult = new ScanResult(Key.compress(bresult.getResults()), bresult.isMore());
 
+    server.scanMetrics.addBatch(bresult.getResults().size(), bresult.getNumBytes(),
+        scanSession.batchSizer != null);
+    if (scanSession.batchSizer != null) {
+      // size the batches read from now on, including the read ahead started below
+      scanSession.batchSizer.update(scanSession.lastFillEntries, scanSession.lastFillBytes,
+          scanSession.lastFillNanos, bresult.getNumBytes(), consumeNanos);
+      scanSession.scanParams.setBatchLimits(scanSession.batchSizer.getMaxEntries(),
+          scanSession.batchSizer.getMaxBytes());
+    }
+
     scanSession.entriesReturned += scanResult.results.size();
 
     scanSession.batchCount++;
 
-    if (scanResult.more && scanSession.batchCount > scanSession.readaheadThreshold) {
+    if (scanResult.more && (scanSession.streamingWindow > 0
+        || scanSession.batchCount > scanSession.readaheadThreshold)) {
       // start reading next batch while current batch is transmitted
-      // to client
+      // to client, streaming scans always do this
       scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
       server.resourceManager.executeReadAhead(scanSession.extent,
           getScanDispatcher(scanSession.extent), scanSession, scanSession.nextBatchTask);
@@ -439,6 +483,7 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
       closeScan(tinfo, scanID);
     }
 
+    scanSession.lastResponseNanos = System.nanoTime();
     return scanResult;
   }
 
@@ -1208,7 +1253,7 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
     ConditionalMutationSet.deferDuplicatesRows(updates, deferred);
 
     // get as many locks as possible w/o blocking... defer any rows that are locked
-    List<RowLock> locks = rowLocks.acquireRowlocks(updates, deferred);
+    List<RowLock> locks = rowLocks.acquireRowlocks(updates, deferred, server.updateMetrics);
     try {
       Span span = TraceUtil.startSpan(this.getClass(), "conditionalUpdate::Check conditions");
       try (Scope scope = span.makeCurrent()) {
@@ -1791,12 +1836,8 @@ public class ThriftClientHandler extends ClientServiceHandler implements TabletC
 
   @Override
   public List<String> getActiveLogs(TInfo tinfo, TCredentials credentials) {
-    String log = server.logger.getLogFile();
-    // Might be null if there no active logger
-    if (log == null) {
-      return Collections.emptyList();
-    }
-    return Collections.singletonList(log);
+    // Might be empty if there no active logger
+    return server.logger.getLogFiles();
   }
 
   @Override
@@ -26,28 +26,38 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+import org.apache.accumulo.core.compaction.thrift.CompactionCoordinatorService;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.metadata.schema.ExternalCompactionId;
+import org.apache.accumulo.core.rpc.ThriftUtil;
 import org.apache.accumulo.core.spi.compaction.CompactionExecutorId;
 import org.apache.accumulo.core.spi.compaction.CompactionKind;
 import org.apache.accumulo.core.spi.compaction.CompactionServiceId;
 import org.apache.accumulo.core.spi.compaction.CompactionServices;
 import org.apache.accumulo.core.tabletserver.thrift.TCompactionQueueSummary;
+import org.apache.accumulo.core.trace.TraceUtil;
+import org.apache.accumulo.core.util.HostAndPort;
 import org.apache.accumulo.core.util.compaction.CompactionExecutorIdImpl;
 import org.apache.accumulo.core.util.compaction.CompactionServicesConfig;
+import org.apache.accumulo.core.util.compaction.ExternalCompactionUtil;
+import org.apache.accumulo.core.util.threads.ThreadPools;
 import org.apache.accumulo.core.util.threads.Threads;
 import org.apache.accumulo.fate.util.Retry;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.tserver.compactions.CompactionExecutor.CType;
 import org.apache.accumulo.tserver.metrics.CompactionExecutorsMetrics;
 import org.apache.accumulo.tserver.tablet.Tablet;
+import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -79,6 +89,14 @@ public class CompactionManager {
 
   private Map<ExternalCompactionId,ExtCompInfo> runningExternalCompactions;
 
+  private final String tserverAddress;
+
+  // set while a notification to the coordinator is pending, so a burst of new jobs sends one
+  private final AtomicBoolean coordinatorNotificationPending = new AtomicBoolean(false);
+
+  private final ExecutorService coordinatorNotifier =
+      ThreadPools.createFixedThreadPool(1, "Compaction Coordinator Notifier", false);
+
   static class ExtCompInfo {
     final KeyExtent extent;
     final CompactionExecutorId executor;
@@ -181,9 +199,11 @@ public class CompactionManager {
   }
 
   public CompactionManager(Iterable<Compactable> compactables, ServerContext context,
-      CompactionExecutorsMetrics ceMetrics) {
+      CompactionExecutorsMetrics ceMetrics, String tserverAddress) {
     this.compactables = compactables;
 
+    this.tserverAddress = tserverAddress;
+
     this.currentCfg =
         new CompactionServicesConfig(context.getConfiguration(), this::warnAboutDeprecation);
 
@@ -329,7 +349,39 @@ public class CompactionManager {
   }
 
   ExternalCompactionExecutor getExternalExecutor(CompactionExecutorId ceid) {
-    return externalExecutors.computeIfAbsent(ceid, id -> new ExternalCompactionExecutor(id));
+    return externalExecutors.computeIfAbsent(ceid,
+        id -> new ExternalCompactionExecutor(id, this::externalJobsQueued));
+  }
+
+  /**
+   * Called when an external queue gets a job at a priority it did not have queued. Tells the
+   * coordinator, which then gets this tserver's queue summaries, so that it does not have to wait
+   * for its next check of all tservers to hand the job out.
+   */
+  private void externalJobsQueued() {
+    if (coordinatorNotificationPending.compareAndSet(false, true)) {
+      coordinatorNotifier.execute(this::notifyCoordinator);
+    }
+  }
+
+  private void notifyCoordinator() {
+    // clear first, jobs queued while notifying will cause another notification
+    coordinatorNotificationPending.set(false);
+    CompactionCoordinatorService.Client client = null;
+    try {
+      Optional<HostAndPort> coordinator = ExternalCompactionUtil.findCompactionCoordinator(context);
+      if (coordinator.isEmpty()) {
+        log.trace("No compaction coordinator to notify of queued external compactions");
+        return;
+      }
+      client = ThriftUtil.getClient(new CompactionCoordinatorService.Client.Factory(),
+          coordinator.get(), context);
+      client.compactionJobsQueued(TraceUtil.traceInfo(), context.rpcCreds(), tserverAddress);
+    } catch (TException | RuntimeException e) {
+      log.debug("Failed to notify compaction coordinator of queued external compactions", e);
+    } finally {
+      ThriftUtil.returnClient(client, context);
+    }
   }
 
   ExternalCompactionExecutor getExternalExecutor(String queueName) {
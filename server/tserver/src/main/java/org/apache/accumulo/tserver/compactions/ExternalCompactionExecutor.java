@@ -20,8 +20,10 @@ package org.apache.accumulo.tserver.compactions;
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicLong;
@@ -51,6 +53,10 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
   // below should not contain cancelled compactions. A concurrent set was not used because those do
   // not have constant time size operations.
   private final Set<ExternalJob> queuedJob = Collections.synchronizedSet(new HashSet<>());
+  // The number of queued jobs at each priority, guarded by the lock on queuedJob. The coordinator
+  // is told when a priority that was not queued gets a job.
+  private final Map<Short,Integer> queuedPriorities = new HashMap<>();
+  private final Runnable newPriorityListener;
 
   private class ExternalJob extends SubmittedJob {
     private final AtomicReference<Status> status = new AtomicReference<>(Status.QUEUED);
@@ -64,7 +70,6 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
       super(job);
       this.compactable = compactable;
       this.csid = csid;
-      queuedJob.add(this);
       this.timeCreated = System.currentTimeMillis();
     }
 
@@ -86,7 +91,7 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
       if (expectedStatus == Status.QUEUED) {
         canceled = status.compareAndSet(expectedStatus, Status.CANCELED);
         if (canceled) {
-          queuedJob.remove(this);
+          removeQueued(this);
         }
 
         if (canceled && cancelCount.incrementAndGet() % 1024 == 0) {
@@ -112,8 +117,9 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
   private final PriorityBlockingQueue<ExternalJob> queue;
   private final CompactionExecutorId ceid;
 
-  public ExternalCompactionExecutor(CompactionExecutorId ceid) {
+  public ExternalCompactionExecutor(CompactionExecutorId ceid, Runnable newPriorityListener) {
     this.ceid = ceid;
+    this.newPriorityListener = newPriorityListener;
     Comparator<ExternalJob> priorityComparator =
         Comparator.comparingLong(ej -> ej.getJob().getPriority());
     priorityComparator =
@@ -128,10 +134,33 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
       Consumer<Compactable> completionCallback) {
     Preconditions.checkArgument(!compactable.getExtent().isMeta());
     ExternalJob extJob = new ExternalJob(job, compactable, csid);
+    boolean newPriority = addQueued(extJob);
     queue.add(extJob);
+    if (newPriority) {
+      newPriorityListener.run();
+    }
     return extJob;
   }
 
+  /**
+   * @return true if no other job was queued at the job's priority
+   */
+  private boolean addQueued(ExternalJob extJob) {
+    synchronized (queuedJob) {
+      queuedJob.add(extJob);
+      return queuedPriorities.merge(extJob.getJob().getPriority(), 1, Integer::sum) == 1;
+    }
+  }
+
+  private void removeQueued(ExternalJob extJob) {
+    synchronized (queuedJob) {
+      if (queuedJob.remove(extJob)) {
+        queuedPriorities.computeIfPresent(extJob.getJob().getPriority(),
+            (prio, count) -> count == 1 ? null : count - 1);
+      }
+    }
+  }
+
   @Override
   public int getCompactionsRunning(CType ctype) {
     if (ctype == CType.EXTERNAL)
@@ -168,7 +197,7 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
 
       if (extJob.getJob().getPriority() >= priority) {
         if (extJob.status.compareAndSet(Status.QUEUED, Status.RUNNING)) {
-          queuedJob.remove(extJob);
+          removeQueued(extJob);
           var ecj = extJob.compactable.reserveExternalCompaction(extJob.csid, extJob.getJob(),
               compactorId, externalCompactionId);
           if (ecj == null) {
@@ -190,8 +219,10 @@ public class ExternalCompactionExecutor implements CompactionExecutor {
   }
 
   public Stream<TCompactionQueueSummary> summarize() {
-    HashSet<Short> uniqPrios = new HashSet<Short>();
-    queuedJob.forEach(job -> uniqPrios.add(job.getJob().getPriority()));
+    HashSet<Short> uniqPrios;
+    synchronized (queuedJob) {
+      uniqPrios = new HashSet<>(queuedPriorities.keySet());
+    }
 
     Stream<Short> prioStream = uniqPrios.stream();
 
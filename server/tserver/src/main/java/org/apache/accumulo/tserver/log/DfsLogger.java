@@ -39,8 +39,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.accumulo.core.Constants;
@@ -67,6 +69,7 @@ import org.apache.accumulo.server.fs.VolumeManager;
 import org.apache.accumulo.tserver.TabletMutations;
 import org.apache.accumulo.tserver.logger.LogFileKey;
 import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.accumulo.tserver.metrics.TabletServerWalMetrics;
 import org.apache.accumulo.tserver.tablet.CommitSession;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FSDataOutputStream;
@@ -137,6 +140,8 @@ public class DfsLogger implements Comparable<DfsLogger> {
 
   private class LogSyncingTask implements Runnable {
     private int expectedReplication = 0;
+    private final GroupCommit groupCommit =
+        new GroupCommit(groupCommitMaxWaitNanos, groupCommitBatchSize);
 
     @Override
     public void run() {
@@ -151,6 +156,7 @@ public class DfsLogger implements Comparable<DfsLogger> {
           continue;
         }
         workQueue.drainTo(work);
+        groupCommit.await(workQueue, work);
 
         Optional<Boolean> shouldHSync = Optional.empty();
         loop: for (LogWork logWork : work) {
@@ -171,7 +177,7 @@ public class DfsLogger implements Comparable<DfsLogger> {
           }
         }
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
           if (shouldHSync.isPresent()) {
             if (shouldHSync.get()) {
@@ -185,7 +191,13 @@ public class DfsLogger implements Comparable<DfsLogger> {
         } catch (IOException | RuntimeException ex) {
           fail(work, ex, "synching");
         }
-        long duration = System.currentTimeMillis() - start;
+        long durationNanos = System.nanoTime() - start;
+        if (walMetrics != null && shouldHSync.isPresent()) {
+          walMetrics.addSyncBatchSize(work.size());
+          walMetrics.addSyncLatency(durationNanos);
+          walMetrics.addQueueDepth(workQueue.size());
+        }
+        long duration = TimeUnit.NANOSECONDS.toMillis(durationNanos);
         if (duration > slowFlushMillis) {
           String msg = new StringBuilder(128).append("Slow sync cost: ").append(duration)
               .append(" ms, current pipeline: ").append(Arrays.toString(getPipeLine())).toString();
@@ -230,17 +242,64 @@ public class DfsLogger implements Comparable<DfsLogger> {
     }
   }
 
-  private static class LogWork {
+  static class LogWork {
     final CountDownLatch latch;
     final Durability durability;
+    // the thread that queued the work, used to tell how many writers a sync covers
+    final long writer = Thread.currentThread().getId();
     volatile Exception exception;
 
-    public LogWork(CountDownLatch latch, Durability durability) {
+    LogWork(CountDownLatch latch, Durability durability) {
       this.latch = latch;
       this.durability = durability;
     }
   }
 
+  /**
+   * Decides how long the sync thread waits to gather more work before a sync. It waits only when
+   * the previous sync covered work from more than one writer thread, so a single writer, however
+   * much work it queues, is never delayed.
+   */
+  static class GroupCommit {
+    private final long maxWaitNanos;
+    private final int batchSize;
+    private int lastBatchWriters = 0;
+
+    GroupCommit(long maxWaitNanos, int batchSize) {
+      this.maxWaitNanos = maxWaitNanos;
+      this.batchSize = batchSize;
+    }
+
+    /**
+     * Waits for more work to arrive when the previous sync showed there are concurrent writers, so
+     * that one sync can cover more writes. Stops waiting once the target batch size is reached, the
+     * maximum wait has passed, the log is closed, or the thread is interrupted.
+     */
+    void await(BlockingQueue<LogWork> queue, List<LogWork> work) {
+      if (maxWaitNanos > 0 && lastBatchWriters > 1) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (work.size() < batchSize && work.get(work.size() - 1) != CLOSED_MARKER) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          try {
+            LogWork next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+            work.add(next);
+          } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+          queue.drainTo(work, Math.max(0, batchSize - work.size()));
+        }
+      }
+      lastBatchWriters = (int) work.stream().mapToLong(lw -> lw.writer).distinct().count();
+    }
+  }
+
   static class LoggerOperation {
     private final LogWork work;
 
@@ -307,21 +366,36 @@ public class DfsLogger implements Comparable<DfsLogger> {
   private String metaReference;
   private AtomicLong syncCounter;
   private AtomicLong flushCounter;
+  private TabletServerWalMetrics walMetrics;
   private final long slowFlushMillis;
+  private final long groupCommitMaxWaitNanos;
+  private final int groupCommitBatchSize;
+  private int stream = 0;
   private long writes = 0;
 
   private DfsLogger(ServerContext context, ServerResources conf) {
     this.context = context;
     this.conf = conf;
-    this.slowFlushMillis =
-        conf.getConfiguration().getTimeInMillis(Property.TSERV_SLOW_FLUSH_MILLIS);
+    AccumuloConfiguration aconf = conf.getConfiguration();
+    this.slowFlushMillis = aconf.getTimeInMillis(Property.TSERV_SLOW_FLUSH_MILLIS);
+    this.groupCommitMaxWaitNanos = TimeUnit.MILLISECONDS
+        .toNanos(aconf.getTimeInMillis(Property.TSERV_WAL_GROUP_COMMIT_MAX_WAIT));
+    this.groupCommitBatchSize = aconf.getCount(Property.TSERV_WAL_GROUP_COMMIT_BATCH_SIZE);
   }
 
+  /**
+   * Create a new log for one of the tablet server's concurrent WAL streams.
+   *
+   * @param stream
+   *          the WAL stream this log belongs to, see {@link Property#TSERV_WAL_STREAMS}
+   */
   public DfsLogger(ServerContext context, ServerResources conf, AtomicLong syncCounter,
-      AtomicLong flushCounter) {
+      AtomicLong flushCounter, TabletServerWalMetrics walMetrics, int stream) {
     this(context, conf);
     this.syncCounter = syncCounter;
     this.flushCounter = flushCounter;
+    this.walMetrics = walMetrics;
+    this.stream = stream;
   }
 
   /**
@@ -504,6 +578,14 @@ public class DfsLogger implements Comparable<DfsLogger> {
     return new Path(logPath);
   }
 
+  /**
+   * @return the WAL stream this log was created for. Logs are closed in order within a stream, but
+   *         not across streams.
+   */
+  public int getStream() {
+    return stream;
+  }
+
   public void close() throws IOException {
 
     synchronized (closeLock) {
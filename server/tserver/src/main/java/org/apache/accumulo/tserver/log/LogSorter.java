@@ -18,6 +18,8 @@
  */
 package org.apache.accumulo.tserver.log;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -28,7 +30,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
@@ -146,7 +153,9 @@ public class LogSorter {
         // Creating a 'finished' marker will cause recovery to proceed normally and the
         // empty file will be correctly ignored downstream.
         fs.mkdirs(new Path(destPath));
-        writeBuffer(destPath, Collections.emptyList(), part++);
+        writeBuffer(destPath, Collections.emptyList(), part);
+        SortedLogIndex.write(fs, new Path(destPath),
+            List.of(SortedLogIndex.summarize(partFileName(part), Collections.emptyList())));
         fs.create(SortedLogState.getFinishedMarkerPath(destPath)).close();
         return;
       }
@@ -155,28 +164,104 @@ public class LogSorter {
       Property prop = sortedLogConf.resolve(Property.TSERV_WAL_SORT_BUFFER_SIZE,
           Property.TSERV_SORT_BUFFER_SIZE);
       final long bufferSize = sortedLogConf.getAsBytes(prop);
+      // The log can only be decoded sequentially, so it is read in segments that are handed off
+      // to be sorted and written while the next segment is read. The sort buffer is split between
+      // the segments that may be in memory at once.
+      final long segmentSize = Math.max(1, bufferSize / partThreads);
+      final Semaphore segmentPermits = new Semaphore(partThreads);
+      final List<Future<?>> pendingParts = new ArrayList<>();
+      final List<SortedLogIndex.PartSummary> partSummaries =
+          Collections.synchronizedList(new ArrayList<>());
+      final AtomicReference<Exception> failure = new AtomicReference<>();
+      final AtomicLong sortNanos = new AtomicLong();
+      final AtomicLong writeNanos = new AtomicLong();
+      long readNanos = 0;
+
       Thread.currentThread().setName("Sorting " + name + " for recovery");
-      while (true) {
-        final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
-        try {
-          long start = input.getPos();
-          while (input.getPos() - start < bufferSize) {
-            LogFileKey key = new LogFileKey();
-            LogFileValue value = new LogFileValue();
-            key.readFields(decryptingInput);
-            value.readFields(decryptingInput);
-            buffer.add(new Pair<>(key, value));
+      try {
+        boolean eof = false;
+        while (!eof && failure.get() == null) {
+          segmentPermits.acquire();
+          final ArrayList<Pair<LogFileKey,LogFileValue>> buffer = new ArrayList<>();
+          long readStart = System.nanoTime();
+          try {
+            long start = input.getPos();
+            while (input.getPos() - start < segmentSize) {
+              LogFileKey key = new LogFileKey();
+              LogFileValue value = new LogFileValue();
+              key.readFields(decryptingInput);
+              value.readFields(decryptingInput);
+              buffer.add(new Pair<>(key, value));
+            }
+          } catch (EOFException ex) {
+            eof = true;
+          }
+          readNanos += System.nanoTime() - readStart;
+
+          final int segmentPart = part++;
+          Runnable sortTask = () -> {
+            try {
+              long sortBegin = System.nanoTime();
+              Map<Key,List<Mutation>> sorted = sortBuffer(buffer);
+              partSummaries.add(SortedLogIndex.summarize(partFileName(segmentPart), buffer));
+              long writeStart = System.nanoTime();
+              sortNanos.addAndGet(writeStart - sortBegin);
+              writeSorted(destPath, sorted, segmentPart);
+              writeNanos.addAndGet(System.nanoTime() - writeStart);
+            } catch (Exception e) {
+              failure.compareAndSet(null, e);
+            } finally {
+              segmentPermits.release();
+            }
+          };
+          if (partThreads == 1) {
+            sortTask.run();
+          } else {
+            pendingParts.add(sortPool.submit(sortTask));
           }
-          writeBuffer(destPath, buffer, part++);
-          buffer.clear();
-        } catch (EOFException ex) {
-          writeBuffer(destPath, buffer, part++);
-          break;
         }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while sorting " + name, e);
+      } finally {
+        waitForParts(pendingParts);
       }
+
+      if (failure.get() != null) {
+        throw new IOException("Failed to sort " + name, failure.get());
+      }
+
+      // recovery falls back to reading all parts when there is no index, so write it before the
+      // sort is marked finished
+      SortedLogIndex.write(fs, new Path(destPath), partSummaries);
       fs.create(new Path(destPath, "finished")).close();
-      log.info("Finished log sort {} {} bytes {} parts in {}ms", name, getBytesCopied(), part,
-          getSortTime());
+      log.info(
+          "Finished log sort {} {} bytes {} parts in {}ms (read {}ms, sort {}ms, write {}ms"
+              + " using {} threads)",
+          name, getBytesCopied(), part, getSortTime(), NANOSECONDS.toMillis(readNanos),
+          NANOSECONDS.toMillis(sortNanos.get()), NANOSECONDS.toMillis(writeNanos.get()),
+          partThreads);
+    }
+
+    private void waitForParts(List<Future<?>> pendingParts) throws IOException {
+      boolean interrupted = false;
+      for (Future<?> pending : pendingParts) {
+        while (true) {
+          try {
+            // failures are reported by the task itself
+            pending.get();
+            break;
+          } catch (InterruptedException e) {
+            // parts may still be writing to the destination, do not return before they finish
+            interrupted = true;
+          } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
     }
 
     synchronized void close() throws IOException {
@@ -207,6 +292,8 @@ public class LogSorter {
   ThreadPoolExecutor threadPool;
   private final ServerContext context;
   private double walBlockSize;
+  private final int partThreads;
+  private final ThreadPoolExecutor sortPool;
 
   public LogSorter(ServerContext context, AccumuloConfiguration conf) {
     this.context = context;
@@ -217,6 +304,10 @@ public class LogSorter {
     this.threadPool =
         ThreadPools.createFixedThreadPool(threadPoolSize, this.getClass().getName(), true);
     this.walBlockSize = DfsLogger.getWalBlockSize(conf);
+    this.partThreads = conf.getCount(Property.TSERV_WAL_SORT_PART_THREADS);
+    // shared by all concurrent sorts, each of which has at most partThreads parts in progress
+    this.sortPool = partThreads > 1 ? ThreadPools
+        .createFixedThreadPool(threadPoolSize * partThreads, "WAL sort part writer", true) : null;
   }
 
   /**
@@ -239,15 +330,21 @@ public class LogSorter {
     return copy;
   }
 
+  private static String partFileName(int part) {
+    return String.format("part-r-%05d.rf", part);
+  }
+
   @VisibleForTesting
   void writeBuffer(String destPath, List<Pair<LogFileKey,LogFileValue>> buffer, int part)
       throws IOException {
-    String filename = String.format("part-r-%05d.rf", part);
-    Path path = new Path(destPath, filename);
-    FileSystem fs = context.getVolumeManager().getFileSystemByPath(path);
-    Path fullPath = fs.makeQualified(path);
+    writeSorted(destPath, sortBuffer(buffer), part);
+  }
 
-    // convert the LogFileKeys to Keys, sort and collect the mutations
+  /**
+   * Convert the LogFileKeys to Keys, sort and collect the mutations.
+   */
+  private static Map<Key,List<Mutation>> sortBuffer(List<Pair<LogFileKey,LogFileValue>> buffer)
+      throws IOException {
     Map<Key,List<Mutation>> keyListMap = new TreeMap<>();
     for (Pair<LogFileKey,LogFileValue> pair : buffer) {
       var logFileKey = pair.getFirst();
@@ -260,6 +357,14 @@ public class LogSorter {
         keyListMap.put(logFileKey.toKey(), muts);
       }
     }
+    return keyListMap;
+  }
+
+  private void writeSorted(String destPath, Map<Key,List<Mutation>> keyListMap, int part)
+      throws IOException {
+    Path path = new Path(destPath, partFileName(part));
+    FileSystem fs = context.getVolumeManager().getFileSystemByPath(path);
+    Path fullPath = fs.makeQualified(path);
 
     try (var writer = FileOperations.getInstance().newWriterBuilder()
         .forFile(fullPath.toString(), fs, fs.getConf(), context.getCryptoService())
@@ -57,7 +57,8 @@ public class RecoveryLogsIterator
   private final Iterator<Entry<Key,Value>> iter;
 
   /**
-   * Scans the files in each recoveryLogDir over the range [start,end].
+   * Scans the files in each recoveryLogDir over the range [start,end]. When a directory has a
+   * {@link SortedLogIndex}, files that can not contain keys in the range are not opened.
    */
   public RecoveryLogsIterator(ServerContext context, List<Path> recoveryLogDirs, LogFileKey start,
       LogFileKey end, boolean checkFirstKey) throws IOException {
@@ -71,13 +72,24 @@ public class RecoveryLogsIterator
       LOG.debug("Opening recovery log dir {}", logDir.getName());
       List<Path> logFiles = getFiles(vm, logDir);
       var fs = vm.getFileSystemByPath(logDir);
+      SortedLogIndex index = SortedLogIndex.read(vm, logDir);
 
       // only check the first key once to prevent extra iterator creation and seeking
       if (checkFirstKey) {
-        validateFirstKey(context, fs, logFiles, logDir);
+        if (index == null) {
+          validateFirstKey(context, fs, logFiles, logDir);
+        } else {
+          index.validateFirstKey(logDir);
+        }
       }
 
       for (Path log : logFiles) {
+        if (index != null && start != null && !index.overlaps(log.getName(), start, end)) {
+          LOG.debug("Write ahead log {} has no data in range {} {} per index", log.getName(), start,
+              end);
+          continue;
+        }
+
         var scanner = RFile.newScanner().from(log.toString()).withFileSystem(fs)
             .withTableProperties(context.getConfiguration()).build();
 
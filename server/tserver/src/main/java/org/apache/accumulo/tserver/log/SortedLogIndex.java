@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
+import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A summary of the parts of a sorted write-ahead log, written by {@link LogSorter} beside the
+ * parts. For each part it records the tablets defined in it and, for each tablet id and event type,
+ * the range of sequence numbers present. Recovery uses this to find the logs that define a tablet
+ * and to open only the parts that can hold events for it. Logs sorted before the index existed have
+ * none and are read in full.
+ */
+public class SortedLogIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(SortedLogIndex.class);
+
+  // files starting with an underscore are not treated as sorted parts by RecoveryLogsIterator
+  static final String INDEX_FILE = "_index";
+
+  private static final int VERSION = 1;
+
+  /**
+   * Summary of a single sorted part.
+   */
+  static class PartSummary {
+    private final String name;
+    private long entries = 0;
+    private boolean hasOpen = false;
+    private final Map<KeyExtent,Integer> definedTablets = new HashMap<>();
+    // event type -> tablet id -> [min seq, max seq]
+    private final Map<Integer,Map<Integer,long[]>> seqRanges = new TreeMap<>();
+
+    PartSummary(String name) {
+      this.name = name;
+    }
+
+    String getName() {
+      return name;
+    }
+
+    void add(LogFileKey key) {
+      entries++;
+      if (key.event == OPEN) {
+        hasOpen = true;
+        return;
+      }
+      if (key.event == DEFINE_TABLET) {
+        definedTablets.merge(key.tablet, key.tabletId, Math::max);
+      }
+      long[] range =
+          seqRanges.computeIfAbsent(LogFileKey.eventType(key.event), k -> new TreeMap<>())
+              .computeIfAbsent(key.tabletId, k -> new long[] {key.seq, key.seq});
+      range[0] = Math.min(range[0], key.seq);
+      range[1] = Math.max(range[1], key.seq);
+    }
+
+    /**
+     * @return true if this part may contain keys in the inclusive range [start,end], which must be
+     *         for a single event type as used by recovery
+     */
+    boolean overlaps(LogFileKey start, LogFileKey end) {
+      int eventType = LogFileKey.eventType(start.event);
+      if (eventType != LogFileKey.eventType(end.event)) {
+        // not a range recovery uses, do not attempt to filter it
+        return true;
+      }
+      if (eventType == LogFileKey.eventType(OPEN)) {
+        return hasOpen;
+      }
+      Map<Integer,long[]> tablets = seqRanges.get(eventType);
+      if (tablets == null) {
+        return false;
+      }
+      for (Map.Entry<Integer,long[]> entry : tablets.entrySet()) {
+        int tabletId = entry.getKey();
+        if (tabletId < start.tabletId || tabletId > end.tabletId) {
+          continue;
+        }
+        long low = tabletId == start.tabletId ? start.seq : Long.MIN_VALUE;
+        long high = tabletId == end.tabletId ? end.seq : Long.MAX_VALUE;
+        long[] range = entry.getValue();
+        if (range[1] >= low && range[0] <= high) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeUTF(name);
+      out.writeLong(entries);
+      out.writeBoolean(hasOpen);
+      out.writeInt(definedTablets.size());
+      for (Map.Entry<KeyExtent,Integer> entry : definedTablets.entrySet()) {
+        entry.getKey().writeTo(out);
+        out.writeInt(entry.getValue());
+      }
+      out.writeInt(seqRanges.size());
+      for (Map.Entry<Integer,Map<Integer,long[]>> eventEntry : seqRanges.entrySet()) {
+        out.writeInt(eventEntry.getKey());
+        out.writeInt(eventEntry.getValue().size());
+        for (Map.Entry<Integer,long[]> entry : eventEntry.getValue().entrySet()) {
+          out.writeInt(entry.getKey());
+          out.writeLong(entry.getValue()[0]);
+          out.writeLong(entry.getValue()[1]);
+        }
+      }
+    }
+
+    private static PartSummary read(DataInputStream in) throws IOException {
+      PartSummary part = new PartSummary(in.readUTF());
+      part.entries = in.readLong();
+      part.hasOpen = in.readBoolean();
+      int numDefined = in.readInt();
+      for (int i = 0; i < numDefined; i++) {
+        part.definedTablets.put(KeyExtent.readFrom(in), in.readInt());
+      }
+      int numEventTypes = in.readInt();
+      for (int i = 0; i < numEventTypes; i++) {
+        Map<Integer,long[]> tablets =
+            part.seqRanges.computeIfAbsent(in.readInt(), k -> new TreeMap<>());
+        int numTablets = in.readInt();
+        for (int j = 0; j < numTablets; j++) {
+          tablets.put(in.readInt(), new long[] {in.readLong(), in.readLong()});
+        }
+      }
+      return part;
+    }
+  }
+
+  static PartSummary summarize(String name, List<Pair<LogFileKey,LogFileValue>> buffer) {
+    PartSummary part = new PartSummary(name);
+    for (Pair<LogFileKey,LogFileValue> pair : buffer) {
+      part.add(pair.getFirst());
+    }
+    return part;
+  }
+
+  private final Map<String,PartSummary> parts;
+
+  private SortedLogIndex(Map<String,PartSummary> parts) {
+    this.parts = parts;
+  }
+
+  static Path getIndexPath(Path sortedLogDir) {
+    return new Path(sortedLogDir, INDEX_FILE);
+  }
+
+  static void write(VolumeManager fs, Path sortedLogDir, Collection<PartSummary> parts)
+      throws IOException {
+    try (DataOutputStream out = fs.create(getIndexPath(sortedLogDir))) {
+      out.writeInt(VERSION);
+      out.writeInt(parts.size());
+      for (PartSummary part : parts) {
+        part.write(out);
+      }
+    }
+  }
+
+  /**
+   * Read the index of a sorted log directory.
+   *
+   * @return the index or null if the directory does not have a usable index
+   */
+  public static SortedLogIndex read(VolumeManager fs, Path sortedLogDir) {
+    Path indexPath = getIndexPath(sortedLogDir);
+    try {
+      if (!fs.exists(indexPath)) {
+        return null;
+      }
+      try (DataInputStream in = fs.open(indexPath)) {
+        int version = in.readInt();
+        if (version != VERSION) {
+          log.warn("Ignoring sorted log index {} with unknown version {}", indexPath, version);
+          return null;
+        }
+        int numParts = in.readInt();
+        Map<String,PartSummary> parts = new HashMap<>();
+        for (int i = 0; i < numParts; i++) {
+          PartSummary part = PartSummary.read(in);
+          parts.put(part.getName(), part);
+        }
+        return new SortedLogIndex(parts);
+      }
+    } catch (IOException e) {
+      // the index is only an optimization, fall back to reading all of the parts
+      log.warn("Failed to read sorted log index {}, reading all parts", indexPath, e);
+      return null;
+    }
+  }
+
+  /**
+   * @return true if the named part may contain keys in the inclusive range [start,end]. Parts
+   *         unknown to the index are always considered.
+   */
+  public boolean overlaps(String partName, LogFileKey start, LogFileKey end) {
+    PartSummary part = parts.get(partName);
+    return part == null || part.overlaps(start, end);
+  }
+
+  /**
+   * @return the highest tablet id either extent was defined with in this log, or -1
+   */
+  public int findMaxTabletId(KeyExtent extent, KeyExtent alternative) {
+    int tabletId = -1;
+    for (PartSummary part : parts.values()) {
+      tabletId = Math.max(tabletId, part.definedTablets.getOrDefault(extent, -1));
+      tabletId = Math.max(tabletId, part.definedTablets.getOrDefault(alternative, -1));
+    }
+    return tabletId;
+  }
+
+  /**
+   * Check that the first entry in the sorted log is OPEN, equivalent to reading the first key of
+   * the merged parts.
+   */
+  public void validateFirstKey(Path sortedLogDir) {
+    boolean empty = true;
+    for (PartSummary part : parts.values()) {
+      if (part.hasOpen) {
+        return;
+      }
+      empty &= part.entries == 0;
+    }
+    if (!empty) {
+      throw new IllegalStateException("First log entry is not OPEN " + sortedLogDir);
+    }
+  }
+}
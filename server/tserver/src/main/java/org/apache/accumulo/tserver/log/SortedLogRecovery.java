@@ -100,16 +100,24 @@ public class SortedLogRecovery {
     return key;
   }
 
-  private int findMaxTabletId(KeyExtent extent, List<Path> recoveryLogDirs) throws IOException {
+  private static KeyExtent alternativeExtent(KeyExtent extent) {
+    return extent.isRootTablet() ? RootTable.OLD_EXTENT : extent;
+  }
+
+  private int findMaxTabletId(KeyExtent extent, Path recoveryLogDir) throws IOException {
+    SortedLogIndex index = SortedLogIndex.read(context.getVolumeManager(), recoveryLogDir);
+    if (index != null) {
+      // the index lists the tablets each part defines, so no parts need to be opened
+      index.validateFirstKey(recoveryLogDir);
+      return index.findMaxTabletId(extent, alternativeExtent(extent));
+    }
+
     int tabletId = -1;
 
-    try (var rli = new RecoveryLogsIterator(context, recoveryLogDirs, minKey(DEFINE_TABLET),
-        maxKey(DEFINE_TABLET), true)) {
+    try (var rli = new RecoveryLogsIterator(context, Collections.singletonList(recoveryLogDir),
+        minKey(DEFINE_TABLET), maxKey(DEFINE_TABLET), true)) {
 
-      KeyExtent alternative = extent;
-      if (extent.isRootTablet()) {
-        alternative = RootTable.OLD_EXTENT;
-      }
+      KeyExtent alternative = alternativeExtent(extent);
 
       while (rli.hasNext()) {
         LogFileKey key = rli.next().getKey();
@@ -144,7 +152,7 @@ public class SortedLogRecovery {
     Map<Integer,List<Path>> logsThatDefineTablet = new HashMap<>();
 
     for (Path walDir : recoveryDirs) {
-      int tabletId = findMaxTabletId(extent, Collections.singletonList(walDir));
+      int tabletId = findMaxTabletId(extent, walDir);
       if (tabletId == -1) {
         log.debug("Did not find tablet {} in recovery log {}", extent, walDir.getName());
       } else {
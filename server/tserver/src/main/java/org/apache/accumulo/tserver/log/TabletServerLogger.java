@@ -22,10 +22,15 @@ import static java.util.Collections.singletonList;
 
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -56,6 +61,9 @@ import org.apache.hadoop.fs.Path;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
 /**
  * Central logging facility for the TServerInfo.
  *
@@ -63,42 +71,32 @@ import org.slf4j.LoggerFactory;
  * maintaining the maximum thread parallelism for greater performance. As new logs are used and
  * minor compactions are performed, the metadata table is kept up-to-date.
  *
+ * Updates may be spread over several concurrent WAL streams, see
+ * {@link org.apache.accumulo.core.conf.Property#TSERV_WAL_STREAMS}.
+ *
  */
 public class TabletServerLogger {
 
   private static final Logger log = LoggerFactory.getLogger(TabletServerLogger.class);
 
-  private final AtomicLong logSizeEstimate = new AtomicLong();
   private final long maxSize;
   private final long maxAge;
 
   private final TabletServer tserver;
 
-  // The current logger
-  private DfsLogger currentLog = null;
-  private final SynchronousQueue<Object> nextLog = new SynchronousQueue<>();
-  private ThreadPoolExecutor nextLogMaker;
-
-  // The current generation of logs.
-  // Because multiple threads can be using a log at one time, a log
-  // failure is likely to affect multiple threads, who will all attempt to
-  // create a new log. This will cause many unnecessary updates to the
-  // metadata table.
-  // We'll use this generational counter to determine if another thread has
-  // already fetched a new log.
-  private final AtomicInteger logId = new AtomicInteger();
+  // Each tablet writes to exactly one stream, chosen by hashing its extent. Within a stream logs
+  // are used one at a time, so the ordering guarantees that recovery and WAL removal rely on hold
+  // per stream.
+  private final LogStream[] streams;
 
-  // Use a ReadWriteLock to allow multiple threads to use the log set, but obtain a write lock to
-  // change them
-  private final ReentrantReadWriteLock logIdLock = new ReentrantReadWriteLock();
+  // Used to write to several streams at once when a batch of updates spans streams. Not created
+  // when there is a single stream.
+  private final ThreadPoolExecutor streamWriters;
 
   private final AtomicLong syncCounter;
   private final AtomicLong flushCounter;
 
-  private long createTime = 0;
-
   private final RetryFactory createRetryFactory;
-  private Retry createRetry = null;
 
   private final RetryFactory writeRetryFactory;
 
@@ -148,342 +146,443 @@ public class TabletServerLogger {
 
   public TabletServerLogger(TabletServer tserver, long maxSize, AtomicLong syncCounter,
       AtomicLong flushCounter, RetryFactory createRetryFactory, RetryFactory writeRetryFactory,
-      long maxAge) {
+      long maxAge, int numStreams) {
+    Preconditions.checkArgument(numStreams > 0, "number of WAL streams must be positive");
     this.tserver = tserver;
     this.maxSize = maxSize;
     this.syncCounter = syncCounter;
     this.flushCounter = flushCounter;
     this.createRetryFactory = createRetryFactory;
-    this.createRetry = null;
     this.writeRetryFactory = writeRetryFactory;
     this.maxAge = maxAge;
+    this.streams = new LogStream[numStreams];
+    for (int i = 0; i < numStreams; i++) {
+      streams[i] = new LogStream(i);
+    }
+    if (numStreams > 1) {
+      // each stream is written by one thread at a time, so more writers than streams only wait
+      this.streamWriters =
+          ThreadPools.createFixedThreadPool(numStreams, "WAL stream writer", false);
+    } else {
+      this.streamWriters = null;
+    }
   }
 
-  private DfsLogger initializeLoggers(final AtomicInteger logIdOut) throws IOException {
-    final AtomicReference<DfsLogger> result = new AtomicReference<>();
-    testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-      @Override
-      boolean test() {
-        result.set(currentLog);
-        if (currentLog != null)
-          logIdOut.set(logId.get());
-        return currentLog == null;
-      }
+  /**
+   * Stop the threads that write to several streams at once, after the writes already submitted.
+   */
+  public void close() {
+    if (streamWriters != null) {
+      streamWriters.shutdown();
+    }
+  }
 
-      @Override
-      void withWriteLock() {
-        createLogger();
-        result.set(currentLog);
-        if (currentLog != null)
-          logIdOut.set(logId.get());
-        else
-          logIdOut.set(-1);
-      }
-    });
-    return result.get();
+  /**
+   * @return the number of concurrent WAL streams
+   */
+  public int getNumStreams() {
+    return streams.length;
+  }
+
+  /**
+   * @return the WAL stream that updates for the given tablet are written to
+   */
+  public int getStream(KeyExtent extent) {
+    return Math.floorMod(extent.hashCode(), streams.length);
+  }
+
+  private LogStream streamFor(CommitSession commitSession) {
+    return streams[getStream(commitSession.getExtent())];
   }
 
   /**
-   * Get the current WAL file
+   * Get the current WAL files
    *
-   * @return The name of the current log, or null if there is no current log.
+   * @return The names of the current log of each stream that has one, possibly empty.
    */
-  public String getLogFile() {
-    logIdLock.readLock().lock();
-    try {
-      if (currentLog == null) {
-        return null;
+  public List<String> getLogFiles() {
+    List<String> logFiles = new ArrayList<>(streams.length);
+    for (LogStream stream : streams) {
+      String logFile = stream.getLogFile();
+      if (logFile != null) {
+        logFiles.add(logFile);
       }
-      return currentLog.getFileName();
-    } finally {
-      logIdLock.readLock().unlock();
     }
+    return logFiles;
+  }
+
+  interface Writer {
+    LoggerOperation write(DfsLogger logger) throws Exception;
   }
 
-  private synchronized void createLogger() {
-    if (!logIdLock.isWriteLockedByCurrentThread()) {
-      throw new IllegalStateException("createLoggers should be called with write lock held!");
+  /**
+   * A sequence of logs, only one of which is in use at a time. Each stream creates its own logs and
+   * so has its own sync thread.
+   */
+  private class LogStream {
+
+    private final int id;
+
+    private final AtomicLong logSizeEstimate = new AtomicLong();
+
+    // The current logger
+    private DfsLogger currentLog = null;
+    private final SynchronousQueue<Object> nextLog = new SynchronousQueue<>();
+    private ThreadPoolExecutor nextLogMaker;
+
+    // The current generation of logs.
+    // Because multiple threads can be using a log at one time, a log
+    // failure is likely to affect multiple threads, who will all attempt to
+    // create a new log. This will cause many unnecessary updates to the
+    // metadata table.
+    // We'll use this generational counter to determine if another thread has
+    // already fetched a new log.
+    private final AtomicInteger logId = new AtomicInteger();
+
+    // Use a ReadWriteLock to allow multiple threads to use the log set, but obtain a write lock to
+    // change them
+    private final ReentrantReadWriteLock logIdLock = new ReentrantReadWriteLock();
+
+    private long createTime = 0;
+
+    private Retry createRetry = null;
+
+    LogStream(int id) {
+      this.id = id;
     }
 
-    if (currentLog != null) {
-      throw new IllegalStateException("createLoggers should not be called when current log is set");
+    private DfsLogger initializeLoggers(final AtomicInteger logIdOut) throws IOException {
+      final AtomicReference<DfsLogger> result = new AtomicReference<>();
+      testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+        @Override
+        boolean test() {
+          result.set(currentLog);
+          if (currentLog != null)
+            logIdOut.set(logId.get());
+          return currentLog == null;
+        }
+
+        @Override
+        void withWriteLock() {
+          createLogger();
+          result.set(currentLog);
+          if (currentLog != null)
+            logIdOut.set(logId.get());
+          else
+            logIdOut.set(-1);
+        }
+      });
+      return result.get();
     }
 
-    try {
-      startLogMaker();
-      Object next = nextLog.take();
-      if (next instanceof Exception) {
-        throw (Exception) next;
-      }
-      if (next instanceof DfsLogger) {
-        currentLog = (DfsLogger) next;
-        logId.incrementAndGet();
-        log.info("Using next log {}", currentLog.getFileName());
-
-        // When we successfully create a WAL, make sure to reset the Retry.
-        if (createRetry != null) {
-          createRetry = null;
+    String getLogFile() {
+      logIdLock.readLock().lock();
+      try {
+        if (currentLog == null) {
+          return null;
         }
+        return currentLog.getFileName();
+      } finally {
+        logIdLock.readLock().unlock();
+      }
+    }
 
-        this.createTime = System.currentTimeMillis();
-        return;
-      } else {
-        throw new RuntimeException("Error: unexpected type seen: " + next);
+    private synchronized void createLogger() {
+      if (!logIdLock.isWriteLockedByCurrentThread()) {
+        throw new IllegalStateException("createLoggers should be called with write lock held!");
       }
-    } catch (Exception t) {
-      if (createRetry == null) {
-        createRetry = createRetryFactory.createRetry();
+
+      if (currentLog != null) {
+        throw new IllegalStateException(
+            "createLoggers should not be called when current log is set");
       }
 
-      // We have more retries or we exceeded the maximum number of accepted failures
-      if (createRetry.canRetry()) {
-        // Use the createRetry and record the time in which we did so
-        createRetry.useRetry();
+      try {
+        startLogMaker();
+        Object next = nextLog.take();
+        if (next instanceof Exception) {
+          throw (Exception) next;
+        }
+        if (next instanceof DfsLogger) {
+          currentLog = (DfsLogger) next;
+          logId.incrementAndGet();
+          log.info("Using next log {} for WAL stream {}", currentLog.getFileName(), id);
+
+          // When we successfully create a WAL, make sure to reset the Retry.
+          if (createRetry != null) {
+            createRetry = null;
+          }
 
-        try {
-          // Backoff
-          createRetry.waitForNextAttempt();
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          throw new RuntimeException(e);
+          this.createTime = System.currentTimeMillis();
+          return;
+        } else {
+          throw new RuntimeException("Error: unexpected type seen: " + next);
+        }
+      } catch (Exception t) {
+        if (createRetry == null) {
+          createRetry = createRetryFactory.createRetry();
         }
-      } else {
-        log.error("Repeatedly failed to create WAL. Going to exit tabletserver.", t);
-        // We didn't have retries or we failed too many times.
-        Halt.halt("Experienced too many errors creating WALs, giving up", 1);
-      }
 
-      // The exception will trigger the log creation to be re-attempted.
-      throw new RuntimeException(t);
-    }
-  }
+        // We have more retries or we exceeded the maximum number of accepted failures
+        if (createRetry.canRetry()) {
+          // Use the createRetry and record the time in which we did so
+          createRetry.useRetry();
 
-  private synchronized void startLogMaker() {
-    if (nextLogMaker != null) {
-      return;
+          try {
+            // Backoff
+            createRetry.waitForNextAttempt();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          }
+        } else {
+          log.error("Repeatedly failed to create WAL. Going to exit tabletserver.", t);
+          // We didn't have retries or we failed too many times.
+          Halt.halt("Experienced too many errors creating WALs, giving up", 1);
+        }
+
+        // The exception will trigger the log creation to be re-attempted.
+        throw new RuntimeException(t);
+      }
     }
-    nextLogMaker = ThreadPools.createFixedThreadPool(1, "WALog creator", true);
-    nextLogMaker.submit(new Runnable() {
-      @Override
-      public void run() {
-        final ServerResources conf = tserver.getServerConfig();
-        final VolumeManager fs = conf.getVolumeManager();
-        while (!nextLogMaker.isShutdown()) {
-          log.debug("Creating next WAL");
-          DfsLogger alog = null;
 
-          try {
-            alog = new DfsLogger(tserver.getContext(), conf, syncCounter, flushCounter);
-            alog.open(tserver.getClientAddressString());
-          } catch (Exception t) {
-            log.error("Failed to open WAL", t);
-            // the log is not advertised in ZK yet, so we can just delete it if it exists
-            if (alog != null) {
-              try {
-                alog.close();
-              } catch (Exception e) {
-                log.error("Failed to close WAL after it failed to open", e);
+    private synchronized void startLogMaker() {
+      if (nextLogMaker != null) {
+        return;
+      }
+      nextLogMaker = ThreadPools.createFixedThreadPool(1, "WALog creator " + id, true);
+      nextLogMaker.submit(new Runnable() {
+        @Override
+        public void run() {
+          final ServerResources conf = tserver.getServerConfig();
+          final VolumeManager fs = conf.getVolumeManager();
+          while (!nextLogMaker.isShutdown()) {
+            log.debug("Creating next WAL for stream {}", id);
+            DfsLogger alog = null;
+
+            try {
+              alog = new DfsLogger(tserver.getContext(), conf, syncCounter, flushCounter,
+                  tserver.getWalMetrics(), id);
+              alog.open(tserver.getClientAddressString());
+            } catch (Exception t) {
+              log.error("Failed to open WAL", t);
+              // the log is not advertised in ZK yet, so we can just delete it if it exists
+              if (alog != null) {
+                try {
+                  alog.close();
+                } catch (Exception e) {
+                  log.error("Failed to close WAL after it failed to open", e);
+                }
+
+                try {
+                  Path path = alog.getPath();
+                  if (fs.exists(path)) {
+                    fs.delete(path);
+                  }
+                } catch (Exception e) {
+                  log.warn("Failed to delete a WAL that failed to open", e);
+                }
               }
 
               try {
-                Path path = alog.getPath();
-                if (fs.exists(path)) {
-                  fs.delete(path);
-                }
-              } catch (Exception e) {
-                log.warn("Failed to delete a WAL that failed to open", e);
+                nextLog.offer(t, 12, TimeUnit.HOURS);
+              } catch (InterruptedException ex) {
+                // ignore
               }
-            }
 
-            try {
-              nextLog.offer(t, 12, TimeUnit.HOURS);
-            } catch (InterruptedException ex) {
-              // ignore
+              continue;
             }
 
-            continue;
-          }
+            String fileName = alog.getFileName();
+            log.debug("Created next WAL {}", fileName);
 
-          String fileName = alog.getFileName();
-          log.debug("Created next WAL {}", fileName);
+            try {
+              tserver.addNewLogMarker(alog);
+            } catch (Exception t) {
+              log.error("Failed to add new WAL marker for " + fileName, t);
 
-          try {
-            tserver.addNewLogMarker(alog);
-          } catch (Exception t) {
-            log.error("Failed to add new WAL marker for " + fileName, t);
+              try {
+                // Intentionally not deleting walog because it may have been advertised in ZK. See
+                // #949
+                alog.close();
+              } catch (Exception e) {
+                log.error("Failed to close WAL after it failed to open", e);
+              }
 
-            try {
-              // Intentionally not deleting walog because it may have been advertised in ZK. See
-              // #949
-              alog.close();
-            } catch (Exception e) {
-              log.error("Failed to close WAL after it failed to open", e);
-            }
+              // it's possible the log was advertised in ZK even though we got an
+              // exception. If there's a chance the WAL marker may have been created,
+              // this will ensure it's closed. Either the close will be written and
+              // the GC will clean it up, or the tserver is about to die due to sesson
+              // expiration and the GC will also clean it up.
+              try {
+                tserver.walogClosed(alog);
+              } catch (Exception e) {
+                log.error("Failed to close WAL that failed to open: " + fileName, e);
+              }
 
-            // it's possible the log was advertised in ZK even though we got an
-            // exception. If there's a chance the WAL marker may have been created,
-            // this will ensure it's closed. Either the close will be written and
-            // the GC will clean it up, or the tserver is about to die due to sesson
-            // expiration and the GC will also clean it up.
-            try {
-              tserver.walogClosed(alog);
-            } catch (Exception e) {
-              log.error("Failed to close WAL that failed to open: " + fileName, e);
+              try {
+                nextLog.offer(t, 12, TimeUnit.HOURS);
+              } catch (InterruptedException ex) {
+                // ignore
+              }
+
+              continue;
             }
 
             try {
-              nextLog.offer(t, 12, TimeUnit.HOURS);
-            } catch (InterruptedException ex) {
-              // ignore
+              while (!nextLog.offer(alog, 12, TimeUnit.HOURS)) {
+                log.info("Our WAL was not used for 12 hours: {}", fileName);
+              }
+            } catch (InterruptedException e) {
+              // ignore - server is shutting down
             }
-
-            continue;
           }
+        }
+      });
+    }
 
+    private synchronized void close() throws IOException {
+      if (!logIdLock.isWriteLockedByCurrentThread()) {
+        throw new IllegalStateException("close should be called with write lock held!");
+      }
+      try {
+        if (currentLog != null) {
           try {
-            while (!nextLog.offer(alog, 12, TimeUnit.HOURS)) {
-              log.info("Our WAL was not used for 12 hours: {}", fileName);
-            }
-          } catch (InterruptedException e) {
-            // ignore - server is shutting down
+            currentLog.close();
+          } catch (DfsLogger.LogClosedException ex) {
+            // ignore
+          } catch (Exception ex) {
+            log.error("Unable to cleanly close log " + currentLog.getFileName() + ": " + ex, ex);
+          } finally {
+            tserver.walogClosed(currentLog);
+            currentLog = null;
+            logSizeEstimate.set(0);
           }
         }
+      } catch (Exception t) {
+        throw new IOException(t);
       }
-    });
-  }
-
-  private synchronized void close() throws IOException {
-    if (!logIdLock.isWriteLockedByCurrentThread()) {
-      throw new IllegalStateException("close should be called with write lock held!");
-    }
-    try {
-      if (currentLog != null) {
-        try {
-          currentLog.close();
-        } catch (DfsLogger.LogClosedException ex) {
-          // ignore
-        } catch (Exception ex) {
-          log.error("Unable to cleanly close log " + currentLog.getFileName() + ": " + ex, ex);
-        } finally {
-          this.tserver.walogClosed(currentLog);
-          currentLog = null;
-          logSizeEstimate.set(0);
-        }
-      }
-    } catch (Exception t) {
-      throw new IOException(t);
     }
-  }
-
-  interface Writer {
-    LoggerOperation write(DfsLogger logger) throws Exception;
-  }
-
-  private void write(final Collection<CommitSession> sessions, boolean mincFinish, Writer writer,
-      Retry writeRetry) throws IOException {
-    // Work very hard not to lock this during calls to the outside world
-    int currentLogId = logId.get();
 
-    boolean success = false;
-    while (!success) {
-      try {
-        // get a reference to the loggers that no other thread can touch
-        AtomicInteger currentId = new AtomicInteger(-1);
-        DfsLogger copy = initializeLoggers(currentId);
-        currentLogId = currentId.get();
+    private void write(final Collection<CommitSession> sessions, boolean mincFinish, Writer writer,
+        Retry writeRetry) throws IOException {
+      // Work very hard not to lock this during calls to the outside world
+      int currentLogId = logId.get();
 
-        // add the logger to the log set for the memory in the tablet,
-        // update the metadata table if we've never used this tablet
-
-        if (currentLogId == logId.get()) {
-          for (CommitSession commitSession : sessions) {
-            if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
-              try {
-                // Scribble out a tablet definition and then write to the metadata table
-                write(singletonList(commitSession), false,
-                    logger -> logger.defineTablet(commitSession), writeRetry);
-              } finally {
-                commitSession.finishUpdatingLogsUsed();
-              }
+      boolean success = false;
+      while (!success) {
+        try {
+          // get a reference to the loggers that no other thread can touch
+          AtomicInteger currentId = new AtomicInteger(-1);
+          DfsLogger copy = initializeLoggers(currentId);
+          currentLogId = currentId.get();
+
+          // add the logger to the log set for the memory in the tablet,
+          // update the metadata table if we've never used this tablet
+
+          if (currentLogId == logId.get()) {
+            for (CommitSession commitSession : sessions) {
+              if (commitSession.beginUpdatingLogsUsed(copy, mincFinish)) {
+                try {
+                  // Scribble out a tablet definition and then write to the metadata table
+                  write(singletonList(commitSession), false,
+                      logger -> logger.defineTablet(commitSession), writeRetry);
+                } finally {
+                  commitSession.finishUpdatingLogsUsed();
+                }
 
-              // Need to release
-              KeyExtent extent = commitSession.getExtent();
-              @SuppressWarnings("deprecation")
-              boolean replicationEnabled =
-                  org.apache.accumulo.core.replication.ReplicationConfigurationUtil
-                      .isEnabled(extent, tserver.getTableConfiguration(extent));
-              if (replicationEnabled) {
+                // Need to release
+                KeyExtent extent = commitSession.getExtent();
                 @SuppressWarnings("deprecation")
-                Status status = org.apache.accumulo.server.replication.StatusUtil
-                    .openWithUnknownLength(System.currentTimeMillis());
-                log.debug("Writing " + ProtobufUtil.toString(status) + " to metadata table for "
-                    + copy.getFileName());
-                // Got some new WALs, note this in the metadata table
-                ReplicationTableUtil.updateFiles(tserver.getContext(), commitSession.getExtent(),
-                    copy.getFileName(), status);
+                boolean replicationEnabled =
+                    org.apache.accumulo.core.replication.ReplicationConfigurationUtil
+                        .isEnabled(extent, tserver.getTableConfiguration(extent));
+                if (replicationEnabled) {
+                  @SuppressWarnings("deprecation")
+                  Status status = org.apache.accumulo.server.replication.StatusUtil
+                      .openWithUnknownLength(System.currentTimeMillis());
+                  log.debug("Writing " + ProtobufUtil.toString(status) + " to metadata table for "
+                      + copy.getFileName());
+                  // Got some new WALs, note this in the metadata table
+                  ReplicationTableUtil.updateFiles(tserver.getContext(), commitSession.getExtent(),
+                      copy.getFileName(), status);
+                }
               }
             }
           }
-        }
 
-        // Make sure that the logs haven't changed out from underneath our copy
-        if (currentLogId == logId.get()) {
+          // Make sure that the logs haven't changed out from underneath our copy
+          if (currentLogId == logId.get()) {
 
-          // write the mutation to the logs
-          LoggerOperation lop = writer.write(copy);
-          lop.await();
+            // write the mutation to the logs
+            LoggerOperation lop = writer.write(copy);
+            lop.await();
 
-          // double-check: did the log set change?
-          success = (currentLogId == logId.get());
+            // double-check: did the log set change?
+            success = (currentLogId == logId.get());
+          }
+        } catch (DfsLogger.LogClosedException | ClosedChannelException ex) {
+          writeRetry.logRetry(log, "Logs closed while writing", ex);
+        } catch (Exception t) {
+          writeRetry.logRetry(log, "Failed to write to WAL", t);
+
+          try {
+            // Backoff
+            writeRetry.waitForNextAttempt();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+          }
+        } finally {
+          writeRetry.useRetry();
         }
-      } catch (DfsLogger.LogClosedException | ClosedChannelException ex) {
-        writeRetry.logRetry(log, "Logs closed while writing", ex);
-      } catch (Exception t) {
-        writeRetry.logRetry(log, "Failed to write to WAL", t);
+        // Some sort of write failure occurred. Grab the write lock and reset the logs.
+        // But since multiple threads will attempt it, only attempt the reset when
+        // the logs haven't changed.
+        final int finalCurrent = currentLogId;
+        if (!success) {
+          testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+
+            @Override
+            boolean test() {
+              return finalCurrent == logId.get();
+            }
 
-        try {
-          // Backoff
-          writeRetry.waitForNextAttempt();
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          throw new RuntimeException(e);
+            @Override
+            void withWriteLock() throws IOException {
+              close();
+            }
+          });
         }
-      } finally {
-        writeRetry.useRetry();
       }
-      // Some sort of write failure occurred. Grab the write lock and reset the logs.
-      // But since multiple threads will attempt it, only attempt the reset when
-      // the logs haven't changed.
-      final int finalCurrent = currentLogId;
-      if (!success) {
-        testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-
-          @Override
-          boolean test() {
-            return finalCurrent == logId.get();
-          }
+      // if the log gets too big or too old, reset it .. grab the write lock first
+      logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
+      testLockAndRun(logIdLock, new TestCallWithWriteLock() {
+        @Override
+        boolean test() {
+          return (logSizeEstimate.get() > maxSize)
+              || ((System.currentTimeMillis() - createTime) > maxAge);
+        }
 
-          @Override
-          void withWriteLock() throws IOException {
-            close();
-          }
-        });
-      }
+        @Override
+        void withWriteLock() throws IOException {
+          close();
+        }
+      });
     }
-    // if the log gets too big or too old, reset it .. grab the write lock first
-    logSizeEstimate.addAndGet(4 * 3); // event, tid, seq overhead
-    testLockAndRun(logIdLock, new TestCallWithWriteLock() {
-      @Override
-      boolean test() {
-        return (logSizeEstimate.get() > maxSize)
-            || ((System.currentTimeMillis() - createTime) > maxAge);
-      }
 
-      @Override
-      void withWriteLock() throws IOException {
-        close();
+    private void logManyTablets(Map<CommitSession,TabletMutations> loggables) throws IOException {
+      write(loggables.keySet(), false, logger -> logger.logManyTablets(loggables.values()),
+          writeRetryFactory.createRetry());
+      for (TabletMutations entry : loggables.values()) {
+        if (entry.getMutations().size() < 1) {
+          throw new IllegalArgumentException("logManyTablets: logging empty mutation list");
+        }
+        for (Mutation m : entry.getMutations()) {
+          logSizeEstimate.addAndGet(m.numBytes());
+        }
       }
-    });
+    }
   }
 
   /**
@@ -494,40 +593,70 @@ public class TabletServerLogger {
     if (durability == Durability.DEFAULT || durability == Durability.NONE) {
       throw new IllegalArgumentException("Unexpected durability " + durability);
     }
-    write(singletonList(commitSession), false, logger -> logger.log(commitSession, m, durability),
-        writeRetryFactory.createRetry());
-    logSizeEstimate.addAndGet(m.numBytes());
+    LogStream stream = streamFor(commitSession);
+    stream.write(singletonList(commitSession), false,
+        logger -> logger.log(commitSession, m, durability), writeRetryFactory.createRetry());
+    stream.logSizeEstimate.addAndGet(m.numBytes());
   }
 
   /**
-   * Log mutations. This method expects mutations that have a durability other than NONE.
+   * Log mutations. This method expects mutations that have a durability other than NONE. When the
+   * tablets are spread over more than one WAL stream, the streams are written concurrently.
    */
   public void logManyTablets(Map<CommitSession,TabletMutations> loggables) throws IOException {
     if (loggables.isEmpty())
       return;
 
-    write(loggables.keySet(), false, logger -> logger.logManyTablets(loggables.values()),
-        writeRetryFactory.createRetry());
-    for (TabletMutations entry : loggables.values()) {
-      if (entry.getMutations().size() < 1) {
-        throw new IllegalArgumentException("logManyTablets: logging empty mutation list");
+    if (streams.length == 1) {
+      streams[0].logManyTablets(loggables);
+      return;
+    }
+
+    Map<LogStream,Map<CommitSession,TabletMutations>> byStream = new HashMap<>();
+    loggables.forEach((commitSession, mutations) -> byStream
+        .computeIfAbsent(streamFor(commitSession), k -> new HashMap<>())
+        .put(commitSession, mutations));
+
+    List<Future<?>> futures = new ArrayList<>(byStream.size() - 1);
+    Entry<LogStream,Map<CommitSession,TabletMutations>> local = null;
+    for (Entry<LogStream,Map<CommitSession,TabletMutations>> entry : byStream.entrySet()) {
+      if (local == null) {
+        // write one stream in this thread
+        local = entry;
+      } else {
+        futures.add(streamWriters.submit(() -> {
+          entry.getKey().logManyTablets(entry.getValue());
+          return null;
+        }));
       }
-      for (Mutation m : entry.getMutations()) {
-        logSizeEstimate.addAndGet(m.numBytes());
+    }
+
+    local.getKey().logManyTablets(local.getValue());
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      } catch (ExecutionException e) {
+        Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new IOException(e.getCause());
       }
     }
   }
 
   public void minorCompactionFinished(final CommitSession commitSession, final long walogSeq,
       final Durability durability) throws IOException {
-    write(singletonList(commitSession), true,
+    streamFor(commitSession).write(singletonList(commitSession), true,
         logger -> logger.minorCompactionFinished(walogSeq, commitSession.getLogId(), durability),
         writeRetryFactory.createRetry());
   }
 
   public long minorCompactionStarted(final CommitSession commitSession, final long seq,
       final String fullyQualifiedFileName, final Durability durability) throws IOException {
-    write(
+    streamFor(commitSession).write(
         singletonList(commitSession), false, logger -> logger.minorCompactionStarted(seq,
             commitSession.getLogId(), fullyQualifiedFileName, durability),
         writeRetryFactory.createRetry());
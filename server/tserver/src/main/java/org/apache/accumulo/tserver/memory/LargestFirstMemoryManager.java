@@ -30,6 +30,7 @@ import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.manager.state.tables.TableState;
 import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.tserver.metrics.TabletServerMemoryMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +46,7 @@ public class LargestFirstMemoryManager {
 
   private static final Logger log = LoggerFactory.getLogger(LargestFirstMemoryManager.class);
   static final long ZERO_TIME = System.currentTimeMillis();
-  private static final int TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER = 2;
+  static final int TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER = 2;
   private static final double MAX_FLUSH_AT_ONCE_PERCENT = 0.20;
 
   private long maxMemory = -1;
@@ -129,6 +130,13 @@ public class LargestFirstMemoryManager {
     numWaitingMultiplier = TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER;
   }
 
+  /**
+   * Initialize a manager that may report what it observes to the given metrics.
+   */
+  public void init(ServerContext context, TabletServerMemoryMetrics metrics) {
+    init(context);
+  }
+
   public LargestFirstMemoryManager() {
     prevIngestMemory = 0;
     compactionThreshold = 0.5;
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.tserver.metrics.TabletServerMemoryMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The PredictiveMemoryManager starts minor compactions before memory fills instead of reacting once
+ * it is nearly full. It tracks how fast the in memory map of each tablet grows and how fast recent
+ * minor compactions wrote memory out. From these it predicts the memory that will be in use by the
+ * time a flush started now completes and, if that would pass 80% of memory, it flushes the largest
+ * tablets early so memory does not reach the 95% at which the tablet server holds writes. The
+ * choices of {@link LargestFirstMemoryManager}, including idle flushes, are kept.
+ */
+public class PredictiveMemoryManager extends LargestFirstMemoryManager {
+
+  private static final Logger log = LoggerFactory.getLogger(PredictiveMemoryManager.class);
+
+  // the fraction of memory at which TabletServerResourceManager holds commits
+  static final double HOLD_THRESHOLD = 0.95;
+  // the fraction of memory that predicted memory use should stay below
+  static final double TARGET_THRESHOLD = 0.80;
+  // the weight given to the newest sample in the moving averages
+  private static final double ALPHA = 0.3;
+  // the minor compaction rate, in bytes per second, assumed until one has been observed
+  static final double DEFAULT_FLUSH_RATE = 10 * 1024 * 1024;
+  // allows for the time a minor compaction spends queued and opening files
+  private static final double FLUSH_TIME_FACTOR = 1.5;
+
+  private long maxMemory;
+  private int maxMinCs;
+  private TabletServerMemoryMetrics metrics;
+  private final Map<KeyExtent,TabletHistory> history = new HashMap<>();
+  // moving average of bytes per second written by minor compactions, 0 until one is observed
+  private double flushRate = 0;
+
+  private static class TabletHistory {
+    long lastTime = -1;
+    long lastMemTableSize;
+    long lastMinorCompactingSize;
+    // moving average of bytes per second added to the tablet's in memory map
+    double ingestRate;
+    long minorCompactionStart = -1;
+    long minorCompactionSize;
+  }
+
+  @Override
+  public void init(ServerContext context) {
+    super.init(context);
+    maxMemory = context.getConfiguration().getAsBytes(Property.TSERV_MAXMEM);
+    maxMinCs = context.getConfiguration().getCount(Property.TSERV_MINC_MAXCONCURRENT)
+        * TSERV_MINC_MAXCONCURRENT_NUMWAITING_MULTIPLIER;
+  }
+
+  @Override
+  public void init(ServerContext context, TabletServerMemoryMetrics metrics) {
+    init(context);
+    this.metrics = metrics;
+  }
+
+  double getFlushRate() {
+    return flushRate;
+  }
+
+  private void update(TabletHistory th, long now, long memTableSize, long minorCompactingSize) {
+    if (th.lastTime >= 0 && now > th.lastTime) {
+      long grown;
+      if (minorCompactingSize > 0 && th.lastMinorCompactingSize == 0) {
+        // a minor compaction started and the in memory map was replaced by an empty one
+        grown = memTableSize;
+      } else {
+        grown = memTableSize - th.lastMemTableSize;
+      }
+      if (grown >= 0) {
+        double rate = grown * 1000.0 / (now - th.lastTime);
+        th.ingestRate = ALPHA * rate + (1 - ALPHA) * th.ingestRate;
+      }
+
+      if (minorCompactingSize > 0 && th.lastMinorCompactingSize == 0) {
+        th.minorCompactionStart = now;
+        th.minorCompactionSize = minorCompactingSize;
+      } else if (minorCompactingSize == 0 && th.lastMinorCompactingSize > 0
+          && th.minorCompactionStart >= 0) {
+        double rate = th.minorCompactionSize * 1000.0 / Math.max(now - th.minorCompactionStart, 1);
+        flushRate = flushRate == 0 ? rate : ALPHA * rate + (1 - ALPHA) * flushRate;
+        log.trace("Minor compaction of {} bytes took {}ms", th.minorCompactionSize,
+            now - th.minorCompactionStart);
+        th.minorCompactionStart = -1;
+      }
+    }
+    th.lastTime = now;
+    th.lastMemTableSize = memTableSize;
+    th.lastMinorCompactingSize = minorCompactingSize;
+  }
+
+  @Override
+  public List<KeyExtent> tabletsToMinorCompact(List<TabletMemoryReport> tablets) {
+    final List<KeyExtent> tabletsToMinorCompact = super.tabletsToMinorCompact(tablets);
+    final Set<KeyExtent> chosen = new HashSet<>(tabletsToMinorCompact);
+    final long now = currentTimeMillis();
+
+    long memoryUsed = 0;
+    // memory that will be freed by minor compactions that are running or about to start
+    long releasing = 0;
+    double ingestRate = 0;
+    int numWaitingMincs = 0;
+    List<TabletMemoryReport> candidates = new ArrayList<>();
+    Set<KeyExtent> reported = new HashSet<>();
+
+    for (TabletMemoryReport ts : tablets) {
+      KeyExtent extent = ts.getExtent();
+      long memTableSize = ts.getMemTableSize();
+      long minorCompactingSize = ts.getMinorCompactingMemTableSize();
+      TabletHistory th = history.computeIfAbsent(extent, k -> new TabletHistory());
+      update(th, now, memTableSize, minorCompactingSize);
+      reported.add(extent);
+
+      memoryUsed += memTableSize + minorCompactingSize;
+      ingestRate += th.ingestRate;
+      releasing += minorCompactingSize;
+      if (minorCompactingSize > 0) {
+        numWaitingMincs++;
+      }
+      if (chosen.contains(extent)) {
+        releasing += memTableSize;
+      } else if (minorCompactingSize == 0 && memTableSize > 0) {
+        candidates.add(ts);
+      }
+    }
+    history.keySet().retainAll(reported);
+
+    final double rate = flushRate > 0 ? flushRate : DEFAULT_FLUSH_RATE;
+    final long timeToHold = ingestRate > 0
+        ? (long) Math.max(0, (HOLD_THRESHOLD * maxMemory - memoryUsed) * 1000 / ingestRate) : -1;
+    candidates.sort(Comparator.comparingLong(TabletMemoryReport::getMemTableSize).reversed());
+    final long predictedFlushTime = candidates.isEmpty() ? 0
+        : (long) (FLUSH_TIME_FACTOR * candidates.get(0).getMemTableSize() * 1000 / rate);
+
+    int started = 0;
+    int available = maxMinCs - numWaitingMincs - tabletsToMinorCompact.size();
+    if (ingestRate > 0) {
+      for (TabletMemoryReport candidate : candidates) {
+        if (available <= 0) {
+          break;
+        }
+        long memTableSize = candidate.getMemTableSize();
+        double flushSeconds = FLUSH_TIME_FACTOR * memTableSize / rate;
+        double predicted = memoryUsed + ingestRate * flushSeconds - releasing;
+        if (predicted <= TARGET_THRESHOLD * maxMemory) {
+          break;
+        }
+        KeyExtent extent = candidate.getExtent();
+        if (!tableExists(extent.tableId()) || tableBeingDeleted(extent.tableId())) {
+          continue;
+        }
+        tabletsToMinorCompact.add(extent);
+        releasing += memTableSize;
+        available--;
+        started++;
+        log.debug(String.format(
+            "COMPACTING %s early, predicted memory %,d ingest rate %,d/s writes held in %,dms",
+            extent, (long) predicted, (long) ingestRate, timeToHold));
+      }
+    }
+
+    if (metrics != null) {
+      metrics.setPredictions(timeToHold, (long) ingestRate, predictedFlushTime);
+      metrics.addPredictiveFlushes(started);
+    }
+
+    return tabletsToMinorCompact;
+  }
+}
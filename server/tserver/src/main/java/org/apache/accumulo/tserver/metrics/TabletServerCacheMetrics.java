@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.accumulo.core.file.blockfile.impl.DecompressionBuffers;
+import org.apache.accumulo.core.metrics.MetricsProducer;
+import org.apache.accumulo.core.metrics.MetricsUtil;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache.Stats;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Metrics on the hits and lookups of the block caches, for each cache as a whole and for each tier
+ * of a cache that has more than one, and on the decompression of data blocks cached compressed.
+ */
+public class TabletServerCacheMetrics implements MetricsProducer {
+
+  private static final String ALL_TIERS = "all";
+
+  private final Map<CacheType,BlockCache> caches;
+
+  public TabletServerCacheMetrics(Map<CacheType,BlockCache> caches) {
+    this.caches = caches;
+  }
+
+  private static void register(MeterRegistry registry, BlockCache cache, Tags tags,
+      Function<BlockCache,Stats> stats) {
+    FunctionCounter.builder(METRICS_TSERVER_CACHE_HITS, cache, c -> stats.apply(c).hitCount())
+        .description("Block cache lookups that found the block").tags(tags).register(registry);
+    FunctionCounter
+        .builder(METRICS_TSERVER_CACHE_REQUESTS, cache, c -> stats.apply(c).requestCount())
+        .description("Block cache lookups").tags(tags).register(registry);
+  }
+
+  @Override
+  public void registerMetrics(MeterRegistry registry) {
+    caches.forEach((type, cache) -> {
+      Tags tags =
+          Tags.of(MetricsUtil.getCommonTags()).and("type", type.name().toLowerCase(Locale.ROOT));
+      register(registry, cache, tags.and("tier", ALL_TIERS), BlockCache::getStats);
+      for (String tier : cache.getStats().getTierStats().keySet()) {
+        register(registry, cache, tags.and("tier", tier),
+            c -> c.getStats().getTierStats().get(tier));
+      }
+    });
+    FunctionTimer
+        .builder(METRICS_TSERVER_CACHE_DECOMPRESS, DecompressionBuffers.class,
+            c -> DecompressionBuffers.getDecompressions(),
+            c -> DecompressionBuffers.getDecompressionNanos(), TimeUnit.NANOSECONDS)
+        .description("Decompression of data blocks read from the cache in compressed form")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+  }
+
+}
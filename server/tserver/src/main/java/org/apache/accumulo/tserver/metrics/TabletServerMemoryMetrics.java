@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.metrics.MetricsProducer;
+import org.apache.accumulo.core.metrics.MetricsUtil;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics on the memory used to buffer writes. Values are tracked here as they are reported, so
+ * they may be reported before the metrics are registered.
+ */
+public class TabletServerMemoryMetrics implements MetricsProducer {
+
+  private final AtomicLong predictedHoldMillis = new AtomicLong(-1);
+  private final AtomicLong ingestRate = new AtomicLong();
+  private final AtomicLong predictedFlushMillis = new AtomicLong();
+  private final AtomicLong predictiveFlushes = new AtomicLong();
+  private final AtomicLong holds = new AtomicLong();
+  private final AtomicLong holdMillis = new AtomicLong();
+
+  /**
+   * @param holdMillis
+   *          predicted time until writes are held, or -1 if memory is not growing
+   * @param ingestRate
+   *          bytes per second added to in memory maps
+   * @param flushMillis
+   *          predicted time to flush the tablet that would be chosen next
+   */
+  public void setPredictions(long holdMillis, long ingestRate, long flushMillis) {
+    this.predictedHoldMillis.set(holdMillis);
+    this.ingestRate.set(ingestRate);
+    this.predictedFlushMillis.set(flushMillis);
+  }
+
+  public void addPredictiveFlushes(long count) {
+    predictiveFlushes.addAndGet(count);
+  }
+
+  public void addHold(long millis) {
+    holds.incrementAndGet();
+    holdMillis.addAndGet(millis);
+  }
+
+  @Override
+  public void registerMetrics(MeterRegistry registry) {
+    Gauge.builder(METRICS_MEM_PREDICTED_HOLD, predictedHoldMillis, AtomicLong::get)
+        .description("Predicted milliseconds until writes are held, -1 when memory is not growing")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+    Gauge.builder(METRICS_MEM_INGEST_RATE, ingestRate, AtomicLong::get)
+        .description("Bytes per second added to in memory maps").baseUnit("bytes")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+    Gauge.builder(METRICS_MEM_PREDICTED_FLUSH, predictedFlushMillis, AtomicLong::get)
+        .description("Predicted milliseconds to minor compact the next tablet chosen")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+    FunctionCounter.builder(METRICS_MEM_PREDICTIVE_FLUSHES, predictiveFlushes, AtomicLong::get)
+        .description("Minor compactions started early because writes were predicted to be held")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+    FunctionTimer
+        .builder(METRICS_MEM_HOLD, this, m -> m.holds.get(), m -> m.holdMillis.get(),
+            TimeUnit.MILLISECONDS)
+        .description("Time writes were held because memory was full")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+  }
+
+}
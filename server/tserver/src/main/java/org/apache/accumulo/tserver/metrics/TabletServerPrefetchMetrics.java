@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import org.apache.accumulo.core.file.blockfile.impl.BlockPrefetcher;
+import org.apache.accumulo.core.metrics.MetricsProducer;
+import org.apache.accumulo.core.metrics.MetricsUtil;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Metrics on the data blocks loaded into cache ahead of sequential scans.
+ */
+public class TabletServerPrefetchMetrics implements MetricsProducer {
+
+  private final BlockPrefetcher prefetcher;
+
+  public TabletServerPrefetchMetrics(BlockPrefetcher prefetcher) {
+    this.prefetcher = prefetcher;
+  }
+
+  @Override
+  public void registerMetrics(MeterRegistry registry) {
+    FunctionCounter
+        .builder(METRICS_SCAN_PREFETCH_REQUESTED, prefetcher, BlockPrefetcher::getRequested)
+        .description("Data blocks scans asked to prefetch").tags(MetricsUtil.getCommonTags())
+        .register(registry);
+    FunctionCounter.builder(METRICS_SCAN_PREFETCH_DROPPED, prefetcher, BlockPrefetcher::getDropped)
+        .description("Data block prefetches dropped because the prefetch queue was full")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+    FunctionCounter.builder(METRICS_SCAN_PREFETCH_HITS, prefetcher, BlockPrefetcher::getHits)
+        .description("Prefetched data blocks that scans read").tags(MetricsUtil.getCommonTags())
+        .register(registry);
+    FunctionCounter.builder(METRICS_SCAN_PREFETCH_WASTED, prefetcher, BlockPrefetcher::getWasted)
+        .description("Prefetched data blocks that scans moved away from without reading")
+        .tags(MetricsUtil.getCommonTags()).register(registry);
+  }
+
+}
@@ -22,10 +22,12 @@ import java.time.Duration;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.metrics.MetricsProducer;
+import org.apache.accumulo.core.metrics.MetricsUtil;
 
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 
 public class TabletServerScanMetrics implements MetricsProducer {
@@ -34,6 +36,10 @@ public class TabletServerScanMetrics implements MetricsProducer {
   private Timer scans;
   private DistributionSummary resultsPerScan;
   private DistributionSummary yields;
+  private DistributionSummary fixedBatchEntries;
+  private DistributionSummary fixedBatchBytes;
+  private DistributionSummary adaptiveBatchEntries;
+  private DistributionSummary adaptiveBatchBytes;
 
   public void addScan(long value) {
     scans.record(Duration.ofMillis(value));
@@ -47,6 +53,15 @@ public class TabletServerScanMetrics implements MetricsProducer {
     yields.record(value);
   }
 
+  /**
+   * Records a batch returned by a single scan. Batches of scans that size them adaptively are
+   * recorded apart from those of scans using a fixed batch size, tagged "batching".
+   */
+  public void addBatch(long entries, long bytes, boolean adaptive) {
+    (adaptive ? adaptiveBatchEntries : fixedBatchEntries).record(entries);
+    (adaptive ? adaptiveBatchBytes : fixedBatchBytes).record(bytes);
+  }
+
   public void incrementOpenFiles(int delta) {
     openFiles.addAndGet(Math.max(0, delta));
   }
@@ -64,6 +79,22 @@ public class TabletServerScanMetrics implements MetricsProducer {
         .description("Results per scan").register(registry);
     yields =
         DistributionSummary.builder(METRICS_SCAN_YIELDS).description("yields").register(registry);
+    Tags fixed = Tags.of(MetricsUtil.getCommonTags()).and("batching", "fixed");
+    Tags adaptive = Tags.of(MetricsUtil.getCommonTags()).and("batching", "adaptive");
+    fixedBatchEntries = batchEntries(fixed).register(registry);
+    fixedBatchBytes = batchBytes(fixed).register(registry);
+    adaptiveBatchEntries = batchEntries(adaptive).register(registry);
+    adaptiveBatchBytes = batchBytes(adaptive).register(registry);
+  }
+
+  private static DistributionSummary.Builder batchEntries(Tags tags) {
+    return DistributionSummary.builder(METRICS_SCAN_BATCH_ENTRIES)
+        .description("Entries per scan batch").tags(tags).publishPercentileHistogram();
+  }
+
+  private static DistributionSummary.Builder batchBytes(Tags tags) {
+    return DistributionSummary.builder(METRICS_SCAN_BATCH_BYTES).description("Bytes per scan batch")
+        .baseUnit("bytes").tags(tags).publishPercentileHistogram();
   }
 
 }
@@ -36,6 +36,8 @@ public class TabletServerUpdateMetrics implements MetricsProducer {
   private Timer walogWriteTimeStat;
   private Timer commitTimeStat;
   private DistributionSummary mutationArraySizeStat;
+  private Timer rowLockWaitStat;
+  private Counter rowLockDeferredCounter;
 
   public void addPermissionErrors(long value) {
     permissionErrorsCounter.increment(value);
@@ -65,6 +67,14 @@ public class TabletServerUpdateMetrics implements MetricsProducer {
     mutationArraySizeStat.record(value);
   }
 
+  public void addRowLockWait(long nanos) {
+    rowLockWaitStat.record(Duration.ofNanos(nanos));
+  }
+
+  public void addRowLockDeferred(long value) {
+    rowLockDeferredCounter.increment(value);
+  }
+
   @Override
   public void registerMetrics(MeterRegistry registry) {
     permissionErrorsCounter = registry.counter(METRICS_UPDATE_ERRORS, "type", "permission");
@@ -79,6 +89,11 @@ public class TabletServerUpdateMetrics implements MetricsProducer {
         Timer.builder(METRICS_UPDATE_COMMIT).description("committing mutations").register(registry);
     mutationArraySizeStat = DistributionSummary.builder(METRICS_UPDATE_MUTATION_ARRAY_SIZE)
         .description("mutation array").register(registry);
+    rowLockWaitStat = Timer.builder(METRICS_UPDATE_ROW_LOCK_WAIT)
+        .description("conditional update waiting for a row lock").register(registry);
+    rowLockDeferredCounter = Counter.builder(METRICS_UPDATE_ROW_LOCK_DEFERRED)
+        .description("conditional mutations deferred because their row was locked")
+        .register(registry);
   }
 
 }
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.metrics;
+
+import java.time.Duration;
+
+import org.apache.accumulo.core.metrics.MetricsProducer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public class TabletServerWalMetrics implements MetricsProducer {
+
+  private DistributionSummary syncBatchSize;
+  private Timer syncLatency;
+  private DistributionSummary queueDepth;
+
+  public void addSyncBatchSize(long value) {
+    syncBatchSize.record(value);
+  }
+
+  public void addSyncLatency(long nanos) {
+    syncLatency.record(Duration.ofNanos(nanos));
+  }
+
+  public void addQueueDepth(long value) {
+    queueDepth.record(value);
+  }
+
+  @Override
+  public void registerMetrics(MeterRegistry registry) {
+    syncBatchSize = DistributionSummary.builder(METRICS_WAL_SYNC_BATCH_SIZE)
+        .description("Writes made durable by each WAL sync or flush").register(registry);
+    syncLatency = Timer.builder(METRICS_WAL_SYNC_LATENCY)
+        .description("Time taken by each WAL sync or flush").register(registry);
+    queueDepth = DistributionSummary.builder(METRICS_WAL_QUEUE_DEPTH)
+        .description("Writes waiting for the next WAL sync").register(registry);
+  }
+
+}
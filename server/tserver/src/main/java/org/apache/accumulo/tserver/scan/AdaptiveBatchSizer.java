@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+/**
+ * Chooses the entry and byte limits of the next batch of a scan from how quickly the tablet server
+ * filled and the client consumed previous batches. The tablet server does not see the client
+ * consume a batch, so the time from returning a batch to receiving the request for the next one is
+ * used. That time includes the network round trip.
+ *
+ * <p>
+ * Batches are sized to carry about the target time worth of data at the slower of the fill and
+ * consume rates. Scans of small values with a fast client grow their batches until the round trip
+ * is amortized. Scans whose client consumes slowly shrink their batches, so that the tablet server
+ * does not buffer much more than the client can use. Limits change by at most a factor of two per
+ * batch.
+ */
+public class AdaptiveBatchSizer {
+
+  static final long MIN_BYTES = 16 * 1024;
+  private static final double ALPHA = 0.5;
+
+  private final long maxBytesLimit;
+  private final long targetNanos;
+
+  private int maxEntries;
+  private long maxBytes;
+
+  private double entrySize = -1;
+  private double fillRate = -1;
+  private double consumeRate = -1;
+  private long lastBatchBytes = 0;
+
+  public AdaptiveBatchSizer(int initialEntries, long initialBytes, long maxBytesLimit,
+      long targetNanos) {
+    this.maxBytesLimit = Math.max(MIN_BYTES, maxBytesLimit);
+    this.targetNanos = targetNanos;
+    this.maxEntries = Math.max(1, initialEntries);
+    this.maxBytes = Math.max(MIN_BYTES, Math.min(initialBytes, this.maxBytesLimit));
+  }
+
+  private static double ewma(double current, double sample) {
+    return current < 0 ? sample : ALPHA * sample + (1 - ALPHA) * current;
+  }
+
+  /**
+   * Update the limits after a batch was read.
+   *
+   * @param entries
+   *          number of entries in the batch
+   * @param bytes
+   *          size of the keys and values in the batch
+   * @param fillNanos
+   *          time spent reading the batch
+   * @param returnedBytes
+   *          size of the keys and values returned to the client with the batch, more than bytes
+   *          when a streaming scan returns batches it read ahead along with it
+   * @param consumeNanos
+   *          time between returning the previous batch and the client asking for this one, or a
+   *          negative value when there was no previous batch
+   */
+  public synchronized void update(int entries, long bytes, long fillNanos, long returnedBytes,
+      long consumeNanos) {
+    if (consumeNanos > 0 && lastBatchBytes > 0) {
+      consumeRate = ewma(consumeRate, (double) lastBatchBytes / consumeNanos);
+    }
+    lastBatchBytes = returnedBytes;
+
+    if (entries == 0 || bytes == 0) {
+      return;
+    }
+
+    entrySize = ewma(entrySize, (double) bytes / entries);
+    fillRate = ewma(fillRate, (double) bytes / Math.max(1, fillNanos));
+
+    double rate = consumeRate < 0 ? fillRate : Math.min(fillRate, consumeRate);
+    long bytesWanted = (long) Math.min(rate * targetNanos, Long.MAX_VALUE);
+    bytesWanted = Math.max(maxBytes / 2, Math.min(bytesWanted, maxBytes * 2));
+    maxBytes = Math.max(MIN_BYTES, Math.min(bytesWanted, maxBytesLimit));
+
+    long entriesWanted = (long) (maxBytes / entrySize);
+    entriesWanted = Math.max(maxEntries / 2, Math.min(entriesWanted, 2L * maxEntries));
+    maxEntries = (int) Math.max(1, Math.min(entriesWanted, Integer.MAX_VALUE));
+  }
+
+  public synchronized int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public synchronized long getMaxBytes() {
+    return maxBytes;
+  }
+}
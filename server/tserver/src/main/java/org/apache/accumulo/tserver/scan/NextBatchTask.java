@@ -19,6 +19,8 @@
 package org.apache.accumulo.tserver.scan;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
@@ -26,6 +28,7 @@ import org.apache.accumulo.core.iteratorsImpl.system.IterationInterruptedExcepti
 import org.apache.accumulo.server.fs.TooManyFilesException;
 import org.apache.accumulo.tserver.TabletServer;
 import org.apache.accumulo.tserver.session.SingleScanSession;
+import org.apache.accumulo.tserver.tablet.KVEntry;
 import org.apache.accumulo.tserver.tablet.ScanBatch;
 import org.apache.accumulo.tserver.tablet.Tablet;
 import org.apache.accumulo.tserver.tablet.TabletClosedException;
@@ -71,7 +74,14 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
         return;
       }
 
+      long start = System.nanoTime();
       ScanBatch batch = scanSession.scanner.read();
+      scanSession.lastFillNanos = System.nanoTime() - start;
+      scanSession.lastFillEntries = batch.getResults().size();
+      scanSession.lastFillBytes = batch.getNumBytes();
+      if (scanSession.streamingWindow > 1) {
+        batch = readAhead(scanSession, batch);
+      }
 
       // there should only be one thing on the queue at a time, so
       // it should be ok to call add()
@@ -99,4 +109,27 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
     }
 
   }
+
+  /**
+   * For a streaming scan, keep reading batches while the client has not asked for the result yet,
+   * up to the scan's window. Everything read is returned to the client in one response.
+   */
+  private ScanBatch readAhead(SingleScanSession scanSession, ScanBatch batch)
+      throws IOException, TabletClosedException {
+    if (!batch.isMore() || isResultRequested()) {
+      return batch;
+    }
+
+    List<KVEntry> results = new ArrayList<>(batch.getResults());
+    long numBytes = batch.getNumBytes();
+    int batches = 1;
+    while (batch.isMore() && batches < scanSession.streamingWindow && !isResultRequested()
+        && !isCancelled()) {
+      batch = scanSession.scanner.read();
+      results.addAll(batch.getResults());
+      numBytes += batch.getNumBytes();
+      batches++;
+    }
+    return new ScanBatch(results, batch.isMore(), numBytes);
+  }
 }
@@ -38,7 +38,8 @@ public final class ScanParameters {
   private final Set<Column> columnSet;
   private final List<IterInfo> ssiList;
   private final Map<String,Map<String,String>> ssio;
-  private final int maxEntries;
+  private volatile int maxEntries;
+  private volatile long maxBytes = -1;
   private final boolean isolated;
   private final SamplerConfiguration samplerConfig;
   private final long batchTimeOut;
@@ -79,6 +80,23 @@ public final class ScanParameters {
     return maxEntries;
   }
 
+  /**
+   * @return the most bytes of results to gather in a batch, or -1 to use the table's configured
+   *         limit
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Change the limits of the batches read after this call, used by scans that size their batches
+   * adaptively.
+   */
+  public void setBatchLimits(int maxEntries, long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
   public boolean isIsolated() {
     return isolated;
   }
@@ -115,6 +133,7 @@ public final class ScanParameters {
     buf.append(", columns=").append(this.columnSet);
     buf.append(", isolated=").append(this.isolated);
     buf.append(", maxEntries=").append(this.maxEntries);
+    buf.append(", maxBytes=").append(this.maxBytes);
     buf.append(", num=").append(this.maxEntries);
     buf.append(", samplerConfig=").append(this.samplerConfig);
     buf.append("]");
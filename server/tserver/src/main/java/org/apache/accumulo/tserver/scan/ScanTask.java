@@ -37,6 +37,7 @@ public abstract class ScanTask<T> implements RunnableFuture<T> {
   protected ArrayBlockingQueue<Object> resultQueue;
   protected AtomicInteger state;
   protected AtomicReference<ScanRunState> runState;
+  private volatile boolean resultRequested = false;
 
   private static final int INITIAL = 1;
   private static final int ADDED = 2;
@@ -85,6 +86,7 @@ public abstract class ScanTask<T> implements RunnableFuture<T> {
       throws InterruptedException, ExecutionException, TimeoutException {
 
     ArrayBlockingQueue<Object> localRQ = resultQueue;
+    resultRequested = true;
 
     if (isCancelled())
       throw new CancellationException();
@@ -138,6 +140,13 @@ public abstract class ScanTask<T> implements RunnableFuture<T> {
     return rAsT;
   }
 
+  /**
+   * @return true once something has asked for the result of this task
+   */
+  protected boolean isResultRequested() {
+    return resultRequested;
+  }
+
   @Override
   public boolean isCancelled() {
     return state.get() == CANCELED;
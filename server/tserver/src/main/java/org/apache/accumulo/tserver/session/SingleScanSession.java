@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.securityImpl.thrift.TCredentials;
+import org.apache.accumulo.tserver.scan.AdaptiveBatchSizer;
 import org.apache.accumulo.tserver.scan.ScanParameters;
 import org.apache.accumulo.tserver.scan.ScanTask;
 import org.apache.accumulo.tserver.tablet.ScanBatch;
@@ -37,12 +38,23 @@ public class SingleScanSession extends ScanSession {
   public volatile ScanTask<ScanBatch> nextBatchTask;
   public Scanner scanner;
   public final long readaheadThreshold;
+  // the number of batches that may be read ahead and returned together, 0 when not streaming
+  public final int streamingWindow;
+  // sizes the batches of scans that asked for adaptive batches, null otherwise
+  public AdaptiveBatchSizer batchSizer;
+  // size of and time spent reading the last batch, not counting the batches a streaming scan read
+  // ahead, and when the last response was returned to the client
+  public volatile int lastFillEntries = 0;
+  public volatile long lastFillBytes = 0;
+  public volatile long lastFillNanos = 0;
+  public volatile long lastResponseNanos = 0;
 
   public SingleScanSession(TCredentials credentials, KeyExtent extent, ScanParameters scanParams,
-      long readaheadThreshold, Map<String,String> executionHints) {
+      long readaheadThreshold, int streamingWindow, Map<String,String> executionHints) {
     super(credentials, scanParams, executionHints);
     this.extent = extent;
     this.readaheadThreshold = readaheadThreshold;
+    this.streamingWindow = streamingWindow;
   }
 
   @Override
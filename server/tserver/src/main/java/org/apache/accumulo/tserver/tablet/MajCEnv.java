@@ -18,6 +18,8 @@
  */
 package org.apache.accumulo.tserver.tablet;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.TableId;
@@ -38,14 +40,17 @@ public class MajCEnv implements FileCompactor.CompactionEnv {
   private final RateLimiter writeLimiter;
   private final boolean propagateDeletes;
   private final CompactableImpl.CompactionCheck compactionCheck;
+  private final ExecutorService localityGroupExecutor;
 
   public MajCEnv(CompactionKind kind, CompactableImpl.CompactionCheck compactionCheck,
-      RateLimiter readLimiter, RateLimiter writeLimiter, boolean propagateDeletes) {
+      RateLimiter readLimiter, RateLimiter writeLimiter, boolean propagateDeletes,
+      ExecutorService localityGroupExecutor) {
     this.kind = kind;
     this.readLimiter = readLimiter;
     this.writeLimiter = writeLimiter;
     this.propagateDeletes = propagateDeletes;
     this.compactionCheck = compactionCheck;
+    this.localityGroupExecutor = localityGroupExecutor;
   }
 
   @Override
@@ -75,6 +80,11 @@ public class MajCEnv implements FileCompactor.CompactionEnv {
         !propagateDeletes, acuTableConf, tableId, kind);
   }
 
+  @Override
+  public ExecutorService getLocalityGroupExecutor() {
+    return localityGroupExecutor;
+  }
+
   @Override
   public SortedKeyValueIterator<Key,Value> getMinCIterator() {
     throw new UnsupportedOperationException();
@@ -18,6 +18,8 @@
  */
 package org.apache.accumulo.tserver.tablet;
 
+import java.util.concurrent.ExecutorService;
+
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.TableId;
@@ -35,10 +37,17 @@ import org.apache.accumulo.tserver.MinorCompactionReason;
 public class MinCEnv implements FileCompactor.CompactionEnv {
   private final MinorCompactionReason reason;
   private final SortedKeyValueIterator<Key,Value> iter;
+  private final ExecutorService lgExecutor;
 
   public MinCEnv(MinorCompactionReason reason, SortedKeyValueIterator<Key,Value> iter) {
+    this(reason, iter, null);
+  }
+
+  public MinCEnv(MinorCompactionReason reason, SortedKeyValueIterator<Key,Value> iter,
+      ExecutorService lgExecutor) {
     this.reason = reason;
     this.iter = iter;
+    this.lgExecutor = lgExecutor;
   }
 
   @Override
@@ -73,6 +82,11 @@ public class MinCEnv implements FileCompactor.CompactionEnv {
     return iter;
   }
 
+  @Override
+  public ExecutorService getLocalityGroupExecutor() {
+    return lgExecutor;
+  }
+
   @Override
   public TCompactionReason getReason() {
     switch (reason) {
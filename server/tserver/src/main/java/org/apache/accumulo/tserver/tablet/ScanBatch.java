@@ -23,10 +23,16 @@ import java.util.List;
 public final class ScanBatch {
   private final boolean more;
   private final List<KVEntry> results;
+  private final long numBytes;
 
   public ScanBatch(List<KVEntry> results, boolean more) {
+    this(results, more, results.stream().mapToLong(KVEntry::numBytes).sum());
+  }
+
+  public ScanBatch(List<KVEntry> results, boolean more, long numBytes) {
     this.results = results;
     this.more = more;
+    this.numBytes = numBytes;
   }
 
   public boolean isMore() {
@@ -36,4 +42,11 @@ public final class ScanBatch {
   public List<KVEntry> getResults() {
     return results;
   }
+
+  /**
+   * @return the size of the keys and values in this batch
+   */
+  public long getNumBytes() {
+    return numBytes;
+  }
 }
@@ -111,11 +111,11 @@ public class Scanner {
         range = null;
         return new ScanBatch(new ArrayList<>(), false);
       } else if (results.getContinueKey() == null) {
-        return new ScanBatch(results.getResults(), false);
+        return new ScanBatch(results.getResults(), false, results.getNumBytes());
       } else {
         range = new Range(results.getContinueKey(), !results.isSkipContinueKey(), range.getEndKey(),
             range.isEndKeyInclusive());
-        return new ScanBatch(results.getResults(), true);
+        return new ScanBatch(results.getResults(), true, results.getNumBytes());
       }
 
     } catch (IterationInterruptedException iie) {
@@ -715,7 +715,8 @@ public class Tablet {
     long resultSize = 0L;
     long resultBytes = 0L;
 
-    long maxResultsSize = tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM);
+    long maxResultsSize = scanParams.getMaxBytes() > 0 ? scanParams.getMaxBytes()
+        : tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM);
 
     Key continueKey = null;
     boolean skipContinueKey = false;
@@ -30,10 +30,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
@@ -474,6 +478,86 @@ public class InMemoryMapTest {
 
   }
 
+  @Test
+  public void testConcurrentWrites() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES, "true");
+    config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1", "cf1");
+    config.set(Property.TABLE_LOCALITY_GROUPS, "lg1");
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+
+    final int numWriters = 8;
+    final int mutationsPerWriter = 200;
+    final int colsPerMutation = 10;
+
+    ExecutorService executor = Executors.newFixedThreadPool(numWriters);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int w = 0; w < numWriters; w++) {
+        final int writer = w;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < mutationsPerWriter; i++) {
+            Mutation m = new Mutation(String.format("r%02d_%04d", writer, i));
+            for (int c = 0; c < colsPerMutation; c++) {
+              m.put("cf" + (c % 2), "cq" + c, "v" + c);
+            }
+            imm.mutate(Collections.singletonList(m), colsPerMutation);
+          }
+        }));
+      }
+
+      // readers must never see part of a mutation
+      boolean writersDone = false;
+      while (!writersDone) {
+        writersDone = futures.stream().allMatch(Future::isDone);
+        MemoryIterator iter = imm.skvIterator(null);
+        iter.seek(new Range(), Set.of(), false);
+        Map<String,Integer> counts = new TreeMap<>();
+        while (iter.hasTop()) {
+          counts.merge(iter.getTopKey().getRow().toString(), 1, Integer::sum);
+          iter.next();
+        }
+        iter.close();
+        for (Entry<String,Integer> entry : counts.entrySet()) {
+          assertEquals("Partial mutation seen for " + entry.getKey(), colsPerMutation,
+              (int) entry.getValue());
+        }
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(numWriters * mutationsPerWriter * colsPerMutation, imm.getNumEntries());
+
+    Set<String> expected = new HashSet<>();
+    for (int w = 0; w < numWriters; w++) {
+      for (int i = 0; i < mutationsPerWriter; i++) {
+        for (int c = 0; c < colsPerMutation; c++) {
+          expected.add(String.format("r%02d_%04d", w, i) + " cf" + (c % 2) + ":cq" + c + " v" + c);
+        }
+      }
+    }
+
+    // compaction iterator verifies that all reserved kv counts were published
+    SortedKeyValueIterator<Key,Value> iter = imm.compactionIterator();
+    iter.seek(new Range(), Set.of(), false);
+    Set<String> actual = new HashSet<>();
+    int count = 0;
+    while (iter.hasTop()) {
+      Key key = iter.getTopKey();
+      actual.add(key.getRow() + " " + key.getColumnFamily() + ":" + key.getColumnQualifier() + " "
+          + iter.getTopValue());
+      count++;
+      iter.next();
+    }
+    assertEquals(expected.size(), count);
+    assertEquals(expected, actual);
+  }
+
   @Test
   public void testDuplicateKey() throws Exception {
     InMemoryMap imm = newInMemoryMap(false, tempFolder.newFolder().getAbsolutePath());
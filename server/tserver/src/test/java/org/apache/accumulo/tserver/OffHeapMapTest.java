@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.junit.Test;
+
+public class OffHeapMapTest {
+
+  private static String row(int r) {
+    return String.format("r%06d", r);
+  }
+
+  private static TreeMap<Key,Value> readAll(SortedKeyValueIterator<Key,Value> iter, Range range)
+      throws IOException {
+    iter.seek(range, Set.of(), false);
+    TreeMap<Key,Value> actual = new TreeMap<>(new MemKeyComparator());
+    while (iter.hasTop()) {
+      actual.put(iter.getTopKey(), iter.getTopValue());
+      iter.next();
+    }
+    return actual;
+  }
+
+  private static void assertSameEntries(TreeMap<Key,Value> expected, TreeMap<Key,Value> actual) {
+    assertEquals(expected.size(), actual.size());
+    var actualIter = actual.entrySet().iterator();
+    for (Entry<Key,Value> entry : expected.entrySet()) {
+      Entry<Key,Value> actualEntry = actualIter.next();
+      assertEquals(entry.getKey(), actualEntry.getKey());
+      assertEquals(((MemKey) entry.getKey()).getKVCount(),
+          ((MemKey) actualEntry.getKey()).getKVCount());
+      assertEquals(entry.getValue(), actualEntry.getValue());
+    }
+  }
+
+  @Test
+  public void testRandomMutations() throws Exception {
+    // use a small page size so that entries are spread over many pages
+    OffHeapMap map = new OffHeapMap(1 << 16);
+    TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+
+    Random rand = new Random(42);
+    int kvCount = 1;
+    for (int i = 0; i < 200; i++) {
+      List<Mutation> mutations = new ArrayList<>();
+      int start = kvCount;
+      for (int j = 0; j < 10; j++) {
+        Mutation m = new Mutation(row(rand.nextInt(500)));
+        int cols = 1 + rand.nextInt(5);
+        for (int c = 0; c < cols; c++) {
+          String cf = "cf" + rand.nextInt(3);
+          String cq = "cq" + rand.nextInt(10);
+          ColumnVisibility cv = new ColumnVisibility(rand.nextBoolean() ? "" : "A&B");
+          long ts = rand.nextInt(4);
+          byte[] val = new byte[rand.nextInt(64)];
+          rand.nextBytes(val);
+          if (rand.nextInt(10) == 0) {
+            m.putDelete(cf, cq, cv, ts);
+            expected.put(new MemKey(
+                new Key(m.getRow(), cf.getBytes(), cq.getBytes(), cv.getExpression(), ts, true),
+                kvCount++), new Value());
+          } else {
+            m.put(cf, cq, cv, ts, new Value(val));
+            expected.put(new MemKey(
+                new Key(m.getRow(), cf.getBytes(), cq.getBytes(), cv.getExpression(), ts, false),
+                kvCount++), new Value(val));
+          }
+        }
+        mutations.add(m);
+      }
+      map.mutate(mutations, start);
+    }
+
+    assertEquals(expected.size(), map.size());
+    assertTrue(map.getMemoryUsed() > (1 << 16));
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    assertSameEntries(expected, readAll(iter, new Range()));
+
+    for (int i = 0; i < 100; i++) {
+      int r1 = rand.nextInt(500);
+      int r2 = r1 + 1 + rand.nextInt(50);
+      Range range = new Range(row(r1), rand.nextBoolean(), row(r2), rand.nextBoolean());
+      TreeMap<Key,Value> subset = new TreeMap<>(new MemKeyComparator());
+      for (Entry<Key,Value> entry : expected.entrySet()) {
+        if (range.contains(entry.getKey()))
+          subset.put(entry.getKey(), entry.getValue());
+      }
+      assertSameEntries(subset, readAll(iter.deepCopy(null), range));
+    }
+  }
+
+  @Test
+  public void testSeekToMemKey() throws Exception {
+    OffHeapMap map = new OffHeapMap();
+    Mutation m = new Mutation("r1");
+    m.put("cf", "cq", 5, "v1");
+    m.put("cf", "cq", 5, "v2");
+    m.put("cf", "cq", 5, "v3");
+    map.mutate(List.of(m), 1);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Set.of(), false);
+    // same key with a higher kv count sorts first
+    assertEquals(new Value("v3"), iter.getTopValue());
+    Key second = new MemKey(new Key("r1", "cf", "cq", 5), 2);
+    iter.seek(new Range(second, null), Set.of(), false);
+    assertEquals(new Value("v2"), iter.getTopValue());
+    iter.next();
+    assertEquals(new Value("v1"), iter.getTopValue());
+    iter.next();
+    assertFalse(iter.hasTop());
+
+    iter.seek(new Range(second, false, null, true), Set.of(), false);
+    assertEquals(new Value("v1"), iter.getTopValue());
+  }
+
+  @Test
+  public void testLargeValues() throws Exception {
+    OffHeapMap map = new OffHeapMap(1 << 16);
+    byte[] big = new byte[1 << 18];
+    new Random(7).nextBytes(big);
+    Mutation m = new Mutation("r1");
+    m.put("cf", "cq1", new Value(big));
+    m.put("cf", "cq2", "small");
+    map.mutate(List.of(m), 1);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Set.of(), false);
+    assertEquals(new Value(big), iter.getTopValue());
+    iter.next();
+    assertEquals(new Value("small"), iter.getTopValue());
+  }
+
+  @Test
+  public void testServerMutationsReadInPlace() throws Exception {
+    List<Mutation> mutations = new ArrayList<>();
+    List<Mutation> serverMutations = new ArrayList<>();
+    Random rand = new Random(11);
+    for (int i = 0; i < 100; i++) {
+      Mutation m = new Mutation(row(rand.nextInt(50)));
+      m.put("cf", "cq" + rand.nextInt(10), new ColumnVisibility("A"), "v" + i);
+      m.put("cf2", "", "");
+      m.putDelete("cf3", "cq", 7);
+      if (i % 10 == 0) {
+        m.put("big", "", new Value(new byte[1 << 16]));
+      }
+      mutations.add(m);
+      ServerMutation sm = new ServerMutation(m.toThrift());
+      sm.setSystemTimestamp(i);
+      serverMutations.add(sm);
+    }
+
+    OffHeapMap copied = new OffHeapMap();
+    copied.mutate(mutations, 1);
+    OffHeapMap inPlace = new OffHeapMap();
+    inPlace.mutate(serverMutations, 1);
+    assertEquals(copied.size(), inPlace.size());
+
+    // updates without a timestamp get the system timestamp of their server mutation
+    TreeMap<Key,Value> expectedEntries = new TreeMap<>(new MemKeyComparator());
+    int kvCount = 1;
+    for (Mutation m : serverMutations) {
+      for (var update : m.getUpdates()) {
+        expectedEntries.put(new MemKey(m.getRow(), update.getColumnFamily(),
+            update.getColumnQualifier(), update.getColumnVisibility(), update.getTimestamp(),
+            update.isDeleted(), false, kvCount++), new Value(update.getValue()));
+      }
+    }
+    assertSameEntries(expectedEntries, readAll(inPlace.skvIterator(), new Range()));
+  }
+
+  @Test
+  public void testDelete() {
+    OffHeapMap map = new OffHeapMap();
+    map.delete();
+    assertThrows(IllegalStateException.class, map::skvIterator);
+    assertThrows(IllegalStateException.class, map::delete);
+  }
+
+  @Test
+  public void testRecycledPages() throws Exception {
+    OffHeapMap.setMaxPooledMemory(1 << 24);
+    try {
+      Random rand = new Random(7);
+      OffHeapMap map1 = new OffHeapMap(1 << 16);
+      for (int i = 0; i < 5000; i++) {
+        byte[] row = new byte[20];
+        rand.nextBytes(row);
+        map1.put(new MemKey(new Key(row), i), new Value(row));
+      }
+      long used = map1.getMemoryUsed();
+      map1.delete();
+      assertEquals(used, OffHeapMap.getPooledMemory());
+
+      // the pages of the first map are reused without being zeroed. Rows share long prefixes and
+      // have bytes above 0x7f, so they are ordered by the unsigned compare of whole longs.
+      OffHeapMap map2 = new OffHeapMap(1 << 16);
+      TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+      for (int i = 0; i < 5000; i++) {
+        byte[] row = new byte[8 + rand.nextInt(16)];
+        Arrays.fill(row, 0, 6, (byte) 0xf0);
+        for (int j = 6; j < row.length; j++) {
+          row[j] = (byte) rand.nextInt(256);
+        }
+        Key key = new MemKey(new Key(row, "cf".getBytes(), new byte[0], new byte[0], 1), i);
+        Value val = new Value(Integer.toString(i));
+        map2.put(key, val);
+        expected.put(key, val);
+      }
+      assertTrue(OffHeapMap.getPooledMemory() < used);
+      assertSameEntries(expected, readAll(map2.skvIterator(), new Range()));
+      map2.delete();
+    } finally {
+      OffHeapMap.setMaxPooledMemory(0);
+    }
+    assertEquals(0, OffHeapMap.getPooledMemory());
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.dataImpl.thrift.TConditionalMutation;
+import org.apache.accumulo.core.metrics.MetricsProducer;
+import org.apache.accumulo.tserver.RowLocks.RowLock;
+import org.apache.accumulo.tserver.data.ServerConditionalMutation;
+import org.apache.accumulo.tserver.metrics.TabletServerUpdateMetrics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RowLocksTest {
+
+  private static final KeyExtent extent = new KeyExtent(TableId.of("1"), null, null);
+
+  private SimpleMeterRegistry registry;
+  private TabletServerUpdateMetrics metrics;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    registry = new SimpleMeterRegistry();
+    metrics = new TabletServerUpdateMetrics();
+    metrics.registerMetrics(registry);
+    executor = Executors.newSingleThreadExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static Map<KeyExtent,List<ServerConditionalMutation>> updates(String... rows) {
+    List<ServerConditionalMutation> scml = new ArrayList<>();
+    long id = 0;
+    for (String row : rows) {
+      Mutation m = new Mutation(row);
+      m.put("cf", "cq", "v");
+      scml.add(new ServerConditionalMutation(
+          new TConditionalMutation(new ArrayList<>(), m.toThrift(), id++)));
+    }
+    Map<KeyExtent,List<ServerConditionalMutation>> updates = new HashMap<>();
+    updates.put(extent, scml);
+    return updates;
+  }
+
+  private static List<String> rows(Map<KeyExtent,List<ServerConditionalMutation>> updates) {
+    List<String> rows = new ArrayList<>();
+    for (ServerConditionalMutation scm : updates.getOrDefault(extent, List.of())) {
+      rows.add(new String(scm.getRow()));
+    }
+    return rows;
+  }
+
+  @Test
+  public void testCollidingRowsDoNotBlock() throws Exception {
+    // with a single stripe every row collides
+    RowLocks rowLocks = new RowLocks(1);
+    List<RowLock> held = rowLocks.acquireRowlocks(updates("a"), new HashMap<>(), metrics);
+    assertEquals(1, held.size());
+
+    Map<KeyExtent,List<ServerConditionalMutation>> updates = updates("b", "c");
+    Map<KeyExtent,List<ServerConditionalMutation>> deferred = new HashMap<>();
+    List<RowLock> locks =
+        executor.submit(() -> rowLocks.acquireRowlocks(updates, deferred, metrics)).get();
+    assertEquals(2, locks.size());
+    assertTrue(deferred.isEmpty());
+    assertEquals(List.of("b", "c"), rows(updates));
+    assertEquals(2, rowLocks.getOverflowCount());
+
+    executor.submit(() -> rowLocks.releaseRowLocks(locks)).get();
+    rowLocks.releaseRowLocks(held);
+    assertEquals(0, rowLocks.getOverflowCount());
+
+    // the stripe's lock is reused once it is free
+    held = rowLocks.acquireRowlocks(updates("d"), new HashMap<>(), metrics);
+    assertEquals(0, rowLocks.getOverflowCount());
+    rowLocks.releaseRowLocks(held);
+  }
+
+  @Test
+  public void testLockedRowsDeferred() throws Exception {
+    RowLocks rowLocks = new RowLocks();
+    List<RowLock> held = rowLocks.acquireRowlocks(updates("a"), new HashMap<>(), metrics);
+
+    Map<KeyExtent,List<ServerConditionalMutation>> updates = updates("a", "b");
+    Map<KeyExtent,List<ServerConditionalMutation>> deferred = new HashMap<>();
+    List<RowLock> locks =
+        executor.submit(() -> rowLocks.acquireRowlocks(updates, deferred, metrics)).get();
+    assertEquals(1, locks.size());
+    assertEquals(List.of("b"), rows(updates));
+    assertEquals(List.of("a"), rows(deferred));
+    assertEquals(1.0,
+        registry.get(MetricsProducer.METRICS_UPDATE_ROW_LOCK_DEFERRED).counter().count(), 0);
+
+    executor.submit(() -> rowLocks.releaseRowLocks(locks)).get();
+    rowLocks.releaseRowLocks(held);
+  }
+
+  @Test
+  public void testWaitsForSingleRow() throws Exception {
+    RowLocks rowLocks = new RowLocks();
+    List<RowLock> held = rowLocks.acquireRowlocks(updates("a"), new HashMap<>(), metrics);
+
+    Map<KeyExtent,List<ServerConditionalMutation>> updates = updates("a");
+    Future<List<RowLock>> future =
+        executor.submit(() -> rowLocks.acquireRowlocks(updates, new HashMap<>(), metrics));
+    try {
+      future.get(100, TimeUnit.MILLISECONDS);
+      throw new AssertionError("expected to wait for the row lock");
+    } catch (TimeoutException e) {
+      // expected
+    }
+    assertFalse(future.isDone());
+
+    rowLocks.releaseRowLocks(held);
+    List<RowLock> locks = future.get();
+    assertEquals(1, locks.size());
+    assertEquals(1, registry.get(MetricsProducer.METRICS_UPDATE_ROW_LOCK_WAIT).timer().count());
+    executor.submit(() -> rowLocks.releaseRowLocks(locks)).get();
+    assertEquals(0, rowLocks.getOverflowCount());
+  }
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.assertEquals;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
@@ -37,19 +38,29 @@ import com.google.common.collect.Sets;
 
 public class WalRemovalOrderTest {
 
+  private static final ServerResources conf = new ServerResources() {
+    @Override
+    public AccumuloConfiguration getConfiguration() {
+      return DefaultConfiguration.getInstance();
+    }
+
+    @Override
+    public VolumeManager getVolumeManager() {
+      throw new UnsupportedOperationException();
+    }
+  };
+
   private static DfsLogger mockLogger(String filename) {
-    ServerResources conf = new ServerResources() {
-      @Override
-      public AccumuloConfiguration getConfiguration() {
-        return DefaultConfiguration.getInstance();
-      }
+    return new DfsLogger(null, conf, filename, null);
+  }
 
+  private static DfsLogger mockLogger(String filename, int stream) {
+    return new DfsLogger(null, conf, filename, null) {
       @Override
-      public VolumeManager getVolumeManager() {
-        throw new UnsupportedOperationException();
+      public int getStream() {
+        return stream;
       }
     };
-    return new DfsLogger(null, conf, filename, null);
   }
 
   private static LinkedHashSet<DfsLogger> mockLoggers(String... logs) {
@@ -108,4 +119,27 @@ public class WalRemovalOrderTest {
       runTest(mockLoggers("W1", "W2", "W3", "W4"), inUse, expected);
     }
   }
+
+  @Test
+  public void testWalRemovalMultipleStreams() {
+    // W1, W3 and W5 were written by stream 0 and W2, W4 by stream 1, closed in numeric order
+    LinkedHashSet<DfsLogger> closed = new LinkedHashSet<>();
+    closed.add(mockLogger("W1", 0));
+    closed.add(mockLogger("W2", 1));
+    closed.add(mockLogger("W3", 0));
+    closed.add(mockLogger("W4", 1));
+    closed.add(mockLogger("W5", 0));
+
+    // a referenced log only holds back later logs of its own stream
+    runTest(closed, mockLoggers("W1"), mockLoggers("W2", "W4"));
+    runTest(closed, mockLoggers("W2"), mockLoggers("W1", "W3", "W5"));
+    runTest(closed, mockLoggers("W3"), mockLoggers("W1", "W2", "W4"));
+    runTest(closed, mockLoggers("W3", "W4"), mockLoggers("W1", "W2"));
+    runTest(closed, mockLoggers(), mockLoggers("W1", "W2", "W3", "W4", "W5"));
+
+    Map<Integer,List<DfsLogger>> byStream =
+        TabletServer.groupClosedLogsByStream(TabletServer.copyClosedLogs(closed));
+    assertEquals(List.copyOf(mockLoggers("W1", "W3", "W5")), byStream.get(0));
+    assertEquals(List.copyOf(mockLoggers("W2", "W4")), byStream.get(1));
+  }
 }
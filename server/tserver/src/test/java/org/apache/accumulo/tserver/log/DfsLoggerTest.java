@@ -19,16 +19,22 @@
 package org.apache.accumulo.tserver.log;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.Durability;
 import org.apache.accumulo.tserver.TabletMutations;
 import org.apache.accumulo.tserver.tablet.CommitSession;
 import org.easymock.EasyMock;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 public class DfsLoggerTest {
@@ -76,4 +82,94 @@ public class DfsLoggerTest {
     return result;
   }
 
+  @BeforeClass
+  public static void loadDfsLogger() throws Exception {
+    // initializing DfsLogger is slow, do it before the group commit tests time their waits
+    Class.forName(DfsLogger.class.getName());
+  }
+
+  private static DfsLogger.LogWork newWork() {
+    return new DfsLogger.LogWork(new CountDownLatch(1), Durability.SYNC);
+  }
+
+  private static DfsLogger.LogWork newWorkFromOtherThread() throws Exception {
+    FutureTask<DfsLogger.LogWork> task = new FutureTask<>(DfsLoggerTest::newWork);
+    Thread thread = new Thread(task);
+    thread.start();
+    thread.join();
+    return task.get();
+  }
+
+  @Test
+  public void testGroupCommitSingleWriterDoesNotWait() {
+    DfsLogger.GroupCommit groupCommit = new DfsLogger.GroupCommit(TimeUnit.MINUTES.toNanos(1), 32);
+    LinkedBlockingQueue<DfsLogger.LogWork> queue = new LinkedBlockingQueue<>();
+
+    // lots of work queued by one writer must not delay its syncs
+    for (int i = 0; i < 3; i++) {
+      List<DfsLogger.LogWork> work = new ArrayList<>(List.of(newWork(), newWork(), newWork()));
+      long start = System.nanoTime();
+      groupCommit.await(queue, work);
+      assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+      assertEquals(3, work.size());
+    }
+  }
+
+  @Test
+  public void testGroupCommitConcurrentWritersWait() throws Exception {
+    long maxWait = TimeUnit.SECONDS.toNanos(1);
+    DfsLogger.GroupCommit groupCommit = new DfsLogger.GroupCommit(maxWait, 3);
+    LinkedBlockingQueue<DfsLogger.LogWork> queue = new LinkedBlockingQueue<>();
+
+    // the first batch never waits, it shows there are two writers
+    List<DfsLogger.LogWork> work = new ArrayList<>(List.of(newWork(), newWorkFromOtherThread()));
+    groupCommit.await(queue, work);
+    assertEquals(2, work.size());
+
+    // waits until the batch size is reached
+    work = new ArrayList<>(List.of(newWork()));
+    DfsLogger.LogWork other = newWorkFromOtherThread();
+    Thread adder = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        throw new IllegalStateException(e);
+      }
+      queue.add(other);
+      queue.add(other);
+    });
+    long start = System.nanoTime();
+    adder.start();
+    groupCommit.await(queue, work);
+    adder.join();
+    assertEquals(3, work.size());
+    assertTrue(System.nanoTime() - start < maxWait);
+
+    // waits no longer than the maximum when no more work arrives
+    work = new ArrayList<>(List.of(newWork()));
+    start = System.nanoTime();
+    groupCommit.await(queue, work);
+    assertTrue(System.nanoTime() - start >= maxWait);
+    assertEquals(1, work.size());
+
+    // the previous batch had one writer, so this one does not wait
+    work = new ArrayList<>(List.of(newWork()));
+    start = System.nanoTime();
+    groupCommit.await(queue, work);
+    assertTrue(System.nanoTime() - start < maxWait);
+  }
+
+  @Test
+  public void testGroupCommitInterrupted() throws Exception {
+    DfsLogger.GroupCommit groupCommit = new DfsLogger.GroupCommit(TimeUnit.MINUTES.toNanos(1), 32);
+    LinkedBlockingQueue<DfsLogger.LogWork> queue = new LinkedBlockingQueue<>();
+    groupCommit.await(queue, new ArrayList<>(List.of(newWork(), newWorkFromOtherThread())));
+
+    Thread.currentThread().interrupt();
+    long start = System.nanoTime();
+    groupCommit.await(queue, new ArrayList<>(List.of(newWork())));
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+    // the interrupt is kept for the sync thread to see
+    assertTrue(Thread.interrupted());
+  }
 }
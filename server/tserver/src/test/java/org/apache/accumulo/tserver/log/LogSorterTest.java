@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.log;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.accumulo.tserver.logger.LogEvents.DEFINE_TABLET;
+import static org.apache.accumulo.tserver.logger.LogEvents.MUTATION;
+import static org.apache.accumulo.tserver.logger.LogEvents.OPEN;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.util.Pair;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.apache.accumulo.server.fs.VolumeManager;
+import org.apache.accumulo.server.fs.VolumeManagerImpl;
+import org.apache.accumulo.server.log.SortedLogState;
+import org.apache.accumulo.tserver.logger.LogEvents;
+import org.apache.accumulo.tserver.logger.LogFileKey;
+import org.apache.accumulo.tserver.logger.LogFileValue;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+@SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "paths not set by user input")
+public class LogSorterTest {
+
+  private static final KeyExtent extent = new KeyExtent(TableId.of("table"), null, null);
+
+  private VolumeManager fs;
+  private File workDir;
+  private ServerContext context;
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  @Before
+  public void setUp() throws Exception {
+    context = createMock(ServerContext.class);
+    workDir = tempFolder.newFolder();
+    String path = workDir.getAbsolutePath();
+    assertTrue(workDir.delete());
+    fs = VolumeManagerImpl.getLocalForTesting(path);
+    expect(context.getVolumeManager()).andReturn(fs).anyTimes();
+    expect(context.getCryptoService()).andReturn(CryptoServiceFactory.newDefaultInstance())
+        .anyTimes();
+    expect(context.getConfiguration()).andReturn(DefaultConfiguration.getInstance()).anyTimes();
+    replay(context);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fs.close();
+  }
+
+  private static LogFileKey key(LogEvents event, int tabletId, long seq) {
+    LogFileKey key = new LogFileKey();
+    key.event = event;
+    key.tabletId = tabletId;
+    key.seq = seq;
+    return key;
+  }
+
+  private static LogFileValue value(long seq) {
+    ServerMutation m = new ServerMutation(new Text(String.format("row%06d", seq % 997)));
+    m.setSystemTimestamp(seq);
+    m.put("cf", "cq", "value" + seq);
+    LogFileValue value = new LogFileValue();
+    value.mutations = Collections.singletonList(m);
+    return value;
+  }
+
+  /**
+   * Write an unencrypted WAL, with entries in the order a tablet server would write them.
+   */
+  private void writeLog(Path walPath, List<Pair<LogFileKey,LogFileValue>> entries)
+      throws Exception {
+    try (FSDataOutputStream out = fs.create(walPath)) {
+      out.write(DfsLogger.LOG_FILE_HEADER_V3.getBytes(UTF_8));
+      out.writeUTF("NullCryptoModule");
+      for (Pair<LogFileKey,LogFileValue> entry : entries) {
+        entry.getFirst().write(out);
+        entry.getSecond().write(out);
+      }
+    }
+  }
+
+  private List<LogFileKey> writeLog(Path walPath, int numMutations) throws Exception {
+    List<Pair<LogFileKey,LogFileValue>> entries = new ArrayList<>();
+    LogFileKey define = key(DEFINE_TABLET, 1, 0);
+    define.tablet = extent;
+    entries.add(new Pair<>(define, new LogFileValue()));
+    for (int i = 1; i <= numMutations; i++) {
+      entries.add(new Pair<>(key(MUTATION, 1, i), value(i)));
+    }
+    writeLog(walPath, entries);
+
+    List<LogFileKey> keys = new ArrayList<>();
+    entries.forEach(entry -> keys.add(entry.getFirst()));
+    Collections.sort(keys);
+    return keys;
+  }
+
+  private LogSorter createSorter(int partThreads) {
+    ConfigurationCopy conf = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    conf.set(Property.TSERV_WAL_SORT_BUFFER_SIZE, "16K");
+    conf.set(Property.TSERV_WAL_SORT_PART_THREADS, Integer.toString(partThreads));
+    return new LogSorter(context, conf);
+  }
+
+  private void sortAndVerify(int partThreads) throws Exception {
+    LogSorter sorter = createSorter(partThreads);
+
+    Path walPath = new Path(workDir.getAbsolutePath(), "wal-" + partThreads);
+    String destPath = workDir.getAbsolutePath() + "/sorted-" + partThreads;
+    List<LogFileKey> expected = writeLog(walPath, 2000);
+
+    sorter.new LogProcessor().sort(fs, walPath.getName(), walPath, destPath);
+
+    assertTrue(fs.exists(SortedLogState.getFinishedMarkerPath(destPath)));
+    assertTrue("expected the log to be sorted into several parts",
+        fs.listStatus(new Path(destPath)).length > 3);
+
+    List<LogFileKey> actual = new ArrayList<>();
+    try (RecoveryLogsIterator rli =
+        new RecoveryLogsIterator(context, List.of(new Path(destPath)), null, null, false)) {
+      while (rli.hasNext()) {
+        Entry<LogFileKey,LogFileValue> entry = rli.next();
+        actual.add(entry.getKey());
+        if (entry.getKey().event == MUTATION) {
+          assertEquals(
+              new String(entry.getValue().mutations.get(0).getUpdates().get(0).getValue(), UTF_8),
+              "value" + entry.getKey().seq);
+        }
+      }
+    }
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testSortSingleThread() throws Exception {
+    sortAndVerify(1);
+  }
+
+  @Test
+  public void testSortParallelParts() throws Exception {
+    sortAndVerify(4);
+  }
+
+  @Test
+  public void testIndexSkipsParts() throws Exception {
+    KeyExtent extent2 = new KeyExtent(TableId.of("table2"), null, null);
+    List<Pair<LogFileKey,LogFileValue>> entries = new ArrayList<>();
+    LogFileKey open = key(OPEN, 0, 0);
+    open.tserverSession = "session";
+    entries.add(new Pair<>(open, new LogFileValue()));
+    LogFileKey define1 = key(DEFINE_TABLET, 1, 0);
+    define1.tablet = extent;
+    entries.add(new Pair<>(define1, new LogFileValue()));
+    List<Long> expected1 = new ArrayList<>();
+    List<Long> expected2 = new ArrayList<>();
+    long seq = 1;
+    for (; seq <= 1000; seq++) {
+      entries.add(new Pair<>(key(MUTATION, 1, seq), value(seq)));
+      expected1.add(seq);
+    }
+    // the second tablet is only written to near the end of the log
+    LogFileKey define2 = key(DEFINE_TABLET, 2, seq);
+    define2.tablet = extent2;
+    entries.add(new Pair<>(define2, new LogFileValue()));
+    for (; seq <= 1100; seq++) {
+      entries.add(new Pair<>(key(MUTATION, 2, seq), value(seq)));
+      expected2.add(seq);
+    }
+
+    Path walPath = new Path(workDir.getAbsolutePath(), "wal");
+    Path destPath = new Path(workDir.getAbsolutePath(), "sorted");
+    writeLog(walPath, entries);
+    createSorter(2).new LogProcessor().sort(fs, "wal", walPath, destPath.toString());
+
+    SortedLogIndex index = SortedLogIndex.read(fs, destPath);
+    assertNotNull(index);
+    assertEquals(1, index.findMaxTabletId(extent, extent));
+    assertEquals(2, index.findMaxTabletId(extent2, extent2));
+    assertEquals(-1, index.findMaxTabletId(new KeyExtent(TableId.of("t3"), null, null),
+        new KeyExtent(TableId.of("t3"), null, null)));
+    index.validateFirstKey(destPath);
+
+    List<String> parts = new ArrayList<>();
+    for (FileStatus status : fs.listStatus(destPath)) {
+      if (status.getPath().getName().startsWith("part-")) {
+        parts.add(status.getPath().getName());
+      }
+    }
+    long overlapping = parts.stream().filter(part -> index.overlaps(part,
+        SortedLogRecovery.minKey(MUTATION, 2), SortedLogRecovery.maxKey(MUTATION, 2))).count();
+    assertTrue(parts.size() > 3);
+    assertTrue("expected the index to exclude parts", overlapping < parts.size());
+    assertEquals(0, parts.stream().filter(part -> index.overlaps(part,
+        SortedLogRecovery.minKey(MUTATION, 3), SortedLogRecovery.maxKey(MUTATION, 3))).count());
+
+    // recovery using the index sees the same mutations as the log
+    for (KeyExtent recoverExtent : List.of(extent, extent2)) {
+      List<Long> recovered = new ArrayList<>();
+      new SortedLogRecovery(context).recover(recoverExtent, List.of(destPath), Set.of(),
+          m -> recovered.add(((ServerMutation) m).getSystemTimestamp()));
+      assertEquals(recoverExtent == extent ? expected1 : expected2, recovered);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.memory;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.hadoop.io.Text;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PredictiveMemoryManagerTest {
+
+  private static final long ZERO = LargestFirstMemoryManager.ZERO_TIME;
+  private static final long ONE_GIG = 1024 * 1024 * 1024;
+  private static final long ONE_MEG = 1024 * 1024;
+  private static final long ONE_SECOND = 1000;
+
+  private ServerContext context;
+
+  @Before
+  public void mockServerInfo() {
+    context = createMock(ServerContext.class);
+    AccumuloConfiguration conf = createMock(AccumuloConfiguration.class);
+    expect(context.getConfiguration()).andReturn(conf).anyTimes();
+    expect(conf.getAsBytes(Property.TSERV_MAXMEM)).andReturn(ONE_GIG).anyTimes();
+    expect(conf.getCount(Property.TSERV_MINC_MAXCONCURRENT)).andReturn(4).anyTimes();
+    replay(context, conf);
+  }
+
+  @Test
+  public void testFlushesBeforeMemoryFills() {
+    PredictiveMemoryManagerUnderTest mgr = new PredictiveMemoryManagerUnderTest();
+    mgr.init(context);
+    LargestFirstMemoryManagerUnderTest largestFirst = new LargestFirstMemoryManagerUnderTest();
+    largestFirst.init(context);
+
+    // two tablets that each grow 25M a second
+    List<KeyExtent> tabletsToMinorCompact = List.of();
+    int step = 0;
+    while (tabletsToMinorCompact.isEmpty()) {
+      assertTrue("expected a flush before memory filled", step < 20);
+      long size = step * 25 * ONE_MEG;
+      long now = ZERO + step * ONE_SECOND;
+      mgr.currentTime = now;
+      largestFirst.currentTime = now;
+      List<TabletMemoryReport> tablets = tablets(t(k("x"), now, size, 0), t(k("y"), now, size, 0));
+      tabletsToMinorCompact = mgr.tabletsToMinorCompact(tablets);
+      // the largest first manager would not have flushed anything yet
+      assertEquals(0, largestFirst.tabletsToMinorCompact(tablets).size());
+      step++;
+    }
+    assertTrue(2 * (step - 1) * 25 * ONE_MEG < PredictiveMemoryManager.TARGET_THRESHOLD * ONE_GIG);
+    assertEquals(2, tabletsToMinorCompact.size());
+    assertTrue(tabletsToMinorCompact.containsAll(List.of(k("x"), k("y"))));
+  }
+
+  @Test
+  public void testSlowIngest() {
+    PredictiveMemoryManagerUnderTest mgr = new PredictiveMemoryManagerUnderTest();
+    mgr.init(context);
+    for (int step = 0; step < 30; step++) {
+      long now = ZERO + step * ONE_SECOND;
+      mgr.currentTime = now;
+      long size = step * ONE_MEG;
+      assertEquals(0, mgr
+          .tabletsToMinorCompact(tablets(t(k("x"), now, size, 0), t(k("y"), now, size, 0))).size());
+    }
+  }
+
+  @Test
+  public void testLearnsFlushRate() {
+    PredictiveMemoryManagerUnderTest mgr = new PredictiveMemoryManagerUnderTest();
+    mgr.init(context);
+    assertEquals(0, mgr.getFlushRate(), 0);
+    mgr.currentTime = ZERO;
+    mgr.tabletsToMinorCompact(tablets(t(k("x"), ZERO, 100 * ONE_MEG, 0)));
+    // the minor compaction starts
+    mgr.currentTime += ONE_SECOND;
+    mgr.tabletsToMinorCompact(tablets(t(k("x"), ZERO, 0, 100 * ONE_MEG)));
+    mgr.currentTime += ONE_SECOND;
+    mgr.tabletsToMinorCompact(tablets(t(k("x"), ZERO, 0, 100 * ONE_MEG)));
+    // and finishes after two seconds
+    mgr.currentTime += ONE_SECOND;
+    mgr.tabletsToMinorCompact(tablets(t(k("x"), ZERO, 0, 0)));
+    assertEquals(50 * ONE_MEG, mgr.getFlushRate(), 1);
+  }
+
+  private static class PredictiveMemoryManagerUnderTest extends PredictiveMemoryManager {
+
+    public long currentTime = ZERO;
+
+    @Override
+    protected long currentTimeMillis() {
+      return currentTime;
+    }
+
+    @Override
+    protected long getMinCIdleThreshold(KeyExtent extent) {
+      return 15 * 60 * 1000;
+    }
+
+    @Override
+    protected boolean tableExists(TableId tableId) {
+      return true;
+    }
+
+    @Override
+    protected boolean tableBeingDeleted(TableId tableId) {
+      return false;
+    }
+  }
+
+  private static class LargestFirstMemoryManagerUnderTest extends LargestFirstMemoryManager {
+
+    public long currentTime = ZERO;
+
+    @Override
+    protected long currentTimeMillis() {
+      return currentTime;
+    }
+
+    @Override
+    protected long getMinCIdleThreshold(KeyExtent extent) {
+      return 15 * 60 * 1000;
+    }
+
+    @Override
+    protected boolean tableExists(TableId tableId) {
+      return true;
+    }
+
+    @Override
+    protected boolean tableBeingDeleted(TableId tableId) {
+      return false;
+    }
+  }
+
+  private static KeyExtent k(String endRow) {
+    return new KeyExtent(TableId.of("1"), new Text(endRow), null);
+  }
+
+  private TabletMemoryReport t(KeyExtent ke, long lastCommit, long memSize, long compactingSize) {
+    return new TabletMemoryReport(null, lastCommit, memSize, compactingSize) {
+      @Override
+      public KeyExtent getExtent() {
+        return ke;
+      }
+    };
+  }
+
+  private static List<TabletMemoryReport> tablets(TabletMemoryReport... states) {
+    return Arrays.asList(states);
+  }
+
+}
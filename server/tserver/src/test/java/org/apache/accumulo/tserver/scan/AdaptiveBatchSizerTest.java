@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveBatchSizerTest {
+
+  private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long MAX_BYTES = 4 << 20;
+
+  @Test
+  public void testFastClientGrows() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1000, 512 << 10, MAX_BYTES, TARGET);
+    // 1000 small entries per batch, mostly waiting on round trips
+    sizer.update(1000, 50_000, TimeUnit.MILLISECONDS.toNanos(1), 50_000, -1);
+    long previous = sizer.getMaxBytes();
+    for (int i = 0; i < 10; i++) {
+      int entries = sizer.getMaxEntries();
+      sizer.update(entries, entries * 50L, TimeUnit.MILLISECONDS.toNanos(1), entries * 50L,
+          TimeUnit.MILLISECONDS.toNanos(5));
+      assertTrue(sizer.getMaxBytes() <= 2 * previous);
+      previous = sizer.getMaxBytes();
+    }
+    assertEquals(MAX_BYTES, sizer.getMaxBytes());
+    assertTrue(sizer.getMaxEntries() > 1000);
+  }
+
+  @Test
+  public void testSlowClientShrinks() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1000, 512 << 10, MAX_BYTES, TARGET);
+    // a few large values, consumed at about 256KB/s
+    sizer.update(8, 512 << 10, TimeUnit.MILLISECONDS.toNanos(5), 512 << 10, -1);
+    for (int i = 0; i < 10; i++) {
+      long bytes = sizer.getMaxBytes();
+      sizer.update((int) Math.max(1, bytes >> 16), bytes, TimeUnit.MILLISECONDS.toNanos(5), bytes,
+          TimeUnit.SECONDS.toNanos(bytes) / (256 << 10));
+    }
+    // about 100ms worth of data at the consume rate, but never below the minimum
+    assertTrue(sizer.getMaxBytes() < 64 << 10);
+    assertTrue(sizer.getMaxBytes() >= AdaptiveBatchSizer.MIN_BYTES);
+    assertTrue(sizer.getMaxEntries() >= 1);
+  }
+
+  @Test
+  public void testSlowFillShrinks() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1000, 512 << 10, MAX_BYTES, TARGET);
+    // the tablet server takes a second to read each batch, a fast client does not make it grow
+    for (int i = 0; i < 10; i++) {
+      sizer.update(1000, 512 << 10, TimeUnit.SECONDS.toNanos(1), 512 << 10,
+          TimeUnit.MILLISECONDS.toNanos(1));
+    }
+    assertTrue(sizer.getMaxBytes() < 512 << 10);
+  }
+
+  @Test
+  public void testStreamedBatchesCountTowardsConsumeRate() {
+    AdaptiveBatchSizer single = new AdaptiveBatchSizer(1000, 64 << 10, MAX_BYTES, TARGET);
+    AdaptiveBatchSizer streamed = new AdaptiveBatchSizer(1000, 64 << 10, MAX_BYTES, TARGET);
+    // the same batches and the same time between requests, but a streaming scan returned four
+    // batches per response, so its client consumed four times as fast
+    for (int i = 0; i < 10; i++) {
+      single.update(100, 64 << 10, TimeUnit.MILLISECONDS.toNanos(1), 64 << 10,
+          TimeUnit.MILLISECONDS.toNanos(500));
+      streamed.update(100, 64 << 10, TimeUnit.MILLISECONDS.toNanos(1), 256 << 10,
+          TimeUnit.MILLISECONDS.toNanos(500));
+    }
+    assertTrue(streamed.getMaxBytes() > single.getMaxBytes());
+  }
+
+  @Test
+  public void testEmptyBatches() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(0, 0, 0, TARGET);
+    assertEquals(1, sizer.getMaxEntries());
+    assertEquals(AdaptiveBatchSizer.MIN_BYTES, sizer.getMaxBytes());
+    sizer.update(0, 0, 1, 0, 1);
+    assertEquals(1, sizer.getMaxEntries());
+    assertEquals(AdaptiveBatchSizer.MIN_BYTES, sizer.getMaxBytes());
+  }
+}
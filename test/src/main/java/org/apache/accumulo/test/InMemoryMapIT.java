@@ -217,6 +217,8 @@ public class InMemoryMapIT {
     InMemoryMap nativeMapWrapper = null;
     InMemoryMap localityGroupMap = null;
     InMemoryMap localityGroupMapWithNative = null;
+    InMemoryMap offHeapMapWrapper = null;
+    InMemoryMap localityGroupMapWithOffHeap = null;
 
     try {
       Map<String,String> defaultMapConfig = new HashMap<>();
@@ -237,6 +239,17 @@ public class InMemoryMapIT {
       localityGroupNativeConfig.put(Property.TSERV_NATIVEMAP_ENABLED.getKey(), "true");
       localityGroupNativeConfig.put(Property.TSERV_MEMDUMP_DIR.getKey(),
           tempFolder.newFolder().getAbsolutePath());
+      Map<String,String> offHeapMapConfig = new HashMap<>();
+      offHeapMapConfig.put(Property.TSERV_NATIVEMAP_ENABLED.getKey(), "false");
+      offHeapMapConfig.put(Property.TSERV_OFFHEAP_MAP_ENABLED.getKey(), "true");
+      offHeapMapConfig.put(Property.TSERV_MEMDUMP_DIR.getKey(),
+          tempFolder.newFolder().getAbsolutePath());
+      offHeapMapConfig.put(Property.TABLE_LOCALITY_GROUPS.getKey(), "");
+      Map<String,String> localityGroupOffHeapConfig = new HashMap<>();
+      localityGroupOffHeapConfig.put(Property.TSERV_NATIVEMAP_ENABLED.getKey(), "false");
+      localityGroupOffHeapConfig.put(Property.TSERV_OFFHEAP_MAP_ENABLED.getKey(), "true");
+      localityGroupOffHeapConfig.put(Property.TSERV_MEMDUMP_DIR.getKey(),
+          tempFolder.newFolder().getAbsolutePath());
 
       TableId testId = TableId.of("TEST");
 
@@ -250,6 +263,11 @@ public class InMemoryMapIT {
       localityGroupMapWithNative = new InMemoryMap(
           updateConfigurationForLocalityGroups(new ConfigurationCopy(localityGroupNativeConfig)),
           getServerContext(), testId);
+      offHeapMapWrapper =
+          new InMemoryMap(new ConfigurationCopy(offHeapMapConfig), getServerContext(), testId);
+      localityGroupMapWithOffHeap = new InMemoryMap(
+          updateConfigurationForLocalityGroups(new ConfigurationCopy(localityGroupOffHeapConfig)),
+          getServerContext(), testId);
     } catch (Exception e) {
       log.error("Error getting new InMemoryMap ", e);
       fail(e.getMessage());
@@ -263,6 +281,10 @@ public class InMemoryMapIT {
         localityGroupMap.getMapType());
     assertEquals("Not a LocalityGroupMap with native", InMemoryMap.TYPE_LOCALITY_GROUP_MAP_NATIVE,
         localityGroupMapWithNative.getMapType());
+    assertEquals("Not an OffHeapMapWrapper", InMemoryMap.TYPE_OFF_HEAP_MAP_WRAPPER,
+        offHeapMapWrapper.getMapType());
+    assertEquals("Not a LocalityGroupMap with off heap",
+        InMemoryMap.TYPE_LOCALITY_GROUP_MAP_OFF_HEAP, localityGroupMapWithOffHeap.getMapType());
 
     int count = 0;
     for (Mutation m : mutations) {
@@ -272,11 +294,15 @@ public class InMemoryMapIT {
     nativeMapWrapper.mutate(mutations, count);
     localityGroupMap.mutate(mutations, count);
     localityGroupMapWithNative.mutate(mutations, count);
+    offHeapMapWrapper.mutate(mutations, count);
+    localityGroupMapWithOffHeap.mutate(mutations, count);
 
-    // let's use the transitive property to assert all four are equivalent
+    // let's use the transitive property to assert all six are equivalent
     assertMutatesEquivalent(mutations, defaultMap, nativeMapWrapper);
     assertMutatesEquivalent(mutations, defaultMap, localityGroupMap);
     assertMutatesEquivalent(mutations, defaultMap, localityGroupMapWithNative);
+    assertMutatesEquivalent(mutations, defaultMap, offHeapMapWrapper);
+    assertMutatesEquivalent(mutations, defaultMap, localityGroupMapWithOffHeap);
   }
 
   /**
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.Accumulo;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.NewTableConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.minicluster.ServerType;
+import org.apache.accumulo.miniclusterImpl.MiniAccumuloConfigImpl;
+import org.apache.accumulo.server.log.WalStateManager;
+import org.apache.accumulo.server.log.WalStateManager.WalState;
+import org.apache.accumulo.test.functional.ConfigurableMacBase;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+/**
+ * Writes to a tablet server that spreads its tablets over several WAL streams, kills it, and checks
+ * that recovery replays every mutation of every tablet in the order it was written.
+ */
+public class MultiStreamWALRecoveryIT extends ConfigurableMacBase {
+
+  private static final int STREAMS = 3;
+  private static final int ROWS = 1000;
+  private static final int ROUNDS = 10;
+
+  @Override
+  protected void configure(MiniAccumuloConfigImpl cfg, Configuration hadoopCoreSite) {
+    cfg.setNumTservers(1);
+    cfg.setProperty(Property.INSTANCE_ZK_TIMEOUT, "15s");
+    cfg.setProperty(Property.TSERV_WAL_STREAMS, Integer.toString(STREAMS));
+    // use raw local file system so walogs sync and flush will work
+    hadoopCoreSite.set("fs.file.impl", RawLocalFileSystem.class.getName());
+  }
+
+  @Override
+  protected int defaultTimeoutSeconds() {
+    return 4 * 60;
+  }
+
+  private static String row(int i) {
+    return String.format("%04d", i);
+  }
+
+  @Test
+  public void testRecoveryFromSeveralStreams() throws Exception {
+    try (AccumuloClient c = Accumulo.newClient().from(getClientProperties()).build()) {
+      String tableName = getUniqueNames(1)[0];
+      SortedSet<Text> splits = new TreeSet<>();
+      for (int i = ROWS / 16; i < ROWS; i += ROWS / 16) {
+        splits.add(new Text(row(i)));
+      }
+      c.tableOperations().create(tableName, new NewTableConfiguration().withSplits(splits));
+
+      // make sure the tablets of the table really are spread over more than one stream
+      TableId tableId = TableId.of(c.tableOperations().tableIdMap().get(tableName));
+      Set<Integer> streams = new HashSet<>();
+      Text prev = null;
+      for (Text split : splits) {
+        streams.add(Math.floorMod(new KeyExtent(tableId, split, prev).hashCode(), STREAMS));
+        prev = split;
+      }
+      streams.add(Math.floorMod(new KeyExtent(tableId, null, prev).hashCode(), STREAMS));
+      assertTrue("tablets should map to several streams " + streams, streams.size() > 1);
+
+      // Every round overwrites the same cell of every row. Recovery only ends up with the last
+      // round's value if it replays each tablet's mutations in order. Every round also writes a
+      // cell of its own, so a lost mutation shows up in the counts.
+      try (BatchWriter bw = c.createBatchWriter(tableName)) {
+        for (int round = 0; round < ROUNDS; round++) {
+          for (int i = 0; i < ROWS; i++) {
+            Mutation m = new Mutation(row(i));
+            m.put("cf", "last", Integer.toString(round));
+            m.put("cf", "round" + round, "");
+            bw.addMutation(m);
+          }
+          bw.flush();
+        }
+      }
+
+      int openWals = 0;
+      for (Entry<Path,WalState> entry : new WalStateManager(getServerContext()).getAllState()
+          .entrySet()) {
+        if (entry.getValue() == WalState.OPEN) {
+          openWals++;
+        }
+      }
+      assertTrue("expected a WAL per stream in use, saw " + openWals, openWals >= streams.size());
+
+      getCluster().getClusterControl().stop(ServerType.TABLET_SERVER);
+      getCluster().start();
+
+      int[] cells = new int[ROWS];
+      try (Scanner scanner = c.createScanner(tableName, Authorizations.EMPTY)) {
+        for (Entry<Key,Value> entry : scanner) {
+          int i = Integer.parseInt(entry.getKey().getRow().toString());
+          if (entry.getKey().getColumnQualifier().toString().equals("last")) {
+            assertEquals("row " + i, Integer.toString(ROUNDS - 1), entry.getValue().toString());
+          }
+          cells[i]++;
+        }
+      }
+      for (int i = 0; i < ROWS; i++) {
+        assertEquals("row " + i, ROUNDS + 1, cells[i]);
+      }
+    }
+  }
+}
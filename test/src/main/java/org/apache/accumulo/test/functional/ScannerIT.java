@@ -18,6 +18,7 @@
  */
 package org.apache.accumulo.test.functional;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Iterator;
@@ -26,8 +27,10 @@ import java.util.Map.Entry;
 import org.apache.accumulo.core.client.Accumulo;
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.IsolatedScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.ActiveScan;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
@@ -113,4 +116,104 @@ public class ScannerIT extends AccumuloClusterHarness {
       }
     }
   }
+
+  @Test
+  public void testStreamingScan() throws Exception {
+    final String table = getUniqueNames(1)[0];
+    try (AccumuloClient c = Accumulo.newClient().from(getClientProps()).build()) {
+      c.tableOperations().create(table);
+
+      try (BatchWriter bw = c.createBatchWriter(table)) {
+        for (int i = 0; i < 1000; i++) {
+          Mutation m = new Mutation(String.format("r%04d", i));
+          m.put("cf", "cq", Integer.toString(i));
+          bw.addMutation(m);
+        }
+      }
+
+      // streaming only starts once the iterator is used
+      try (Scanner s = c.createScanner(table, Authorizations.EMPTY)) {
+        s.setBatchSize(7);
+        s.setStreamingWindow(1);
+        Iterator<Entry<Key,Value>> iter = s.iterator();
+        UtilWaitThread.sleep(1000);
+        assertEquals(0, countScans(c, table));
+        assertTrue(iter.hasNext());
+        assertTrue(countScans(c, table) > 0);
+      }
+
+      for (int window : new int[] {1, 4, 64}) {
+        try (Scanner s = c.createScanner(table, Authorizations.EMPTY)) {
+          s.setBatchSize(7);
+          s.setStreamingWindow(window);
+          int expected = 0;
+          for (Entry<Key,Value> entry : s) {
+            assertEquals(String.format("r%04d", expected), entry.getKey().getRow().toString());
+            assertEquals(Integer.toString(expected), entry.getValue().toString());
+            expected++;
+          }
+          assertEquals(1000, expected);
+
+          // streaming a sub range, then abandoning the iterator part way through
+          s.setRange(new Range("r0500", "r0599"));
+          Iterator<Entry<Key,Value>> iter = s.iterator();
+          for (int i = 500; i < 550; i++) {
+            assertEquals(String.format("r%04d", i), iter.next().getKey().getRow().toString());
+          }
+
+          try (Scanner isolated = new IsolatedScanner(s)) {
+            isolated.setRange(new Range());
+            int count = 0;
+            for (Entry<Key,Value> entry : isolated) {
+              assertEquals(String.format("r%04d", count++), entry.getKey().getRow().toString());
+            }
+            assertEquals(1000, count);
+          }
+        }
+      }
+    }
+  }
+
+  private static int countScans(AccumuloClient c, String table) throws Exception {
+    int scans = 0;
+    for (String tserver : c.instanceOperations().getTabletServers()) {
+      for (ActiveScan scan : c.instanceOperations().getActiveScans(tserver)) {
+        if (scan.getTable().equals(table)) {
+          scans++;
+        }
+      }
+    }
+    return scans;
+  }
+
+  @Test
+  public void testAdaptiveBatchSize() throws Exception {
+    final String table = getUniqueNames(1)[0];
+    try (AccumuloClient c = Accumulo.newClient().from(getClientProps()).build()) {
+      c.tableOperations().create(table);
+
+      try (BatchWriter bw = c.createBatchWriter(table)) {
+        for (int i = 0; i < 5000; i++) {
+          Mutation m = new Mutation(String.format("r%05d", i));
+          m.put("cf", "cq", new Value(new byte[i % 2 == 0 ? 10 : 1000]));
+          bw.addMutation(m);
+        }
+      }
+
+      for (int window : new int[] {0, 4}) {
+        try (Scanner s = c.createScanner(table, Authorizations.EMPTY)) {
+          s.setBatchSize(10);
+          s.setAdaptiveBatchSize(true);
+          s.setStreamingWindow(window);
+          int expected = 0;
+          for (Entry<Key,Value> entry : s) {
+            assertEquals(String.format("r%05d", expected), entry.getKey().getRow().toString());
+            assertEquals(expected % 2 == 0 ? 10 : 1000, entry.getValue().getSize());
+            expected++;
+          }
+          assertEquals(5000, expected);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.apache.accumulo.core.bloomfilter.BlockedBloomFilter;
+import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
+import org.apache.accumulo.core.bloomfilter.Filter;
+import org.apache.accumulo.core.cli.Help;
+import org.apache.accumulo.core.file.BloomFilterLayer;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Compares the false positive rate and the cost of a membership test of the standard and blocked
+ * bloom filter formats, sized the way {@link BloomFilterLayer} sizes them for an RFile. Use enough
+ * keys that the filters do not fit in the processor caches to see the effect of blocking.
+ */
+public class BloomFilterBenchmark {
+
+  static class Opts extends Help {
+    @Parameter(names = "--keys", description = "keys added to each filter")
+    int keys = 10_000_000;
+    @Parameter(names = "--errorRate", description = "error rate the filters are sized for")
+    double errorRate = 0.005;
+    @Parameter(names = "--lookups", description = "membership tests in each run")
+    int lookups = 5_000_000;
+    @Parameter(names = "--runs", description = "runs of each filter, the first is warm up")
+    int runs = 4;
+  }
+
+  private static Key key(long i) {
+    return new Key(String.format("row_%012d", i).getBytes(UTF_8));
+  }
+
+  public static void main(String[] args) {
+    Opts opts = new Opts();
+    opts.parseArgs(BloomFilterBenchmark.class.getName(), args);
+
+    int hashCount = BloomFilterLayer.HASH_COUNT;
+    int vectorSize = (int) Math
+        .ceil(-hashCount * opts.keys / Math.log(1.0 - Math.pow(opts.errorRate, 1.0 / hashCount)));
+
+    // present keys are even, absent keys odd
+    Key[] present = new Key[opts.lookups];
+    Key[] absent = new Key[opts.lookups];
+    for (int i = 0; i < opts.lookups; i++) {
+      long k = (long) i * opts.keys / opts.lookups;
+      present[i] = key(k * 2);
+      absent[i] = key(k * 2 + 1);
+    }
+
+    Filter[] filters = {new DynamicBloomFilter(vectorSize, hashCount, Hash.MURMUR_HASH, opts.keys),
+        new BlockedBloomFilter(vectorSize, hashCount, Hash.MURMUR_HASH, opts.keys)};
+    for (Filter filter : filters) {
+      for (long i = 0; i < opts.keys; i++) {
+        filter.add(key(i * 2));
+      }
+
+      String name = filter instanceof BlockedBloomFilter ? "blocked" : "standard";
+      long bestPresent = Long.MAX_VALUE;
+      long bestAbsent = Long.MAX_VALUE;
+      int falsePositives = 0;
+      for (int run = 0; run < opts.runs; run++) {
+        long start = System.nanoTime();
+        for (Key key : present) {
+          if (!filter.membershipTest(key)) {
+            throw new IllegalStateException("false negative " + key);
+          }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (run > 0 || opts.runs == 1) {
+          bestPresent = Math.min(bestPresent, elapsed);
+        }
+
+        falsePositives = 0;
+        start = System.nanoTime();
+        for (Key key : absent) {
+          if (filter.membershipTest(key)) {
+            falsePositives++;
+          }
+        }
+        elapsed = System.nanoTime() - start;
+        if (run > 0 || opts.runs == 1) {
+          bestAbsent = Math.min(bestAbsent, elapsed);
+        }
+      }
+
+      System.out.printf(
+          "%-8s : %,d bits, false positive rate %.4f%%, %.1f ns/present key, %.1f ns/absent key%n",
+          name, vectorSize, 100.0 * falsePositives / opts.lookups,
+          (double) bestPresent / opts.lookups, (double) bestAbsent / opts.lookups);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.accumulo.core.cli.Help;
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.thrift.TMutation;
+import org.apache.accumulo.server.data.ServerMutation;
+import org.apache.accumulo.test.InMemoryMapIT;
+import org.apache.accumulo.tserver.InMemoryMap;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Measures the heap allocated for each entry written to an {@link InMemoryMap}, starting from the
+ * thrift mutations a tablet server receives. Mutations are decoded as plain mutations, whose column
+ * updates must be created to be inserted, and as server mutations, which memory maps that copy
+ * entries can read in place.
+ */
+public class InMemoryMapAllocation {
+
+  static class Opts extends Help {
+    @Parameter(names = "--mutations", description = "mutations written in each run")
+    int mutations = 100_000;
+    @Parameter(names = "--columns", description = "columns in each mutation")
+    int columns = 10;
+    @Parameter(names = "--valueSize", description = "size of each value")
+    int valueSize = 50;
+    @Parameter(names = "--batchSize", description = "mutations in each batch")
+    int batchSize = 100;
+    @Parameter(names = "--runs", description = "runs of each configuration, the first is warm up")
+    int runs = 5;
+  }
+
+  private static List<List<TMutation>> createBatches(Opts opts) {
+    Random random = new Random(42);
+    byte[] value = new byte[opts.valueSize];
+    List<List<TMutation>> batches = new ArrayList<>();
+    List<TMutation> batch = new ArrayList<>();
+    for (int i = 0; i < opts.mutations; i++) {
+      Mutation m = new Mutation(String.format("row_%010d", random.nextInt(1_000_000_000)));
+      for (int c = 0; c < opts.columns; c++) {
+        random.nextBytes(value);
+        m.put("cf" + c % 3, "cq" + c, new Value(value));
+      }
+      batch.add(m.toThrift());
+      if (batch.size() == opts.batchSize) {
+        batches.add(batch);
+        batch = new ArrayList<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private static void run(String mapType, String decode, ConfigurationCopy config,
+      Function<TMutation,Mutation> decoder, List<List<TMutation>> batches, Opts opts) {
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    for (int run = 0; run < opts.runs; run++) {
+      InMemoryMap map =
+          new InMemoryMap(config, InMemoryMapIT.getServerContext(), TableId.of("bench"));
+      long entries = 0;
+      long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+      long startTime = System.nanoTime();
+      for (List<TMutation> batch : batches) {
+        // decode each batch the same way the tablet server does when updates arrive
+        List<Mutation> mutations = new ArrayList<>(batch.size());
+        int count = 0;
+        for (TMutation tmutation : batch) {
+          Mutation m = decoder.apply(tmutation);
+          mutations.add(m);
+          count += m.size();
+        }
+        map.mutate(mutations, count);
+        entries += count;
+      }
+      long nanos = System.nanoTime() - startTime;
+      long bytes = threadBean.getThreadAllocatedBytes(threadId) - startBytes;
+      map.delete(0);
+
+      if (run > 0) {
+        System.out.printf("%-8s %-14s run %d : %,8.1f bytes/entry %,12.0f entries/sec%n", mapType,
+            decode, run, bytes / (double) entries, entries / (nanos / 1e9));
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    Opts opts = new Opts();
+    opts.parseArgs(InMemoryMapAllocation.class.getName(), args);
+
+    List<List<TMutation>> batches = createBatches(opts);
+
+    for (boolean offHeap : new boolean[] {false, true}) {
+      ConfigurationCopy config = new ConfigurationCopy(DefaultConfiguration.getInstance());
+      config.set(Property.TSERV_NATIVEMAP_ENABLED, "false");
+      config.set(Property.TSERV_OFFHEAP_MAP_ENABLED, Boolean.toString(offHeap));
+      String mapType = offHeap ? "off heap" : "default";
+
+      run(mapType, "column updates", config, Mutation::new, batches, opts);
+      run(mapType, "in place", config, ServerMutation::new, batches, opts);
+    }
+  }
+}
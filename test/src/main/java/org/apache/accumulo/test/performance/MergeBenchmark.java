@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test.performance;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.cli.Help;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Compares merging sorted sources with a {@link MultiIterator} using a priority queue and using a
+ * loser tree. The compaction mode reads every source from start to end. The scan mode does many
+ * short seeks, which also measures the cost of setting up the merge for each seek. Keys are dealt
+ * to the sources in runs, a run length of one makes every entry come from a different source than
+ * the last.
+ */
+public class MergeBenchmark {
+
+  static class Opts extends Help {
+    @Parameter(names = "--sources", description = "comma separated numbers of sources to merge")
+    List<Integer> sources = new ArrayList<>(List.of(2, 4, 8, 16, 32, 64));
+    @Parameter(names = "--entries", description = "entries across all sources")
+    int entries = 1_000_000;
+    @Parameter(names = "--runLength", description = "consecutive keys placed in the same source")
+    int runLength = 1;
+    @Parameter(names = "--mode", description = "scan, compaction or both")
+    String mode = "both";
+    @Parameter(names = "--scanEntries", description = "entries read after each seek in scan mode")
+    int scanEntries = 100;
+    @Parameter(names = "--runs", description = "runs of each configuration, the first is warm up")
+    int runs = 5;
+  }
+
+  private static List<TreeMap<Key,Value>> createSources(int numSources, Opts opts) {
+    List<TreeMap<Key,Value>> maps = new ArrayList<>();
+    for (int i = 0; i < numSources; i++) {
+      maps.add(new TreeMap<>());
+    }
+    Random rand = new Random(numSources);
+    Value value = new Value(new byte[20]);
+    for (int i = 0; i < opts.entries; i++) {
+      int source = (i / opts.runLength) % numSources;
+      if (opts.runLength == 1) {
+        // avoid a fixed rotation through the sources
+        source = rand.nextInt(numSources);
+      }
+      maps.get(source).put(new Key(String.format("r%09d", i), "cf", "cq"), value);
+    }
+    return maps;
+  }
+
+  private static MultiIterator createIterator(List<TreeMap<Key,Value>> maps, boolean loserTree) {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    maps.forEach(map -> iters.add(new SortedMapIterator(map)));
+    MultiIterator iter = new MultiIterator(iters, (Range) null);
+    iter.setLoserTreeMerge(loserTree);
+    return iter;
+  }
+
+  private static long compaction(List<TreeMap<Key,Value>> maps, boolean loserTree)
+      throws IOException {
+    MultiIterator iter = createIterator(maps, loserTree);
+    iter.seek(new Range(), Set.of(), false);
+    long count = 0;
+    while (iter.hasTop()) {
+      count++;
+      iter.next();
+    }
+    return count;
+  }
+
+  private static long scan(List<TreeMap<Key,Value>> maps, boolean loserTree, Opts opts)
+      throws IOException {
+    MultiIterator iter = createIterator(maps, loserTree);
+    Random rand = new Random(7);
+    long count = 0;
+    int seeks = opts.entries / opts.scanEntries;
+    for (int i = 0; i < seeks; i++) {
+      iter.seek(new Range(String.format("r%09d", rand.nextInt(opts.entries)), null), Set.of(),
+          false);
+      for (int j = 0; j < opts.scanEntries && iter.hasTop(); j++) {
+        count++;
+        iter.next();
+      }
+    }
+    return count;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Opts opts = new Opts();
+    opts.parseArgs(MergeBenchmark.class.getName(), args);
+
+    List<String> modes =
+        opts.mode.equals("both") ? List.of("compaction", "scan") : List.of(opts.mode);
+
+    for (int numSources : opts.sources) {
+      List<TreeMap<Key,Value>> maps = createSources(numSources, opts);
+      for (String mode : modes) {
+        for (boolean loserTree : new boolean[] {false, true}) {
+          long best = Long.MAX_VALUE;
+          long count = 0;
+          for (int run = 0; run < opts.runs; run++) {
+            long start = System.nanoTime();
+            count = mode.equals("scan") ? scan(maps, loserTree, opts) : compaction(maps, loserTree);
+            long elapsed = System.nanoTime() - start;
+            if (run > 0 || opts.runs == 1) {
+              best = Math.min(best, elapsed);
+            }
+          }
+          System.out.printf("%-10s sources %2d %-14s : %6.1f ns/entry%n", mode, numSources,
+              loserTree ? "loser tree" : "priority queue", (double) best / count);
+        }
+      }
+    }
+  }
+}
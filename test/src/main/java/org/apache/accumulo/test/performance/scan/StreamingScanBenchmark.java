@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test.performance.scan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.cli.ClientOpts;
+import org.apache.accumulo.core.client.Accumulo;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Compares the throughput of long sequential scans with different streaming windows. The round trip
+ * time to the tablet servers is measured and reported with the results. To compare different round
+ * trip times, run this against a cluster with latency added to the network, for example with
+ * {@code tc qdisc add dev eth0 root netem delay 20ms}.
+ */
+public class StreamingScanBenchmark {
+
+  static class Opts extends ClientOpts {
+    @Parameter(names = {"-t", "--table"}, required = true, description = "table to scan")
+    String table;
+    @Parameter(names = "--windows",
+        description = "comma separated streaming windows to compare, 0 does not stream")
+    List<Integer> windows = new ArrayList<>(List.of(0, 4, 16));
+    @Parameter(names = "--batchSize", description = "scanner batch size")
+    int batchSize = 1000;
+    @Parameter(names = "--iterations", description = "number of scans for each window")
+    int iterations = 3;
+    @Parameter(names = "--adaptive", description = "use adaptive batch sizes")
+    boolean adaptive = false;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Opts opts = new Opts();
+    opts.parseArgs(StreamingScanBenchmark.class.getName(), args);
+
+    try (AccumuloClient client = Accumulo.newClient().from(opts.getClientProps()).build()) {
+      System.out.printf("round trip time %.2f ms%n", measureRoundTripMillis(client));
+      for (int window : opts.windows) {
+        for (int i = 0; i < opts.iterations; i++) {
+          long bytes = 0;
+          long entries = 0;
+          long start = System.nanoTime();
+          try (Scanner scanner = client.createScanner(opts.table, opts.auths)) {
+            scanner.setBatchSize(opts.batchSize);
+            scanner.setStreamingWindow(window);
+            scanner.setAdaptiveBatchSize(opts.adaptive);
+            for (Entry<Key,Value> entry : scanner) {
+              bytes += entry.getKey().getSize() + entry.getValue().getSize();
+              entries++;
+            }
+          }
+          double secs = (System.nanoTime() - start) / 1e9;
+          System.out.printf("window %3d : %,d entries %,d bytes in %.2f secs, %.2f MB/s%n", window,
+              entries, bytes, secs, bytes / secs / (1 << 20));
+        }
+      }
+    }
+  }
+
+  private static double measureRoundTripMillis(AccumuloClient client) throws Exception {
+    final int pings = 10;
+    long nanos = 0;
+    int count = 0;
+    for (String tserver : client.instanceOperations().getTabletServers()) {
+      // the first ping opens the connection
+      client.instanceOperations().ping(tserver);
+      for (int i = 0; i < pings; i++) {
+        long start = System.nanoTime();
+        client.instanceOperations().ping(tserver);
+        nanos += System.nanoTime() - start;
+        count++;
+      }
+    }
+    return count == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(nanos) / count / 1000;
+  }
+}